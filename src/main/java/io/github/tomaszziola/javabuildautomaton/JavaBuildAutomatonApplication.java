@@ -3,9 +3,11 @@ package io.github.tomaszziola.javabuildautomaton;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ConfigurationPropertiesScan
+@EnableScheduling
 public class JavaBuildAutomatonApplication {
 
   public static void main(final String[] args) {
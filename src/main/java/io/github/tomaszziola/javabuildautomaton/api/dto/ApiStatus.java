@@ -3,5 +3,6 @@ package io.github.tomaszziola.javabuildautomaton.api.dto;
 public enum ApiStatus {
   FOUND,
   NOT_FOUND,
-  SKIPPED
+  SKIPPED,
+  COALESCED
 }
@@ -4,4 +4,17 @@ import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus;
 import java.time.Instant;
 
 public record BuildDetailsDto(
-    Long id, BuildStatus status, Instant startTime, Instant endTime, String logs) {}
+    Long id,
+    BuildStatus status,
+    Instant startTime,
+    Instant endTime,
+    String logs,
+    long logLength,
+    boolean isLogTruncated,
+    Long cachedFromId,
+    Long durationMs,
+    Long cpuTimeMs,
+    Long memoryPeakBytes,
+    Integer pidsPeak,
+    Long readBytes,
+    Long writeBytes) {}
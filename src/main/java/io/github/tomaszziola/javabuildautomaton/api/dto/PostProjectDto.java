@@ -1,10 +1,17 @@
 package io.github.tomaszziola.javabuildautomaton.api.dto;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode.FULL_CLEAN;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.AllowedBuildCommand;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool;
 import io.github.tomaszziola.javabuildautomaton.project.ProjectJavaVersion;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 @Data
@@ -19,6 +26,33 @@ public class PostProjectDto {
   @NotNull(message = "Build tool is required")
   private BuildTool buildTool;
 
+  @NotNull(message = "Build mode is required")
+  private BuildMode buildMode = FULL_CLEAN;
+
+  @AllowedBuildCommand
+  @Size(max = 512, message = "Build command must be at most 512 characters")
+  private String buildCommand;
+
+  @AllowedBuildCommand
+  @Size(max = 512, message = "Pull request build command must be at most 512 characters")
+  private String pullRequestBuildCommand;
+
+  @Min(value = 1, message = "Build timeout must be at least 1 minute")
+  @Max(value = 1440, message = "Build timeout must be at most 1440 minutes")
+  private Integer buildTimeoutMinutes;
+
+  @Min(value = 100, message = "CPU limit must be at least 100 millicores")
+  @Max(value = 256_000, message = "CPU limit must be at most 256000 millicores")
+  private Integer cpuLimitMillicores;
+
+  @Min(value = 256, message = "Memory limit must be at least 256 MB")
+  @Max(value = 1_048_576, message = "Memory limit must be at most 1048576 MB")
+  private Integer memoryLimitMb;
+
+  @Min(value = 16, message = "Process limit must be at least 16")
+  @Max(value = 1_000_000, message = "Process limit must be at most 1000000")
+  private Integer pidsLimit;
+
   @NotNull(message = "Java version is required")
   private ProjectJavaVersion javaVersion;
 
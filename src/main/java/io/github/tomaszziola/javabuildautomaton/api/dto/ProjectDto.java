@@ -1,5 +1,6 @@
 package io.github.tomaszziola.javabuildautomaton.api.dto;
 
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool;
 import io.github.tomaszziola.javabuildautomaton.project.ProjectJavaVersion;
 import java.time.Instant;
@@ -13,4 +14,11 @@ public record ProjectDto(
     String repositoryFullName,
     String repositoryUrl,
     BuildTool buildTool,
+    BuildMode buildMode,
+    String buildCommand,
+    String pullRequestBuildCommand,
+    Integer buildTimeoutMinutes,
+    Integer cpuLimitMillicores,
+    Integer memoryLimitMb,
+    Integer pidsLimit,
     ProjectJavaVersion javaVersion) {}
@@ -0,0 +1,11 @@
+package io.github.tomaszziola.javabuildautomaton.api.dto;
+
+public record ProjectResourceUsageDto(
+    Long projectId,
+    String repositoryName,
+    Long builds,
+    Long totalDurationMs,
+    Long totalCpuTimeMs,
+    Long maxMemoryPeakBytes,
+    Long totalReadBytes,
+    Long totalWriteBytes) {}
@@ -1,14 +1,18 @@
 package io.github.tomaszziola.javabuildautomaton.api.exception;
 
 import static java.time.Instant.now;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 
 import io.github.tomaszziola.javabuildautomaton.api.dto.ErrorResponse;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildNotFoundException;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildQueueFullException;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.WorkspaceException;
 import io.github.tomaszziola.javabuildautomaton.project.exception.ProjectNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -35,11 +39,28 @@ public class GlobalExceptionHandler {
     return buildErrorResponse(BAD_REQUEST, "Workspace not prepared", exception, request);
   }
 
+  @ExceptionHandler(BuildQueueFullException.class)
+  public ResponseEntity<ErrorResponse> handleBuildQueueFull(
+      BuildQueueFullException exception, HttpServletRequest request) {
+    var headers = new HttpHeaders();
+    headers.set(RETRY_AFTER, String.valueOf(exception.getRetryAfter().toSeconds()));
+    return buildErrorResponse(TOO_MANY_REQUESTS, "Too Many Requests", exception, request, headers);
+  }
+
   private ResponseEntity<ErrorResponse> buildErrorResponse(
       HttpStatus status, String error, Exception exception, HttpServletRequest request) {
+    return buildErrorResponse(status, error, exception, request, new HttpHeaders());
+  }
+
+  private ResponseEntity<ErrorResponse> buildErrorResponse(
+      HttpStatus status,
+      String error,
+      Exception exception,
+      HttpServletRequest request,
+      HttpHeaders headers) {
     var errorResponse =
         new ErrorResponse(
             now(), status.value(), error, exception.getMessage(), request.getRequestURI());
-    return new ResponseEntity<>(errorResponse, status);
+    return new ResponseEntity<>(errorResponse, headers, status);
   }
 }
@@ -0,0 +1,53 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static java.lang.Math.min;
+
+public final class BuildLog implements LogSink, AutoCloseable {
+
+  private final Long buildId;
+  private final BuildLogStore store;
+  private final int chunkSize;
+  private final LiveLog liveLog;
+  private final StringBuilder buffer;
+  private int sequence;
+
+  public BuildLog(Long buildId, BuildLogStore store, int chunkSize, LiveLog liveLog) {
+    this.buildId = buildId;
+    this.store = store;
+    this.chunkSize = chunkSize;
+    this.liveLog = liveLog;
+    this.buffer = new StringBuilder(chunkSize);
+  }
+
+  @Override
+  public synchronized void append(CharSequence text) {
+    if (text == null) {
+      return;
+    }
+    var offset = 0;
+    var length = text.length();
+    while (offset < length) {
+      var end = min(length, offset + chunkSize - buffer.length());
+      buffer.append(text, offset, end);
+      offset = end;
+      if (buffer.length() >= chunkSize) {
+        flush();
+      }
+    }
+    liveLog.append(text);
+  }
+
+  public synchronized void flush() {
+    if (buffer.isEmpty()) {
+      return;
+    }
+    store.append(buildId, sequence++, buffer.toString());
+    buffer.setLength(0);
+  }
+
+  @Override
+  public void close() {
+    flush();
+    liveLog.close();
+  }
+}
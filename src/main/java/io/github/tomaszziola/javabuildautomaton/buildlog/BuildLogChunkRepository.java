@@ -0,0 +1,18 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import io.github.tomaszziola.javabuildautomaton.buildlog.entity.BuildLogChunk;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface BuildLogChunkRepository extends JpaRepository<BuildLogChunk, Long> {
+
+  List<BuildLogChunk> findByBuildIdAndSequenceGreaterThanEqualOrderBySequenceAsc(
+      Long buildId, int sequence, Pageable pageable);
+
+  @Modifying
+  @Query("DELETE FROM BuildLogChunk c WHERE c.buildId = :buildId")
+  void deleteByBuildId(Long buildId);
+}
@@ -0,0 +1,39 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/builds")
+@RequiredArgsConstructor
+public class BuildLogRestController {
+
+  private static final String LAST_EVENT_ID = "Last-Event-ID";
+  private static final String PLAIN_TEXT_UTF_8 = "text/plain;charset=UTF-8";
+
+  private final BuildLogService buildLogService;
+  private final BuildLogStreamService buildLogStreamService;
+
+  @GetMapping(value = "/{buildId}/logs", produces = PLAIN_TEXT_UTF_8)
+  public StreamingResponseBody getLogs(@PathVariable final Long buildId) {
+    return buildLogService.download(buildId);
+  }
+
+  @GetMapping(value = "/{buildId}/logs/stream", produces = TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamLogs(
+      @PathVariable final Long buildId,
+      @RequestParam(required = false) final Long offset,
+      @RequestHeader(name = LAST_EVENT_ID, required = false) final Long lastEventId) {
+    var resumeFrom = lastEventId == null ? offset : lastEventId;
+    return buildLogStreamService.stream(buildId, resumeFrom == null ? 0L : resumeFrom);
+  }
+}
@@ -0,0 +1,57 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildRepository;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildNotFoundException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Service
+@RequiredArgsConstructor
+public class BuildLogService {
+
+  private final BuildLogStore buildLogStore;
+  private final BuildProperties buildProperties;
+  private final BuildRepository buildRepository;
+  private final LiveLogRegistry liveLogRegistry;
+
+  public BuildLog open(Build build) {
+    var logs = buildProperties.getLogs();
+    var liveLog =
+        liveLogRegistry.open(build.getId(), max(logs.getLiveBufferSize(), logs.getChunkSize()));
+    return new BuildLog(build.getId(), buildLogStore, logs.getChunkSize(), liveLog);
+  }
+
+  public LogTail tail(Build build) {
+    var logTail = new LogTail(buildProperties.getLogs().getPreviewSize());
+    try {
+      buildLogStore.transferTo(build.getId(), logTail);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return logTail;
+  }
+
+  public void discard(Long buildId) {
+    buildLogStore.delete(buildId);
+  }
+
+  public StreamingResponseBody download(Long buildId) {
+    if (!buildRepository.existsById(buildId)) {
+      throw new BuildNotFoundException(buildId);
+    }
+    return outputStream -> {
+      var writer = new OutputStreamWriter(outputStream, UTF_8);
+      buildLogStore.transferTo(buildId, writer);
+      writer.flush();
+    };
+  }
+}
@@ -0,0 +1,13 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public interface BuildLogStore {
+
+  void append(Long buildId, int sequence, String chunk);
+
+  void transferTo(Long buildId, Writer writer) throws IOException;
+
+  void delete(Long buildId);
+}
@@ -0,0 +1,172 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.IN_PROGRESS;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.QUEUED;
+import static java.lang.Math.clamp;
+import static java.lang.Math.max;
+import static java.lang.Thread.currentThread;
+import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofSeconds;
+import static java.time.Instant.now;
+import static java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor;
+import static org.springframework.web.servlet.mvc.method.annotation.SseEmitter.event;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildRepository;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildNotFoundException;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BuildLogStreamService {
+
+  private static final Duration STREAM_TIMEOUT = ofMinutes(30);
+  private static final Duration POLL_INTERVAL = ofSeconds(1);
+  private static final String LOG_EVENT = "log";
+  private static final String END_EVENT = "end";
+
+  private final BuildLogStore buildLogStore;
+  private final BuildRepository buildRepository;
+  private final LiveLogRegistry liveLogRegistry;
+  private final Map<Long, StatusCheck> statusChecks = new ConcurrentHashMap<>();
+  private final ExecutorService streamExecutor = newVirtualThreadPerTaskExecutor();
+
+  public SseEmitter stream(Long buildId, long offset) {
+    if (!buildRepository.existsById(buildId)) {
+      throw new BuildNotFoundException(buildId);
+    }
+    var emitter = new SseEmitter(STREAM_TIMEOUT.toMillis());
+    var isCancelled = new AtomicBoolean(false);
+    emitter.onCompletion(() -> isCancelled.set(true));
+    emitter.onTimeout(() -> isCancelled.set(true));
+    emitter.onError(_ -> isCancelled.set(true));
+    streamExecutor.execute(() -> pump(buildId, max(0, offset), emitter, isCancelled));
+    return emitter;
+  }
+
+  void pump(Long buildId, long offset, SseEmitter emitter, AtomicBoolean isCancelled) {
+    try {
+      var position = offset;
+      var isComplete = false;
+      while (!isComplete && !isCancelled.get()) {
+        var liveLog = liveLogRegistry.find(buildId);
+        if (liveLog.isPresent()) {
+          var slice = liveLog.get().readFrom(position, POLL_INTERVAL);
+          if (slice.isPresent()) {
+            position = sendLog(emitter, slice.get().text(), slice.get().endOffset());
+            isComplete = slice.get().isComplete();
+          } else {
+            position = sendStored(emitter, buildId, position);
+          }
+        } else if (isWaitingForOutput(buildId)) {
+          liveLogRegistry.await(buildId, POLL_INTERVAL);
+        } else {
+          position = sendStored(emitter, buildId, position);
+          isComplete = true;
+        }
+      }
+      if (isComplete) {
+        emitter.send(event().name(END_EVENT).id(String.valueOf(position)).data(""));
+        emitter.complete();
+      }
+    } catch (IOException | IllegalStateException ex) {
+      log.debug("Log stream for build id={} closed by client: {}", buildId, ex.getMessage());
+    } catch (InterruptedException _) {
+      currentThread().interrupt();
+      emitter.complete();
+    }
+  }
+
+  // viewers of the same build share one status lookup per poll interval
+  private boolean isWaitingForOutput(Long buildId) {
+    var now = now();
+    statusChecks.values().removeIf(check -> check.isStale(now));
+    return statusChecks
+        .compute(
+            buildId,
+            (_, check) ->
+                check != null && !check.isStale(now)
+                    ? check
+                    : new StatusCheck(isQueuedOrRunning(buildId), now))
+        .isWaiting();
+  }
+
+  private boolean isQueuedOrRunning(Long buildId) {
+    return buildRepository
+        .findById(buildId)
+        .map(build -> build.getStatus() == QUEUED || build.getStatus() == IN_PROGRESS)
+        .orElse(false);
+  }
+
+  private long sendStored(SseEmitter emitter, Long buildId, long position) throws IOException {
+    var remainder = new StoredRemainder(emitter, position);
+    buildLogStore.transferTo(buildId, remainder);
+    return remainder.position();
+  }
+
+  private static long sendLog(SseEmitter emitter, String text, long endOffset) throws IOException {
+    if (!text.isEmpty()) {
+      emitter.send(event().name(LOG_EVENT).id(String.valueOf(endOffset)).data(text));
+    }
+    return endOffset;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    streamExecutor.shutdownNow();
+  }
+
+  private record StatusCheck(boolean isWaiting, Instant checkedAt) {
+
+    private boolean isStale(Instant now) {
+      return !checkedAt.plus(POLL_INTERVAL).isAfter(now);
+    }
+  }
+
+  private static final class StoredRemainder extends Writer {
+
+    private final SseEmitter emitter;
+    private final long offset;
+    private long length;
+
+    private StoredRemainder(SseEmitter emitter, long offset) {
+      this.emitter = emitter;
+      this.offset = offset;
+    }
+
+    @Override
+    public void write(char[] chars, int start, int count) throws IOException {
+      var skipped = clamp(offset - length, 0, count);
+      length += count;
+      if (skipped < count) {
+        sendLog(emitter, new String(chars, start + skipped, count - skipped), length);
+      }
+    }
+
+    @Override
+    public void flush() {
+      // every write is sent as its own event
+    }
+
+    @Override
+    public void close() {
+      // the emitter is completed by the pump
+    }
+
+    private long position() {
+      return max(offset, length);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.LogCompression.DEFLATE;
+import static jakarta.transaction.Transactional.TxType.REQUIRES_NEW;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.data.domain.PageRequest.ofSize;
+
+import io.github.tomaszziola.javabuildautomaton.buildlog.entity.BuildLogChunk;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties;
+import jakarta.transaction.Transactional;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+    prefix = "build.logs",
+    name = "storage",
+    havingValue = "database",
+    matchIfMissing = true)
+public class DatabaseBuildLogStore implements BuildLogStore {
+
+  private static final int READ_PAGE_SIZE = 16;
+
+  private final BuildLogChunkRepository repository;
+  private final BuildProperties buildProperties;
+
+  @Override
+  @Transactional(REQUIRES_NEW)
+  public void append(Long buildId, int sequence, String chunk) {
+    var logChunk = BuildLogChunk.builder().buildId(buildId).sequence(sequence);
+    if (buildProperties.getLogs().getCompression() == DEFLATE) {
+      logChunk.compressedContent(deflate(chunk));
+    } else {
+      logChunk.content(chunk);
+    }
+    repository.save(logChunk.build());
+  }
+
+  @Override
+  public void transferTo(Long buildId, Writer writer) throws IOException {
+    var nextSequence = 0;
+    var pageSize = READ_PAGE_SIZE;
+    while (pageSize == READ_PAGE_SIZE) {
+      var chunks =
+          repository.findByBuildIdAndSequenceGreaterThanEqualOrderBySequenceAsc(
+              buildId, nextSequence, ofSize(READ_PAGE_SIZE));
+      for (var chunk : chunks) {
+        writeContent(chunk, writer);
+        nextSequence = chunk.getSequence() + 1;
+      }
+      pageSize = chunks.size();
+    }
+  }
+
+  @Override
+  @Transactional
+  public void delete(Long buildId) {
+    repository.deleteByBuildId(buildId);
+  }
+
+  private static void writeContent(BuildLogChunk chunk, Writer writer) throws IOException {
+    if (chunk.getCompressedContent() == null) {
+      writer.write(chunk.getContent());
+      return;
+    }
+    try (var reader =
+        new InputStreamReader(
+            new InflaterInputStream(new ByteArrayInputStream(chunk.getCompressedContent())),
+            UTF_8)) {
+      reader.transferTo(writer);
+    }
+  }
+
+  private static byte[] deflate(String chunk) {
+    var compressed = new ByteArrayOutputStream();
+    try (var deflater = new DeflaterOutputStream(compressed)) {
+      deflater.write(chunk.getBytes(UTF_8));
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return compressed.toByteArray();
+  }
+}
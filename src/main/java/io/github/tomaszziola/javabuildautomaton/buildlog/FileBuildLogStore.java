@@ -0,0 +1,66 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.exists;
+import static java.nio.file.Files.newBufferedReader;
+import static java.nio.file.Files.writeString;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "build.logs", name = "storage", havingValue = "file")
+public class FileBuildLogStore implements BuildLogStore {
+
+  private static final String LOG_FILE_SUFFIX = ".log";
+
+  private final Path logsDir;
+
+  public FileBuildLogStore(BuildProperties properties) {
+    this.logsDir = properties.getLogs().getDir();
+  }
+
+  @Override
+  public void append(Long buildId, int sequence, String chunk) {
+    try {
+      createDirectories(logsDir);
+      writeString(resolveLogFile(buildId), chunk, UTF_8, CREATE, APPEND);
+    } catch (IOException e) {
+      log.error("Failed to append log chunk for build id={}", buildId, e);
+    }
+  }
+
+  @Override
+  public void transferTo(Long buildId, Writer writer) throws IOException {
+    var logFile = resolveLogFile(buildId);
+    if (!exists(logFile)) {
+      return;
+    }
+    try (var reader = newBufferedReader(logFile, UTF_8)) {
+      reader.transferTo(writer);
+    }
+  }
+
+  @Override
+  public void delete(Long buildId) {
+    try {
+      deleteIfExists(resolveLogFile(buildId));
+    } catch (IOException e) {
+      log.error("Failed to delete logs for build id={}", buildId, e);
+    }
+  }
+
+  private Path resolveLogFile(Long buildId) {
+    return logsDir.resolve(buildId + LOG_FILE_SUFFIX);
+  }
+}
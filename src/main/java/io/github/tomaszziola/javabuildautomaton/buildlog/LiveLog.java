@@ -0,0 +1,64 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static java.util.Optional.empty;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public final class LiveLog implements LogSink {
+
+  private final char[] ring;
+  private final Consumer<LiveLog> onClose;
+  private long length;
+  private boolean closed;
+
+  public LiveLog(int capacity, Consumer<LiveLog> onClose) {
+    this.ring = new char[capacity];
+    this.onClose = onClose;
+  }
+
+  @Override
+  public synchronized void append(CharSequence text) {
+    if (text == null || closed) {
+      return;
+    }
+    var textLength = text.length();
+    var start = max(0, textLength - ring.length);
+    length += start;
+    for (var index = start; index < textLength; index++) {
+      ring[(int) (length % ring.length)] = text.charAt(index);
+      length++;
+    }
+    notifyAll();
+  }
+
+  public synchronized Optional<LogSlice> readFrom(long offset, Duration timeout)
+      throws InterruptedException {
+    var deadline = nanoTime() + timeout.toNanos();
+    var remaining = timeout.toNanos();
+    while (offset >= length && !closed && remaining > 0) {
+      NANOSECONDS.timedWait(this, remaining);
+      remaining = deadline - nanoTime();
+    }
+    if (offset < length - ring.length) {
+      return empty();
+    }
+    var text = new StringBuilder((int) max(0, length - offset));
+    for (var position = offset; position < length; position++) {
+      text.append(ring[(int) (position % ring.length)]);
+    }
+    return Optional.of(new LogSlice(text.toString(), max(offset, length), closed));
+  }
+
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      notifyAll();
+    }
+    onClose.accept(this);
+  }
+}
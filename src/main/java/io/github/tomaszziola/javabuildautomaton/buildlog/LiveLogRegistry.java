@@ -0,0 +1,53 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LiveLogRegistry {
+
+  private final Map<Long, LiveLog> liveLogs = new ConcurrentHashMap<>();
+  private final Map<Long, CompletableFuture<LiveLog>> waiters = new ConcurrentHashMap<>();
+
+  public LiveLog open(Long buildId, int capacity) {
+    var liveLog = new LiveLog(capacity, closed -> liveLogs.remove(buildId, closed));
+    var previous = liveLogs.put(buildId, liveLog);
+    if (previous != null) {
+      previous.close();
+    }
+    var waiter = waiters.remove(buildId);
+    if (waiter != null) {
+      waiter.complete(liveLog);
+    }
+    return liveLog;
+  }
+
+  public Optional<LiveLog> find(Long buildId) {
+    return Optional.ofNullable(liveLogs.get(buildId));
+  }
+
+  public Optional<LiveLog> await(Long buildId, Duration timeout) throws InterruptedException {
+    var waiter = waiters.computeIfAbsent(buildId, _ -> new CompletableFuture<>());
+    // the log may have been opened before the waiter was registered
+    var liveLog = find(buildId);
+    if (liveLog.isPresent()) {
+      waiters.remove(buildId, waiter);
+      return liveLog;
+    }
+    try {
+      return Optional.of(waiter.get(timeout.toMillis(), MILLISECONDS));
+    } catch (ExecutionException | TimeoutException _) {
+      // a build running on another instance never opens its log here
+      waiters.remove(buildId, waiter);
+      return Optional.empty();
+    }
+  }
+}
@@ -0,0 +1,7 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+@FunctionalInterface
+public interface LogSink {
+
+  void append(CharSequence text);
+}
@@ -0,0 +1,3 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+public record LogSlice(String text, long endOffset, boolean isComplete) {}
@@ -0,0 +1,54 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.io.Writer;
+
+public final class LogTail extends Writer {
+
+  private final char[] ring;
+  private long length;
+
+  public LogTail(int capacity) {
+    this.ring = new char[capacity];
+  }
+
+  @Override
+  public void write(char[] chars, int offset, int count) {
+    var end = offset + count;
+    var start = max(offset, end - ring.length);
+    length += start - offset;
+    for (var index = start; index < end; index++) {
+      ring[(int) (length % ring.length)] = chars[index];
+      length++;
+    }
+  }
+
+  @Override
+  public void flush() {
+    // written straight into the ring
+  }
+
+  @Override
+  public void close() {
+    // nothing to release
+  }
+
+  public long length() {
+    return length;
+  }
+
+  public boolean isTruncated() {
+    return length > ring.length;
+  }
+
+  public String text() {
+    var size = (int) min(length, ring.length);
+    var text = new StringBuilder(size);
+    for (var position = length - size; position < length; position++) {
+      text.append(ring[(int) (position % ring.length)]);
+    }
+    return text.toString();
+  }
+}
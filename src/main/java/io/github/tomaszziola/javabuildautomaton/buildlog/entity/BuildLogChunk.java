@@ -0,0 +1,45 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog.entity;
+
+import static jakarta.persistence.GenerationType.SEQUENCE;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "build_log_chunk")
+public class BuildLogChunk {
+
+  @Id
+  @SequenceGenerator(
+      name = "build_log_chunk_sq",
+      sequenceName = "build_log_chunk_sq",
+      allocationSize = 50)
+  @GeneratedValue(strategy = SEQUENCE, generator = "build_log_chunk_sq")
+  private Long id;
+
+  @Column(name = "build_id", nullable = false)
+  private Long buildId;
+
+  @Column(name = "seq", nullable = false)
+  private int sequence;
+
+  @Column(columnDefinition = "TEXT")
+  private String content;
+
+  @Column(name = "compressed_content")
+  private byte[] compressedContent;
+}
@@ -0,0 +1,93 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.lang.Math.clamp;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class AdaptiveConcurrency {
+
+  private static final int RECENT_BUILDS = 20;
+
+  private final AtomicInteger limit;
+  private final BuildProperties buildProperties;
+  private final BuildRepository buildRepository;
+  private final HostMetrics hostMetrics;
+  private final RunningBuilds runningBuilds;
+
+  public AdaptiveConcurrency(
+      BuildProperties buildProperties,
+      BuildRepository buildRepository,
+      HostMetrics hostMetrics,
+      RunningBuilds runningBuilds,
+      MeterRegistry meterRegistry) {
+    this.buildProperties = buildProperties;
+    this.buildRepository = buildRepository;
+    this.hostMetrics = hostMetrics;
+    this.runningBuilds = runningBuilds;
+    var concurrency = buildProperties.getConcurrency();
+    this.limit =
+        new AtomicInteger(
+            clamp(
+                buildProperties.getMaxParallel(),
+                concurrency.getMinParallel(),
+                concurrency.getMaxParallel()));
+    Gauge.builder("build.concurrency.limit", this, AdaptiveConcurrency::limit)
+        .description("Number of builds allowed to run at once on this instance")
+        .register(meterRegistry);
+  }
+
+  public int limit() {
+    return buildProperties.getConcurrency().isAdaptive()
+        ? limit.get()
+        : buildProperties.getMaxParallel();
+  }
+
+  @Scheduled(fixedDelayString = "${build.concurrency.adjust-interval}")
+  void adjust() {
+    if (!buildProperties.getConcurrency().isAdaptive()) {
+      return;
+    }
+    var current = limit.get();
+    var next = nextLimit(current, hostMetrics.read(), recentFootprint());
+    if (next != current && limit.compareAndSet(current, next)) {
+      log.info("Adjusted build concurrency limit from {} to {}", current, next);
+    }
+  }
+
+  private int nextLimit(int current, HostLoad host, long footprint) {
+    var concurrency = buildProperties.getConcurrency();
+    var reserve = concurrency.getMemoryReserve().toBytes();
+    var isOverloaded =
+        (host.isLoadKnown() && host.loadPerCpu() > concurrency.getHighLoadPerCpu())
+            || host.availableMemoryBytes() < reserve;
+    if (isOverloaded) {
+      var decreased = (int) (current * concurrency.getDecreaseFactor());
+      return max(concurrency.getMinParallel(), min(current - 1, decreased));
+    }
+    var hasHeadroom =
+        (!host.isLoadKnown() || host.loadPerCpu() < concurrency.getLowLoadPerCpu())
+            && host.availableMemoryBytes() - reserve >= footprint;
+    var isSaturated = runningBuilds.running().size() >= current;
+    if (hasHeadroom && isSaturated) {
+      return min(concurrency.getMaxParallel(), current + 1);
+    }
+    return current;
+  }
+
+  private long recentFootprint() {
+    return buildRepository.findRecentMemoryPeaks(Limit.of(RECENT_BUILDS)).stream()
+        .mapToLong(Long::longValue)
+        .max()
+        .orElse(0L);
+  }
+}
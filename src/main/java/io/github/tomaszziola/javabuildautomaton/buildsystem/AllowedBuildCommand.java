@@ -0,0 +1,23 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+@Documented
+@Target(FIELD)
+@Retention(RUNTIME)
+@Constraint(validatedBy = AllowedBuildCommandValidator.class)
+public @interface AllowedBuildCommand {
+
+  String message() default "Build command may only contain allowlisted arguments";
+
+  Class<?>[] groups() default {};
+
+  Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,19 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static org.springframework.util.StringUtils.hasText;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class AllowedBuildCommandValidator
+    implements ConstraintValidator<AllowedBuildCommand, String> {
+
+  private final BuildCommands buildCommands;
+
+  @Override
+  public boolean isValid(String value, ConstraintValidatorContext context) {
+    return !hasText(value) || buildCommands.isAllowed(value);
+  }
+}
@@ -0,0 +1,121 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.currentThread;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.readAllLines;
+import static java.nio.file.Files.readString;
+import static java.nio.file.Files.writeString;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public final class BuildCgroup {
+
+  private static final String SHELL = "sh";
+  private static final String ARG_COMMAND = "-c";
+  private static final String ENTER_AND_EXEC = "echo 0 > \"$0/cgroup.procs\" && exec \"$@\"";
+  private static final String CGROUP_PROCS = "cgroup.procs";
+  private static final String CGROUP_KILL = "cgroup.kill";
+  private static final String CGROUP_EVENTS = "cgroup.events";
+  private static final String UNPOPULATED = "populated 0";
+  private static final Duration EVENTS_POLL_INTERVAL = Duration.ofMillis(10);
+  private static final String CPU_STAT = "cpu.stat";
+  private static final String CPU_USAGE_PREFIX = "usage_usec ";
+  private static final String MEMORY_PEAK = "memory.peak";
+  private static final String PIDS_PEAK = "pids.peak";
+  private static final long MICROS_PER_MILLI = 1000;
+
+  private final Path dir;
+
+  BuildCgroup(Path dir) {
+    this.dir = dir;
+  }
+
+  public Path dir() {
+    return dir;
+  }
+
+  ProcessCommand confine(ProcessCommand command) {
+    var arguments = new ArrayList<>(List.of(SHELL, ARG_COMMAND, ENTER_AND_EXEC, dir.toString()));
+    arguments.addAll(command.arguments());
+    return new ProcessCommand(arguments, command.environment());
+  }
+
+  void recordUsage(Build build) {
+    readCpuUsageMicros().ifPresent(micros -> build.setCpuTimeMs(micros / MICROS_PER_MILLI));
+    readValue(MEMORY_PEAK).ifPresent(build::setMemoryPeakBytes);
+    readValue(PIDS_PEAK).ifPresent(peak -> build.setPidsPeak(peak.intValue()));
+  }
+
+  boolean isPopulated() {
+    try {
+      return !readString(dir.resolve(CGROUP_PROCS)).isBlank();
+    } catch (IOException _) {
+      return false;
+    }
+  }
+
+  void kill() {
+    var killFile = dir.resolve(CGROUP_KILL);
+    if (!isRegularFile(killFile)) {
+      return;
+    }
+    try {
+      writeString(killFile, "1");
+    } catch (IOException e) {
+      log.warn("Failed to kill processes of cgroup {}", dir, e);
+    }
+  }
+
+  boolean awaitEmpty(Duration timeout) {
+    var deadline = nanoTime() + timeout.toNanos();
+    try {
+      while (!isEmpty()) {
+        if (nanoTime() - deadline >= 0) {
+          return false;
+        }
+        Thread.sleep(EVENTS_POLL_INTERVAL);
+      }
+      return true;
+    } catch (InterruptedException _) {
+      currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private boolean isEmpty() {
+    try {
+      return readAllLines(dir.resolve(CGROUP_EVENTS)).contains(UNPOPULATED);
+    } catch (IOException _) {
+      return true;
+    }
+  }
+
+  private Optional<Long> readCpuUsageMicros() {
+    try {
+      return readAllLines(dir.resolve(CPU_STAT)).stream()
+          .filter(line -> line.startsWith(CPU_USAGE_PREFIX))
+          .map(line -> line.substring(CPU_USAGE_PREFIX.length()).strip())
+          .map(Long::valueOf)
+          .findFirst();
+    } catch (IOException | NumberFormatException _) {
+      return Optional.empty();
+    }
+  }
+
+  private Optional<Long> readValue(String fileName) {
+    try {
+      return Optional.of(Long.valueOf(readString(dir.resolve(fileName)).strip()));
+    } catch (IOException | NumberFormatException _) {
+      return Optional.empty();
+    }
+  }
+}
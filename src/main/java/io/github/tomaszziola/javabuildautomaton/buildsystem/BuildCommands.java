@@ -0,0 +1,82 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode.CACHED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode.FULL_CLEAN;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PULL_REQUEST;
+import static org.springframework.util.StringUtils.hasText;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.InvalidBuildCommandException;
+import io.github.tomaszziola.javabuildautomaton.project.entity.Project;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BuildCommands {
+
+  private static final String ARG_CLEAN = "clean";
+  private static final String ARG_BUILD = "build";
+  private static final String ARG_INSTALL = "install";
+  private static final String ARG_BUILD_CACHE = "--build-cache";
+  private static final String ARG_MAVEN_BUILD_CACHE = "-Dmaven.build.cache.enabled=true";
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private final List<Pattern> allowedArguments;
+
+  public BuildCommands(BuildProperties buildProperties) {
+    this.allowedArguments =
+        buildProperties.getCommand().getAllowedArguments().stream().map(Pattern::compile).toList();
+  }
+
+  public List<String> resolve(Project project, BuildTrigger trigger) {
+    var template =
+        trigger == PULL_REQUEST && hasText(project.getPullRequestBuildCommand())
+            ? project.getPullRequestBuildCommand()
+            : project.getBuildCommand();
+    if (!hasText(template)) {
+      return defaultArguments(project.getBuildTool(), project.getBuildMode());
+    }
+    return parse(template);
+  }
+
+  public List<String> parse(String template) {
+    var arguments = List.of(WHITESPACE.split(template.strip()));
+    for (var argument : arguments) {
+      if (!isAllowedArgument(argument)) {
+        throw new InvalidBuildCommandException(argument);
+      }
+    }
+    return arguments;
+  }
+
+  public boolean isAllowed(String template) {
+    return WHITESPACE.splitAsStream(template.strip()).allMatch(this::isAllowedArgument);
+  }
+
+  private boolean isAllowedArgument(String argument) {
+    return allowedArguments.stream().anyMatch(pattern -> pattern.matcher(argument).matches());
+  }
+
+  private static List<String> defaultArguments(BuildTool buildTool, BuildMode buildMode) {
+    var arguments = new ArrayList<String>();
+    if (buildMode == FULL_CLEAN) {
+      arguments.add(ARG_CLEAN);
+    }
+    switch (buildTool) {
+      case MAVEN -> {
+        arguments.add(ARG_INSTALL);
+        if (buildMode == CACHED) {
+          arguments.add(ARG_MAVEN_BUILD_CACHE);
+        }
+      }
+      case GRADLE -> {
+        arguments.add(ARG_BUILD);
+        if (buildMode == CACHED) {
+          arguments.add(ARG_BUILD_CACHE);
+        }
+      }
+    }
+    return List.copyOf(arguments);
+  }
+}
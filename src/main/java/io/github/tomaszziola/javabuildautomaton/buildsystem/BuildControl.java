@@ -0,0 +1,113 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.time.Duration.between;
+import static java.util.concurrent.CompletableFuture.delayedExecutor;
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public final class BuildControl {
+
+  static final ScopedValue<BuildControl> CURRENT = ScopedValue.newInstance();
+
+  private final long buildId;
+  private final Instant startedAt;
+  private final Instant deadline;
+  private final Duration killGrace;
+  private final AtomicReference<BuildStatus> outcome = new AtomicReference<>();
+  private final BuildUsage usage = new BuildUsage();
+  private Process process;
+  private volatile BuildCgroup cgroup;
+
+  BuildControl(long buildId, Instant startedAt, Instant deadline, Duration killGrace) {
+    this.buildId = buildId;
+    this.startedAt = startedAt;
+    this.deadline = deadline;
+    this.killGrace = killGrace;
+  }
+
+  static Optional<BuildControl> current() {
+    return Optional.ofNullable(CURRENT.orElse(null));
+  }
+
+  public long buildId() {
+    return buildId;
+  }
+
+  public Optional<BuildStatus> outcome() {
+    return Optional.ofNullable(outcome.get());
+  }
+
+  public Optional<BuildCgroup> cgroup() {
+    return Optional.ofNullable(cgroup);
+  }
+
+  void confine(BuildCgroup cgroup) {
+    this.cgroup = cgroup;
+  }
+
+  synchronized Optional<Process> process() {
+    return Optional.ofNullable(process);
+  }
+
+  BuildUsage usage() {
+    return usage;
+  }
+
+  void recordUsage(Build build, Instant now) {
+    build.setDurationMs(between(startedAt, now).toMillis());
+    usage.applyTo(build);
+    cgroup().ifPresent(buildCgroup -> buildCgroup.recordUsage(build));
+  }
+
+  boolean isExpired(Instant now) {
+    return now.isAfter(deadline);
+  }
+
+  boolean stop(BuildStatus status) {
+    if (!outcome.compareAndSet(null, status)) {
+      return false;
+    }
+    synchronized (this) {
+      if (process != null) {
+        destroyTree(process);
+      }
+    }
+    return true;
+  }
+
+  synchronized void attach(Process process) {
+    this.process = process;
+    if (outcome.get() != null) {
+      destroyTree(process);
+    }
+  }
+
+  @SuppressWarnings("PMD.NullAssignment")
+  synchronized void detach(Process process) {
+    if (this.process == process) {
+      this.process = null;
+    }
+  }
+
+  private void destroyTree(Process process) {
+    log.info("Stopping process tree of build #{} (pid {})", buildId, process.pid());
+    var descendants = process.descendants().toList();
+    descendants.forEach(ProcessHandle::destroy);
+    process.destroy();
+    runAsync(
+        () -> {
+          descendants.forEach(ProcessHandle::destroyForcibly);
+          process.destroyForcibly();
+          cgroup().ifPresent(BuildCgroup::kill);
+        },
+        delayedExecutor(killGrace.toMillis(), MILLISECONDS));
+  }
+}
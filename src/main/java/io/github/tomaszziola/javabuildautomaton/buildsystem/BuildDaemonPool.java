@@ -0,0 +1,153 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildDaemonPool.Mode.COLD;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildDaemonPool.Mode.OFF;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildDaemonPool.Mode.WARM;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.GRADLE;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.MAVEN;
+import static java.nio.file.Files.newInputStream;
+import static java.time.Instant.now;
+import static java.util.Locale.ROOT;
+import static java.util.Optional.empty;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.DaemonProps;
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.util.unit.DataUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BuildDaemonPool {
+
+  private static final String GRADLE_PROPERTIES = "gradle.properties";
+  private static final String GRADLE_WRAPPER_PROPERTIES =
+      "gradle/wrapper/gradle-wrapper.properties";
+  private static final String JVM_ARGS = "org.gradle.jvmargs";
+  private static final String DISTRIBUTION_URL = "distributionUrl";
+  private static final Pattern MAX_HEAP = Pattern.compile("-Xmx(\\d+)([kKmMgG]?)");
+  private static final DataSize GRADLE_DEFAULT_HEAP = DataSize.ofMegabytes(512);
+
+  private final Map<String, List<Daemon>> daemons = new HashMap<>();
+  private final BuildProperties buildProperties;
+
+  public Lease acquire(BuildTool buildTool, int javaVersion, File workingDir) {
+    var daemon = buildProperties.getDaemon();
+    if (!daemon.isEnabled() || (buildTool == MAVEN && !daemon.isMvnd())) {
+      return new Lease(OFF, null);
+    }
+    if (BuildControl.current().flatMap(BuildControl::cgroup).isPresent()) {
+      return new Lease(COLD, null);
+    }
+    var key = buildTool + ":" + javaVersion;
+    if (buildTool == GRADLE) {
+      var gradleProperties = load(new File(workingDir, GRADLE_PROPERTIES));
+      var jvmArgs = gradleProperties.getProperty(JVM_ARGS, "");
+      if (heapOf(jvmArgs).compareTo(daemon.getMaxHeap()) > 0) {
+        log.info("Gradle heap of {} exceeds the daemon heap cap, running cold", workingDir);
+        return new Lease(COLD, null);
+      }
+      var wrapper = load(new File(workingDir, GRADLE_WRAPPER_PROPERTIES));
+      // Gradle only reuses a daemon of the same distribution and jvmargs
+      key += ":" + wrapper.getProperty(DISTRIBUTION_URL, "") + ":" + jvmArgs;
+    }
+    return reserve(key)
+        .map(reserved -> new Lease(WARM, () -> release(reserved)))
+        .orElseGet(() -> new Lease(COLD, null));
+  }
+
+  private synchronized Optional<Daemon> reserve(String key) {
+    var daemon = buildProperties.getDaemon();
+    var now = now();
+    daemons.values().forEach(keyed -> keyed.removeIf(kept -> kept.isStopped(now, daemon)));
+    daemons.values().removeIf(List::isEmpty);
+    var keyed = daemons.computeIfAbsent(key, _ -> new ArrayList<>());
+    var idle = keyed.stream().filter(kept -> !kept.isBusy()).findFirst();
+    if (idle.isPresent()) {
+      idle.get().setBusy(true);
+      return idle;
+    }
+    var running = daemons.values().stream().mapToInt(List::size).sum();
+    if (keyed.size() >= daemon.getPoolSize() || running >= daemon.getMaxDaemons()) {
+      return empty();
+    }
+    var started = new Daemon();
+    keyed.add(started);
+    return Optional.of(started);
+  }
+
+  private synchronized void release(Daemon daemon) {
+    daemon.setBusy(false);
+    daemon.setReleasedAt(now());
+  }
+
+  private static Properties load(File file) {
+    var properties = new Properties();
+    if (!file.isFile()) {
+      return properties;
+    }
+    try (var input = newInputStream(file.toPath())) {
+      properties.load(input);
+    } catch (IOException e) {
+      log.warn("Failed to read {}", file, e);
+    }
+    return properties;
+  }
+
+  private static DataSize heapOf(String jvmArgs) {
+    var matcher = MAX_HEAP.matcher(jvmArgs);
+    if (!matcher.find()) {
+      return GRADLE_DEFAULT_HEAP;
+    }
+    var amount = Long.parseLong(matcher.group(1));
+    return switch (matcher.group(2).toLowerCase(ROOT)) {
+      case "k" -> DataSize.of(amount, DataUnit.KILOBYTES);
+      case "m" -> DataSize.of(amount, DataUnit.MEGABYTES);
+      case "g" -> DataSize.of(amount, DataUnit.GIGABYTES);
+      default -> DataSize.ofBytes(amount);
+    };
+  }
+
+  public enum Mode {
+    OFF,
+    WARM,
+    COLD
+  }
+
+  public record Lease(Mode mode, Runnable release) implements AutoCloseable {
+
+    @Override
+    public void close() {
+      if (release != null) {
+        release.run();
+      }
+    }
+  }
+
+  @Getter
+  @Setter
+  private static final class Daemon {
+
+    private boolean busy = true;
+    private Instant releasedAt;
+
+    // the tool stops an unused daemon on its own once the idle timeout passed
+    boolean isStopped(Instant now, DaemonProps daemon) {
+      return !busy && !releasedAt.plus(daemon.getIdleTimeout()).isAfter(now);
+    }
+  }
+}
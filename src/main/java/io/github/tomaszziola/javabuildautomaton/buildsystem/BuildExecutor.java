@@ -1,6 +1,14 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildDaemonPool.Mode.COLD;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildDaemonPool.Mode.WARM;
+import static java.io.File.pathSeparator;
+
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogSink;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildDaemonPool.Mode;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -11,31 +19,64 @@ import org.springframework.stereotype.Service;
 public class BuildExecutor {
 
   private static final String CMD_MVN = "mvn";
+  private static final String CMD_MVND = "mvnd";
   private static final String CMD_GRADLE = "gradle";
   private static final String CMD_GRADLEW = "gradlew";
-  private static final String ARG_CLEAN = "clean";
-  private static final String ARG_BUILD = "build";
-  private static final String ARG_INSTALL = "install";
+  private static final String ARG_BATCH = "-B";
+  private static final String ARG_DAEMON = "--daemon";
+  private static final String ARG_NO_DAEMON = "--no-daemon";
+  private static final String ARG_STACKTRACE = "--stacktrace";
+  private static final String ENV_JAVA_HOME = "JAVA_HOME";
+  private static final String ENV_PATH = "PATH";
   private static final String DEFAULT_JDK_PREFIX = "/opt/jdks/jdk-";
 
+  private final BuildDaemonPool buildDaemonPool;
+  private final BuildProperties buildProperties;
+  private final BuildToolCaches buildToolCaches;
   private final ProcessExecutor processExecutor;
 
-  public ExecutionResult build(BuildTool buildTool, File workingDir, int javaVersion) {
+  public ExecutionResult build(
+      BuildTool buildTool,
+      List<String> arguments,
+      File workingDir,
+      int javaVersion,
+      LogSink logSink) {
     var javaHome = DEFAULT_JDK_PREFIX + javaVersion;
-    return switch (buildTool) {
-      case MAVEN -> runMaven(workingDir);
-      case GRADLE -> runGradle(workingDir, javaHome);
-    };
+    try (var lease = buildDaemonPool.acquire(buildTool, javaVersion, workingDir);
+        var _ = buildToolCaches.use(buildTool, javaVersion)) {
+      var command =
+          switch (buildTool) {
+            case MAVEN -> mavenCommand(arguments, javaHome, lease.mode());
+            case GRADLE -> gradleCommand(arguments, workingDir, javaHome, lease.mode());
+          };
+      return processExecutor.execute(
+          workingDir, logSink, buildToolCaches.withCache(buildTool, javaVersion, command));
+    }
   }
 
-  private ExecutionResult runMaven(File workingDir) {
-    return processExecutor.execute(workingDir, CMD_MVN, ARG_CLEAN, ARG_INSTALL);
+  private ProcessCommand mavenCommand(List<String> arguments, String javaHome, Mode mode) {
+    var command = new ArrayList<>(arguments);
+    var daemon = buildProperties.getDaemon();
+    if (mode != WARM || !daemon.isMvnd()) {
+      command.addFirst(CMD_MVN);
+      return ProcessCommand.of(command.toArray(String[]::new));
+    }
+    command.addFirst(ARG_BATCH);
+    command.addFirst(CMD_MVND);
+    command.add("-Dmvnd.javaHome=" + javaHome);
+    command.add("-Dmvnd.idleTimeout=" + daemon.getIdleTimeout().toSeconds() + "s");
+    command.add("-Dmvnd.maxHeapSize=" + daemon.getMaxHeap().toMegabytes() + "m");
+    return ProcessCommand.of(command.toArray(String[]::new));
   }
 
-  private ExecutionResult runGradle(File workingDir, String javaHome) {
+  private ProcessCommand gradleCommand(
+      List<String> arguments, File workingDir, String javaHome, Mode mode) {
+    var command = new ArrayList<>(arguments);
+    command.addAll(gradleDaemonArguments(mode));
     var gradlew = new File(workingDir, CMD_GRADLEW);
     if (!gradlew.exists() || !gradlew.isFile()) {
-      return processExecutor.execute(workingDir, CMD_GRADLE, ARG_CLEAN, ARG_BUILD);
+      command.addFirst(CMD_GRADLE);
+      return ProcessCommand.of(command.toArray(String[]::new));
     }
 
     var executable = gradlew.canExecute();
@@ -47,13 +88,28 @@ public class BuildExecutor {
             gradlew.getAbsolutePath());
       }
     }
-    var cmd = executable ? gradlew.getAbsolutePath() : CMD_GRADLE;
-    var shell =
-        "export JAVA_HOME=\""
-            + javaHome
-            + "\" && export PATH=\"$JAVA_HOME/bin:$PATH\" && \""
-            + cmd
-            + "\" clean build --stacktrace";
-    return processExecutor.execute(workingDir, "sh", "-c", shell);
+    command.addFirst(executable ? gradlew.getAbsolutePath() : CMD_GRADLE);
+    command.add(ARG_STACKTRACE);
+    return ProcessCommand.of(command.toArray(String[]::new))
+        .withEnvironment(ENV_JAVA_HOME, javaHome)
+        .withEnvironment(ENV_PATH, javaPath(javaHome));
+  }
+
+  private static String javaPath(String javaHome) {
+    var javaBin = javaHome + File.separator + "bin";
+    var path = System.getenv(ENV_PATH);
+    return path == null ? javaBin : javaBin + pathSeparator + path;
+  }
+
+  private List<String> gradleDaemonArguments(Mode mode) {
+    if (mode == COLD) {
+      return List.of(ARG_NO_DAEMON);
+    }
+    if (mode != WARM) {
+      return List.of();
+    }
+    var daemon = buildProperties.getDaemon();
+    return List.of(
+        ARG_DAEMON, "-Dorg.gradle.daemon.idletimeout=" + daemon.getIdleTimeout().toMillis());
   }
 }
@@ -1,18 +1,28 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.NORMAL;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.CANCELLED;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.IN_PROGRESS;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.QUEUED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.SUCCESS;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.MANUAL;
 import static java.time.Instant.now;
 
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLog;
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLogService;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
 import io.github.tomaszziola.javabuildautomaton.project.entity.Project;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 public class BuildLifecycleService {
 
+  private final BuildLogService buildLogService;
+  private final BuildProperties buildProperties;
   private final BuildRepository buildRepository;
 
   public Build makeInProgress(Project project) {
@@ -20,26 +30,91 @@ public class BuildLifecycleService {
     build.setProject(project);
     build.setStartTime(now());
     build.setStatus(IN_PROGRESS);
+    build.setTrigger(MANUAL);
+    build.setPriority(buildProperties.getQueue().getPriorities().getOrDefault(MANUAL, NORMAL));
     return buildRepository.save(build);
   }
 
-  public Build createQueued(Project project) {
+  public Build createQueued(
+      Project project, BuildTrigger trigger, BuildPriority priority, String commitSha) {
     var build = new Build();
     build.setProject(project);
     build.setStartTime(now());
     build.setStatus(QUEUED);
+    build.setTrigger(trigger);
+    build.setPriority(priority);
+    build.setCommitSha(commitSha);
     return buildRepository.save(build);
   }
 
-  public void complete(Build build, BuildStatus status, CharSequence logs) {
+  public Optional<Build> findQueued(Project project) {
+    return buildRepository.findFirstByProjectAndStatusAndClaimedByIsNullOrderByIdAsc(
+        project, QUEUED);
+  }
+
+  public boolean hasSucceeded(Project project, String commitSha) {
+    return buildRepository.existsByProjectAndCommitShaAndStatus(project, commitSha, SUCCESS);
+  }
+
+  public Optional<Build> findCachedResult(Build build) {
+    return buildRepository
+        .findOriginalsOfTree(
+            build.getProject(),
+            build.getTreeSha(),
+            build.getBuildTool(),
+            build.getJavaVersion(),
+            build.getBuildCommand(),
+            SUCCESS,
+            Limit.of(1))
+        .stream()
+        .findFirst();
+  }
+
+  public boolean retarget(Build build, String commitSha) {
+    if (buildRepository.retarget(build.getId(), commitSha, QUEUED) == 0) {
+      return false;
+    }
+    build.setCommitSha(commitSha);
+    return true;
+  }
+
+  public void complete(Build build, BuildStatus status, BuildLog buildLog) {
+    if (buildLog != null) {
+      buildLog.flush();
+    }
     build.setStatus(status);
-    build.setLogs(logs == null ? null : logs.toString());
     build.setEndTime(now());
-    buildRepository.save(build);
+    buildRepository.saveResult(build);
   }
 
-  public void markInProgress(Build build) {
+  public boolean markInProgress(Build build) {
+    if (buildRepository.transition(build.getId(), QUEUED, IN_PROGRESS) == 0) {
+      return false;
+    }
     build.setStatus(IN_PROGRESS);
+    return true;
+  }
+
+  public boolean cancelQueued(Build build) {
+    if (buildRepository.transition(build.getId(), QUEUED, CANCELLED) == 0) {
+      return false;
+    }
+    build.setStatus(CANCELLED);
+    build.setEndTime(now());
+    buildRepository.saveResult(build);
+    return true;
+  }
+
+  public void reject(Build build) {
+    buildRepository.delete(build);
+  }
+
+  public void requeue(Build build) {
+    buildLogService.discard(build.getId());
+    build.setStatus(QUEUED);
+    build.setEndTime(null);
+    build.setClaimedBy(null);
+    build.setHeartbeatAt(null);
     buildRepository.save(build);
   }
 }
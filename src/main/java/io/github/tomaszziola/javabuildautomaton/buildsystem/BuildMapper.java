@@ -2,6 +2,7 @@ package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
 import io.github.tomaszziola.javabuildautomaton.api.dto.BuildDetailsDto;
 import io.github.tomaszziola.javabuildautomaton.api.dto.BuildSummaryDto;
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogTail;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
 import org.springframework.stereotype.Component;
 
@@ -13,12 +14,21 @@ public class BuildMapper {
         build.getId(), build.getStatus(), build.getStartTime(), build.getEndTime());
   }
 
-  public BuildDetailsDto toDetailsDto(Build build) {
+  public BuildDetailsDto toDetailsDto(Build build, LogTail logTail) {
     return new BuildDetailsDto(
         build.getId(),
         build.getStatus(),
         build.getStartTime(),
         build.getEndTime(),
-        build.getLogs());
+        logTail.text(),
+        logTail.length(),
+        logTail.isTruncated(),
+        build.getCachedFrom() == null ? null : build.getCachedFrom().getId(),
+        build.getDurationMs(),
+        build.getCpuTimeMs(),
+        build.getMemoryPeakBytes(),
+        build.getPidsPeak(),
+        build.getReadBytes(),
+        build.getWriteBytes());
   }
 }
@@ -0,0 +1,7 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+public enum BuildMode {
+  FULL_CLEAN,
+  INCREMENTAL,
+  CACHED
+}
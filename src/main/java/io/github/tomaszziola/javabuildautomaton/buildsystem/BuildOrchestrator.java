@@ -1,18 +1,78 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.NORMAL;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PUSH;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.EnqueueOutcome.COALESCED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.EnqueueOutcome.SKIPPED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.EnqueueOutcome.STARTED;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildQueueFullException;
 import io.github.tomaszziola.javabuildautomaton.project.entity.Project;
+import java.util.Objects;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class BuildOrchestrator {
 
   private final BuildQueueService buildQueueService;
   private final BuildLifecycleService buildLifecycleService;
+  private final BuildProperties buildProperties;
+
+  public EnqueueOutcome enqueue(Project project, BuildTrigger trigger) {
+    return enqueue(project, trigger, null);
+  }
+
+  public EnqueueOutcome enqueue(Project project, BuildTrigger trigger, String commitSha) {
+    if (commitSha != null && buildLifecycleService.hasSucceeded(project, commitSha)) {
+      log.info(
+          "Commit {} of project: {} already built successfully, skipping",
+          commitSha,
+          project.getRepositoryName());
+      return SKIPPED;
+    }
+    var priority = buildProperties.getQueue().getPriorities().getOrDefault(trigger, NORMAL);
+    var isCoalesced =
+        buildProperties.getQueue().isCoalesce() && coalesce(project, trigger, priority, commitSha);
+    if (isCoalesced) {
+      return COALESCED;
+    }
+    var queuedBuild = buildLifecycleService.createQueued(project, trigger, priority, commitSha);
+    if (!buildQueueService.enqueue(QueuedBuild.of(queuedBuild))) {
+      buildLifecycleService.reject(queuedBuild);
+      throw new BuildQueueFullException(
+          project.getId(), buildProperties.getQueue().getRetryAfter());
+    }
+    return STARTED;
+  }
+
+  private boolean coalesce(
+      Project project, BuildTrigger trigger, BuildPriority priority, String commitSha) {
+    var pendingBuild =
+        buildLifecycleService
+            .findQueued(project)
+            .filter(build -> build.getPriority().getRank() <= priority.getRank())
+            .filter(build -> absorbs(build, trigger, commitSha));
+    if (pendingBuild.isEmpty()) {
+      return false;
+    }
+    log.info(
+        "Coalesced trigger for project: {} into queued build #{}",
+        project.getRepositoryName(),
+        pendingBuild.get().getId());
+    return true;
+  }
 
-  public void enqueue(Project project) {
-    var queuedBuild = buildLifecycleService.createQueued(project);
-    buildQueueService.enqueue(queuedBuild.getId());
+  private boolean absorbs(Build pending, BuildTrigger trigger, String commitSha) {
+    if (commitSha == null || Objects.equals(commitSha, pending.getCommitSha())) {
+      return true;
+    }
+    return trigger == PUSH
+        && pending.getTrigger() == PUSH
+        && buildLifecycleService.retarget(pending, commitSha);
   }
 }
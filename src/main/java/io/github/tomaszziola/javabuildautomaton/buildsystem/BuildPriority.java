@@ -0,0 +1,14 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum BuildPriority {
+  HIGH(0),
+  NORMAL(1),
+  LOW(2);
+
+  private final int rank;
+}
@@ -0,0 +1,29 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class BuildPriorityConverter implements AttributeConverter<BuildPriority, Integer> {
+
+  @Override
+  public Integer convertToDatabaseColumn(BuildPriority attribute) {
+    if (attribute == null) {
+      return null;
+    }
+    return attribute.getRank();
+  }
+
+  @Override
+  public BuildPriority convertToEntityAttribute(Integer dbData) {
+    if (dbData == null) {
+      return null;
+    }
+    for (BuildPriority priority : BuildPriority.values()) {
+      if (priority.getRank() == dbData) {
+        return priority;
+      }
+    }
+    throw new IllegalArgumentException("Not supported build priority: " + dbData);
+  }
+}
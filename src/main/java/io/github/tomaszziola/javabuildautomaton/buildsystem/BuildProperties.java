@@ -1,9 +1,22 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 @Getter
@@ -15,12 +28,217 @@ public class BuildProperties {
   @Min(1)
   private int maxParallel;
 
+  @Setter
+  @Min(1)
+  private int maxParallelPerProject;
+
   private final QueueProps queue = new QueueProps();
 
+  private final LogsProps logs = new LogsProps();
+
+  private final GitProps git = new GitProps();
+
+  private final ResultCacheProps resultCache = new ResultCacheProps();
+
+  private final ToolCacheProps toolCache = new ToolCacheProps();
+
+  private final DaemonProps daemon = new DaemonProps();
+
+  private final CommandProps command = new CommandProps();
+
+  private final TimeoutProps timeout = new TimeoutProps();
+
+  private final SandboxProps sandbox = new SandboxProps();
+
+  private final AccountingProps accounting = new AccountingProps();
+
+  private final ConcurrencyProps concurrency = new ConcurrencyProps();
+
   @Setter
   @Getter
   public static class QueueProps {
+    @NotNull private QueueMode mode;
+
     @Min(1)
     private int capacity;
+
+    @NotNull private OverflowPolicy overflow;
+
+    private boolean coalesce;
+
+    private final Map<BuildTrigger, BuildPriority> priorities = new EnumMap<>(BuildTrigger.class);
+
+    @NotNull private Duration aging;
+
+    @NotNull private Duration retryAfter;
+
+    @NotNull private Duration sweepInterval;
+
+    @NotNull private Duration heartbeatInterval;
+
+    @NotNull private Duration staleAfter;
+
+    @AssertTrue(message = "build.queue.aging must be positive")
+    public boolean isAgingPositive() {
+      return aging == null || aging.isPositive();
+    }
+  }
+
+  @Setter
+  @Getter
+  public static class LogsProps {
+    @NotNull private LogStorage storage;
+
+    @NotNull private LogCompression compression;
+
+    @NotNull private Path dir;
+
+    @Min(1024)
+    private int chunkSize;
+
+    @Min(1024)
+    private int liveBufferSize;
+
+    @Min(1024)
+    private int previewSize;
+  }
+
+  @Setter
+  @Getter
+  public static class GitProps {
+    @Min(0)
+    private int depth;
+
+    private String filter;
+
+    private boolean singleBranch;
+  }
+
+  @Setter
+  @Getter
+  public static class ResultCacheProps {
+    private boolean enabled;
+  }
+
+  @Setter
+  @Getter
+  public static class ToolCacheProps {
+    private boolean enabled;
+
+    @NotNull private Path dir;
+
+    @NotNull private Duration measureInterval;
+  }
+
+  @Setter
+  @Getter
+  public static class DaemonProps {
+    private boolean enabled;
+
+    @Min(1)
+    private int poolSize;
+
+    @Min(1)
+    private int maxDaemons;
+
+    @NotNull private Duration idleTimeout;
+
+    @NotNull private DataSize maxHeap;
+
+    private boolean mvnd;
+  }
+
+  @Setter
+  @Getter
+  public static class CommandProps {
+    @NotEmpty private List<String> allowedArguments = new ArrayList<>();
+  }
+
+  @Setter
+  @Getter
+  public static class TimeoutProps {
+    @NotNull private Duration maxDuration;
+
+    @NotNull private Duration checkInterval;
+
+    @NotNull private Duration killGrace;
+  }
+
+  @Setter
+  @Getter
+  public static class SandboxProps {
+    private boolean enabled;
+
+    @NotNull private Path cgroupRoot;
+
+    @Min(0)
+    private int cpuMillicores;
+
+    @NotNull private DataSize memoryMax;
+
+    @Min(0)
+    private int pidsMax;
+
+    @NotNull private Duration killTimeout;
+  }
+
+  @Setter
+  @Getter
+  public static class AccountingProps {
+    private boolean enabled;
+
+    @NotNull private Duration sampleInterval;
+
+    @NotNull private Path procDir;
+  }
+
+  @Setter
+  @Getter
+  public static class ConcurrencyProps {
+    private boolean adaptive;
+
+    @Min(1)
+    private int minParallel;
+
+    @Min(1)
+    private int maxParallel;
+
+    @NotNull private Duration adjustInterval;
+
+    @Positive private double lowLoadPerCpu;
+
+    @Positive private double highLoadPerCpu;
+
+    @DecimalMin("0.1")
+    @DecimalMax("0.9")
+    private double decreaseFactor;
+
+    @NotNull private DataSize memoryReserve;
+
+    @AssertTrue(
+        message = "build.concurrency.min-parallel must not exceed build.concurrency.max-parallel")
+    public boolean isParallelRangeValid() {
+      return minParallel <= maxParallel;
+    }
+  }
+
+  public enum QueueMode {
+    MEMORY,
+    DATABASE
+  }
+
+  public enum OverflowPolicy {
+    REJECT,
+    SPILL
+  }
+
+  public enum LogStorage {
+    DATABASE,
+    FILE
+  }
+
+  public enum LogCompression {
+    NONE,
+    DEFLATE
   }
 }
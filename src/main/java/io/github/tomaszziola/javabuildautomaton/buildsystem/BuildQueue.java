@@ -0,0 +1,10 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import java.util.Set;
+
+public interface BuildQueue {
+
+  boolean offer(QueuedBuild queuedBuild);
+
+  QueuedBuild poll(Set<Long> busyProjectIds);
+}
@@ -1,22 +1,30 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
 import static java.lang.Thread.currentThread;
+import static java.time.Duration.between;
 import static java.time.Duration.ofSeconds;
-import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.time.Instant.now;
+import static java.util.Locale.ROOT;
 import static java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toSet;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PreDestroy;
 import java.time.Duration;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -24,108 +32,133 @@ import org.springframework.stereotype.Service;
 @SuppressWarnings("PMD.CloseResource")
 public class BuildQueueService {
 
-  private static final Duration POLL_TIMEOUT = ofSeconds(1);
-  private static final Duration WORKER_SHUTDOWN_TIMEOUT = ofSeconds(10);
   private static final Duration BUILD_SHUTDOWN_TIMEOUT = ofSeconds(60);
-  private static final Duration REJECT_BACKOFF = ofSeconds(1);
 
-  private final Semaphore permits;
-  private final BlockingQueue<Long> queue;
+  private final int maxParallelPerProject;
+  private final AtomicInteger running = new AtomicInteger();
+  private final Map<Long, Integer> runningByProject = new ConcurrentHashMap<>();
+  private final ReentrantLock dispatchLock = new ReentrantLock();
+  private final AtomicBoolean dispatchRequested = new AtomicBoolean(false);
   private final AtomicBoolean started = new AtomicBoolean(false);
-
-  private ExecutorService buildExecutor;
-  private ExecutorService workerExecutor;
+  private final BuildQueue buildQueue;
   private final BuildService buildService;
+  private final MeterRegistry meterRegistry;
+  private final AdaptiveConcurrency adaptiveConcurrency;
+
+  private volatile ExecutorService buildExecutor;
 
-  public BuildQueueService(BuildService buildService, BuildProperties props) {
+  public BuildQueueService(
+      BuildService buildService,
+      BuildProperties props,
+      BuildQueue buildQueue,
+      MeterRegistry meterRegistry,
+      AdaptiveConcurrency adaptiveConcurrency) {
     this.buildService = buildService;
-    this.permits = new Semaphore(props.getMaxParallel(), true);
-    this.queue = new LinkedBlockingQueue<>(props.getQueue().getCapacity());
+    this.maxParallelPerProject = props.getMaxParallelPerProject();
+    this.buildQueue = buildQueue;
+    this.meterRegistry = meterRegistry;
+    this.adaptiveConcurrency = adaptiveConcurrency;
   }
 
-  public void enqueue(Long buildId) {
-    var isEnqueued = queue.offer(buildId);
+  public boolean enqueue(QueuedBuild queuedBuild) {
+    var isEnqueued = buildQueue.offer(queuedBuild);
     if (!isEnqueued) {
-      log.warn("Queue full, dropping build id={}", buildId);
-      return;
+      log.warn("Queue full, rejecting build id={}", queuedBuild.buildId());
+      return false;
     }
-    log.info("Enqueued build id={}", buildId);
+    log.info("Enqueued build id={}", queuedBuild.buildId());
+    tryDispatch();
+    return true;
   }
 
   @EventListener(ApplicationReadyEvent.class)
-  void startWorker() {
+  void start() {
     if (!started.compareAndSet(false, true)) {
-      log.info("Build worker already started, skipping");
+      log.info("Build dispatcher already started, skipping");
       return;
     }
-    workerExecutor =
-        newSingleThreadExecutor(
-            r -> {
-              var thread = new Thread(r, "build-worker");
-              thread.setDaemon(false);
-              return thread;
-            });
     buildExecutor = newVirtualThreadPerTaskExecutor();
+    log.info("Build dispatcher started");
+    tryDispatch();
+  }
 
-    try {
-      workerExecutor.submit(this::runWorkerLoop);
-      log.info("Build worker scheduled");
-    } catch (RejectedExecutionException rex) {
-      log.error("Failed to schedule worker loop", rex);
-    }
+  @Scheduled(fixedDelayString = "${build.queue.sweep-interval}")
+  void sweep() {
+    tryDispatch();
   }
 
-  void runWorkerLoop() {
-    log.info("Build worker started");
-    boolean shouldRun = true;
-    while (shouldRun && !currentThread().isInterrupted()) {
+  void tryDispatch() {
+    dispatchRequested.set(true);
+    while (dispatchRequested.get() && dispatchLock.tryLock()) {
       try {
-        var buildId = queue.poll(POLL_TIMEOUT.getSeconds(), SECONDS);
-        if (buildId != null) {
-          permits.acquire();
-          submitBuildTask(buildId);
-        }
-      } catch (InterruptedException _) {
-        currentThread().interrupt();
-        shouldRun = false;
+        dispatchRequested.set(false);
+        dispatchAvailable();
+      } finally {
+        dispatchLock.unlock();
       }
     }
-    log.info("Build worker stopped");
   }
 
-  private void submitBuildTask(Long buildId) throws InterruptedException {
+  private void dispatchAvailable() {
+    var executor = buildExecutor;
+    while (started.get() && executor != null && running.get() < adaptiveConcurrency.limit()) {
+      var next = buildQueue.poll(busyProjectIds());
+      if (next == null || !submitBuildTask(executor, next)) {
+        return;
+      }
+    }
+  }
+
+  private Set<Long> busyProjectIds() {
+    return runningByProject.entrySet().stream()
+        .filter(entry -> entry.getValue() >= maxParallelPerProject)
+        .map(Map.Entry::getKey)
+        .collect(toSet());
+  }
+
+  private boolean submitBuildTask(ExecutorService executor, QueuedBuild next) {
+    running.incrementAndGet();
+    runningByProject.merge(next.projectId(), 1, Integer::sum);
     try {
-      buildExecutor.submit(
+      executor.submit(
           () -> {
             try {
-              buildService.execute(buildId);
+              recordDispatchLatency(next);
+              buildService.execute(next.buildId());
             } finally {
-              permits.release();
+              releaseProject(next.projectId());
+              running.decrementAndGet();
+              tryDispatch();
             }
           });
+      return true;
     } catch (RejectedExecutionException rex) {
-      log.error("Build executor rejected task for id={}", buildId, rex);
-      permits.release();
-      SECONDS.sleep(REJECT_BACKOFF.getSeconds());
+      releaseProject(next.projectId());
+      running.decrementAndGet();
+      log.error("Build executor rejected task for id={}", next.buildId(), rex);
+      return false;
     }
   }
 
+  private void recordDispatchLatency(QueuedBuild next) {
+    Timer.builder("build.dispatch.latency")
+        .description("Time from enqueueing a build until it starts")
+        .tag("priority", next.priority().name().toLowerCase(ROOT))
+        .register(meterRegistry)
+        .record(between(next.queuedAt(), now()));
+  }
+
+  private void releaseProject(Long projectId) {
+    runningByProject.computeIfPresent(projectId, (_, count) -> count == 1 ? null : count - 1);
+  }
+
   @PreDestroy
   @SuppressWarnings("PMD.NullAssignment")
-  void stopWorker() {
-    log.info("Shutting down build worker");
-    var workerExec = workerExecutor;
+  void stop() {
+    log.info("Shutting down build dispatcher");
+    started.set(false);
     var buildExec = buildExecutor;
-    if (workerExec != null) {
-      workerExec.shutdownNow();
-      try {
-        if (!workerExec.awaitTermination(WORKER_SHUTDOWN_TIMEOUT.getSeconds(), SECONDS)) {
-          log.warn("Worker executor did not terminate in time");
-        }
-      } catch (InterruptedException _) {
-        currentThread().interrupt();
-      }
-    }
+    buildExecutor = null;
     if (buildExec != null) {
       buildExec.shutdown();
       try {
@@ -137,8 +170,6 @@ public class BuildQueueService {
         currentThread().interrupt();
       }
     }
-    workerExecutor = null;
-    buildExecutor = null;
-    started.set(false);
+    log.info("Build dispatcher stopped");
   }
 }
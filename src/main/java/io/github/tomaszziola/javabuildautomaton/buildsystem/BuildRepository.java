@@ -1,11 +1,140 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
+import io.github.tomaszziola.javabuildautomaton.api.dto.ProjectResourceUsageDto;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
 import io.github.tomaszziola.javabuildautomaton.project.entity.Project;
+import jakarta.transaction.Transactional;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface BuildRepository extends JpaRepository<Build, Long> {
 
   List<Build> findByProject(Project project);
+
+  @EntityGraph(attributePaths = "project")
+  Optional<Build> findWithProjectById(Long id);
+
+  List<Build> findByStatusInOrderByIdAsc(Collection<BuildStatus> statuses);
+
+  List<Build> findByStatusOrderByIdAsc(BuildStatus status, Limit limit);
+
+  Optional<Build> findFirstByProjectAndStatusAndClaimedByIsNullOrderByIdAsc(
+      Project project, BuildStatus status);
+
+  long countByStatusAndClaimedByIsNull(BuildStatus status);
+
+  boolean existsByProjectAndCommitShaAndStatus(
+      Project project, String commitSha, BuildStatus status);
+
+  @Query(
+      "SELECT b FROM Build b WHERE b.project = :project AND b.treeSha = :treeSha"
+          + " AND b.buildTool = :buildTool AND b.javaVersion = :javaVersion"
+          + " AND b.buildCommand = :buildCommand"
+          + " AND b.status = :status AND b.cachedFrom IS NULL ORDER BY b.id DESC")
+  List<Build> findOriginalsOfTree(
+      Project project,
+      String treeSha,
+      BuildTool buildTool,
+      Integer javaVersion,
+      String buildCommand,
+      BuildStatus status,
+      Limit limit);
+
+  @Query(
+      "SELECT new io.github.tomaszziola.javabuildautomaton.buildsystem.ProjectActivity("
+          + "p.repositoryName, p.repositoryUrl, MAX(COALESCE(b.endTime, b.startTime)))"
+          + " FROM Build b JOIN b.project p GROUP BY p.repositoryName, p.repositoryUrl")
+  List<ProjectActivity> findProjectActivity();
+
+  @Query(
+      "SELECT new io.github.tomaszziola.javabuildautomaton.api.dto.ProjectResourceUsageDto("
+          + "p.id, p.repositoryName, COUNT(b), SUM(b.durationMs), SUM(b.cpuTimeMs),"
+          + " MAX(b.memoryPeakBytes), SUM(b.readBytes), SUM(b.writeBytes))"
+          + " FROM Build b JOIN b.project p WHERE b.durationMs IS NOT NULL"
+          + " GROUP BY p.id, p.repositoryName ORDER BY SUM(b.durationMs) DESC")
+  List<ProjectResourceUsageDto> findResourceUsageByProject();
+
+  @Query(
+      "SELECT b.memoryPeakBytes FROM Build b WHERE b.memoryPeakBytes IS NOT NULL"
+          + " ORDER BY b.id DESC")
+  List<Long> findRecentMemoryPeaks(Limit limit);
+
+  @Query("SELECT DISTINCT p.repositoryName FROM Build b JOIN b.project p WHERE b.status = :status")
+  Set<String> findRepositoryNamesByStatus(BuildStatus status);
+
+  @Query("SELECT b.id FROM Build b WHERE b.id IN :ids AND b.status IN :statuses")
+  Set<Long> findIdsByStatusIn(Collection<Long> ids, Collection<BuildStatus> statuses);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE Build b SET b.status = :target WHERE b.id = :id AND b.status = :expected")
+  int transition(Long id, BuildStatus expected, BuildStatus target);
+
+  @Transactional
+  @Modifying
+  @Query(
+      "UPDATE Build b SET b.commitSha = :commitSha"
+          + " WHERE b.id = :id AND b.status = :status AND b.claimedBy IS NULL")
+  int retarget(Long id, String commitSha, BuildStatus status);
+
+  @Query(
+      value =
+          "SELECT b.id FROM build b"
+              + " WHERE b.status = 'QUEUED' AND b.claimed_by IS NULL"
+              + " AND b.project_id NOT IN (:busyProjectIds)"
+              + " ORDER BY GREATEST(b.priority - CASE WHEN b.start_time < :agedTwice THEN 2"
+              + " WHEN b.start_time < :agedOnce THEN 1 ELSE 0 END, 0),"
+              + " (SELECT count(*) FROM build r WHERE r.project_id = b.project_id"
+              + " AND r.claimed_by IS NOT NULL AND r.status IN ('QUEUED', 'IN_PROGRESS')), b.id"
+              + " LIMIT 1 FOR UPDATE OF b SKIP LOCKED",
+      nativeQuery = true)
+  Optional<Long> lockNextUnclaimedId(
+      Collection<Long> busyProjectIds, Instant agedOnce, Instant agedTwice);
+
+  @Transactional
+  @Modifying
+  @Query(
+      "UPDATE Build b SET b.status = :#{#build.status}, b.endTime = :#{#build.endTime},"
+          + " b.treeSha = :#{#build.treeSha}, b.buildTool = :#{#build.buildTool},"
+          + " b.javaVersion = :#{#build.javaVersion}, b.buildCommand = :#{#build.buildCommand},"
+          + " b.cachedFrom = :#{#build.cachedFrom}, b.failureReason = :#{#build.failureReason},"
+          + " b.durationMs = :#{#build.durationMs}, b.cpuTimeMs = :#{#build.cpuTimeMs},"
+          + " b.memoryPeakBytes = :#{#build.memoryPeakBytes}, b.pidsPeak = :#{#build.pidsPeak},"
+          + " b.readBytes = :#{#build.readBytes}, b.writeBytes = :#{#build.writeBytes}"
+          + " WHERE b.id = :#{#build.id}")
+  int saveResult(Build build);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE Build b SET b.claimedBy = :owner, b.heartbeatAt = :now WHERE b.id = :id")
+  int claim(Long id, String owner, Instant now);
+
+  @Modifying
+  @Query(
+      "UPDATE Build b SET b.heartbeatAt = :now"
+          + " WHERE b.claimedBy = :owner AND b.status IN :statuses")
+  int heartbeat(String owner, Instant now, Collection<BuildStatus> statuses);
+
+  @Query(
+      "SELECT b.id FROM Build b"
+          + " WHERE b.claimedBy IS NOT NULL AND b.heartbeatAt < :cutoff AND b.status IN :statuses")
+  List<Long> findStaleClaimIds(Instant cutoff, Collection<BuildStatus> statuses);
+
+  @Query("SELECT b.id FROM Build b WHERE b.claimedBy IS NULL AND b.status = :status")
+  List<Long> findUnclaimedIdsByStatus(BuildStatus status);
+
+  @Modifying
+  @Query(
+      "UPDATE Build b SET b.status = :status, b.claimedBy = NULL, b.heartbeatAt = NULL"
+          + " WHERE b.id = :id AND b.heartbeatAt < :cutoff AND b.status IN :statuses")
+  int releaseStaleClaim(
+      Long id, Instant cutoff, Collection<BuildStatus> statuses, BuildStatus status);
 }
@@ -0,0 +1,21 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import io.github.tomaszziola.javabuildautomaton.api.dto.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/builds")
+@RequiredArgsConstructor
+public class BuildRestController {
+
+  private final BuildService buildService;
+
+  @PostMapping("/{buildId}/cancel")
+  public ApiResponse cancelBuild(@PathVariable final Long buildId) {
+    return buildService.cancel(buildId);
+  }
+}
@@ -0,0 +1,124 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.readString;
+import static java.nio.file.Files.writeString;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.SandboxProps;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
+import io.github.tomaszziola.javabuildautomaton.project.entity.Project;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BuildSandboxes {
+
+  private static final List<String> CONTROLLERS = List.of("cpu", "memory", "pids");
+  private static final String CGROUP_CONTROLLERS = "cgroup.controllers";
+  private static final String SUBTREE_CONTROL = "cgroup.subtree_control";
+  private static final String ENABLE_CONTROLLERS = "+cpu +memory +pids";
+  private static final String CPU_MAX = "cpu.max";
+  private static final String MEMORY_MAX = "memory.max";
+  private static final String MEMORY_SWAP_MAX = "memory.swap.max";
+  private static final String PIDS_MAX = "pids.max";
+  private static final String UNLIMITED = "max";
+  private static final String BUILD_PREFIX = "build-";
+  private static final long CPU_PERIOD_MICROS = 100_000;
+  private static final long MILLICORES_PER_CPU = 1000;
+  private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+  private final BuildProperties buildProperties;
+
+  public Optional<BuildCgroup> open(Build build) {
+    var sandbox = buildProperties.getSandbox();
+    if (!sandbox.isEnabled()) {
+      return Optional.empty();
+    }
+    var root = sandbox.getCgroupRoot().toAbsolutePath().normalize();
+    try {
+      if (!offersControllers(root.getParent())) {
+        log.warn(
+            "Cgroup {} does not offer {}, build #{} runs unconfined",
+            root,
+            CONTROLLERS,
+            build.getId());
+        return Optional.empty();
+      }
+      createDirectories(root);
+      writeString(root.resolve(SUBTREE_CONTROL), ENABLE_CONTROLLERS);
+      var dir = createDirectories(root.resolve(BUILD_PREFIX + build.getId()));
+      applyLimits(dir, build.getProject(), sandbox);
+      return Optional.of(new BuildCgroup(dir));
+    } catch (IOException e) {
+      log.warn("Failed to create cgroup for build #{}, build runs unconfined", build.getId(), e);
+      return Optional.empty();
+    }
+  }
+
+  public void close(BuildCgroup cgroup) {
+    if (cgroup.isPopulated()) {
+      cgroup.kill();
+      var killTimeout = buildProperties.getSandbox().getKillTimeout();
+      if (!cgroup.awaitEmpty(killTimeout)) {
+        log.warn(
+            "Processes of cgroup {} still running after {}, not removing it",
+            cgroup.dir(),
+            killTimeout);
+        return;
+      }
+    }
+    try {
+      deleteIfExists(cgroup.dir());
+    } catch (IOException e) {
+      log.warn("Failed to remove cgroup {}", cgroup.dir(), e);
+    }
+  }
+
+  private static boolean offersControllers(Path parent) throws IOException {
+    var controllersFile = parent == null ? null : parent.resolve(CGROUP_CONTROLLERS);
+    if (controllersFile == null || !isRegularFile(controllersFile)) {
+      return false;
+    }
+    var available = List.of(readString(controllersFile).strip().split("\\s+"));
+    return available.containsAll(CONTROLLERS);
+  }
+
+  private static void applyLimits(Path dir, Project project, SandboxProps sandbox)
+      throws IOException {
+    var millicores = orDefault(project.getCpuLimitMillicores(), sandbox.getCpuMillicores());
+    var quota =
+        millicores == 0
+            ? UNLIMITED
+            : String.valueOf(millicores * CPU_PERIOD_MICROS / MILLICORES_PER_CPU);
+    writeString(dir.resolve(CPU_MAX), quota + " " + CPU_PERIOD_MICROS);
+
+    var memoryBytes =
+        project.getMemoryLimitMb() == null
+            ? sandbox.getMemoryMax().toBytes()
+            : project.getMemoryLimitMb() * BYTES_PER_MEGABYTE;
+    writeString(dir.resolve(MEMORY_MAX), limitOf(memoryBytes));
+    if (memoryBytes > 0 && isRegularFile(dir.resolve(MEMORY_SWAP_MAX))) {
+      writeString(dir.resolve(MEMORY_SWAP_MAX), "0");
+    }
+
+    var pids = orDefault(project.getPidsLimit(), sandbox.getPidsMax());
+    writeString(dir.resolve(PIDS_MAX), limitOf(pids));
+  }
+
+  private static long orDefault(Integer projectValue, int defaultValue) {
+    return projectValue == null ? defaultValue : projectValue;
+  }
+
+  private static String limitOf(long value) {
+    return value == 0 ? UNLIMITED : String.valueOf(value);
+  }
+}
@@ -1,17 +1,28 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.FOUND;
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.SKIPPED;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.FAILED;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.SUCCESS;
-import static io.github.tomaszziola.javabuildautomaton.constants.Constants.LOG_INITIAL_CAPACITY;
+import static java.lang.ScopedValue.where;
+import static java.lang.System.lineSeparator;
+import static java.time.Instant.now;
 import static java.util.Set.of;
 
+import io.github.tomaszziola.javabuildautomaton.api.dto.ApiResponse;
 import io.github.tomaszziola.javabuildautomaton.api.dto.BuildDetailsDto;
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLog;
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLogService;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildNotFoundException;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.InvalidBuildCommandException;
 import io.github.tomaszziola.javabuildautomaton.project.entity.Project;
 import io.github.tomaszziola.javabuildautomaton.workspace.BuildWorkspaceGuard;
-import jakarta.transaction.Transactional;
+import io.github.tomaszziola.javabuildautomaton.workspace.EphemeralWorkspaces;
+import io.github.tomaszziola.javabuildautomaton.workspace.GitMirrorCache;
 import java.io.File;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.BooleanSupplier;
 import lombok.RequiredArgsConstructor;
@@ -25,60 +36,157 @@ public class BuildService {
 
   private final Set<Integer> allowedJavaVersions = of(21, 25);
 
+  private final BuildCommands buildCommands;
   private final BuildExecutor buildExecutor;
   private final BuildLifecycleService buildLifecycleService;
+  private final BuildLogService buildLogService;
   private final BuildMapper buildMapper;
+  private final BuildProperties buildProperties;
   private final BuildRepository buildRepository;
+  private final BuildSandboxes buildSandboxes;
   private final GitCommandRunner gitCommandRunner;
+  private final GitMirrorCache gitMirrorCache;
   private final BuildWorkspaceGuard buildWorkspaceGuard;
+  private final EphemeralWorkspaces ephemeralWorkspaces;
+  private final RunningBuilds runningBuilds;
 
-  @Transactional
   public void execute(long buildId) {
     var build =
-        buildRepository.findById(buildId).orElseThrow(() -> new BuildNotFoundException(buildId));
+        buildRepository
+            .findWithProjectById(buildId)
+            .orElseThrow(() -> new BuildNotFoundException(buildId));
     var project = build.getProject();
+    if (!buildLifecycleService.markInProgress(build)) {
+      log.info("Build #{} is no longer queued, skipping", build.getId());
+      return;
+    }
     log.info("Executing build #{} for project: {}", build.getId(), project.getRepositoryName());
-    buildLifecycleService.markInProgress(build);
     executeBuildPipeline(project, build);
   }
 
+  public ApiResponse cancel(Long buildId) {
+    var build =
+        buildRepository.findById(buildId).orElseThrow(() -> new BuildNotFoundException(buildId));
+    if (buildLifecycleService.cancelQueued(build)) {
+      log.info("Cancelled queued build #{}", buildId);
+      return new ApiResponse(FOUND, "Build #" + buildId + " cancelled");
+    }
+    if (runningBuilds.cancel(buildId)) {
+      log.info("Cancelling running build #{}", buildId);
+      return new ApiResponse(FOUND, "Build #" + buildId + " is being cancelled");
+    }
+    return new ApiResponse(SKIPPED, "Build #" + buildId + " is not running on this instance");
+  }
+
   private void executeBuildPipeline(Project project, Build build) {
-    var logBuilder = new StringBuilder(LOG_INITIAL_CAPACITY);
+    var control = runningBuilds.register(build);
+    var cgroup = buildSandboxes.open(build);
+    cgroup.ifPresent(control::confine);
+    try (var buildLog = buildLogService.open(build)) {
+      where(BuildControl.CURRENT, control)
+          .run(() -> executeBuildPipeline(project, build, buildLog));
+    } finally {
+      cgroup.ifPresent(buildSandboxes::close);
+      runningBuilds.unregister(build);
+    }
+  }
 
+  private void executeBuildPipeline(Project project, Build build, BuildLog buildLog) {
     var workingDirectoryStatus =
-        buildWorkspaceGuard.prepareWorkspaceOrFail(project, build, logBuilder);
+        buildWorkspaceGuard.prepareWorkspaceOrFail(project, build, buildLog);
     if (!workingDirectoryStatus.isValid()) {
       failAndLog(
           build,
-          logBuilder,
+          buildLog,
           "Workspace preparation failed for project: {}",
           project.getRepositoryName());
       return;
     }
 
-    var workingDirectory = workingDirectoryStatus.workingDirectory();
+    var arguments = resolveArguments(project, build, buildLog);
+    if (arguments.isEmpty()) {
+      failAndLog(
+          build, buildLog, "Build command rejected for project: {}", project.getRepositoryName());
+      return;
+    }
+    build.setBuildCommand(String.join(" ", arguments.get()));
+    var mirror = gitMirrorCache.sync(project.getRepositoryUrl(), buildLog);
+    // a cached result only needs the tree from the mirror, so a hit skips the checkout
+    if (mirror.isPresent()
+        && reuseCachedResult(project, build, mirror.get(), build.getCommitSha(), buildLog)) {
+      return;
+    }
 
-    if (failIfFalse(
-        () -> synchronizeRepository(project, workingDirectory, logBuilder).isSuccess(),
-        () ->
-            failAndLog(
-                build,
-                logBuilder,
-                "Git synchronization failed for project: {}",
-                project.getRepositoryName()))) {
+    var baseDirectory = workingDirectoryStatus.workingDirectory();
+    if (ephemeralWorkspaces.isEnabled()) {
+      checkoutAndBuild(project, build, baseDirectory, mirror, arguments.get(), buildLog);
+      return;
+    }
+    // shared builds of a project run in one checkout, so its lock covers the whole build
+    var lock = ephemeralWorkspaces.lockFor(baseDirectory);
+    lock.lock();
+    try {
+      checkoutAndBuild(project, build, baseDirectory, mirror, arguments.get(), buildLog);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void checkoutAndBuild(
+      Project project,
+      Build build,
+      File baseDirectory,
+      Optional<File> mirror,
+      List<String> arguments,
+      BuildLog buildLog) {
+    var workingDirectory = checkoutWorkspace(project, build, baseDirectory, mirror, buildLog);
+    if (workingDirectory.isEmpty()) {
+      failAndLog(
+          build,
+          buildLog,
+          "Git synchronization failed for project: {}",
+          project.getRepositoryName());
+      return;
+    }
+
+    try {
+      buildInWorkspace(project, build, workingDirectory.get(), arguments, buildLog);
+    } finally {
+      ephemeralWorkspaces.release(baseDirectory, workingDirectory.get(), buildLog);
+    }
+  }
+
+  private void buildInWorkspace(
+      Project project,
+      Build build,
+      File workingDirectory,
+      List<String> arguments,
+      BuildLog buildLog) {
+    if (build.getTreeSha() == null
+        && reuseCachedResult(project, build, workingDirectory, null, buildLog)) {
       return;
     }
 
     if (failIfFalse(
-        () -> executeProjectBuild(project, workingDirectory, logBuilder).isSuccess(),
+        () -> executeProjectBuild(project, workingDirectory, arguments, buildLog).isSuccess(),
         () ->
             failAndLog(
-                build, logBuilder, "Build failed for project: {}", project.getRepositoryName()))) {
+                build, buildLog, "Build failed for project: {}", project.getRepositoryName()))) {
       return;
     }
 
     completeBuildWithLogs(
-        build, SUCCESS, logBuilder, "Build succeeded for project: {}", project.getRepositoryName());
+        build, SUCCESS, buildLog, "Build succeeded for project: {}", project.getRepositoryName());
+  }
+
+  private Optional<List<String>> resolveArguments(
+      Project project, Build build, BuildLog buildLog) {
+    try {
+      return Optional.of(buildCommands.resolve(project, build.getTrigger()));
+    } catch (InvalidBuildCommandException e) {
+      buildLog.append(e.getMessage() + lineSeparator());
+      return Optional.empty();
+    }
   }
 
   private boolean failIfFalse(BooleanSupplier step, Runnable onFailure) {
@@ -89,8 +197,12 @@ public class BuildService {
     return true;
   }
 
-  private void failAndLog(Build build, StringBuilder logBuilder, String message, Object arg) {
-    completeBuildWithLogs(build, FAILED, logBuilder, message, arg);
+  private void failAndLog(Build build, BuildLog buildLog, String message, Object arg) {
+    var stopped = BuildControl.current().flatMap(BuildControl::outcome);
+    if (stopped.isPresent()) {
+      buildLog.append("Build stopped: " + stopped.get() + lineSeparator());
+    }
+    completeBuildWithLogs(build, stopped.orElse(FAILED), buildLog, message, arg);
   }
 
   public void startBuildProcess(Project project) {
@@ -100,55 +212,127 @@ public class BuildService {
   }
 
   public BuildDetailsDto findBuildDetailsById(Long buildId) {
-    return buildRepository
-        .findById(buildId)
-        .map(buildMapper::toDetailsDto)
-        .orElseThrow(() -> new BuildNotFoundException(buildId));
+    var build =
+        buildRepository.findById(buildId).orElseThrow(() -> new BuildNotFoundException(buildId));
+    return buildMapper.toDetailsDto(build, buildLogService.tail(build));
   }
 
-  private ExecutionResult synchronizeRepository(
-      Project project, File workingDirectory, StringBuilder logBuilder) {
-    var repoInitialized = new File(workingDirectory, ".git").isDirectory();
-    var gitResult =
-        repoInitialized
-            ? gitCommandRunner.pull(workingDirectory)
-            : gitCommandRunner.clone(project.getRepositoryUrl(), workingDirectory);
+  private Optional<File> checkoutWorkspace(
+      Project project,
+      Build build,
+      File baseDirectory,
+      Optional<File> mirror,
+      BuildLog buildLog) {
+    var lock = ephemeralWorkspaces.lockFor(baseDirectory);
+    lock.lock();
+    try {
+      // the workspace collector may have evicted it since it was prepared
+      if (!baseDirectory.isDirectory() && !baseDirectory.mkdirs()) {
+        return Optional.empty();
+      }
+      if (!synchronizeRepository(project, build, baseDirectory, mirror, buildLog).isSuccess()) {
+        return Optional.empty();
+      }
+      return ephemeralWorkspaces.isEnabled()
+          ? ephemeralWorkspaces.create(project, build, baseDirectory, buildLog)
+          : Optional.of(baseDirectory);
+    } finally {
+      lock.unlock();
+    }
+  }
 
-    appendLogs(logBuilder, gitResult.logs());
+  private ExecutionResult synchronizeRepository(
+      Project project,
+      Build build,
+      File workingDirectory,
+      Optional<File> mirror,
+      BuildLog buildLog) {
+    var repoInitialized =
+        new File(workingDirectory, ".git").isDirectory()
+            && !gitMirrorCache.discardIfOrphaned(workingDirectory);
+    var commitSha = build.getCommitSha();
+    if (!repoInitialized) {
+      var cloneResult = cloneRepository(project, mirror, workingDirectory, buildLog);
+      if (!cloneResult.isSuccess()) {
+        log.error("Git clone failed for project: {}", project.getRepositoryName());
+        return cloneResult;
+      }
+      if (commitSha == null) {
+        return cloneResult;
+      }
+    }
 
+    var gitResult = checkout(workingDirectory, commitSha, buildLog);
     if (!gitResult.isSuccess()) {
-      var action = repoInitialized ? "pull" : "clone";
-      log.error("Git {} failed for project: {}", action, project.getRepositoryName());
-      return gitResult;
+      log.error("Git fetch failed for project: {}", project.getRepositoryName());
     }
-
     return gitResult;
   }
 
+  private ExecutionResult cloneRepository(
+      Project project, Optional<File> mirror, File workingDirectory, BuildLog buildLog) {
+    if (mirror.isPresent()) {
+      return gitCommandRunner.cloneShared(mirror.get(), workingDirectory, buildLog);
+    }
+    return gitCommandRunner.clone(project.getRepositoryUrl(), workingDirectory, buildLog);
+  }
+
+  private ExecutionResult checkout(File workingDirectory, String commitSha, BuildLog buildLog) {
+    var fetchResult = gitCommandRunner.fetch(workingDirectory, commitSha, buildLog);
+    if (!fetchResult.isSuccess()) {
+      return fetchResult;
+    }
+    return gitCommandRunner.resetHard(workingDirectory, buildLog);
+  }
+
+  private boolean reuseCachedResult(
+      Project project, Build build, File gitDirectory, String revision, BuildLog buildLog) {
+    build.setBuildTool(project.getBuildTool());
+    build.setJavaVersion(project.getJavaVersion().getVersionNumber());
+    build.setTreeSha(gitCommandRunner.resolveTree(gitDirectory, revision).orElse(null));
+    if (!buildProperties.getResultCache().isEnabled() || build.getTreeSha() == null) {
+      return false;
+    }
+    var cachedBuild = buildLifecycleService.findCachedResult(build);
+    if (cachedBuild.isEmpty()) {
+      return false;
+    }
+    build.setCachedFrom(cachedBuild.get());
+    buildLog.append(
+        "Tree "
+            + build.getTreeSha()
+            + " was already built successfully by build #"
+            + cachedBuild.get().getId()
+            + ", reusing its result"
+            + lineSeparator());
+    completeBuildWithLogs(
+        build,
+        SUCCESS,
+        buildLog,
+        "Reused cached build result for project: {}",
+        project.getRepositoryName());
+    return true;
+  }
+
   private ExecutionResult executeProjectBuild(
-      Project project, File workingDirectory, StringBuilder logBuilder) {
+      Project project, File workingDirectory, List<String> arguments, BuildLog buildLog) {
     var javaVersion = project.getJavaVersion().getVersionNumber();
     if (!allowedJavaVersions.contains(javaVersion)) {
       log.error(
           "Invalid javaVersion for project: {}. Provided: {}",
           project.getRepositoryName(),
           javaVersion);
-      return new ExecutionResult(false, "Invalid javaVersion\n");
+      buildLog.append("Invalid javaVersion\n");
+      return new ExecutionResult(false);
     }
-    var buildResult = buildExecutor.build(project.getBuildTool(), workingDirectory, javaVersion);
-    appendLogs(logBuilder, buildResult.logs());
-    return buildResult;
+    return buildExecutor.build(
+        project.getBuildTool(), arguments, workingDirectory, javaVersion, buildLog);
   }
 
   private void completeBuildWithLogs(
-      Build build, BuildStatus status, StringBuilder logBuilder, String message, Object arg) {
-    buildLifecycleService.complete(build, status, logBuilder);
+      Build build, BuildStatus status, BuildLog buildLog, String message, Object arg) {
+    BuildControl.current().ifPresent(control -> control.recordUsage(build, now()));
+    buildLifecycleService.complete(build, status, buildLog);
     log.info(message, arg);
   }
-
-  private void appendLogs(StringBuilder logBuilder, String logs) {
-    if (logs != null && !logs.isEmpty()) {
-      logBuilder.append(logs);
-    }
-  }
 }
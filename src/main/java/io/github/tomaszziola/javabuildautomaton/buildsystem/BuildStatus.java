@@ -4,5 +4,7 @@ public enum BuildStatus {
   QUEUED,
   IN_PROGRESS,
   SUCCESS,
-  FAILED
+  FAILED,
+  CANCELLED,
+  TIMED_OUT
 }
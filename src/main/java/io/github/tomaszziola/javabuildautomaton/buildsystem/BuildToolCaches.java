@@ -0,0 +1,221 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.Files.list;
+import static java.nio.file.Files.walkFileTree;
+import static java.time.Instant.EPOCH;
+import static java.time.Instant.now;
+import static java.util.Locale.ROOT;
+import static org.springframework.util.FileSystemUtils.deleteRecursively;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BuildToolCaches {
+
+  private static final String JDK_PREFIX = "jdk-";
+  private static final String MAVEN_REPO_LOCAL = "-Dmaven.repo.local=";
+  private static final String MAVEN_LOCK_FACTORY = "-Daether.syncContext.named.factory=file-lock";
+  private static final String MAVEN_LOCK_NAME_MAPPER =
+      "-Daether.syncContext.named.nameMapper=file-gav";
+  private static final String GRADLE_USER_HOME = "GRADLE_USER_HOME";
+
+  private final Map<Path, AtomicLong> sizes = new ConcurrentHashMap<>();
+  private final Map<Path, ReadWriteLock> locks = new ConcurrentHashMap<>();
+  private final Map<Path, Instant> lastUsed = new ConcurrentHashMap<>();
+  private final BuildProperties buildProperties;
+  private final MeterRegistry meterRegistry;
+
+  public Usage use(BuildTool buildTool, int javaVersion) {
+    if (!buildProperties.getToolCache().isEnabled()) {
+      return new Usage(null, null);
+    }
+    var cacheDir = resolveCacheDir(buildTool, javaVersion);
+    var lock = lockFor(cacheDir).readLock();
+    lock.lock();
+    lastUsed.put(cacheDir, now());
+    return new Usage(cacheDir, lock);
+  }
+
+  public List<CacheDir> caches() throws IOException {
+    var root = rootDir();
+    if (!isDirectory(root)) {
+      return List.of();
+    }
+    var caches = new ArrayList<CacheDir>();
+    try (var tools = list(root)) {
+      for (var toolDir : tools.filter(Files::isDirectory).toList()) {
+        try (var jdks = list(toolDir)) {
+          jdks.filter(Files::isDirectory)
+              .forEach(dir -> caches.add(new CacheDir(dir, lastUsed.getOrDefault(dir, EPOCH))));
+        }
+      }
+    }
+    return caches;
+  }
+
+  public boolean remove(Path cacheDir) {
+    var lock = lockFor(cacheDir).writeLock();
+    if (!lock.tryLock()) {
+      return false;
+    }
+    try {
+      deleteRecursively(cacheDir);
+    } catch (IOException e) {
+      log.warn("Failed to remove build tool cache {}", cacheDir, e);
+      return false;
+    } finally {
+      lock.unlock();
+    }
+    var size = sizes.get(cacheDir);
+    if (size != null) {
+      size.set(0);
+    }
+    log.info("Removed build tool cache {}", cacheDir);
+    return true;
+  }
+
+  public Path rootDir() {
+    return buildProperties.getToolCache().getDir().toAbsolutePath().normalize();
+  }
+
+  public ProcessCommand withCache(BuildTool buildTool, int javaVersion, ProcessCommand command) {
+    if (!buildProperties.getToolCache().isEnabled()) {
+      return command;
+    }
+    var cacheDir = resolveCacheDir(buildTool, javaVersion);
+    try {
+      recordLookup(buildTool, javaVersion, isWarm(cacheDir));
+      createDirectories(cacheDir);
+    } catch (IOException e) {
+      log.warn("Build tool cache {} unavailable, using tool defaults", cacheDir, e);
+      return command;
+    }
+    registerSize(buildTool, javaVersion, cacheDir);
+    return switch (buildTool) {
+      case MAVEN ->
+          command.withArguments(
+              MAVEN_REPO_LOCAL + cacheDir, MAVEN_LOCK_FACTORY, MAVEN_LOCK_NAME_MAPPER);
+      case GRADLE -> command.withEnvironment(GRADLE_USER_HOME, cacheDir.toString());
+    };
+  }
+
+  Path resolveCacheDir(BuildTool buildTool, int javaVersion) {
+    return rootDir().resolve(buildTool.name().toLowerCase(ROOT)).resolve(JDK_PREFIX + javaVersion);
+  }
+
+  private ReadWriteLock lockFor(Path cacheDir) {
+    return locks.computeIfAbsent(cacheDir, _ -> new ReentrantReadWriteLock());
+  }
+
+  @Scheduled(fixedDelayString = "${build.tool-cache.measure-interval}")
+  void measure() {
+    sizes.forEach(
+        (cacheDir, size) -> {
+          try {
+            size.set(sizeOf(cacheDir));
+          } catch (IOException e) {
+            log.warn("Failed to measure build tool cache {}", cacheDir, e);
+          }
+        });
+  }
+
+  private boolean isWarm(Path cacheDir) throws IOException {
+    if (!isDirectory(cacheDir)) {
+      return false;
+    }
+    try (var entries = list(cacheDir)) {
+      return entries.findAny().isPresent();
+    }
+  }
+
+  private void recordLookup(BuildTool buildTool, int javaVersion, boolean isWarm) {
+    Counter.builder("build.tool.cache.lookups")
+        .description("Builds started with a warm (hit) or empty (miss) dependency cache")
+        .tag("tool", buildTool.name().toLowerCase(ROOT))
+        .tag("jdk", String.valueOf(javaVersion))
+        .tag("result", isWarm ? "hit" : "miss")
+        .register(meterRegistry)
+        .increment();
+  }
+
+  private void registerSize(BuildTool buildTool, int javaVersion, Path cacheDir) {
+    sizes.computeIfAbsent(
+        cacheDir,
+        _ -> {
+          var size = new AtomicLong();
+          Gauge.builder("build.tool.cache.size", size, AtomicLong::get)
+              .description("Bytes used by the shared dependency cache at the last measurement")
+              .baseUnit("bytes")
+              .tag("tool", buildTool.name().toLowerCase(ROOT))
+              .tag("jdk", String.valueOf(javaVersion))
+              .register(meterRegistry);
+          return size;
+        });
+  }
+
+  public record CacheDir(Path dir, Instant lastUsedAt) {}
+
+  public final class Usage implements AutoCloseable {
+
+    private final Path cacheDir;
+    private final Lock lock;
+
+    private Usage(Path cacheDir, Lock lock) {
+      this.cacheDir = cacheDir;
+      this.lock = lock;
+    }
+
+    @Override
+    public void close() {
+      if (lock != null) {
+        lastUsed.put(cacheDir, now());
+        lock.unlock();
+      }
+    }
+  }
+
+  private static long sizeOf(Path dir) throws IOException {
+    var size = new AtomicLong();
+    walkFileTree(
+        dir,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            size.addAndGet(attrs.size());
+            return CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException exc) {
+            return CONTINUE;
+          }
+        });
+    return size.get();
+  }
+}
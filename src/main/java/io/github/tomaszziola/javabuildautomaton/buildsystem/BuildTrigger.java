@@ -0,0 +1,7 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+public enum BuildTrigger {
+  PUSH,
+  PULL_REQUEST,
+  MANUAL
+}
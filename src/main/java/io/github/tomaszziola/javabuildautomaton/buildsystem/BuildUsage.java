@@ -0,0 +1,31 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.lang.Math.max;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+final class BuildUsage {
+
+  private final Map<Long, ProcessSample> latestByPid = new HashMap<>();
+  private long peakRssBytes;
+
+  synchronized void record(Collection<ProcessSample> samples) {
+    samples.forEach(sample -> latestByPid.merge(sample.pid(), sample, ProcessSample::latest));
+    var rssBytes = samples.stream().mapToLong(ProcessSample::rssBytes).sum();
+    peakRssBytes = max(peakRssBytes, rssBytes);
+  }
+
+  synchronized void applyTo(Build build) {
+    if (latestByPid.isEmpty()) {
+      return;
+    }
+    var samples = latestByPid.values();
+    build.setCpuTimeMs(samples.stream().mapToLong(ProcessSample::cpuTimeMs).sum());
+    build.setMemoryPeakBytes(peakRssBytes);
+    build.setReadBytes(samples.stream().mapToLong(ProcessSample::readBytes).sum());
+    build.setWriteBytes(samples.stream().mapToLong(ProcessSample::writeBytes).sum());
+  }
+}
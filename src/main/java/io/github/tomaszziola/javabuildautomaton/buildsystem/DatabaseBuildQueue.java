@@ -0,0 +1,105 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.OverflowPolicy.REJECT;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.IN_PROGRESS;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.QUEUED;
+import static java.time.Instant.now;
+import static java.util.UUID.randomUUID;
+
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLogService;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "build.queue", name = "mode", havingValue = "database")
+public class DatabaseBuildQueue implements BuildQueue {
+
+  private static final List<BuildStatus> ACTIVE_STATUSES = List.of(QUEUED, IN_PROGRESS);
+  private static final Set<Long> NO_PROJECTS = Set.of(-1L);
+
+  private final String instanceId = randomUUID().toString();
+
+  private final BuildLogService buildLogService;
+  private final BuildProperties buildProperties;
+  private final BuildRepository buildRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  @Override
+  public boolean offer(QueuedBuild queuedBuild) {
+    var queueProps = buildProperties.getQueue();
+    if (queueProps.getOverflow() == REJECT
+        && buildRepository.countByStatusAndClaimedByIsNull(QUEUED) > queueProps.getCapacity()) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public QueuedBuild poll(Set<Long> busyProjectIds) {
+    var excludedProjectIds = busyProjectIds.isEmpty() ? NO_PROJECTS : busyProjectIds;
+    var now = now();
+    var aging = buildProperties.getQueue().getAging();
+    return transactionTemplate.execute(
+        _ ->
+            buildRepository
+                .lockNextUnclaimedId(
+                    excludedProjectIds, now.minus(aging), now.minus(aging.multipliedBy(2)))
+                .flatMap(
+                    buildId -> {
+                      buildRepository.claim(buildId, instanceId, now);
+                      log.info("Claimed build id={} as {}", buildId, instanceId);
+                      return buildRepository.findWithProjectById(buildId);
+                    })
+                .map(QueuedBuild::of)
+                .orElse(null));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  void recoverPendingBuilds() {
+    for (var buildId : buildRepository.findUnclaimedIdsByStatus(IN_PROGRESS)) {
+      transactionTemplate.executeWithoutResult(_ -> requeueUnclaimed(buildId));
+    }
+    releaseStaleClaims();
+  }
+
+  @Scheduled(fixedDelayString = "${build.queue.heartbeat-interval}")
+  void heartbeat() {
+    transactionTemplate.executeWithoutResult(
+        _ -> buildRepository.heartbeat(instanceId, now(), ACTIVE_STATUSES));
+  }
+
+  @Scheduled(fixedDelayString = "${build.queue.heartbeat-interval}")
+  void releaseStaleClaims() {
+    var cutoff = now().minus(buildProperties.getQueue().getStaleAfter());
+    for (var buildId : buildRepository.findStaleClaimIds(cutoff, ACTIVE_STATUSES)) {
+      transactionTemplate.executeWithoutResult(_ -> releaseStaleClaim(buildId, cutoff));
+    }
+  }
+
+  private void requeueUnclaimed(Long buildId) {
+    if (buildRepository.transition(buildId, IN_PROGRESS, QUEUED) == 0) {
+      return;
+    }
+    buildLogService.discard(buildId);
+    log.warn("Build id={} was left IN_PROGRESS without a claim, requeued", buildId);
+  }
+
+  private void releaseStaleClaim(Long buildId, Instant cutoff) {
+    if (buildRepository.releaseStaleClaim(buildId, cutoff, ACTIVE_STATUSES, QUEUED) == 0) {
+      return;
+    }
+    buildLogService.discard(buildId);
+    log.warn("Released stale claim on build id={}, requeued", buildId);
+  }
+}
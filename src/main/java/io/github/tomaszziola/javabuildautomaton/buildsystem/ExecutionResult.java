@@ -1,3 +1,3 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
-public record ExecutionResult(boolean isSuccess, String logs) {}
+public record ExecutionResult(boolean isSuccess) {}
@@ -1,6 +1,13 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
+import static org.springframework.util.StringUtils.hasText;
+
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogSink;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -9,17 +16,131 @@ import org.springframework.stereotype.Service;
 public class GitCommandRunner {
 
   private static final String GIT = "git";
-  private static final String ARG_PULL = "pull";
   private static final String ARG_CLONE = "clone";
+  private static final String ARG_FETCH = "fetch";
+  private static final String ARG_RESET = "reset";
+  private static final String ARG_HARD = "--hard";
+  private static final String ARG_SINGLE_BRANCH = "--single-branch";
+  private static final String ARG_NO_SINGLE_BRANCH = "--no-single-branch";
+  private static final String ARG_MIRROR = "--mirror";
+  private static final String ARG_SHARED = "--shared";
+  private static final String ARG_PRUNE = "--prune";
+  private static final String ARG_CONFIG = "--config";
+  private static final String KEEP_UNREACHABLE_OBJECTS = "gc.pruneExpire=never";
+  private static final String ALLOW_FETCH_BY_SHA = "uploadpack.allowReachableSHA1InWant=true";
+  private static final String ARG_DEPTH = "--depth=";
+  private static final String ARG_FILTER = "--filter=";
   private static final String ARG_DOT = ".";
+  private static final String REMOTE = "origin";
+  private static final String REMOTE_HEAD = "HEAD";
+  private static final String HEAD = "HEAD";
+  private static final String FETCH_HEAD = "FETCH_HEAD";
+  private static final String ARG_REV_PARSE = "rev-parse";
+  private static final String ARG_WORKTREE = "worktree";
+  private static final String ARG_ADD = "add";
+  private static final String ARG_DETACH = "--detach";
+  private static final String ARG_PRUNE_WORKTREES = "prune";
+  private static final String TREE = "^{tree}";
+  private static final Pattern OBJECT_ID = Pattern.compile("[0-9a-f]{40}|[0-9a-f]{64}");
 
+  private final BuildProperties buildProperties;
   private final ProcessExecutor processExecutor;
 
-  public ExecutionResult pull(File workingDir) {
-    return processExecutor.execute(workingDir, GIT, ARG_PULL);
+  public ExecutionResult clone(String repositoryUrl, File targetDir, LogSink logSink) {
+    var git = buildProperties.getGit();
+    var command = new ArrayList<>(List.of(GIT, ARG_CLONE));
+    addDepth(command);
+    if (hasText(git.getFilter())) {
+      command.add(ARG_FILTER + git.getFilter());
+    }
+    command.add(singleBranchArg());
+    command.add(repositoryUrl);
+    command.add(ARG_DOT);
+    return execute(targetDir, logSink, command);
+  }
+
+  public ExecutionResult cloneMirror(String repositoryUrl, File mirrorDir, LogSink logSink) {
+    return processExecutor.execute(
+        mirrorDir.getParentFile(),
+        logSink,
+        GIT,
+        ARG_CLONE,
+        ARG_MIRROR,
+        ARG_CONFIG,
+        KEEP_UNREACHABLE_OBJECTS,
+        ARG_CONFIG,
+        ALLOW_FETCH_BY_SHA,
+        repositoryUrl,
+        mirrorDir.getName());
+  }
+
+  public ExecutionResult updateMirror(File mirrorDir, LogSink logSink) {
+    return processExecutor.execute(mirrorDir, logSink, GIT, ARG_FETCH, ARG_PRUNE, REMOTE);
+  }
+
+  public ExecutionResult cloneShared(File mirrorDir, File targetDir, LogSink logSink) {
+    return processExecutor.execute(
+        targetDir,
+        logSink,
+        GIT,
+        ARG_CLONE,
+        ARG_SHARED,
+        singleBranchArg(),
+        mirrorDir.getAbsolutePath(),
+        ARG_DOT);
+  }
+
+  public ExecutionResult fetch(File workingDir, String revision, LogSink logSink) {
+    var command = new ArrayList<>(List.of(GIT, ARG_FETCH));
+    addDepth(command);
+    command.add(REMOTE);
+    command.add(revision == null ? REMOTE_HEAD : revision);
+    return execute(workingDir, logSink, command);
+  }
+
+  public ExecutionResult resetHard(File workingDir, LogSink logSink) {
+    return processExecutor.execute(workingDir, logSink, GIT, ARG_RESET, ARG_HARD, FETCH_HEAD);
+  }
+
+  public ExecutionResult addWorktree(File repositoryDir, File worktreeDir, LogSink logSink) {
+    return processExecutor.execute(
+        repositoryDir,
+        logSink,
+        GIT,
+        ARG_WORKTREE,
+        ARG_ADD,
+        ARG_DETACH,
+        worktreeDir.getAbsolutePath(),
+        HEAD);
+  }
+
+  public ExecutionResult pruneWorktrees(File repositoryDir, LogSink logSink) {
+    return processExecutor.execute(repositoryDir, logSink, GIT, ARG_WORKTREE, ARG_PRUNE_WORKTREES);
+  }
+
+  public Optional<String> resolveTree(File gitDir, String revision) {
+    var output = new StringBuilder();
+    var tree = (revision == null ? HEAD : revision) + TREE;
+    var result = processExecutor.execute(gitDir, output::append, GIT, ARG_REV_PARSE, tree);
+    var treeSha = output.toString().strip();
+    if (!result.isSuccess() || !OBJECT_ID.matcher(treeSha).matches()) {
+      return Optional.empty();
+    }
+    return Optional.of(treeSha);
+  }
+
+  private String singleBranchArg() {
+    return buildProperties.getGit().isSingleBranch() ? ARG_SINGLE_BRANCH : ARG_NO_SINGLE_BRANCH;
+  }
+
+  private void addDepth(List<String> command) {
+    var depth = buildProperties.getGit().getDepth();
+    if (depth > 0) {
+      command.add(ARG_DEPTH + depth);
+    }
   }
 
-  public ExecutionResult clone(String repositoryUrl, File targetDir) {
-    return processExecutor.execute(targetDir, GIT, ARG_CLONE, repositoryUrl, ARG_DOT);
+  private ExecutionResult execute(File workingDir, LogSink logSink, List<String> command) {
+    return processExecutor.execute(workingDir, logSink, command.toArray(String[]::new));
   }
 }
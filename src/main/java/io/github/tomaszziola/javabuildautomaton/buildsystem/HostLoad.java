@@ -0,0 +1,12 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+public record HostLoad(double loadAverage, int cpus, long availableMemoryBytes) {
+
+  double loadPerCpu() {
+    return loadAverage / cpus;
+  }
+
+  boolean isLoadKnown() {
+    return loadAverage >= 0;
+  }
+}
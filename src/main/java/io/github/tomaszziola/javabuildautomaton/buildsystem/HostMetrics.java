@@ -0,0 +1,47 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.lang.management.ManagementFactory.getPlatformMXBean;
+import static java.nio.file.Files.readAllLines;
+
+import com.sun.management.OperatingSystemMXBean;
+import java.io.IOException;
+import java.util.OptionalLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HostMetrics {
+
+  private static final String MEMINFO = "meminfo";
+  private static final String MEM_AVAILABLE_KEY = "MemAvailable:";
+  private static final long BYTES_PER_KILOBYTE = 1024;
+
+  private final OperatingSystemMXBean operatingSystem =
+      getPlatformMXBean(OperatingSystemMXBean.class);
+  private final BuildProperties buildProperties;
+
+  public HostLoad read() {
+    return new HostLoad(
+        operatingSystem.getSystemLoadAverage(),
+        operatingSystem.getAvailableProcessors(),
+        availableMemory().orElseGet(operatingSystem::getFreeMemorySize));
+  }
+
+  OptionalLong availableMemory() {
+    var meminfo = buildProperties.getAccounting().getProcDir().resolve(MEMINFO);
+    try {
+      return readAllLines(meminfo).stream()
+          .filter(line -> line.startsWith(MEM_AVAILABLE_KEY))
+          .map(line -> line.substring(MEM_AVAILABLE_KEY.length()).strip().split("\\s+")[0])
+          .mapToLong(Long::parseLong)
+          .map(kilobytes -> kilobytes * BYTES_PER_KILOBYTE)
+          .findFirst();
+    } catch (IOException | NumberFormatException e) {
+      log.debug("Cannot read available memory from {}: {}", meminfo, e.getMessage());
+      return OptionalLong.empty();
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.OverflowPolicy.REJECT;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.IN_PROGRESS;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.QUEUED;
+import static java.time.Instant.now;
+import static java.util.List.of;
+import static java.util.UUID.randomUUID;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.OverflowPolicy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    prefix = "build.queue",
+    name = "mode",
+    havingValue = "memory",
+    matchIfMissing = true)
+public class InMemoryBuildQueue implements BuildQueue {
+
+  private final String instanceId = randomUUID().toString();
+  private final Map<Long, List<QueuedBuild>> lanes = new LinkedHashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final AtomicBoolean spilled = new AtomicBoolean(false);
+  private final int capacity;
+  private final OverflowPolicy overflow;
+  private final Duration aging;
+  private final BuildLifecycleService buildLifecycleService;
+  private final BuildRepository buildRepository;
+
+  private int size;
+
+  public InMemoryBuildQueue(
+      BuildProperties props,
+      BuildLifecycleService buildLifecycleService,
+      BuildRepository buildRepository) {
+    this.capacity = props.getQueue().getCapacity();
+    this.overflow = props.getQueue().getOverflow();
+    this.aging = props.getQueue().getAging();
+    this.buildLifecycleService = buildLifecycleService;
+    this.buildRepository = buildRepository;
+  }
+
+  @Override
+  public boolean offer(QueuedBuild queuedBuild) {
+    if (!spilled.get() && add(queuedBuild)) {
+      return true;
+    }
+    if (overflow == REJECT) {
+      return false;
+    }
+    if (spilled.compareAndSet(false, true)) {
+      log.warn(
+          "Queue full, spilling build id={} and later builds to the database",
+          queuedBuild.buildId());
+    }
+    return true;
+  }
+
+  @Override
+  public QueuedBuild poll(Set<Long> busyProjectIds) {
+    if (spilled.get()) {
+      refillFromDatabase();
+    }
+    QueuedBuild next;
+    lock.lock();
+    try {
+      next = takeNext(busyProjectIds);
+    } finally {
+      lock.unlock();
+    }
+    if (next != null) {
+      buildRepository.claim(next.buildId(), instanceId, now());
+    }
+    return next;
+  }
+
+  private boolean add(QueuedBuild queuedBuild) {
+    lock.lock();
+    try {
+      if (size >= capacity) {
+        return false;
+      }
+      lanes.computeIfAbsent(queuedBuild.projectId(), _ -> new ArrayList<>()).add(queuedBuild);
+      size++;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private QueuedBuild takeNext(Set<Long> busyProjectIds) {
+    var now = now();
+    QueuedBuild next = null;
+    var nextRank = Integer.MAX_VALUE;
+    for (var lane : lanes.entrySet()) {
+      if (busyProjectIds.contains(lane.getKey())) {
+        continue;
+      }
+      for (var candidate : lane.getValue()) {
+        var rank = candidate.effectiveRank(now, aging);
+        if (rank < nextRank) {
+          next = candidate;
+          nextRank = rank;
+        }
+      }
+    }
+    if (next == null) {
+      return null;
+    }
+    var lane = lanes.remove(next.projectId());
+    lane.remove(next);
+    size--;
+    if (!lane.isEmpty()) {
+      lanes.put(next.projectId(), lane);
+    }
+    return next;
+  }
+
+  private void refillFromDatabase() {
+    var present = new HashSet<Long>();
+    lock.lock();
+    try {
+      if (size >= capacity) {
+        return;
+      }
+      lanes.values().forEach(lane -> lane.forEach(queued -> present.add(queued.buildId())));
+    } finally {
+      lock.unlock();
+    }
+    spilled.set(false);
+    var pending = buildRepository.findByStatusOrderByIdAsc(QUEUED, Limit.of(capacity + 1));
+    var refilled = 0;
+    for (var build : pending) {
+      if (present.contains(build.getId())) {
+        continue;
+      }
+      if (!add(QueuedBuild.of(build))) {
+        spilled.set(true);
+        break;
+      }
+      refilled++;
+    }
+    if (pending.size() > capacity) {
+      spilled.set(true);
+    }
+    log.info("Refilled {} spilled builds from the database", refilled);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  void recoverPendingBuilds() {
+    var pending = buildRepository.findByStatusInOrderByIdAsc(of(QUEUED, IN_PROGRESS));
+    for (var build : pending) {
+      if (build.getStatus() == IN_PROGRESS || build.getClaimedBy() != null) {
+        buildLifecycleService.requeue(build);
+      }
+      if (!offer(QueuedBuild.of(build))) {
+        log.warn("Queue full, build id={} stays QUEUED until next restart", build.getId());
+      }
+    }
+    if (!pending.isEmpty()) {
+      log.info("Recovered {} pending builds", pending.size());
+    }
+  }
+}
@@ -1,25 +1,134 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
 import static java.lang.System.lineSeparator;
+import static java.nio.charset.CodingErrorAction.REPLACE;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
-import java.io.BufferedReader;
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogSink;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import org.springframework.stereotype.Service;
 
 @Service
 public final class OutputCollector {
 
-  public void collect(InputStream inputStream, StringBuilder target) throws IOException {
-    try (var reader = new BufferedReader(new InputStreamReader(inputStream, UTF_8))) {
-      String line;
-      line = reader.readLine();
-      while (line != null) {
-        target.append(line).append(lineSeparator());
-        line = reader.readLine();
+  private static final int BUFFER_SIZE = 16 * 1024;
+  private static final int POOL_SIZE = 32;
+  private static final int MAX_INCOMPLETE_CHARACTER = 4;
+  private static final int END_OF_STREAM = -1;
+  private static final byte CARRIAGE_RETURN = '\r';
+  private static final byte LINE_FEED = '\n';
+  private static final byte[] LINE_SEPARATOR = lineSeparator().getBytes(UTF_8);
+  private static final boolean IS_LINE_FEED_SEPARATOR = "\n".equals(lineSeparator());
+
+  private final BlockingQueue<LineBuffers> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+  public void collect(InputStream inputStream, LogSink target) throws IOException {
+    var buffers = acquire();
+    try (inputStream) {
+      buffers.drain(inputStream, target);
+    } finally {
+      pool.offer(buffers);
+    }
+  }
+
+  private LineBuffers acquire() {
+    var buffers = pool.poll();
+    if (buffers == null) {
+      return new LineBuffers();
+    }
+    buffers.reset();
+    return buffers;
+  }
+
+  private static final class LineBuffers {
+
+    private static final int NORMALIZED_SIZE =
+        BUFFER_SIZE * LINE_SEPARATOR.length + MAX_INCOMPLETE_CHARACTER;
+
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer normalized = ByteBuffer.allocate(NORMALIZED_SIZE);
+    private final CharBuffer decoded = CharBuffer.allocate(NORMALIZED_SIZE);
+    private final StringBuilder output = new StringBuilder(NORMALIZED_SIZE);
+    private final CharsetDecoder decoder =
+        UTF_8.newDecoder().onMalformedInput(REPLACE).onUnmappableCharacter(REPLACE);
+    private boolean afterCarriageReturn;
+    private boolean atLineStart = true;
+
+    void reset() {
+      normalized.clear();
+      decoded.clear();
+      output.setLength(0);
+      decoder.reset();
+      afterCarriageReturn = false;
+      atLineStart = true;
+    }
+
+    void drain(InputStream inputStream, LogSink target) throws IOException {
+      var read = inputStream.read(bytes);
+      while (read != END_OF_STREAM) {
+        normalize(read);
+        decode(false);
+        emit(target);
+        read = inputStream.read(bytes);
+      }
+      if (!atLineStart) {
+        normalized.put(LINE_SEPARATOR);
+      }
+      decode(true);
+      decoder.flush(decoded);
+      output.append(decoded.array(), 0, decoded.position());
+      emit(target);
+    }
+
+    private void normalize(int count) {
+      var start = 0;
+      for (var index = 0; index < count; index++) {
+        var current = bytes[index];
+        var isCarriageReturn = current == CARRIAGE_RETURN;
+        var isSecondHalfOfCrLf = current == LINE_FEED && previousIsCarriageReturn(index);
+        if (isCarriageReturn
+            || isSecondHalfOfCrLf
+            || (current == LINE_FEED && !IS_LINE_FEED_SEPARATOR)) {
+          normalized.put(bytes, start, index - start);
+          if (!isSecondHalfOfCrLf) {
+            normalized.put(LINE_SEPARATOR);
+          }
+          start = index + 1;
+        }
+      }
+      normalized.put(bytes, start, count - start);
+      if (count > 0) {
+        afterCarriageReturn = bytes[count - 1] == CARRIAGE_RETURN;
+        atLineStart = bytes[count - 1] == CARRIAGE_RETURN || bytes[count - 1] == LINE_FEED;
+      }
+    }
+
+    private boolean previousIsCarriageReturn(int index) {
+      return index == 0 ? afterCarriageReturn : bytes[index - 1] == CARRIAGE_RETURN;
+    }
+
+    private void decode(boolean endOfInput) {
+      normalized.flip();
+      decoder.decode(normalized, decoded, endOfInput);
+      normalized.compact();
+      if (!endOfInput) {
+        output.append(decoded.array(), 0, decoded.position());
+        decoded.clear();
+      }
+    }
+
+    private void emit(LogSink target) {
+      if (output.isEmpty()) {
+        return;
       }
+      target.append(output);
+      output.setLength(0);
     }
   }
 }
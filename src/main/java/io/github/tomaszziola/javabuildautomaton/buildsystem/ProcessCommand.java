@@ -0,0 +1,35 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public record ProcessCommand(List<String> arguments, Map<String, String> environment) {
+
+  public ProcessCommand {
+    arguments = List.copyOf(arguments);
+    environment = Map.copyOf(environment);
+  }
+
+  public static ProcessCommand of(String... arguments) {
+    return new ProcessCommand(List.of(arguments), Map.of());
+  }
+
+  public ProcessCommand withArguments(String... extraArguments) {
+    var combined = new ArrayList<>(arguments);
+    combined.addAll(List.of(extraArguments));
+    return new ProcessCommand(combined, environment);
+  }
+
+  public ProcessCommand withEnvironment(String name, String value) {
+    var combined = new HashMap<>(environment);
+    combined.put(name, value);
+    return new ProcessCommand(arguments, combined);
+  }
+
+  @Override
+  public String toString() {
+    return String.join(" ", arguments);
+  }
+}
@@ -1,10 +1,9 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
-import static io.github.tomaszziola.javabuildautomaton.constants.Constants.LOG_INITIAL_CAPACITY;
-import static java.lang.String.join;
 import static java.lang.System.lineSeparator;
 import static java.lang.Thread.currentThread;
 
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogSink;
 import java.io.File;
 import java.io.IOException;
 import lombok.RequiredArgsConstructor;
@@ -18,33 +17,52 @@ public class ProcessExecutor {
 
   private final ProcessRunner processRunner;
   private final OutputCollector outputCollector;
+  private final ProcessTreeSampler processTreeSampler;
 
-  public ExecutionResult execute(File workingDir, String... command) {
-    log.info("Executing command in '{}': {}", workingDir, join(" ", command));
+  public ExecutionResult execute(File workingDir, LogSink logSink, String... command) {
+    return execute(workingDir, logSink, ProcessCommand.of(command));
+  }
 
-    var logOutput = new StringBuilder(LOG_INITIAL_CAPACITY);
+  public ExecutionResult execute(File workingDir, LogSink logSink, ProcessCommand command) {
+    log.info("Executing command in '{}': {}", workingDir, command);
 
     try {
       var process = processRunner.start(workingDir, command);
-
-      outputCollector.collect(process.getInputStream(), logOutput);
-
-      var exitCode = process.waitFor();
-      var isSuccess = exitCode == 0;
-      if (!isSuccess) {
-        logOutput.append("[[ERROR]] Command failed: ").append(join(" ", command));
+      var control = BuildControl.current();
+      control.ifPresent(buildControl -> buildControl.attach(process));
+      try {
+        return awaitResult(process, logSink, command);
+      } finally {
+        control.ifPresent(buildControl -> buildControl.detach(process));
       }
-
-      return new ExecutionResult(isSuccess, logOutput.toString());
     } catch (IOException e) {
       log.error("Process execution failed with IOException", e);
-      logOutput.append("[[ERROR]] IO failure: ").append(e.getMessage()).append(lineSeparator());
-      return new ExecutionResult(false, logOutput.toString());
+      logSink.append("[[ERROR]] IO failure: " + e.getMessage() + lineSeparator());
+      return new ExecutionResult(false);
     } catch (InterruptedException e) {
       currentThread().interrupt();
       log.error("Process execution interrupted", e);
-      logOutput.append("[[ERROR]] Interrupted: ").append(e.getMessage()).append(lineSeparator());
-      return new ExecutionResult(false, logOutput.toString());
+      logSink.append("[[ERROR]] Interrupted: " + e.getMessage() + lineSeparator());
+      return new ExecutionResult(false);
+    }
+  }
+
+  private ExecutionResult awaitResult(Process process, LogSink logSink, ProcessCommand command)
+      throws IOException, InterruptedException {
+    outputCollector.collect(process.getInputStream(), logSink);
+    BuildControl.current().ifPresent(processTreeSampler::sample);
+
+    var exitCode = process.waitFor();
+    var stopped = BuildControl.current().flatMap(BuildControl::outcome);
+    if (stopped.isPresent()) {
+      logSink.append("[[ERROR]] Command stopped (" + stopped.get() + "): " + command);
+      return new ExecutionResult(false);
     }
+    var isSuccess = exitCode == 0;
+    if (!isSuccess) {
+      logSink.append("[[ERROR]] Command failed: " + command);
+    }
+
+    return new ExecutionResult(isSuccess);
   }
 }
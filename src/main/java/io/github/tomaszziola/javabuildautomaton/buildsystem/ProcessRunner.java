@@ -8,7 +8,17 @@ import org.springframework.stereotype.Service;
 public final class ProcessRunner {
 
   public Process start(File workingDir, String... command) throws IOException {
-    var processBuilder = new ProcessBuilder(command);
+    return start(workingDir, ProcessCommand.of(command));
+  }
+
+  public Process start(File workingDir, ProcessCommand command) throws IOException {
+    var confined =
+        BuildControl.current()
+            .flatMap(BuildControl::cgroup)
+            .map(cgroup -> cgroup.confine(command))
+            .orElse(command);
+    var processBuilder = new ProcessBuilder(confined.arguments());
+    processBuilder.environment().putAll(confined.environment());
     processBuilder.directory(workingDir);
     processBuilder.redirectErrorStream(true);
     return processBuilder.start();
@@ -0,0 +1,16 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.lang.Math.max;
+
+public record ProcessSample(
+    long pid, long cpuTimeMs, long rssBytes, long readBytes, long writeBytes) {
+
+  ProcessSample latest(ProcessSample newer) {
+    return new ProcessSample(
+        pid,
+        max(cpuTimeMs, newer.cpuTimeMs()),
+        newer.rssBytes(),
+        max(readBytes, newer.readBytes()),
+        max(writeBytes, newer.writeBytes()));
+  }
+}
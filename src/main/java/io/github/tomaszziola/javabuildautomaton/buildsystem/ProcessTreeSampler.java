@@ -0,0 +1,92 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.nio.file.Files.readAllLines;
+import static java.util.stream.Stream.concat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ProcessTreeSampler {
+
+  private static final String STATUS = "status";
+  private static final String IO = "io";
+  private static final String RSS_KEY = "VmRSS:";
+  private static final String READ_BYTES_KEY = "read_bytes:";
+  private static final String WRITE_BYTES_KEY = "write_bytes:";
+  private static final long BYTES_PER_KILOBYTE = 1024;
+
+  private final BuildProperties buildProperties;
+  private final RunningBuilds runningBuilds;
+
+  public void sample(BuildControl control) {
+    if (!buildProperties.getAccounting().isEnabled()) {
+      return;
+    }
+    var process = control.process();
+    if (process.isEmpty()) {
+      return;
+    }
+    var samples =
+        concat(Stream.of(process.get().toHandle()), process.get().descendants())
+            .map(this::read)
+            .flatMap(Optional::stream)
+            .toList();
+    control.usage().record(samples);
+  }
+
+  @Scheduled(fixedDelayString = "${build.accounting.sample-interval}")
+  void sampleRunning() {
+    runningBuilds.running().forEach(this::sample);
+  }
+
+  Optional<ProcessSample> read(ProcessHandle handle) {
+    var cpuTime = handle.info().totalCpuDuration();
+    if (cpuTime.isEmpty()) {
+      return Optional.empty();
+    }
+    var procDir =
+        buildProperties.getAccounting().getProcDir().resolve(String.valueOf(handle.pid()));
+    var status = readLines(procDir.resolve(STATUS));
+    var io = readLines(procDir.resolve(IO));
+    return Optional.of(
+        new ProcessSample(
+            handle.pid(),
+            cpuTime.get().toMillis(),
+            valueOf(status, RSS_KEY) * BYTES_PER_KILOBYTE,
+            valueOf(io, READ_BYTES_KEY),
+            valueOf(io, WRITE_BYTES_KEY)));
+  }
+
+  private static List<String> readLines(Path file) {
+    try {
+      return readAllLines(file);
+    } catch (IOException _) {
+      return List.of();
+    }
+  }
+
+  private static long valueOf(List<String> lines, String key) {
+    return lines.stream()
+        .filter(line -> line.startsWith(key))
+        .map(line -> line.substring(key.length()).strip().split("\\s+")[0])
+        .mapToLong(ProcessTreeSampler::parseOrZero)
+        .findFirst()
+        .orElse(0L);
+  }
+
+  private static long parseOrZero(String value) {
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException _) {
+      return 0L;
+    }
+  }
+}
@@ -0,0 +1,5 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import java.time.Instant;
+
+public record ProjectActivity(String repositoryName, String repositoryUrl, Instant lastBuildAt) {}
@@ -0,0 +1,21 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.lang.Math.max;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
+import java.time.Duration;
+import java.time.Instant;
+
+public record QueuedBuild(
+    Long buildId, Long projectId, BuildPriority priority, Instant queuedAt) {
+
+  public static QueuedBuild of(Build build) {
+    return new QueuedBuild(
+        build.getId(), build.getProject().getId(), build.getPriority(), build.getStartTime());
+  }
+
+  public int effectiveRank(Instant now, Duration aging) {
+    var promotions = Duration.between(queuedAt, now).dividedBy(aging);
+    return (int) max(0, priority.getRank() - promotions);
+  }
+}
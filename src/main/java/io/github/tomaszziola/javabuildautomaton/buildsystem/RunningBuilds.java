@@ -0,0 +1,65 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.CANCELLED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.TIMED_OUT;
+import static java.time.Duration.ofMinutes;
+import static java.time.Instant.now;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RunningBuilds {
+
+  private final Map<Long, BuildControl> controls = new ConcurrentHashMap<>();
+  private final BuildProperties buildProperties;
+
+  public BuildControl register(Build build) {
+    var startedAt = now();
+    var control =
+        new BuildControl(
+            build.getId(),
+            startedAt,
+            startedAt.plus(timeoutOf(build)),
+            buildProperties.getTimeout().getKillGrace());
+    controls.put(build.getId(), control);
+    return control;
+  }
+
+  public void unregister(Build build) {
+    controls.remove(build.getId());
+  }
+
+  public Collection<BuildControl> running() {
+    return controls.values();
+  }
+
+  public boolean cancel(long buildId) {
+    var control = controls.get(buildId);
+    return control != null && control.stop(CANCELLED);
+  }
+
+  @Scheduled(fixedDelayString = "${build.timeout.check-interval}")
+  void enforceTimeouts() {
+    var now = now();
+    controls.values().stream()
+        .filter(control -> control.isExpired(now))
+        .filter(control -> control.stop(TIMED_OUT))
+        .forEach(
+            control -> log.warn("Build #{} exceeded its timeout, stopping", control.buildId()));
+  }
+
+  private Duration timeoutOf(Build build) {
+    var minutes = build.getProject().getBuildTimeoutMinutes();
+    return minutes == null ? buildProperties.getTimeout().getMaxDuration() : ofMinutes(minutes);
+  }
+}
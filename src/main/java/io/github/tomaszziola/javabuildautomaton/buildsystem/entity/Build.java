@@ -4,7 +4,10 @@ import static jakarta.persistence.EnumType.STRING;
 import static jakarta.persistence.FetchType.LAZY;
 import static jakarta.persistence.GenerationType.SEQUENCE;
 
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger;
 import io.github.tomaszziola.javabuildautomaton.project.entity.Project;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -23,7 +26,7 @@ import org.hibernate.proxy.HibernateProxy;
 @Entity
 @Getter
 @Setter
-@ToString(exclude = {"project", "logs"})
+@ToString(exclude = {"project", "cachedFrom"})
 public class Build {
 
   @Id
@@ -38,8 +41,31 @@ public class Build {
   @Enumerated(STRING)
   private BuildStatus status;
 
-  @Column(columnDefinition = "TEXT")
-  private String logs;
+  @Enumerated(STRING)
+  @Column(name = "trigger_type")
+  private BuildTrigger trigger;
+
+  private BuildPriority priority;
+
+  @Column(name = "commit_sha")
+  private String commitSha;
+
+  @Column(name = "tree_sha")
+  private String treeSha;
+
+  @Enumerated(STRING)
+  @Column(name = "build_tool")
+  private BuildTool buildTool;
+
+  @Column(name = "java_version")
+  private Integer javaVersion;
+
+  @Column(name = "build_command")
+  private String buildCommand;
+
+  @ManyToOne(fetch = LAZY)
+  @JoinColumn(name = "cached_from_id")
+  private Build cachedFrom;
 
   @Column(name = "duration_ms")
   private Long durationMs;
@@ -47,9 +73,30 @@ public class Build {
   @Column(name = "failure_reason")
   private String failureReason;
 
+  @Column(name = "cpu_time_ms")
+  private Long cpuTimeMs;
+
+  @Column(name = "memory_peak_bytes")
+  private Long memoryPeakBytes;
+
+  @Column(name = "pids_peak")
+  private Integer pidsPeak;
+
+  @Column(name = "read_bytes")
+  private Long readBytes;
+
+  @Column(name = "write_bytes")
+  private Long writeBytes;
+
   private Instant startTime;
   private Instant endTime;
 
+  @Column(name = "claimed_by")
+  private String claimedBy;
+
+  @Column(name = "heartbeat_at")
+  private Instant heartbeatAt;
+
   @Override
   public boolean equals(Object other) {
     if (this == other) {
@@ -0,0 +1,19 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem.exception;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Duration;
+import lombok.Getter;
+
+@Getter
+public class BuildQueueFullException extends RuntimeException implements Serializable {
+
+  @Serial private static final long serialVersionUID = 1L;
+
+  private final Duration retryAfter;
+
+  public BuildQueueFullException(Long projectId, Duration retryAfter) {
+    super("Build queue is full, rejected build for project id: " + projectId);
+    this.retryAfter = retryAfter;
+  }
+}
@@ -0,0 +1,13 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem.exception;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+public class InvalidBuildCommandException extends RuntimeException implements Serializable {
+
+  @Serial private static final long serialVersionUID = 1L;
+
+  public InvalidBuildCommandException(String argument) {
+    super("Build command argument not allowed: '" + argument + "'");
+  }
+}
@@ -1,7 +0,0 @@
-package io.github.tomaszziola.javabuildautomaton.constants;
-
-public final class Constants {
-  public static final int LOG_INITIAL_CAPACITY = 1024;
-
-  private Constants() {}
-}
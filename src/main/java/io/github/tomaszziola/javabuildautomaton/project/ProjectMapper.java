@@ -1,5 +1,7 @@
 package io.github.tomaszziola.javabuildautomaton.project;
 
+import static org.springframework.util.StringUtils.hasText;
+
 import io.github.tomaszziola.javabuildautomaton.api.dto.PostProjectDto;
 import io.github.tomaszziola.javabuildautomaton.api.dto.ProjectDto;
 import io.github.tomaszziola.javabuildautomaton.project.entity.Project;
@@ -21,6 +23,13 @@ public class ProjectMapper {
         project.getRepositoryFullName(),
         project.getRepositoryUrl(),
         project.getBuildTool(),
+        project.getBuildMode(),
+        project.getBuildCommand(),
+        project.getPullRequestBuildCommand(),
+        project.getBuildTimeoutMinutes(),
+        project.getCpuLimitMillicores(),
+        project.getMemoryLimitMb(),
+        project.getPidsLimit(),
         project.getJavaVersion());
   }
 
@@ -32,6 +41,13 @@ public class ProjectMapper {
     project.setRepositoryFullName(extractUserAndRepo(url));
     project.setRepositoryUrl(url);
     project.setBuildTool(request.getBuildTool());
+    project.setBuildMode(request.getBuildMode());
+    project.setBuildCommand(trimToNull(request.getBuildCommand()));
+    project.setPullRequestBuildCommand(trimToNull(request.getPullRequestBuildCommand()));
+    project.setBuildTimeoutMinutes(request.getBuildTimeoutMinutes());
+    project.setCpuLimitMillicores(request.getCpuLimitMillicores());
+    project.setMemoryLimitMb(request.getMemoryLimitMb());
+    project.setPidsLimit(request.getPidsLimit());
     project.setJavaVersion(request.getJavaVersion());
     project.setWebhookSecret(request.getWebhookSecret());
     return project;
@@ -60,6 +76,10 @@ public class ProjectMapper {
     return url.startsWith(GITHUB_BASE_URL) ? url.substring(GITHUB_BASE_URL.length()) : url;
   }
 
+  private static String trimToNull(String value) {
+    return hasText(value) ? value.strip() : null;
+  }
+
   private static String stripGitSuffix(String path) {
     return path.endsWith(".git") ? path.substring(0, path.length() - 4) : path;
   }
@@ -1,8 +1,10 @@
 package io.github.tomaszziola.javabuildautomaton.project;
 
+import io.github.tomaszziola.javabuildautomaton.api.dto.ApiResponse;
 import io.github.tomaszziola.javabuildautomaton.api.dto.BuildSummaryDto;
 import io.github.tomaszziola.javabuildautomaton.api.dto.PostProjectDto;
 import io.github.tomaszziola.javabuildautomaton.api.dto.ProjectDto;
+import io.github.tomaszziola.javabuildautomaton.api.dto.ProjectResourceUsageDto;
 import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -25,11 +27,21 @@ public class ProjectRestController {
     return service.findAll();
   }
 
+  @GetMapping("/resource-usage")
+  public List<ProjectResourceUsageDto> getResourceUsage() {
+    return service.findResourceUsage();
+  }
+
   @GetMapping("/{projectId}/builds")
   public List<BuildSummaryDto> getProjectBuilds(@PathVariable final Long projectId) {
     return service.findProjectBuilds(projectId);
   }
 
+  @PostMapping("/{projectId}/builds")
+  public ApiResponse triggerBuild(@PathVariable final Long projectId) {
+    return service.triggerBuild(projectId);
+  }
+
   @PostMapping("/create")
   public ProjectDto createProject(@RequestBody @Valid final PostProjectDto request) {
     return service.saveProject(request);
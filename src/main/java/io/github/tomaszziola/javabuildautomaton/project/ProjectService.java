@@ -1,9 +1,17 @@
 package io.github.tomaszziola.javabuildautomaton.project;
 
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.COALESCED;
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.FOUND;
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.SKIPPED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.MANUAL;
+
+import io.github.tomaszziola.javabuildautomaton.api.dto.ApiResponse;
 import io.github.tomaszziola.javabuildautomaton.api.dto.BuildSummaryDto;
 import io.github.tomaszziola.javabuildautomaton.api.dto.PostProjectDto;
 import io.github.tomaszziola.javabuildautomaton.api.dto.ProjectDto;
+import io.github.tomaszziola.javabuildautomaton.api.dto.ProjectResourceUsageDto;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMapper;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildOrchestrator;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildRepository;
 import io.github.tomaszziola.javabuildautomaton.project.exception.ProjectNotFoundException;
 import java.util.List;
@@ -15,6 +23,7 @@ import org.springframework.stereotype.Service;
 public class ProjectService {
 
   private final BuildMapper buildMapper;
+  private final BuildOrchestrator buildOrchestrator;
   private final BuildRepository buildRepository;
   private final ProjectMapper projectMapper;
   private final ProjectRepository projectRepository;
@@ -40,6 +49,26 @@ public class ProjectService {
     return builds.stream().map(buildMapper::toSummaryDto).toList();
   }
 
+  public List<ProjectResourceUsageDto> findResourceUsage() {
+    return buildRepository.findResourceUsageByProject();
+  }
+
+  public ApiResponse triggerBuild(Long projectId) {
+    var project =
+        projectRepository
+            .findById(projectId)
+            .orElseThrow(() -> new ProjectNotFoundException(projectId));
+
+    var name = project.getRepositoryName();
+    return switch (buildOrchestrator.enqueue(project, MANUAL)) {
+      case STARTED -> new ApiResponse(FOUND, "Build queued for project: " + name);
+      case SKIPPED -> new ApiResponse(SKIPPED, "Build skipped for project: " + name);
+      case COALESCED ->
+          new ApiResponse(
+              COALESCED, "Build for project: " + name + " merged into a build already queued");
+    };
+  }
+
   public ProjectDto saveProject(PostProjectDto request) {
     var project = projectMapper.toEntity(request);
     var savedProject = projectRepository.save(project);
@@ -3,6 +3,7 @@ package io.github.tomaszziola.javabuildautomaton.project.entity;
 import static jakarta.persistence.EnumType.STRING;
 import static jakarta.persistence.GenerationType.SEQUENCE;
 
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool;
 import io.github.tomaszziola.javabuildautomaton.project.ProjectJavaVersion;
 import jakarta.persistence.Column;
@@ -46,6 +47,10 @@ public class Project {
   @Enumerated(STRING)
   private BuildTool buildTool;
 
+  @Column(name = "build_mode", nullable = false)
+  @Enumerated(STRING)
+  private BuildMode buildMode;
+
   private String username;
 
   @Column(name = "repository_name")
@@ -57,6 +62,24 @@ public class Project {
   @Column(name = "repository_url")
   private String repositoryUrl;
 
+  @Column(name = "build_command")
+  private String buildCommand;
+
+  @Column(name = "pull_request_build_command")
+  private String pullRequestBuildCommand;
+
+  @Column(name = "build_timeout_minutes")
+  private Integer buildTimeoutMinutes;
+
+  @Column(name = "cpu_limit_millicores")
+  private Integer cpuLimitMillicores;
+
+  @Column(name = "memory_limit_mb")
+  private Integer memoryLimitMb;
+
+  @Column(name = "pids_limit")
+  private Integer pidsLimit;
+
   @Column(name = "java_version_major", nullable = false)
   private ProjectJavaVersion javaVersion;
 
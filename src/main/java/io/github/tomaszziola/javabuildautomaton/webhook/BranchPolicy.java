@@ -1,28 +1,35 @@
 package io.github.tomaszziola.javabuildautomaton.webhook;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PULL_REQUEST;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PUSH;
 import static java.util.Set.of;
+import static java.util.regex.Pattern.compile;
 
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger;
 import io.github.tomaszziola.javabuildautomaton.webhook.dto.WebhookPayloadWithHeaders;
 import java.util.Set;
+import java.util.regex.Pattern;
 import org.springframework.stereotype.Component;
 
 @Component
 public class BranchPolicy {
 
-  private static final String PULL_REQUEST = "pull_request";
-  private static final String PUSH = "push";
+  private static final String PULL_REQUEST_EVENT = "pull_request";
+  private static final String PUSH_EVENT = "push";
   private static final Set<String> ALLOWED_REFS = of("refs/heads/main", "refs/heads/master");
   private static final Set<String> ALLOWED_BRANCHES = of("main", "master");
+  private static final Pattern COMMIT_SHA = compile("[0-9a-f]{40}|[0-9a-f]{64}");
+  private static final Pattern NULL_SHA = compile("0+");
 
   public boolean isTriggerRef(WebhookPayloadWithHeaders payload) {
     var event = payload.eventType();
     var dto = payload.dto();
 
-    if (PUSH.equals(event)) {
+    if (PUSH_EVENT.equals(event)) {
       var ref = dto.ref();
       return ref != null && ALLOWED_REFS.contains(ref);
     }
-    if (PULL_REQUEST.equals(event)
+    if (PULL_REQUEST_EVENT.equals(event)
         && dto.pullRequest() != null
         && dto.pullRequest().base() != null) {
       var baseBranch = dto.pullRequest().base().ref();
@@ -30,4 +37,30 @@ public class BranchPolicy {
     }
     return false;
   }
+
+  public BuildTrigger triggerOf(WebhookPayloadWithHeaders payload) {
+    return PULL_REQUEST_EVENT.equals(payload.eventType()) ? PULL_REQUEST : PUSH;
+  }
+
+  public String commitShaOf(WebhookPayloadWithHeaders payload) {
+    var dto = payload.dto();
+    if (PULL_REQUEST_EVENT.equals(payload.eventType())) {
+      var pullRequest = dto.pullRequest();
+      return pullRequest == null || pullRequest.head() == null
+          ? null
+          : validSha(pullRequest.head().sha());
+    }
+    var after = validSha(dto.after());
+    if (after != null || dto.headCommit() == null) {
+      return after;
+    }
+    return validSha(dto.headCommit().id());
+  }
+
+  private String validSha(String sha) {
+    if (sha == null || !COMMIT_SHA.matcher(sha).matches() || NULL_SHA.matcher(sha).matches()) {
+      return null;
+    }
+    return sha;
+  }
 }
@@ -15,6 +15,13 @@ public class IdempotencyService {
     return !tryRegisterFirstSeen(deliveryId);
   }
 
+  public void forget(String deliveryId) {
+    if (deliveryId == null || deliveryId.isBlank()) {
+      return;
+    }
+    repository.deleteByDeliveryId(deliveryId);
+  }
+
   private boolean tryRegisterFirstSeen(String deliveryId) {
     if (deliveryId == null || deliveryId.isBlank()) {
       return true;
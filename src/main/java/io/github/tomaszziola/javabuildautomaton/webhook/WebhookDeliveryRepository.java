@@ -1,6 +1,11 @@
 package io.github.tomaszziola.javabuildautomaton.webhook;
 
 import io.github.tomaszziola.javabuildautomaton.webhook.entity.WebhookDelivery;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface WebhookDeliveryRepository extends JpaRepository<WebhookDelivery, Long> {}
+public interface WebhookDeliveryRepository extends JpaRepository<WebhookDelivery, Long> {
+
+  @Transactional
+  void deleteByDeliveryId(String deliveryId);
+}
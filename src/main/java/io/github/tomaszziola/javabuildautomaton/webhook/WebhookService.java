@@ -1,11 +1,14 @@
 package io.github.tomaszziola.javabuildautomaton.webhook;
 
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.COALESCED;
 import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.FOUND;
 import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.NOT_FOUND;
 import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.SKIPPED;
 
 import io.github.tomaszziola.javabuildautomaton.api.dto.ApiResponse;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildOrchestrator;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildQueueFullException;
 import io.github.tomaszziola.javabuildautomaton.project.ProjectRepository;
 import io.github.tomaszziola.javabuildautomaton.project.entity.Project;
 import io.github.tomaszziola.javabuildautomaton.webhook.dto.WebhookPayloadWithHeaders;
@@ -18,7 +21,9 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class WebhookService {
 
+  private final BranchPolicy branchPolicy;
   private final BuildOrchestrator buildOrchestrator;
+  private final IdempotencyService idempotencyService;
   private final IngestionGuard ingestionGuard;
   private final ProjectRepository projectRepository;
 
@@ -31,26 +36,40 @@ public class WebhookService {
           respondAndLog("Duplicate delivery ignored for Deliver ID: " + payload.deliveryId());
       case NON_TRIGGER_REF ->
           respondAndLog("Non triggered ref ignored for Deliver ID: " + payload.deliveryId());
-      case ALLOW -> {
-        var repositoryFullName = dto.repository().fullName();
-        yield projectRepository
-            .findByRepositoryFullName(repositoryFullName)
-            .map(this::handleProject)
-            .orElseGet(() -> handleProjectMissing(repositoryFullName));
-      }
+      case ALLOW -> handleAllowed(payload, dto.repository().fullName());
     };
   }
 
+  private ApiResponse handleAllowed(WebhookPayloadWithHeaders payload, String repositoryFullName) {
+    var trigger = branchPolicy.triggerOf(payload);
+    var commitSha = branchPolicy.commitShaOf(payload);
+    try {
+      return projectRepository
+          .findByRepositoryFullName(repositoryFullName)
+          .map(project -> handleProject(project, trigger, commitSha))
+          .orElseGet(() -> handleProjectMissing(repositoryFullName));
+    } catch (BuildQueueFullException exception) {
+      idempotencyService.forget(payload.deliveryId());
+      throw exception;
+    }
+  }
+
   private ApiResponse respondAndLog(String message) {
     log.info(message);
     return new ApiResponse(SKIPPED, message);
   }
 
-  private ApiResponse handleProject(Project project) {
+  private ApiResponse handleProject(Project project, BuildTrigger trigger, String commitSha) {
     var message = "Project found in the database: " + project.getRepositoryName();
     log.info(message);
-    buildOrchestrator.enqueue(project);
-    return new ApiResponse(FOUND, message + ". Build process started.");
+    return switch (buildOrchestrator.enqueue(project, trigger, commitSha)) {
+      case STARTED -> new ApiResponse(FOUND, message + ". Build process started.");
+      case SKIPPED ->
+          new ApiResponse(
+              SKIPPED, message + ". Commit " + commitSha + " already built successfully.");
+      case COALESCED ->
+          new ApiResponse(COALESCED, message + ". Merged into a build already queued.");
+    };
   }
 
   private ApiResponse handleProjectMissing(String repositoryFullName) {
@@ -7,14 +7,22 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public record WebhookPayload(
     @JsonProperty("ref") String ref,
     @JsonProperty("repository") RepositoryInfo repository,
-    @JsonProperty("pull_request") PullRequest pullRequest) {
+    @JsonProperty("pull_request") PullRequest pullRequest,
+    @JsonProperty("after") String after,
+    @JsonProperty("head_commit") HeadCommit headCommit) {
 
   @JsonIgnoreProperties(ignoreUnknown = true)
   public record RepositoryInfo(@JsonProperty("full_name") String fullName) {}
 
   @JsonIgnoreProperties(ignoreUnknown = true)
-  public record PullRequest(@JsonProperty("base") Base base) {
+  public record PullRequest(@JsonProperty("base") Base base, @JsonProperty("head") Head head) {
     @JsonIgnoreProperties(ignoreUnknown = true)
     public record Base(@JsonProperty("ref") String ref) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Head(@JsonProperty("sha") String sha) {}
   }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public record HeadCommit(@JsonProperty("id") String id) {}
 }
@@ -1,6 +1,7 @@
 package io.github.tomaszziola.javabuildautomaton.webui;
 
 import io.github.tomaszziola.javabuildautomaton.api.dto.PostProjectDto;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildService;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool;
 import io.github.tomaszziola.javabuildautomaton.project.ProjectJavaVersion;
@@ -60,6 +61,7 @@ public class WebUiController {
   public String showCreateProjectForm(Model model) {
     model.addAttribute("request", new PostProjectDto());
     model.addAttribute("buildTools", BuildTool.values());
+    model.addAttribute("buildModes", BuildMode.values());
     model.addAttribute("javaVersions", ProjectJavaVersion.values());
     return "projects-create";
   }
@@ -71,6 +73,7 @@ public class WebUiController {
       Model model) {
     if (bindingResult.hasErrors()) {
       model.addAttribute("buildTools", BuildTool.values());
+      model.addAttribute("buildModes", BuildMode.values());
       return "projects-create";
     }
 
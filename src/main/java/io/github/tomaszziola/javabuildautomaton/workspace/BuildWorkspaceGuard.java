@@ -2,6 +2,7 @@ package io.github.tomaszziola.javabuildautomaton.workspace;
 
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.FAILED;
 
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLog;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildLifecycleService;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.ValidationResult;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
@@ -26,7 +27,7 @@ public class BuildWorkspaceGuard {
   private final WorkspaceManager workspaceManager;
 
   public ValidationResult prepareWorkspaceOrFail(
-      Project project, Build build, StringBuilder buildLog) {
+      Project project, Build build, BuildLog buildLog) {
     File workingDirectory;
     try {
       var projectWorkspace = workspaceManager.ensureWorkspaceFor(project);
@@ -39,7 +40,7 @@ public class BuildWorkspaceGuard {
   }
 
   private ValidationResult validateWorkspaceDir(
-      File dir, Project project, Build build, StringBuilder buildLog) {
+      File dir, Project project, Build build, BuildLog buildLog) {
     if (dir == null || !dir.exists() || !dir.isDirectory()) {
       failBuildForWorkspaceError(
           project, build, buildLog, dir == null ? null : dir.getAbsolutePath());
@@ -49,8 +50,8 @@ public class BuildWorkspaceGuard {
   }
 
   private void failBuildForWorkspaceError(
-      Project project, Build build, CharSequence buildLog, String pathText) {
-    appendGenericFailure(buildLog);
+      Project project, Build build, BuildLog buildLog, String pathText) {
+    buildLog.append(GENERIC_FAILURE_LOG);
     buildLifecycleService.complete(build, FAILED, buildLog);
     if (pathText != null) {
       logWorkspaceError(project, pathText);
@@ -59,14 +60,6 @@ public class BuildWorkspaceGuard {
     logWorkspaceError(project, resolveWorkspacePathString(project));
   }
 
-  private void appendGenericFailure(CharSequence buildLog) {
-    if (buildLog instanceof StringBuilder sb) {
-      sb.append(GENERIC_FAILURE_LOG);
-    } else {
-      new StringBuilder(buildLog).append(GENERIC_FAILURE_LOG);
-    }
-  }
-
   private void logWorkspaceError(Project project, String pathText) {
     if (pathText != null) {
       log.error(LOG_ERR_WITH_PATH, project.getUsername(), pathText);
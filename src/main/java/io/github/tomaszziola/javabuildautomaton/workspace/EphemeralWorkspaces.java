@@ -0,0 +1,86 @@
+package io.github.tomaszziola.javabuildautomaton.workspace;
+
+import static io.github.tomaszziola.javabuildautomaton.workspace.WorkspaceProperties.WorkspaceMode.EPHEMERAL;
+import static java.util.Optional.empty;
+import static org.springframework.util.FileSystemUtils.copyRecursively;
+import static org.springframework.util.FileSystemUtils.deleteRecursively;
+
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogSink;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.GitCommandRunner;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.WorkspaceException;
+import io.github.tomaszziola.javabuildautomaton.project.entity.Project;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EphemeralWorkspaces {
+
+  private final Map<Path, ReentrantLock> locks = new ConcurrentHashMap<>();
+  private final GitCommandRunner gitCommandRunner;
+  private final WorkspaceManager workspaceManager;
+  private final WorkspaceProperties workspaceProperties;
+
+  public boolean isEnabled() {
+    return workspaceProperties.getMode() == EPHEMERAL;
+  }
+
+  public Lock lockFor(File baseCheckout) {
+    return locks.computeIfAbsent(baseCheckout.toPath(), _ -> new ReentrantLock());
+  }
+
+  public Optional<File> create(Project project, Build build, File baseCheckout, LogSink logSink) {
+    Path buildDir;
+    try {
+      buildDir = workspaceManager.createBuildWorkspaceFor(project, build.getId());
+    } catch (WorkspaceException e) {
+      log.error("Build workspace unavailable for build #{}", build.getId(), e);
+      return empty();
+    }
+    if (gitCommandRunner.addWorktree(baseCheckout, buildDir.toFile(), logSink).isSuccess()) {
+      return Optional.of(buildDir.toFile());
+    }
+    log.warn("Git worktree failed for build #{}, copying the base checkout", build.getId());
+    try {
+      copyRecursively(baseCheckout.toPath(), buildDir);
+      return Optional.of(buildDir.toFile());
+    } catch (IOException e) {
+      log.error("Failed to copy base checkout for build #{}", build.getId(), e);
+      remove(buildDir.toFile());
+      return empty();
+    }
+  }
+
+  public void release(File baseCheckout, File workspace, LogSink logSink) {
+    if (workspace.equals(baseCheckout)) {
+      return;
+    }
+    remove(workspace);
+    var lock = lockFor(baseCheckout);
+    lock.lock();
+    try {
+      gitCommandRunner.pruneWorktrees(baseCheckout, logSink);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void remove(File workspace) {
+    try {
+      deleteRecursively(workspace.toPath());
+    } catch (IOException e) {
+      log.warn("Failed to remove build workspace {}", workspace, e);
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package io.github.tomaszziola.javabuildautomaton.workspace;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.lines;
+import static java.nio.file.Files.list;
+import static java.util.Optional.empty;
+import static org.springframework.util.FileSystemUtils.deleteRecursively;
+
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogSink;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.ExecutionResult;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.GitCommandRunner;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.WorkspaceException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GitMirrorCache {
+
+  private static final String MIRROR_SUFFIX = ".git";
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+  private static final int MIRROR_NAME_LENGTH = 32;
+  private static final String ALTERNATES_FILE = ".git/objects/info/alternates";
+  private static final String COMMENT_PREFIX = "#";
+  private static final String ERR_CREATE_MIRROR_DIR_FAILED =
+      "Failed to create git mirror directory: ";
+  private static final String ERR_DISCARD_WORKSPACE_FAILED =
+      "Failed to discard workspace with missing git mirror: ";
+
+  private final Map<Path, ReentrantLock> locks = new ConcurrentHashMap<>();
+  private final GitCommandRunner gitCommandRunner;
+  private final WorkspaceProperties workspaceProperties;
+
+  public Optional<File> sync(String repositoryUrl, LogSink logSink) {
+    if (!workspaceProperties.isMirrorsEnabled()) {
+      return empty();
+    }
+    var mirrorDir = resolveMirrorPath(repositoryUrl);
+    var lock = locks.computeIfAbsent(mirrorDir, _ -> new ReentrantLock());
+    lock.lock();
+    try {
+      var result =
+          isDirectory(mirrorDir)
+              ? gitCommandRunner.updateMirror(mirrorDir.toFile(), logSink)
+              : createMirror(repositoryUrl, mirrorDir, logSink);
+      if (!result.isSuccess()) {
+        log.warn("Git mirror sync failed for {}, cloning directly", repositoryUrl);
+        return empty();
+      }
+      return Optional.of(mirrorDir.toFile());
+    } catch (WorkspaceException e) {
+      log.warn("Git mirror unavailable for {}, cloning directly", repositoryUrl, e);
+      return empty();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public boolean discardIfOrphaned(File workingDirectory) {
+    var alternates = workingDirectory.toPath().resolve(ALTERNATES_FILE);
+    if (!isRegularFile(alternates)) {
+      return false;
+    }
+    try (var lines = lines(alternates)) {
+      var isOrphaned =
+          lines
+              .map(String::strip)
+              .filter(line -> !line.isEmpty() && !line.startsWith(COMMENT_PREFIX))
+              .map(line -> alternates.getParent().getParent().resolve(line))
+              .anyMatch(objects -> !isDirectory(objects));
+      if (!isOrphaned) {
+        return false;
+      }
+      log.warn("Workspace {} refers to a missing git mirror, discarding it", workingDirectory);
+      deleteRecursively(workingDirectory.toPath());
+      createDirectories(workingDirectory.toPath());
+      return true;
+    } catch (IOException e) {
+      throw new WorkspaceException(ERR_DISCARD_WORKSPACE_FAILED + workingDirectory, e);
+    }
+  }
+
+  Path resolveMirrorPath(String repositoryUrl) {
+    return rootDir().resolve(mirrorName(repositoryUrl) + MIRROR_SUFFIX);
+  }
+
+  Path rootDir() {
+    return workspaceProperties.getMirrorDir().toAbsolutePath().normalize();
+  }
+
+  List<Path> mirrors() throws IOException {
+    if (!isDirectory(rootDir())) {
+      return List.of();
+    }
+    try (var entries = list(rootDir())) {
+      return entries
+          .filter(entry -> isDirectory(entry) && entry.toString().endsWith(MIRROR_SUFFIX))
+          .toList();
+    }
+  }
+
+  boolean remove(Path mirrorDir) {
+    var lock = locks.computeIfAbsent(mirrorDir, _ -> new ReentrantLock());
+    if (!lock.tryLock()) {
+      return false;
+    }
+    try {
+      deleteRecursively(mirrorDir);
+      log.info("Removed git mirror {}", mirrorDir);
+      return true;
+    } catch (IOException e) {
+      log.warn("Failed to remove git mirror {}", mirrorDir, e);
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private ExecutionResult createMirror(String repositoryUrl, Path mirrorDir, LogSink logSink) {
+    try {
+      createDirectories(mirrorDir.getParent());
+    } catch (IOException e) {
+      throw new WorkspaceException(ERR_CREATE_MIRROR_DIR_FAILED + mirrorDir.getParent(), e);
+    }
+    log.info("Creating git mirror for {} in {}", repositoryUrl, mirrorDir);
+    return gitCommandRunner.cloneMirror(repositoryUrl, mirrorDir.toFile(), logSink);
+  }
+
+  private String mirrorName(String repositoryUrl) {
+    try {
+      var digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+      return HexFormat.of()
+          .formatHex(digest.digest(repositoryUrl.getBytes(UTF_8)))
+          .substring(0, MIRROR_NAME_LENGTH);
+    } catch (NoSuchAlgorithmException e) {
+      throw new WorkspaceException(DIGEST_ALGORITHM + " not available", e);
+    }
+  }
+}
@@ -0,0 +1,336 @@
+package io.github.tomaszziola.javabuildautomaton.workspace;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.IN_PROGRESS;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.QUEUED;
+import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.Files.getFileStore;
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.Files.list;
+import static java.nio.file.Files.walkFileTree;
+import static java.time.Instant.EPOCH;
+import static java.time.Instant.now;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toMap;
+import static org.springframework.util.FileSystemUtils.deleteRecursively;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildRepository;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildToolCaches;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.ProjectActivity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class WorkspaceGarbageCollector {
+
+  private static final String HIDDEN_PREFIX = ".";
+  private static final String BUILDS_DIR = ".builds";
+  private static final String BUILD_ID_SEPARATOR = "-";
+
+  private final Map<Path, Measurement> measurements = new ConcurrentHashMap<>();
+  private final AtomicLong usedBytes = new AtomicLong();
+  private final BuildRepository buildRepository;
+  private final BuildToolCaches buildToolCaches;
+  private final EphemeralWorkspaces ephemeralWorkspaces;
+  private final GitMirrorCache gitMirrorCache;
+  private final WorkspaceProperties workspaceProperties;
+  private final Counter evictions;
+
+  public WorkspaceGarbageCollector(
+      BuildRepository buildRepository,
+      BuildToolCaches buildToolCaches,
+      EphemeralWorkspaces ephemeralWorkspaces,
+      GitMirrorCache gitMirrorCache,
+      WorkspaceProperties workspaceProperties,
+      MeterRegistry meterRegistry) {
+    this.buildRepository = buildRepository;
+    this.buildToolCaches = buildToolCaches;
+    this.ephemeralWorkspaces = ephemeralWorkspaces;
+    this.gitMirrorCache = gitMirrorCache;
+    this.workspaceProperties = workspaceProperties;
+    Gauge.builder("workspace.disk.used", usedBytes, AtomicLong::get)
+        .description(
+            "Bytes used by workspaces, git mirrors and build tool caches at the last collection")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("workspace.disk.budget", workspaceProperties, WorkspaceGarbageCollector::budget)
+        .description("Configured total size budget of workspaces, mirrors and tool caches")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("workspace.disk.free", this, WorkspaceGarbageCollector::usableSpace)
+        .description("Usable space left on the workspace volume")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    this.evictions =
+        Counter.builder("workspace.gc.evictions")
+            .description("Workspaces, git mirrors and tool caches deleted by the collector")
+            .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${workspace.gc.interval}")
+  synchronized void collect() {
+    if (!workspaceProperties.getGc().isEnabled()) {
+      return;
+    }
+    try {
+      collectBuildWorkspaces();
+      collectWorkspaces();
+    } catch (IOException e) {
+      log.warn("Workspace garbage collection failed", e);
+    }
+  }
+
+  private void collectBuildWorkspaces() throws IOException {
+    var buildsDir = baseDir().resolve(BUILDS_DIR);
+    if (!isDirectory(buildsDir)) {
+      return;
+    }
+    Map<Long, Path> buildDirs;
+    try (var entries = list(buildsDir)) {
+      buildDirs =
+          entries
+              .filter(Files::isDirectory)
+              .filter(dir -> buildIdOf(dir).isPresent())
+              .collect(toMap(dir -> buildIdOf(dir).orElseThrow(), dir -> dir));
+    }
+    if (buildDirs.isEmpty()) {
+      return;
+    }
+    var activeIds =
+        buildRepository.findIdsByStatusIn(buildDirs.keySet(), Set.of(QUEUED, IN_PROGRESS));
+    buildDirs.forEach(
+        (buildId, dir) -> {
+          if (!activeIds.contains(buildId)) {
+            removeBuildWorkspace(buildId, dir);
+          }
+        });
+  }
+
+  private void removeBuildWorkspace(Long buildId, Path dir) {
+    try {
+      deleteRecursively(dir);
+      log.info("Removed workspace {} left behind by finished build #{}", dir, buildId);
+    } catch (IOException e) {
+      log.warn("Failed to remove workspace {} of finished build #{}", dir, buildId, e);
+    }
+  }
+
+  private static Optional<Long> buildIdOf(Path dir) {
+    var name = dir.getFileName().toString();
+    var suffix = name.substring(name.lastIndexOf(BUILD_ID_SEPARATOR) + 1);
+    try {
+      return Optional.of(Long.parseLong(suffix));
+    } catch (NumberFormatException _) {
+      return Optional.empty();
+    }
+  }
+
+  private void collectWorkspaces() throws IOException {
+    var gc = workspaceProperties.getGc();
+    var activeNames = buildRepository.findRepositoryNamesByStatus(IN_PROGRESS);
+    var activity = buildRepository.findProjectActivity();
+    var workspaces = measureWorkspaces(activity, activeNames);
+    var mirrors = measureMirrors(activity);
+    var toolCaches = measureToolCaches();
+    measurements.keySet().removeIf(dir -> !isDirectory(dir));
+    var total =
+        workspaces.stream().mapToLong(Workspace::bytes).sum()
+            + mirrors.stream().mapToLong(CacheDir::bytes).sum()
+            + toolCaches.stream().mapToLong(CacheDir::bytes).sum();
+    var idleSince = now().minus(gc.getMirrorIdleTimeout());
+    for (var mirror : mirrors) {
+      if (mirror.lastUsedAt().isBefore(idleSince) && remove(mirror, gitMirrorCache::remove)) {
+        total -= mirror.bytes();
+      }
+    }
+    var evictable =
+        workspaces.stream()
+            .filter(workspace -> !activeNames.contains(workspace.repositoryName()))
+            .sorted(comparing(Workspace::lastUsedAt))
+            .toList();
+    for (var workspace : evictable) {
+      var overQuota = workspace.bytes() > gc.getMaxProjectSize().toBytes();
+      var overBudget = total > gc.getMaxTotalSize().toBytes();
+      if ((overQuota || overBudget) && evict(workspace)) {
+        total -= workspace.bytes();
+      }
+    }
+    var trimmable = toolCaches.stream().sorted(comparing(CacheDir::lastUsedAt)).toList();
+    for (var toolCache : trimmable) {
+      var overBudget = total > gc.getMaxTotalSize().toBytes();
+      if (overBudget && remove(toolCache, buildToolCaches::remove)) {
+        total -= toolCache.bytes();
+      }
+    }
+    usedBytes.set(total);
+  }
+
+  private List<Workspace> measureWorkspaces(
+      List<ProjectActivity> activity, Set<String> activeNames) throws IOException {
+    var lastBuilds =
+        activity.stream()
+            .filter(project -> project.lastBuildAt() != null)
+            .collect(
+                toMap(
+                    ProjectActivity::repositoryName,
+                    ProjectActivity::lastBuildAt,
+                    (first, second) -> first.isAfter(second) ? first : second));
+    var workspaces = new ArrayList<Workspace>();
+    try (var entries = list(baseDir())) {
+      for (var dir : entries.filter(this::isWorkspace).toList()) {
+        var name = dir.getFileName().toString();
+        var lastUsedAt = lastBuilds.getOrDefault(name, EPOCH);
+        var bytes = sizeOf(dir, lastUsedAt, activeNames.contains(name));
+        workspaces.add(new Workspace(dir, name, lastUsedAt, bytes));
+      }
+    }
+    return workspaces;
+  }
+
+  private List<CacheDir> measureMirrors(List<ProjectActivity> activity) throws IOException {
+    var lastBuilds =
+        activity.stream()
+            .filter(project -> project.repositoryUrl() != null && project.lastBuildAt() != null)
+            .collect(
+                toMap(
+                    project -> gitMirrorCache.resolveMirrorPath(project.repositoryUrl()),
+                    ProjectActivity::lastBuildAt,
+                    (first, second) -> first.isAfter(second) ? first : second));
+    var mirrors = new ArrayList<CacheDir>();
+    for (var dir : gitMirrorCache.mirrors()) {
+      var lastUsedAt = lastBuilds.getOrDefault(dir, EPOCH);
+      mirrors.add(new CacheDir(dir, lastUsedAt, sizeOf(dir, lastUsedAt, false)));
+    }
+    return mirrors;
+  }
+
+  private List<CacheDir> measureToolCaches() throws IOException {
+    var toolCaches = new ArrayList<CacheDir>();
+    for (var toolCache : buildToolCaches.caches()) {
+      var bytes = sizeOf(toolCache.dir(), toolCache.lastUsedAt(), false);
+      toolCaches.add(new CacheDir(toolCache.dir(), toolCache.lastUsedAt(), bytes));
+    }
+    return toolCaches;
+  }
+
+  private boolean isWorkspace(Path path) {
+    return isDirectory(path)
+        && !path.getFileName().toString().startsWith(HIDDEN_PREFIX)
+        && !path.equals(gitMirrorCache.rootDir())
+        && !path.equals(buildToolCaches.rootDir());
+  }
+
+  private long sizeOf(Path dir, Instant lastUsedAt, boolean isActive) throws IOException {
+    var cached = measurements.get(dir);
+    if (cached != null && !isActive && lastUsedAt.isBefore(cached.measuredAt())) {
+      return cached.bytes();
+    }
+    var measuredAt = now();
+    var bytes = walkSize(dir);
+    measurements.put(dir, new Measurement(bytes, measuredAt));
+    return bytes;
+  }
+
+  private boolean remove(CacheDir cacheDir, Predicate<Path> removal) {
+    if (!removal.test(cacheDir.dir())) {
+      return false;
+    }
+    measurements.remove(cacheDir.dir());
+    evictions.increment();
+    return true;
+  }
+
+  private boolean evict(Workspace workspace) {
+    Lock lock;
+    try {
+      lock = ephemeralWorkspaces.lockFor(workspace.dir().toRealPath().toFile());
+    } catch (IOException e) {
+      log.warn("Failed to resolve workspace {}", workspace.dir(), e);
+      return false;
+    }
+    if (!lock.tryLock()) {
+      return false;
+    }
+    try {
+      var activeNames = buildRepository.findRepositoryNamesByStatus(IN_PROGRESS);
+      if (activeNames.contains(workspace.repositoryName())) {
+        return false;
+      }
+      deleteRecursively(workspace.dir());
+    } catch (IOException e) {
+      log.warn("Failed to evict workspace {}", workspace.dir(), e);
+      return false;
+    } finally {
+      lock.unlock();
+    }
+    measurements.remove(workspace.dir());
+    evictions.increment();
+    log.info(
+        "Evicted workspace {} ({} bytes, last used {})",
+        workspace.dir(),
+        workspace.bytes(),
+        workspace.lastUsedAt());
+    return true;
+  }
+
+  private Path baseDir() {
+    return workspaceProperties.getBaseDir().toAbsolutePath().normalize();
+  }
+
+  private double usableSpace() {
+    try {
+      return getFileStore(baseDir()).getUsableSpace();
+    } catch (IOException _) {
+      return Double.NaN;
+    }
+  }
+
+  private static double budget(WorkspaceProperties properties) {
+    return properties.getGc().getMaxTotalSize().toBytes();
+  }
+
+  private static long walkSize(Path dir) throws IOException {
+    var size = new AtomicLong();
+    walkFileTree(
+        dir,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            size.addAndGet(attrs.size());
+            return CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException exc) {
+            return CONTINUE;
+          }
+        });
+    return size.get();
+  }
+
+  private record Measurement(long bytes, Instant measuredAt) {}
+
+  private record Workspace(Path dir, String repositoryName, Instant lastUsedAt, long bytes) {}
+
+  private record CacheDir(Path dir, Instant lastUsedAt, long bytes) {}
+}
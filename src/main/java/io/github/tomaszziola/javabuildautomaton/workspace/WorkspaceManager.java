@@ -4,6 +4,7 @@ import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.exists;
 import static java.nio.file.Files.isDirectory;
 import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static org.springframework.util.FileSystemUtils.deleteRecursively;
 import static org.springframework.util.StringUtils.hasText;
 
 import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.WorkspaceException;
@@ -29,7 +30,10 @@ public class WorkspaceManager {
   private static final String ERR_TARGET_NOT_DIR = "Workspace path is not a directory: ";
   private static final String ERR_TARGET_OUTSIDE_BASE =
       "Workspace path resolved outside of base directory. baseDir=";
+  private static final String ERR_BUILD_WORKSPACE_FAILED =
+      "Failed to prepare build workspace directory: ";
   private static final String TARGET_EQ = " target=";
+  private static final String BUILDS_DIR = ".builds";
 
   private final Path baseDir;
 
@@ -69,6 +73,21 @@ public class WorkspaceManager {
     return projectDir;
   }
 
+  public Path createBuildWorkspaceFor(Project project, long buildId) {
+    var buildsDir = baseDir.resolve(BUILDS_DIR);
+    var buildDir = buildsDir.resolve(requireRepositoryName(project) + "-" + buildId).normalize();
+    if (!buildDir.startsWith(buildsDir)) {
+      throw new WorkspaceException(ERR_TARGET_OUTSIDE_BASE + buildsDir + TARGET_EQ + buildDir);
+    }
+    try {
+      deleteRecursively(buildDir);
+      createDirectories(buildDir.getParent());
+    } catch (IOException e) {
+      throw new WorkspaceException(ERR_BUILD_WORKSPACE_FAILED + buildDir, e);
+    }
+    return buildDir;
+  }
+
   private String requireRepositoryName(Project project) {
     var repo = project.getRepositoryName();
     if (!hasText(repo)) {
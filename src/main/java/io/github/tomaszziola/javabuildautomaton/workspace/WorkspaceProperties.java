@@ -2,10 +2,12 @@ package io.github.tomaszziola.javabuildautomaton.workspace;
 
 import jakarta.validation.constraints.NotNull;
 import java.nio.file.Path;
+import java.time.Duration;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 @Getter
@@ -15,4 +17,31 @@ import org.springframework.validation.annotation.Validated;
 @ConfigurationProperties(prefix = "workspace")
 public class WorkspaceProperties {
   @NotNull private Path baseDir;
+
+  @NotNull private WorkspaceMode mode;
+
+  private boolean mirrorsEnabled;
+
+  @NotNull private Path mirrorDir;
+
+  private final GcProps gc = new GcProps();
+
+  @Setter
+  @Getter
+  public static class GcProps {
+    private boolean enabled;
+
+    @NotNull private Duration interval;
+
+    @NotNull private DataSize maxTotalSize;
+
+    @NotNull private DataSize maxProjectSize;
+
+    @NotNull private Duration mirrorIdleTimeout;
+  }
+
+  public enum WorkspaceMode {
+    SHARED,
+    EPHEMERAL
+  }
 }
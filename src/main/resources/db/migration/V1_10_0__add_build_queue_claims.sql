@@ -0,0 +1,7 @@
+ALTER TABLE build
+    ADD COLUMN claimed_by   VARCHAR(64),
+    ADD COLUMN heartbeat_at TIMESTAMP;
+
+CREATE INDEX ix_build_unclaimed_queue ON build (id) WHERE status = 'QUEUED' AND claimed_by IS NULL;
+
+CREATE INDEX ix_build_claim_heartbeat ON build (heartbeat_at) WHERE claimed_by IS NOT NULL;
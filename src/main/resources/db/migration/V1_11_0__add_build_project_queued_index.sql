@@ -0,0 +1 @@
+CREATE INDEX ix_build_project_queued ON build (project_id, id) WHERE status = 'QUEUED' AND claimed_by IS NULL;
@@ -0,0 +1,3 @@
+ALTER TABLE build
+    ADD COLUMN trigger_type VARCHAR(16) NOT NULL DEFAULT 'PUSH',
+    ADD COLUMN priority     SMALLINT    NOT NULL DEFAULT 1;
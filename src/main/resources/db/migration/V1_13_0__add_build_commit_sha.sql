@@ -0,0 +1,4 @@
+ALTER TABLE build
+    ADD COLUMN commit_sha VARCHAR(64);
+
+CREATE INDEX ix_build_project_commit_succeeded ON build (project_id, commit_sha) WHERE status = 'SUCCESS';
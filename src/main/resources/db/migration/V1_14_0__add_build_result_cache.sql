@@ -0,0 +1,8 @@
+ALTER TABLE build
+    ADD COLUMN tree_sha VARCHAR(64),
+    ADD COLUMN build_tool VARCHAR(255),
+    ADD COLUMN java_version INTEGER,
+    ADD COLUMN cached_from_id BIGINT REFERENCES build (id);
+
+CREATE INDEX ix_build_result_cache ON build (project_id, tree_sha, build_tool, java_version)
+    WHERE status = 'SUCCESS' AND cached_from_id IS NULL;
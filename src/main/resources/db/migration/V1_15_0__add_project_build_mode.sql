@@ -0,0 +1,2 @@
+ALTER TABLE project
+    ADD COLUMN build_mode VARCHAR(32) NOT NULL DEFAULT 'FULL_CLEAN';
@@ -0,0 +1,6 @@
+ALTER TABLE project
+    ADD COLUMN build_command VARCHAR(512),
+    ADD COLUMN pull_request_build_command VARCHAR(512);
+
+ALTER TABLE build
+    ADD COLUMN build_command VARCHAR(512);
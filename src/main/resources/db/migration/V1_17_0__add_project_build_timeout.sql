@@ -0,0 +1,2 @@
+ALTER TABLE project
+    ADD COLUMN build_timeout_minutes INTEGER;
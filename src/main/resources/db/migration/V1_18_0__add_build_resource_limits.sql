@@ -0,0 +1,9 @@
+ALTER TABLE project
+    ADD COLUMN cpu_limit_millicores INTEGER,
+    ADD COLUMN memory_limit_mb INTEGER,
+    ADD COLUMN pids_limit INTEGER;
+
+ALTER TABLE build
+    ADD COLUMN cpu_time_ms BIGINT,
+    ADD COLUMN memory_peak_bytes BIGINT,
+    ADD COLUMN pids_peak INTEGER;
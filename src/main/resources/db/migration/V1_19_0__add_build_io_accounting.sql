@@ -0,0 +1,3 @@
+ALTER TABLE build
+    ADD COLUMN read_bytes BIGINT,
+    ADD COLUMN write_bytes BIGINT;
@@ -0,0 +1,20 @@
+CREATE SEQUENCE public.build_log_chunk_sq INCREMENT 50 START WITH 1 MINVALUE 1;
+
+CREATE TABLE build_log_chunk
+(
+    id       BIGINT PRIMARY KEY,
+    build_id BIGINT  NOT NULL,
+    seq      INTEGER NOT NULL,
+    content  TEXT    NOT NULL,
+    CONSTRAINT fk_build_log_chunk_build FOREIGN KEY (build_id) REFERENCES build (id) ON DELETE CASCADE,
+    CONSTRAINT ux_build_log_chunk_build_seq UNIQUE (build_id, seq)
+);
+
+INSERT INTO build_log_chunk (id, build_id, seq, content)
+SELECT nextval('build_log_chunk_sq'), b.id, chunk.seq, substr(b.logs, chunk.seq * 65536 + 1, 65536)
+FROM build b
+         CROSS JOIN LATERAL generate_series(0, (length(b.logs) - 1) / 65536) AS chunk(seq)
+WHERE b.logs IS NOT NULL;
+
+ALTER TABLE build
+    DROP COLUMN logs;
@@ -0,0 +1,8 @@
+ALTER TABLE build_log_chunk
+    ALTER COLUMN content DROP NOT NULL,
+    ADD COLUMN compressed_content BYTEA,
+    ADD CONSTRAINT ck_build_log_chunk_content
+        CHECK (content IS NOT NULL OR compressed_content IS NOT NULL);
+
+ALTER TABLE build_log_chunk
+    ALTER COLUMN compressed_content SET STORAGE EXTERNAL;
@@ -1,10 +1,14 @@
 package io.github.tomaszziola.javabuildautomaton.api.exception;
 
+import static java.time.Duration.ofSeconds;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 
 import io.github.tomaszziola.javabuildautomaton.api.dto.ErrorResponse;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildNotFoundException;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildQueueFullException;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.WorkspaceException;
 import io.github.tomaszziola.javabuildautomaton.project.exception.ProjectNotFoundException;
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
@@ -75,4 +79,23 @@ class GlobalExceptionHandlerTest extends BaseUnit {
     assertThat(body.path()).isEqualTo("/api/projects/123");
     assertThat(body.timestamp()).isNotNull();
   }
+
+  @Test
+  @DisplayName("BuildQueueFullException is mapped to 429 Too Many Requests with Retry-After")
+  void buildQueueFullHandled() {
+    // given
+    final var exception = new BuildQueueFullException(123L, ofSeconds(30));
+
+    // when
+    final var response = handler.handleBuildQueueFull(exception, httpServletRequest);
+
+    // then
+    assertThat(response.getStatusCode()).isEqualTo(TOO_MANY_REQUESTS);
+    assertThat(response.getHeaders().getFirst(RETRY_AFTER)).isEqualTo("30");
+    final ErrorResponse body = response.getBody();
+    assertThat(body).isNotNull();
+    assertThat(body.status()).isEqualTo(429);
+    assertThat(body.error()).isEqualTo("Too Many Requests");
+    assertThat(body.message()).contains("123");
+  }
 }
@@ -0,0 +1,59 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+class BuildLogRestControllerTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given build id, when getting logs, then delegate to log download")
+  void delegatesLogDownload() {
+    // given
+    final StreamingResponseBody body = _ -> {};
+    when(buildLogService.download(buildId)).thenReturn(body);
+
+    // when
+    final var result = buildLogRestControllerImpl.getLogs(buildId);
+
+    // then
+    assertThat(result).isSameAs(body);
+  }
+
+  @Test
+  @DisplayName("Given no offset, when streaming logs, then stream from the beginning")
+  void streamsFromBeginningByDefault() {
+    // when
+    final var result = buildLogRestControllerImpl.streamLogs(buildId, null, null);
+
+    // then
+    assertThat(result).isSameAs(sseEmitter);
+    verify(buildLogStreamService).stream(buildId, 0L);
+  }
+
+  @Test
+  @DisplayName(
+      "Given offset and Last-Event-ID, when streaming logs, then resume from Last-Event-ID")
+  void prefersLastEventIdOverOffset() {
+    // when
+    buildLogRestControllerImpl.streamLogs(buildId, 10L, 25L);
+
+    // then
+    verify(buildLogStreamService).stream(buildId, 25L);
+  }
+
+  @Test
+  @DisplayName("Given offset only, when streaming logs, then resume from offset")
+  void resumesFromOffset() {
+    // when
+    buildLogRestControllerImpl.streamLogs(buildId, 10L, null);
+
+    // then
+    verify(buildLogStreamService).stream(buildId, 10L);
+  }
+}
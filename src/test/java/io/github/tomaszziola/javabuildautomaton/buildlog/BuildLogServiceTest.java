@@ -0,0 +1,107 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.Duration.ZERO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildNotFoundException;
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BuildLogServiceTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given build, when opening log, then appended output goes to the store")
+  void opensLogBackedByStore() {
+    // when
+    try (var log = buildLogServiceImpl.open(build)) {
+      log.append("hello\n");
+    }
+
+    // then
+    verify(buildLogStore).append(build.getId(), 0, "hello\n");
+  }
+
+  @Test
+  @DisplayName("Given open build log, when appending, then output is tailable until close")
+  void registersLiveLogWhileOpen() throws InterruptedException {
+    // given
+    final var log = buildLogServiceImpl.open(build);
+
+    // when
+    log.append("live\n");
+
+    // then
+    final var liveLog = liveLogRegistryImpl.find(build.getId()).orElseThrow();
+    assertThat(liveLog.readFrom(0, ZERO).orElseThrow().text()).isEqualTo("live\n");
+    log.close();
+    assertThat(liveLogRegistryImpl.find(build.getId())).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Given stored log, when building tail, then keep only the end of the log")
+  void tailsStoredLog() throws IOException {
+    // given
+    doAnswer(
+            inv -> {
+              inv.<Writer>getArgument(1).write("x".repeat(1000) + "y".repeat(1024));
+              return null;
+            })
+        .when(buildLogStore)
+        .transferTo(eq(build.getId()), any(Writer.class));
+
+    // when
+    final var result = buildLogServiceImpl.tail(build);
+
+    // then
+    assertThat(result.text()).isEqualTo("y".repeat(1024));
+    assertThat(result.length()).isEqualTo(2024);
+    assertThat(result.isTruncated()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Given existing build, when downloading, then stream stored log as UTF-8")
+  void downloadsStoredLog() throws IOException {
+    // given
+    doAnswer(
+            inv -> {
+              inv.<Writer>getArgument(1).write("zażółć\n");
+              return null;
+            })
+        .when(buildLogStore)
+        .transferTo(eq(buildId), any(Writer.class));
+    final var output = new ByteArrayOutputStream();
+
+    // when
+    buildLogServiceImpl.download(buildId).writeTo(output);
+
+    // then
+    assertThat(output.toString(UTF_8)).isEqualTo("zażółć\n");
+  }
+
+  @Test
+  @DisplayName("Given build id, when discarding, then delete stored log")
+  void discardsStoredLog() {
+    // when
+    buildLogServiceImpl.discard(buildId);
+
+    // then
+    verify(buildLogStore).delete(buildId);
+  }
+
+  @Test
+  @DisplayName("Given unknown build, when downloading, then throw BuildNotFoundException")
+  void throwsWhenDownloadingMissingBuild() {
+    assertThatThrownBy(() -> buildLogServiceImpl.download(nonExistentBuildId))
+        .isInstanceOf(BuildNotFoundException.class);
+  }
+}
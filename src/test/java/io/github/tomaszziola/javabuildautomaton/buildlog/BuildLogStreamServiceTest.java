@@ -0,0 +1,187 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.QUEUED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.SUCCESS;
+import static java.util.stream.Collectors.joining;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildNotFoundException;
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+class BuildLogStreamServiceTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given unknown build, when streaming, then throw BuildNotFoundException")
+  void throwsWhenBuildMissing() {
+    assertThatThrownBy(() -> buildLogStreamServiceImpl.stream(nonExistentBuildId, 0))
+        .isInstanceOf(BuildNotFoundException.class);
+  }
+
+  @Test
+  @DisplayName("Given running build, when pumping, then send buffered output and end on close")
+  void sendsLiveOutputUntilClosed() throws IOException {
+    // given
+    final var liveLog = liveLogRegistryImpl.open(buildId, 1024);
+    liveLog.append("hello\n");
+    doAnswer(
+            _ -> {
+              liveLog.close();
+              return null;
+            })
+        .when(sseEmitter)
+        .send(any(SseEventBuilder.class));
+
+    // when
+    buildLogStreamServiceImpl.pump(buildId, 0, sseEmitter, new AtomicBoolean(false));
+
+    // then
+    assertThat(sentEvents()).contains("event:log", "id:6", "data:hello", "event:end");
+    verify(sseEmitter).complete();
+  }
+
+  @Test
+  @DisplayName(
+      "Given queued build, when its live log opens, then stream it after a single status lookup")
+  void streamsLiveLogOnceQueuedBuildStarts() throws Exception {
+    // given
+    build.setStatus(QUEUED);
+    doAnswer(
+            _ -> {
+              liveLogRegistryImpl.find(buildId).ifPresent(LiveLog::close);
+              return null;
+            })
+        .when(sseEmitter)
+        .send(any(SseEventBuilder.class));
+    final var viewer =
+        Thread.ofVirtual()
+            .start(
+                () ->
+                    buildLogStreamServiceImpl.pump(
+                        buildId, 0, sseEmitter, new AtomicBoolean(false)));
+    verify(buildRepository, timeout(1000)).findById(buildId);
+
+    // when
+    liveLogRegistryImpl.open(buildId, 1024).append("hello\n");
+    viewer.join();
+
+    // then
+    assertThat(sentEvents()).contains("data:hello", "event:end");
+    verify(buildRepository, times(1)).findById(buildId);
+  }
+
+  @Test
+  @DisplayName("Given finished build, when pumping from offset, then send stored remainder and end")
+  void sendsStoredRemainderForFinishedBuild() throws IOException {
+    // given
+    build.setStatus(SUCCESS);
+    storedLog("first\n", "second\n");
+
+    // when
+    buildLogStreamServiceImpl.pump(buildId, 6, sseEmitter, new AtomicBoolean(false));
+
+    // then
+    assertThat(sentEvents()).contains("data:second", "id:13", "event:end").doesNotContain("first");
+    verify(sseEmitter).complete();
+  }
+
+  @Test
+  @DisplayName("Given offset evicted from live buffer, when pumping, then catch up from the store")
+  void catchesUpFromStoreWhenOffsetEvicted() throws IOException {
+    // given
+    final var isCancelled = new AtomicBoolean(false);
+    liveLogRegistryImpl.open(buildId, 4).append("abcdefgh");
+    storedLog("abcdefgh");
+    doAnswer(
+            _ -> {
+              isCancelled.set(true);
+              return null;
+            })
+        .when(sseEmitter)
+        .send(any(SseEventBuilder.class));
+
+    // when
+    buildLogStreamServiceImpl.pump(buildId, 1, sseEmitter, isCancelled);
+
+    // then
+    assertThat(sentEvents()).contains("data:bcdefgh", "id:8");
+  }
+
+  @Test
+  @DisplayName(
+      "Given offset inside a stored chunk, when pumping, then skip to offset and send the rest")
+  void skipsStoredOutputBeforeOffset() throws IOException {
+    // given
+    build.setStatus(SUCCESS);
+    storedLog("abc", "defg", "hij");
+
+    // when
+    buildLogStreamServiceImpl.pump(buildId, 5, sseEmitter, new AtomicBoolean(false));
+
+    // then
+    assertThat(sentEvents())
+        .contains("data:fg", "id:7", "data:hij", "id:10", "event:end")
+        .doesNotContain("abc", "de");
+  }
+
+  @Test
+  @DisplayName("Given offset past stored output, when pumping, then send only the end event")
+  void sendsNothingStoredPastOffset() throws IOException {
+    // given
+    build.setStatus(SUCCESS);
+    storedLog("abc");
+
+    // when
+    buildLogStreamServiceImpl.pump(buildId, 3_000_000_000L, sseEmitter, new AtomicBoolean(false));
+
+    // then
+    assertThat(sentEvents()).contains("event:end", "id:3000000000").doesNotContain("event:log");
+  }
+
+  @Test
+  @DisplayName("Given cancelled stream, when pumping, then send nothing")
+  void stopsWhenCancelled() throws IOException {
+    // when
+    buildLogStreamServiceImpl.pump(buildId, 0, sseEmitter, new AtomicBoolean(true));
+
+    // then
+    verify(sseEmitter, never()).send(any(SseEventBuilder.class));
+  }
+
+  private void storedLog(String... chunks) throws IOException {
+    doAnswer(
+            invocation -> {
+              final Writer writer = invocation.getArgument(1);
+              for (final var chunk : chunks) {
+                writer.write(chunk);
+              }
+              return null;
+            })
+        .when(buildLogStore)
+        .transferTo(eq(buildId), any(Writer.class));
+  }
+
+  private String sentEvents() throws IOException {
+    final var captor = ArgumentCaptor.forClass(SseEventBuilder.class);
+    verify(sseEmitter, atLeastOnce()).send(captor.capture());
+    return captor.getAllValues().stream()
+        .flatMap(builder -> builder.build().stream())
+        .map(data -> String.valueOf(data.getData()))
+        .collect(joining());
+  }
+}
@@ -0,0 +1,80 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static java.time.Duration.ZERO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BuildLogTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given output below chunk size, when appending, then nothing is written until close")
+  void buffersOutputBelowChunkSize() {
+    // given
+    final var log = new BuildLog(buildId, buildLogStore, 8, liveLog);
+
+    // when
+    log.append("abc");
+
+    // then
+    verify(buildLogStore, never()).append(anyLong(), anyInt(), anyString());
+    log.close();
+    verify(buildLogStore).append(buildId, 0, "abc");
+  }
+
+  @Test
+  @DisplayName("Given output above chunk size, when appending, then write fixed-size chunks")
+  void writesFixedSizeChunksWhenOutputExceedsChunkSize() {
+    // given
+    final var log = new BuildLog(buildId, buildLogStore, 4, liveLog);
+
+    // when
+    log.append("abcdefghij");
+    log.close();
+
+    // then
+    final var order = inOrder(buildLogStore);
+    order.verify(buildLogStore).append(buildId, 0, "abcd");
+    order.verify(buildLogStore).append(buildId, 1, "efgh");
+    order.verify(buildLogStore).append(buildId, 2, "ij");
+  }
+
+  @Test
+  @DisplayName("Given empty buffer, when flushing, then store is not called")
+  void skipsFlushWhenBufferEmpty() {
+    // given
+    final var log = new BuildLog(buildId, buildLogStore, 4, liveLog);
+
+    // when
+    log.flush();
+    log.append(null);
+    log.close();
+
+    // then
+    verify(buildLogStore, never()).append(anyLong(), anyInt(), anyString());
+  }
+
+  @Test
+  @DisplayName("Given live log, when appending and closing, then output is teed and completed")
+  void teesOutputIntoLiveLog() throws InterruptedException {
+    // given
+    final var log = new BuildLog(buildId, buildLogStore, 4, liveLog);
+
+    // when
+    log.append("abcdef");
+    log.close();
+
+    // then
+    final var slice = liveLog.readFrom(0, ZERO).orElseThrow();
+    assertThat(slice.text()).isEqualTo("abcdef");
+    assertThat(slice.isComplete()).isTrue();
+  }
+}
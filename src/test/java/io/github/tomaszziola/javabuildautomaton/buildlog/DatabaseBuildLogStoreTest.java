@@ -0,0 +1,130 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.LogCompression.NONE;
+import static java.util.List.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.data.domain.PageRequest.ofSize;
+
+import io.github.tomaszziola.javabuildautomaton.buildlog.entity.BuildLogChunk;
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+
+class DatabaseBuildLogStoreTest extends BaseUnit {
+
+  private DatabaseBuildLogStore store;
+
+  @BeforeEach
+  void setUp() {
+    store = new DatabaseBuildLogStore(buildLogChunkRepository, buildProperties);
+  }
+
+  @Test
+  @DisplayName("Given no compression, when appending, then persist plain chunk with sequence")
+  void persistsChunkWithSequence() {
+    // given
+    buildProperties.getLogs().setCompression(NONE);
+    final var captor = ArgumentCaptor.forClass(BuildLogChunk.class);
+
+    // when
+    store.append(buildId, 3, "line\n");
+
+    // then
+    verify(buildLogChunkRepository).save(captor.capture());
+    assertThat(captor.getValue().getBuildId()).isEqualTo(buildId);
+    assertThat(captor.getValue().getSequence()).isEqualTo(3);
+    assertThat(captor.getValue().getContent()).isEqualTo("line\n");
+    assertThat(captor.getValue().getCompressedContent()).isNull();
+  }
+
+  @Test
+  @DisplayName("Given deflate compression, when appending and reading, then round-trip content")
+  void compressesChunksAndInflatesOnRead() throws IOException {
+    // given
+    final var captor = ArgumentCaptor.forClass(BuildLogChunk.class);
+    final var output = "[INFO] BUILD SUCCESS\n".repeat(100);
+    store.append(buildId, 0, output);
+    verify(buildLogChunkRepository).save(captor.capture());
+    when(buildLogChunkRepository.findByBuildIdAndSequenceGreaterThanEqualOrderBySequenceAsc(
+            buildId, 0, ofSize(16)))
+        .thenReturn(of(captor.getValue()));
+    final var writer = new StringWriter();
+
+    // when
+    store.transferTo(buildId, writer);
+
+    // then
+    assertThat(captor.getValue().getContent()).isNull();
+    assertThat(captor.getValue().getCompressedContent()).hasSizeLessThan(output.length() / 10);
+    assertThat(writer).hasToString(output);
+  }
+
+  @Test
+  @DisplayName(
+      "Given more chunks than one page, when transferring, then page by sequence in order")
+  void readsChunksPageByPage() throws IOException {
+    // given
+    final var firstPage = new ArrayList<BuildLogChunk>();
+    for (var sequence = 0; sequence < 16; sequence++) {
+      firstPage.add(chunk(sequence, "a"));
+    }
+    when(buildLogChunkRepository.findByBuildIdAndSequenceGreaterThanEqualOrderBySequenceAsc(
+            buildId, 0, ofSize(16)))
+        .thenReturn(firstPage);
+    when(buildLogChunkRepository.findByBuildIdAndSequenceGreaterThanEqualOrderBySequenceAsc(
+            buildId, 16, ofSize(16)))
+        .thenReturn(of(chunk(16, "b")));
+
+    // when
+    final var result = transferred(buildId);
+
+    // then
+    assertThat(result).isEqualTo("a".repeat(16) + "b");
+  }
+
+  @Test
+  @DisplayName("Given no chunks, when transferring, then write nothing")
+  void writesNothingWhenNoChunks() throws IOException {
+    // given
+    when(buildLogChunkRepository.findByBuildIdAndSequenceGreaterThanEqualOrderBySequenceAsc(
+            eq(nonExistentBuildId), anyInt(), any(Pageable.class)))
+        .thenReturn(of());
+
+    // when
+    final var result = transferred(nonExistentBuildId);
+
+    // then
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Given build id, when deleting, then remove all its chunks")
+  void deletesChunksOfBuild() {
+    // when
+    store.delete(buildId);
+
+    // then
+    verify(buildLogChunkRepository).deleteByBuildId(buildId);
+  }
+
+  private String transferred(Long id) throws IOException {
+    final var writer = new StringWriter();
+    store.transferTo(id, writer);
+    return writer.toString();
+  }
+
+  private BuildLogChunk chunk(int sequence, String content) {
+    return BuildLogChunk.builder().buildId(buildId).sequence(sequence).content(content).build();
+  }
+}
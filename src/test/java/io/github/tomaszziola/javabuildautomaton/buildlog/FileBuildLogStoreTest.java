@@ -0,0 +1,61 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class FileBuildLogStoreTest extends BaseUnit {
+
+  private FileBuildLogStore store;
+
+  @BeforeEach
+  void setUp() {
+    buildProperties.getLogs().setDir(tempDir.resolve("logs"));
+    store = new FileBuildLogStore(buildProperties);
+  }
+
+  @Test
+  @DisplayName("Given appended chunks, when transferring, then write chunks in order")
+  void readsAppendedChunksInOrder() throws IOException {
+    // when
+    store.append(buildId, 0, "first\n");
+    store.append(buildId, 1, "second\n");
+
+    // then
+    assertThat(transferred(buildId)).isEqualTo("first\nsecond\n");
+  }
+
+  @Test
+  @DisplayName("Given no log file, when transferring, then write nothing")
+  void writesNothingWhenLogMissing() throws IOException {
+    // when
+    var result = transferred(nonExistentBuildId);
+
+    // then
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Given stored log, when deleting, then log is gone")
+  void deletesLogFile() throws IOException {
+    // given
+    store.append(buildId, 0, "first\n");
+
+    // when
+    store.delete(buildId);
+
+    // then
+    assertThat(transferred(buildId)).isEmpty();
+  }
+
+  private String transferred(Long id) throws IOException {
+    var writer = new StringWriter();
+    store.transferTo(id, writer);
+    return writer.toString();
+  }
+}
@@ -0,0 +1,69 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static java.time.Duration.ZERO;
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofSeconds;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LiveLogRegistryTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given opened live log, when closing, then it is no longer found")
+  void removesLiveLogOnClose() {
+    // given
+    final var liveLog = liveLogRegistryImpl.open(buildId, 1024);
+
+    // when
+    final var whileOpen = liveLogRegistryImpl.find(buildId);
+    liveLog.close();
+
+    // then
+    assertThat(whileOpen).contains(liveLog);
+    assertThat(liveLogRegistryImpl.find(buildId)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Given live log for build, when reopening, then previous is completed and replaced")
+  void replacesPreviousLiveLog() throws InterruptedException {
+    // given
+    final var previous = liveLogRegistryImpl.open(buildId, 1024);
+
+    // when
+    final var current = liveLogRegistryImpl.open(buildId, 1024);
+
+    // then
+    assertThat(previous.readFrom(0, ZERO).orElseThrow().isComplete()).isTrue();
+    assertThat(liveLogRegistryImpl.find(buildId)).contains(current);
+  }
+
+  @Test
+  @DisplayName("Given viewer awaiting a build, when its live log opens, then hand it over")
+  void completesWaiterOnOpen() throws InterruptedException {
+    // given
+    final var opened = new AtomicReference<LiveLog>();
+    final var opener =
+        Thread.ofVirtual().start(() -> opened.set(liveLogRegistryImpl.open(buildId, 1024)));
+
+    // when
+    final var awaited = liveLogRegistryImpl.await(buildId, ofSeconds(5));
+    opener.join();
+
+    // then
+    assertThat(awaited).contains(opened.get());
+  }
+
+  @Test
+  @DisplayName("Given no live log opened, when awaiting, then return empty after the timeout")
+  void returnsEmptyWhenAwaitTimesOut() throws InterruptedException {
+    // when
+    final var awaited = liveLogRegistryImpl.await(buildId, ofMillis(10));
+
+    // then
+    assertThat(awaited).isEmpty();
+  }
+}
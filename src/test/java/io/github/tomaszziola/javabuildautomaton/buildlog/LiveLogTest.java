@@ -0,0 +1,81 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static java.time.Duration.ZERO;
+import static java.time.Duration.ofMillis;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LiveLogTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given appended output, when reading from offset, then return text after offset")
+  void readsFromOffset() throws InterruptedException {
+    // given
+    final var log = new LiveLog(8, _ -> {});
+    log.append("abcdef");
+
+    // when
+    final var slice = log.readFrom(2, ZERO).orElseThrow();
+
+    // then
+    assertThat(slice.text()).isEqualTo("cdef");
+    assertThat(slice.endOffset()).isEqualTo(6);
+    assertThat(slice.isComplete()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Given output beyond capacity, when reading overwritten offset, then return empty")
+  void returnsEmptyWhenOffsetEvicted() throws InterruptedException {
+    // given
+    final var log = new LiveLog(4, _ -> {});
+    log.append("abc");
+    log.append("defghij");
+
+    // when
+    final var evicted = log.readFrom(2, ZERO);
+    final var retained = log.readFrom(6, ZERO).orElseThrow();
+
+    // then
+    assertThat(evicted).isEmpty();
+    assertThat(retained.text()).isEqualTo("ghij");
+    assertThat(retained.endOffset()).isEqualTo(10);
+  }
+
+  @Test
+  @DisplayName("Given no new output, when reading, then wait for timeout and return empty text")
+  void returnsEmptyTextAfterTimeout() throws InterruptedException {
+    // given
+    final var log = new LiveLog(4, _ -> {});
+
+    // when
+    final var slice = log.readFrom(0, ofMillis(10)).orElseThrow();
+
+    // then
+    assertThat(slice.text()).isEmpty();
+    assertThat(slice.endOffset()).isZero();
+  }
+
+  @Test
+  @DisplayName(
+      "Given closed log, when reading and appending, then slice completes and text is kept")
+  void completesAfterClose() throws InterruptedException {
+    // given
+    final var closed = new AtomicBoolean(false);
+    final var log = new LiveLog(4, _ -> closed.set(true));
+    log.append("ab");
+
+    // when
+    log.close();
+    log.append("cd");
+
+    // then
+    final var slice = log.readFrom(0, ofMillis(10)).orElseThrow();
+    assertThat(slice.text()).isEqualTo("ab");
+    assertThat(slice.isComplete()).isTrue();
+    assertThat(closed).isTrue();
+  }
+}
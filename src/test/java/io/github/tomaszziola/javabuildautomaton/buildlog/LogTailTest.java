@@ -0,0 +1,43 @@
+package io.github.tomaszziola.javabuildautomaton.buildlog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LogTailTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given output within capacity, when writing, then keep all of it")
+  void keepsOutputWithinCapacity() throws IOException {
+    // given
+    final var tail = new LogTail(8);
+
+    // when
+    tail.write("abc");
+    tail.write("def");
+
+    // then
+    assertThat(tail.text()).isEqualTo("abcdef");
+    assertThat(tail.length()).isEqualTo(6);
+    assertThat(tail.isTruncated()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Given output beyond capacity, when writing, then keep only the last characters")
+  void keepsOnlyEndOfOutput() throws IOException {
+    // given
+    final var tail = new LogTail(4);
+
+    // when
+    tail.write("abc");
+    tail.write("defghij");
+
+    // then
+    assertThat(tail.text()).isEqualTo("ghij");
+    assertThat(tail.length()).isEqualTo(10);
+    assertThat(tail.isTruncated()).isTrue();
+  }
+}
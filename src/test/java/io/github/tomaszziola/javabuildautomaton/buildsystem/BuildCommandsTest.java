@@ -0,0 +1,119 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode.CACHED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode.INCREMENTAL;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.MAVEN;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PULL_REQUEST;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PUSH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.InvalidBuildCommandException;
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BuildCommandsTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given no build command, when resolving, then clean build with Gradle")
+  void resolvesCleanBuildByDefault() {
+    // when
+    final var result = buildCommandsImpl.resolve(project, PUSH);
+
+    // then
+    assertThat(result).containsExactly("clean", "build");
+  }
+
+  @Test
+  @DisplayName("Given incremental mode, when resolving for Maven, then skip the clean phase")
+  void skipsMavenCleanWhenIncremental() {
+    // given
+    project.setBuildTool(MAVEN);
+    project.setBuildMode(INCREMENTAL);
+
+    // when
+    final var result = buildCommandsImpl.resolve(project, PUSH);
+
+    // then
+    assertThat(result).containsExactly("install");
+  }
+
+  @Test
+  @DisplayName("Given cached mode, when resolving for Gradle, then enable the local build cache")
+  void enablesGradleBuildCacheWhenCached() {
+    // given
+    project.setBuildMode(CACHED);
+
+    // when
+    final var result = buildCommandsImpl.resolve(project, PUSH);
+
+    // then
+    assertThat(result).containsExactly("build", "--build-cache");
+  }
+
+  @Test
+  @DisplayName("Given cached mode, when resolving for Maven, then enable the build cache extension")
+  void enablesMavenBuildCacheWhenCached() {
+    // given
+    project.setBuildTool(MAVEN);
+    project.setBuildMode(CACHED);
+
+    // when
+    final var result = buildCommandsImpl.resolve(project, PUSH);
+
+    // then
+    assertThat(result).containsExactly("install", "-Dmaven.build.cache.enabled=true");
+  }
+
+  @Test
+  @DisplayName("Given project build command, when resolving, then split it into arguments")
+  void resolvesProjectBuildCommand() {
+    // given
+    project.setBuildCommand(" -T 1C  install ");
+
+    // when
+    final var result = buildCommandsImpl.resolve(project, PUSH);
+
+    // then
+    assertThat(result).containsExactly("-T", "1C", "install");
+  }
+
+  @Test
+  @DisplayName(
+      "Given pull request build command, when resolving a pull request, then use the override")
+  void resolvesPullRequestBuildCommand() {
+    // given
+    project.setBuildCommand("build --parallel");
+    project.setPullRequestBuildCommand("build -DskipITs");
+
+    // when
+    final var pullRequest = buildCommandsImpl.resolve(project, PULL_REQUEST);
+    final var push = buildCommandsImpl.resolve(project, PUSH);
+
+    // then
+    assertThat(pullRequest).containsExactly("build", "-DskipITs");
+    assertThat(push).containsExactly("build", "--parallel");
+  }
+
+  @Test
+  @DisplayName("Given argument outside the allowlist, when resolving, then reject the command")
+  void rejectsArgumentOutsideAllowlist() {
+    // given
+    project.setBuildCommand("build --init-script /tmp/evil.gradle");
+
+    // when / then
+    assertThatThrownBy(() -> buildCommandsImpl.resolve(project, PUSH))
+        .isInstanceOf(InvalidBuildCommandException.class)
+        .hasMessageContaining("--init-script");
+  }
+
+  @Test
+  @DisplayName("Given shell metacharacters, when checking a command, then it is not allowed")
+  void shellMetacharactersAreNotAllowed() {
+    // when / then
+    assertThat(buildCommandsImpl.isAllowed("build && rm -rf /")).isFalse();
+    assertThat(buildCommandsImpl.isAllowed("build $(id)")).isFalse();
+    assertThat(buildCommandsImpl.isAllowed("-T 1.5C install -DskipTests")).isTrue();
+  }
+}
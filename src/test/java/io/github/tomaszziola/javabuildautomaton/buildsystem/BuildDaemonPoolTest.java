@@ -0,0 +1,148 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildDaemonPool.Mode.COLD;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildDaemonPool.Mode.OFF;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildDaemonPool.Mode.WARM;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.GRADLE;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.MAVEN;
+import static java.lang.ScopedValue.where;
+import static java.nio.file.Files.writeString;
+import static java.time.Duration.ZERO;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BuildDaemonPoolTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given daemons disabled, when acquiring, then leave the tool defaults")
+  void returnsOffWhenDisabled() {
+    // when
+    try (var lease = buildDaemonPoolImpl.acquire(GRADLE, javaVersion, workingDir)) {
+      // then
+      assertThat(lease.mode()).isEqualTo(OFF);
+    }
+  }
+
+  @Test
+  @DisplayName("Given pool exhausted, when acquiring, then run cold until a daemon is released")
+  void runsColdWhenPoolExhausted() {
+    // given
+    buildProperties.getDaemon().setEnabled(true);
+
+    // when
+    try (var first = buildDaemonPoolImpl.acquire(GRADLE, javaVersion, workingDir);
+        var second = buildDaemonPoolImpl.acquire(GRADLE, javaVersion, workingDir)) {
+      // then
+      assertThat(first.mode()).isEqualTo(WARM);
+      assertThat(second.mode()).isEqualTo(COLD);
+    }
+    try (var again = buildDaemonPoolImpl.acquire(GRADLE, javaVersion, workingDir)) {
+      assertThat(again.mode()).isEqualTo(WARM);
+    }
+  }
+
+  @Test
+  @DisplayName("Given different tool or JDK, when acquiring, then use a separate pool")
+  void keepsPoolPerToolAndJdk() {
+    // given
+    buildProperties.getDaemon().setEnabled(true);
+    buildProperties.getDaemon().setMvnd(true);
+
+    // when
+    try (var gradle = buildDaemonPoolImpl.acquire(GRADLE, 21, workingDir);
+        var maven = buildDaemonPoolImpl.acquire(MAVEN, 21, workingDir);
+        var gradle25 = buildDaemonPoolImpl.acquire(GRADLE, 25, workingDir)) {
+      // then
+      assertThat(gradle.mode()).isEqualTo(WARM);
+      assertThat(maven.mode()).isEqualTo(WARM);
+      assertThat(gradle25.mode()).isEqualTo(WARM);
+    }
+  }
+
+  @Test
+  @DisplayName("Given build confined to a cgroup, when acquiring, then run cold")
+  void runsColdWhenConfined() {
+    // given
+    buildProperties.getDaemon().setEnabled(true);
+    buildControl.confine(new BuildCgroup(tempDir));
+
+    // when
+    try (var lease = where(BuildControl.CURRENT, buildControl).call(this::acquireGradle)) {
+      // then
+      assertThat(lease.mode()).isEqualTo(COLD);
+      assertThat(lease.release()).isNull();
+    }
+  }
+
+  @Test
+  @DisplayName("Given daemons enabled without mvnd, when acquiring for Maven, then take no lease")
+  void takesNoLeaseForMavenWithoutMvnd() {
+    // given
+    buildProperties.getDaemon().setEnabled(true);
+
+    // when
+    try (var lease = buildDaemonPoolImpl.acquire(MAVEN, javaVersion, workingDir)) {
+      // then
+      assertThat(lease.mode()).isEqualTo(OFF);
+    }
+  }
+
+  @Test
+  @DisplayName("Given all daemon slots taken by other keys, when acquiring, then run cold")
+  void runsColdWhenMaxDaemonsReached() {
+    // given
+    buildProperties.getDaemon().setEnabled(true);
+    buildProperties.getDaemon().setMaxDaemons(2);
+
+    // when
+    try (var _ = buildDaemonPoolImpl.acquire(GRADLE, 21, workingDir);
+        var _ = buildDaemonPoolImpl.acquire(GRADLE, 25, workingDir)) {
+      // then
+      assertThat(buildDaemonPoolImpl.acquire(GRADLE, 17, workingDir).mode()).isEqualTo(COLD);
+    }
+  }
+
+  @Test
+  @DisplayName("Given released daemon still alive, when another key acquires, then keep it counted")
+  void countsIdleDaemonsUntilIdleTimeout() {
+    // given
+    buildProperties.getDaemon().setEnabled(true);
+    buildProperties.getDaemon().setMaxDaemons(1);
+    buildDaemonPoolImpl.acquire(GRADLE, 21, workingDir).close();
+
+    // when
+    final var other = buildDaemonPoolImpl.acquire(GRADLE, 25, workingDir);
+
+    // then
+    assertThat(other.mode()).isEqualTo(COLD);
+
+    // when
+    buildProperties.getDaemon().setIdleTimeout(ZERO);
+    final var afterIdleTimeout = buildDaemonPoolImpl.acquire(GRADLE, 25, workingDir);
+
+    // then
+    assertThat(afterIdleTimeout.mode()).isEqualTo(WARM);
+  }
+
+  @Test
+  @DisplayName("Given project heap above the daemon cap, when acquiring for Gradle, then run cold")
+  void runsColdWhenGradleHeapExceedsCap() throws IOException {
+    // given
+    buildProperties.getDaemon().setEnabled(true);
+    writeString(workingDir.toPath().resolve("gradle.properties"), "org.gradle.jvmargs=-Xmx2g\n");
+
+    // when
+    try (var lease = buildDaemonPoolImpl.acquire(GRADLE, javaVersion, workingDir)) {
+      // then
+      assertThat(lease.mode()).isEqualTo(COLD);
+    }
+  }
+
+  private BuildDaemonPool.Lease acquireGradle() {
+    return buildDaemonPoolImpl.acquire(GRADLE, javaVersion, workingDir);
+  }
+}
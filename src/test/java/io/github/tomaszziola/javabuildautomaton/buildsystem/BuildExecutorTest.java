@@ -3,13 +3,16 @@ package io.github.tomaszziola.javabuildautomaton.buildsystem;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.GRADLE;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.MAVEN;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentCaptor.forClass;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogSink;
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
 import java.io.File;
 import java.nio.file.Files;
+import java.util.List;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,32 +21,84 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class BuildExecutorTest extends BaseUnit {
 
+  private final List<String> mavenArguments = List.of("clean", "install");
+
   @Test
   @DisplayName(
       "Given Maven tool, when build invoked, then execute mvn clean install and propagate result")
   void executesMavenBuildWhenRequested() {
+    // given
+    buildProperties.getToolCache().setEnabled(false);
+
     // when
-    var result = buildExecutorImpl.build(MAVEN, workingDir, javaVersion);
+    var result = buildExecutorImpl.build(MAVEN, mavenArguments, workingDir, javaVersion, buildLog);
 
     // then
-    verify(processExecutor).execute(workingDir, "mvn", "clean", "install");
-    assertThat(result).isSameAs(pullExecutionResult);
+    verify(processExecutor)
+        .execute(workingDir, buildLog, ProcessCommand.of("mvn", "clean", "install"));
+    assertThat(result).isSameAs(fetchExecutionResult);
   }
 
   @Test
   @DisplayName(
       "Given Gradle tool, when build invoked, then execute gradle clean build and propagate result")
   void executesGradleBuildWhenRequested() {
+    // given
+    buildProperties.getToolCache().setEnabled(false);
+
     // when
-    var result = buildExecutorImpl.build(GRADLE, workingDir, javaVersion);
+    var result = buildExecutorImpl.build(GRADLE, buildArguments, workingDir, javaVersion, buildLog);
 
     // then
-    verify(processExecutor).execute(workingDir, "gradle", "clean", "build");
-    assertThat(result).isSameAs(pullExecutionResult);
+    verify(processExecutor)
+        .execute(workingDir, buildLog, ProcessCommand.of("gradle", "clean", "build"));
+    assertThat(result).isSameAs(fetchExecutionResult);
+  }
+
+  @Test
+  @DisplayName("Given tool cache, when building with Maven, then use the shared local repository")
+  void usesSharedMavenRepository() {
+    // given
+    final var cacheDir = buildToolCachesImpl.resolveCacheDir(MAVEN, javaVersion);
+
+    // when
+    buildExecutorImpl.build(MAVEN, mavenArguments, workingDir, javaVersion, buildLog);
+
+    // then
+    verify(processExecutor)
+        .execute(
+            workingDir,
+            buildLog,
+            ProcessCommand.of(
+                "mvn",
+                "clean",
+                "install",
+                "-Dmaven.repo.local=" + cacheDir,
+                "-Daether.syncContext.named.factory=file-lock",
+                "-Daether.syncContext.named.nameMapper=file-gav"));
   }
 
   @Test
-  @DisplayName("Given gradlew present and executable, when building, then use wrapper script path")
+  @DisplayName("Given tool cache, when building with Gradle, then use the shared Gradle user home")
+  void usesSharedGradleUserHome() {
+    // given
+    final var cacheDir = buildToolCachesImpl.resolveCacheDir(GRADLE, javaVersion);
+
+    // when
+    buildExecutorImpl.build(GRADLE, buildArguments, workingDir, javaVersion, buildLog);
+
+    // then
+    verify(processExecutor)
+        .execute(
+            workingDir,
+            buildLog,
+            ProcessCommand.of("gradle", "clean", "build")
+                .withEnvironment("GRADLE_USER_HOME", cacheDir.toString()));
+  }
+
+  @Test
+  @DisplayName(
+      "Given gradlew present and executable, when building, then run wrapper without a shell")
   void usesGradlewWhenPresentAndExecutable() throws Exception {
     // given
     var gradlew = new File(workingDir, "gradlew");
@@ -51,11 +106,98 @@ class BuildExecutorTest extends BaseUnit {
     assertThat(gradlew.setExecutable(true)).isTrue();
 
     // when
-    buildExecutorImpl.build(GRADLE, workingDir, javaVersion);
+    buildExecutorImpl.build(GRADLE, buildArguments, workingDir, javaVersion, buildLog);
+
+    // then
+    final var command = forClass(ProcessCommand.class);
+    verify(processExecutor).execute(eq(workingDir), any(LogSink.class), command.capture());
+    assertThat(command.getValue().arguments())
+        .containsExactly(gradlew.getAbsolutePath(), "clean", "build", "--stacktrace");
+    assertThat(command.getValue().environment())
+        .containsEntry("JAVA_HOME", "/opt/jdks/jdk-21")
+        .hasEntrySatisfying("PATH", path -> assertThat(path).startsWith("/opt/jdks/jdk-21/bin"));
+  }
+
+  @Test
+  @DisplayName(
+      "Given warm daemon available, when building with Gradle, then reuse daemon with project heap")
+  void usesGradleDaemonWhenWarm() {
+    // given
+    buildProperties.getToolCache().setEnabled(false);
+    buildProperties.getDaemon().setEnabled(true);
+
+    // when
+    buildExecutorImpl.build(GRADLE, buildArguments, workingDir, javaVersion, buildLog);
 
     // then
     verify(processExecutor)
         .execute(
-            eq(workingDir), eq("sh"), eq("-c"), argThat(cmd -> cmd.contains(gradlew.getPath())));
+            workingDir,
+            buildLog,
+            ProcessCommand.of(
+                "gradle",
+                "clean",
+                "build",
+                "--daemon",
+                "-Dorg.gradle.daemon.idletimeout=900000"));
+  }
+
+  @Test
+  @DisplayName("Given daemon pool exhausted, when building with Gradle, then run without daemon")
+  void runsGradleWithoutDaemonWhenPoolExhausted() {
+    // given
+    buildProperties.getToolCache().setEnabled(false);
+    buildProperties.getDaemon().setEnabled(true);
+
+    // when
+    try (var _ = buildDaemonPoolImpl.acquire(GRADLE, javaVersion, workingDir)) {
+      buildExecutorImpl.build(GRADLE, buildArguments, workingDir, javaVersion, buildLog);
+    }
+
+    // then
+    verify(processExecutor)
+        .execute(
+            workingDir, buildLog, ProcessCommand.of("gradle", "clean", "build", "--no-daemon"));
+  }
+
+  @Test
+  @DisplayName("Given mvnd enabled, when building with Maven, then run on a capped mvnd daemon")
+  void usesMvndWhenEnabled() {
+    // given
+    buildProperties.getToolCache().setEnabled(false);
+    buildProperties.getDaemon().setEnabled(true);
+    buildProperties.getDaemon().setMvnd(true);
+
+    // when
+    buildExecutorImpl.build(MAVEN, mavenArguments, workingDir, javaVersion, buildLog);
+
+    // then
+    verify(processExecutor)
+        .execute(
+            workingDir,
+            buildLog,
+            ProcessCommand.of(
+                "mvnd",
+                "-B",
+                "clean",
+                "install",
+                "-Dmvnd.javaHome=/opt/jdks/jdk-21",
+                "-Dmvnd.idleTimeout=900s",
+                "-Dmvnd.maxHeapSize=1024m"));
+  }
+
+  @Test
+  @DisplayName("Given daemons enabled without mvnd, when building with Maven, then run plain mvn")
+  void runsPlainMavenWithoutMvnd() {
+    // given
+    buildProperties.getToolCache().setEnabled(false);
+    buildProperties.getDaemon().setEnabled(true);
+
+    // when
+    buildExecutorImpl.build(MAVEN, mavenArguments, workingDir, javaVersion, buildLog);
+
+    // then
+    verify(processExecutor)
+        .execute(workingDir, buildLog, ProcessCommand.of("mvn", "clean", "install"));
   }
 }
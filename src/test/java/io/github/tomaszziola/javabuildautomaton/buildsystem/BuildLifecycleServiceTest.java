@@ -1,17 +1,29 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.LOW;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.NORMAL;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.CANCELLED;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.IN_PROGRESS;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.QUEUED;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.SUCCESS;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.MANUAL;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PULL_REQUEST;
+import static java.time.Instant.now;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
+import io.github.tomaszziola.javabuildautomaton.models.BuildModel;
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 
 class BuildLifecycleServiceTest extends BaseUnit {
 
@@ -24,57 +36,219 @@ class BuildLifecycleServiceTest extends BaseUnit {
     // then
     assertThat(build.getProject()).isSameAs(project);
     assertThat(build.getStatus()).isEqualTo(IN_PROGRESS);
+    assertThat(build.getTrigger()).isEqualTo(MANUAL);
+    assertThat(build.getPriority()).isEqualTo(NORMAL);
     assertThat(build.getStartTime()).isNotNull();
     verify(buildRepository, times(1)).save(any(Build.class));
   }
 
   @Test
-  @DisplayName("Given project, when createQueued, then set QUEUED and start time and save")
+  @DisplayName(
+      "Given project, when createQueued, then set QUEUED, trigger, priority, commit and start time and save")
   void createQueuedSetsStatusQueuedAndStartTimeThenSaves() {
     // when
-    final var build = buildLifecycleServiceImpl.createQueued(project);
+    final var build = buildLifecycleServiceImpl.createQueued(project, PULL_REQUEST, LOW, commitSha);
 
     // then
     assertThat(build.getProject()).isSameAs(project);
     assertThat(build.getStatus()).isEqualTo(QUEUED);
+    assertThat(build.getTrigger()).isEqualTo(PULL_REQUEST);
+    assertThat(build.getPriority()).isEqualTo(LOW);
+    assertThat(build.getCommitSha()).isEqualTo(commitSha);
     assertThat(build.getStartTime()).isNotNull();
     verify(buildRepository, times(1)).save(any(Build.class));
   }
 
   @Test
-  @DisplayName("Given build and logs, when complete, then set status, end time and logs and save")
-  void completeSetsStatusEndTimeAndLogsThenSaves() {
+  @DisplayName("Given project with unclaimed queued build, when findQueued, then return it")
+  void findQueuedReturnsUnclaimedQueuedBuild() {
+    // given
+    when(buildRepository.findFirstByProjectAndStatusAndClaimedByIsNullOrderByIdAsc(
+            project, QUEUED))
+        .thenReturn(Optional.of(build));
+
+    // when
+    final var result = buildLifecycleServiceImpl.findQueued(project);
+
+    // then
+    assertThat(result).contains(build);
+  }
+
+  @Test
+  @DisplayName("Given commit built successfully before, when checking, then report it")
+  void hasSucceededQueriesSuccessfulBuildOfCommit() {
+    // given
+    when(buildRepository.existsByProjectAndCommitShaAndStatus(project, commitSha, SUCCESS))
+        .thenReturn(true);
+
+    // when & then
+    assertThat(buildLifecycleServiceImpl.hasSucceeded(project, commitSha)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Given build with cache key, when finding cached result, then query latest success")
+  void findCachedResultQueriesLatestSuccessfulBuildOfTree() {
+    // given
+    final var cachedBuild = new Build();
+    build.setProject(project);
+    build.setTreeSha(treeSha);
+    build.setBuildTool(project.getBuildTool());
+    build.setJavaVersion(javaVersion);
+    build.setBuildCommand("clean build");
+    when(buildRepository.findOriginalsOfTree(
+            project,
+            treeSha,
+            project.getBuildTool(),
+            javaVersion,
+            "clean build",
+            SUCCESS,
+            Limit.of(1)))
+        .thenReturn(List.of(cachedBuild));
+
+    // when
+    final var result = buildLifecycleServiceImpl.findCachedResult(build);
+
+    // then
+    assertThat(result).containsSame(cachedBuild);
+  }
+
+  @Test
+  @DisplayName("Given build still queued, when cancelling, then mark it CANCELLED")
+  void cancelQueuedMarksBuildCancelled() {
+    // given
+    build.setEndTime(null);
+    when(buildRepository.transition(build.getId(), QUEUED, CANCELLED)).thenReturn(1);
+
+    // when
+    final var result = buildLifecycleServiceImpl.cancelQueued(build);
+
+    // then
+    assertThat(result).isTrue();
+    assertThat(build.getStatus()).isEqualTo(CANCELLED);
+    assertThat(build.getEndTime()).isNotNull();
+    verify(buildRepository).saveResult(build);
+  }
+
+  @Test
+  @DisplayName("Given build no longer queued, when cancelling, then leave it alone")
+  void cancelQueuedIgnoresBuildNoLongerQueued() {
     // when
-    buildLifecycleServiceImpl.complete(build, SUCCESS, new StringBuilder("all good\n"));
+    final var result = buildLifecycleServiceImpl.cancelQueued(build);
+
+    // then
+    assertThat(result).isFalse();
+    verify(buildRepository, never()).saveResult(build);
+  }
+
+  @Test
+  @DisplayName("Given build still queued, when retargeting, then update its commit")
+  void retargetUpdatesQueuedBuild() {
+    // given
+    when(buildRepository.retarget(build.getId(), commitSha, QUEUED)).thenReturn(1);
+
+    // when
+    final var result = buildLifecycleServiceImpl.retarget(build, commitSha);
+
+    // then
+    assertThat(result).isTrue();
+    assertThat(build.getCommitSha()).isEqualTo(commitSha);
+  }
+
+  @Test
+  @DisplayName("Given build already claimed, when retargeting, then leave its commit unchanged")
+  void retargetSkipsClaimedBuild() {
+    // given
+    when(buildRepository.retarget(build.getId(), commitSha, QUEUED)).thenReturn(0);
+
+    // when
+    final var result = buildLifecycleServiceImpl.retarget(build, commitSha);
+
+    // then
+    assertThat(result).isFalse();
+    assertThat(build.getCommitSha()).isNull();
+  }
+
+  @Test
+  @DisplayName(
+      "Given build and log, when complete, then flush log and save status and result columns only")
+  void completeFlushesLogSetsStatusAndEndTimeThenSaves() {
+    // given
+    buildLog.append("all good\n");
+
+    // when
+    buildLifecycleServiceImpl.complete(build, SUCCESS, buildLog);
 
     // then
     assertThat(build.getStatus()).isEqualTo(SUCCESS);
     assertThat(build.getEndTime()).isNotNull();
-    assertThat(build.getLogs()).isEqualTo("all good\n");
-    verify(buildRepository).save(build);
+    verify(buildLogStore).append(build.getId(), 0, "all good\n");
+    verify(buildRepository).saveResult(build);
+    verify(buildRepository, never()).save(build);
   }
 
   @Test
-  @DisplayName("Given build, when markInProgress, then set status and save")
-  void markInProgressSetsStatusThenSaves() {
+  @DisplayName("Given queued build, when markInProgress, then transition status and return true")
+  void markInProgressTransitionsQueuedBuild() {
     // when
-    buildLifecycleServiceImpl.markInProgress(build);
+    final var result = buildLifecycleServiceImpl.markInProgress(build);
 
     // then
+    assertThat(result).isTrue();
     assertThat(build.getStatus()).isEqualTo(IN_PROGRESS);
-    verify(buildRepository).save(build);
+    verify(buildRepository).transition(build.getId(), QUEUED, IN_PROGRESS);
   }
 
   @Test
-  @DisplayName("Given null logs, when complete, then set status and end time and keep logs null")
-  void completeWithNullLogsSetsStatusAndEndTimeKeepsLogsNullThenSaves() {
+  @DisplayName("Given build no longer queued, when markInProgress, then return false")
+  void markInProgressSkipsBuildNoLongerQueued() {
+    // given
+    when(buildRepository.transition(build.getId(), QUEUED, IN_PROGRESS)).thenReturn(0);
+
+    // when
+    final var result = buildLifecycleServiceImpl.markInProgress(build);
+
+    // then
+    assertThat(result).isFalse();
+  }
+
+  @Test
+  @DisplayName("Given rejected build, when reject, then delete it")
+  void rejectDeletesBuild() {
+    // when
+    buildLifecycleServiceImpl.reject(build);
+
+    // then
+    verify(buildRepository).delete(build);
+  }
+
+  @Test
+  @DisplayName("Given null log, when complete, then save status and end time")
+  void completeWithNullLogSetsStatusAndEndTimeThenSaves() {
     // when
     buildLifecycleServiceImpl.complete(build, SUCCESS, null);
 
     // then
     assertThat(build.getStatus()).isEqualTo(SUCCESS);
     assertThat(build.getEndTime()).isNotNull();
-    assertThat(build.getLogs()).isNull();
-    verify(buildRepository).save(build);
+    verify(buildRepository).saveResult(build);
+  }
+
+  @Test
+  @DisplayName("Given interrupted build, when requeueing, then discard logs, clear claim and save")
+  void requeueResetsBuildAndDiscardsLogs() {
+    // given
+    final var interrupted = BuildModel.inProgress();
+    interrupted.setClaimedBy("instance-a");
+    interrupted.setHeartbeatAt(now());
+
+    // when
+    buildLifecycleServiceImpl.requeue(interrupted);
+
+    // then
+    assertThat(interrupted.getStatus()).isEqualTo(QUEUED);
+    assertThat(interrupted.getClaimedBy()).isNull();
+    assertThat(interrupted.getHeartbeatAt()).isNull();
+    verify(buildLogService).discard(interrupted.getId());
+    verify(buildRepository).save(interrupted);
   }
 }
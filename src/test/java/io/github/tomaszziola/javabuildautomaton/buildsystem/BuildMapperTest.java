@@ -2,6 +2,7 @@ package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
 import io.github.tomaszziola.javabuildautomaton.models.BuildModel;
 import io.github.tomaszziola.javabuildautomaton.models.BuildSummaryDtoModel;
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
@@ -38,9 +39,47 @@ class BuildMapperTest extends BaseUnit {
   @DisplayName("Given Build entity, when mapping to details DTO, then map all fields")
   void mapsDetailsFieldsWhenBuildProvided() {
     // when
-    var result = buildMapperImpl.toDetailsDto(build);
+    var result = buildMapperImpl.toDetailsDto(build, logTail);
 
     // then
     assertThat(result).isEqualTo(buildDetailsDto);
   }
+
+  @Test
+  @DisplayName("Given build reusing cached result, when mapping to details DTO, then map source id")
+  void mapsCachedFromIdWhenResultReused() {
+    // given
+    final var cachedBuild = new Build();
+    cachedBuild.setId(7L);
+    build.setCachedFrom(cachedBuild);
+
+    // when
+    var result = buildMapperImpl.toDetailsDto(build, logTail);
+
+    // then
+    assertThat(result.cachedFromId()).isEqualTo(7L);
+  }
+
+  @Test
+  @DisplayName("Given build with recorded usage, when mapping to details DTO, then map usage")
+  void mapsResourceUsage() {
+    // given
+    build.setDurationMs(60_000L);
+    build.setCpuTimeMs(90_000L);
+    build.setMemoryPeakBytes(1_048_576L);
+    build.setPidsPeak(12);
+    build.setReadBytes(2048L);
+    build.setWriteBytes(4096L);
+
+    // when
+    var result = buildMapperImpl.toDetailsDto(build, logTail);
+
+    // then
+    assertThat(result.durationMs()).isEqualTo(60_000L);
+    assertThat(result.cpuTimeMs()).isEqualTo(90_000L);
+    assertThat(result.memoryPeakBytes()).isEqualTo(1_048_576L);
+    assertThat(result.pidsPeak()).isEqualTo(12);
+    assertThat(result.readBytes()).isEqualTo(2048L);
+    assertThat(result.writeBytes()).isEqualTo(4096L);
+  }
 }
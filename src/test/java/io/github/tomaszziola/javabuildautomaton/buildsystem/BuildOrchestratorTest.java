@@ -1,8 +1,23 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.HIGH;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.LOW;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PULL_REQUEST;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PUSH;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.EnqueueOutcome.COALESCED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.EnqueueOutcome.SKIPPED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.EnqueueOutcome.STARTED;
+import static java.time.Duration.ofSeconds;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildQueueFullException;
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.util.Optional;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,8 +30,151 @@ class BuildOrchestratorTest extends BaseUnit {
   @DisplayName("Given project, when enqueuing build, then create queued build and enqueue id")
   void enqueuesQueuedBuildId() {
     // when & then
-    buildOrchestratorImpl.enqueue(project);
-    verify(buildLifecycleService).createQueued(project);
-    verify(buildQueueService).enqueue(build.getId());
+    buildOrchestratorImpl.enqueue(project, PUSH);
+    verify(buildLifecycleService).createQueued(project, PUSH, HIGH, null);
+    verify(buildQueueService).enqueue(QueuedBuild.of(build));
+    verify(buildLifecycleService, never()).reject(build);
+  }
+
+  @Test
+  @DisplayName("Given pull request trigger, when enqueuing build, then use configured priority")
+  void usesConfiguredPriorityForTrigger() {
+    // when
+    buildOrchestratorImpl.enqueue(project, PULL_REQUEST);
+
+    // then
+    verify(buildLifecycleService).createQueued(project, PULL_REQUEST, LOW, null);
+  }
+
+  @Test
+  @DisplayName("Given project with queued build, when enqueuing build, then coalesce into it")
+  void coalescesIntoQueuedBuild() {
+    // given
+    when(buildLifecycleService.findQueued(project)).thenReturn(Optional.of(build));
+
+    // when
+    final var outcome = buildOrchestratorImpl.enqueue(project, PUSH);
+
+    // then
+    assertThat(outcome).isEqualTo(COALESCED);
+    verify(buildLifecycleService, never()).createQueued(project, PUSH, HIGH, null);
+    verify(buildQueueService, never()).enqueue(any(QueuedBuild.class));
+  }
+
+  @Test
+  @DisplayName(
+      "Given queued build of lower priority, when enqueuing build, then create new queued build")
+  void doesNotCoalesceIntoLowerPriorityBuild() {
+    // given
+    build.setPriority(LOW);
+    when(buildLifecycleService.findQueued(project)).thenReturn(Optional.of(build));
+
+    // when
+    buildOrchestratorImpl.enqueue(project, PUSH);
+
+    // then
+    verify(buildLifecycleService).createQueued(project, PUSH, HIGH, null);
+  }
+
+  @Test
+  @DisplayName("Given coalescing disabled, when enqueuing build, then always create queued build")
+  void createsQueuedBuildWhenCoalescingDisabled() {
+    // given
+    buildProperties.getQueue().setCoalesce(false);
+    when(buildLifecycleService.findQueued(project)).thenReturn(Optional.of(build));
+
+    // when
+    buildOrchestratorImpl.enqueue(project, PUSH);
+
+    // then
+    verify(buildLifecycleService).createQueued(project, PUSH, HIGH, null);
+    verify(buildQueueService).enqueue(QueuedBuild.of(build));
+  }
+
+  @Test
+  @DisplayName("Given full queue, when enqueuing build, then reject build and throw with retry")
+  void rejectsBuildWhenQueueFull() {
+    // given
+    when(buildQueueService.enqueue(any(QueuedBuild.class))).thenReturn(false);
+
+    // when & then
+    assertThatThrownBy(() -> buildOrchestratorImpl.enqueue(project, PUSH))
+        .isInstanceOf(BuildQueueFullException.class)
+        .extracting("retryAfter")
+        .isEqualTo(ofSeconds(30));
+    verify(buildLifecycleService).reject(build);
+  }
+
+  @Test
+  @DisplayName("Given commit already built successfully, when enqueuing it, then skip it")
+  void skipsCommitAlreadyBuilt() {
+    // given
+    when(buildLifecycleService.hasSucceeded(project, commitSha)).thenReturn(true);
+
+    // when
+    final var outcome = buildOrchestratorImpl.enqueue(project, PUSH, commitSha);
+
+    // then
+    assertThat(outcome).isEqualTo(SKIPPED);
+    verify(buildLifecycleService, never()).createQueued(project, PUSH, HIGH, commitSha);
+    verify(buildQueueService, never()).enqueue(any(QueuedBuild.class));
+  }
+
+  @Test
+  @DisplayName("Given new commit, when enqueuing it, then queue a build of that commit")
+  void queuesBuildOfCommit() {
+    // when
+    final var outcome = buildOrchestratorImpl.enqueue(project, PUSH, commitSha);
+
+    // then
+    assertThat(outcome).isEqualTo(STARTED);
+    verify(buildLifecycleService).createQueued(project, PUSH, HIGH, commitSha);
+    verify(buildQueueService).enqueue(QueuedBuild.of(build));
+  }
+
+  @Test
+  @DisplayName("Given queued push build, when a newer push arrives, then retarget it")
+  void retargetsQueuedPushBuildToNewerCommit() {
+    // given
+    when(buildLifecycleService.findQueued(project)).thenReturn(Optional.of(build));
+    when(buildLifecycleService.retarget(build, commitSha)).thenReturn(true);
+
+    // when
+    final var outcome = buildOrchestratorImpl.enqueue(project, PUSH, commitSha);
+
+    // then
+    assertThat(outcome).isEqualTo(COALESCED);
+    verify(buildLifecycleService).retarget(build, commitSha);
+    verify(buildLifecycleService, never()).createQueued(project, PUSH, HIGH, commitSha);
+  }
+
+  @Test
+  @DisplayName(
+      "Given queued push build claimed meanwhile, when a newer push arrives, then queue new build")
+  void queuesNewBuildWhenRetargetFails() {
+    // given
+    when(buildLifecycleService.findQueued(project)).thenReturn(Optional.of(build));
+    when(buildLifecycleService.retarget(build, commitSha)).thenReturn(false);
+
+    // when
+    buildOrchestratorImpl.enqueue(project, PUSH, commitSha);
+
+    // then
+    verify(buildLifecycleService).createQueued(project, PUSH, HIGH, commitSha);
+  }
+
+  @Test
+  @DisplayName(
+      "Given queued push build, when a pull request commit arrives, then do not coalesce")
+  void doesNotCoalescePullRequestCommitIntoPushBuild() {
+    // given
+    when(buildLifecycleService.findQueued(project)).thenReturn(Optional.of(build));
+
+    // when
+    buildOrchestratorImpl.enqueue(project, PULL_REQUEST, commitSha);
+
+    // then
+    verify(buildLifecycleService, never()).retarget(build, commitSha);
+    verify(buildLifecycleService).createQueued(project, PULL_REQUEST, LOW, commitSha);
   }
 }
@@ -0,0 +1,37 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.LOW;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BuildPriorityConverterTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given priority, when converting to column, then return its rank")
+  void convertsPriorityToRank() {
+    // when & then
+    assertThat(buildPriorityConverterImpl.convertToDatabaseColumn(LOW)).isEqualTo(2);
+    assertThat(buildPriorityConverterImpl.convertToDatabaseColumn(null)).isNull();
+  }
+
+  @Test
+  @DisplayName("Given rank, when converting to attribute, then return matching priority")
+  void convertsRankToPriority() {
+    // when & then
+    assertThat(buildPriorityConverterImpl.convertToEntityAttribute(2)).isEqualTo(LOW);
+    assertThat(buildPriorityConverterImpl.convertToEntityAttribute(null)).isNull();
+  }
+
+  @Test
+  @DisplayName("Given unknown rank, when converting to attribute, then throw")
+  void throwsForUnknownRank() {
+    // when & then
+    assertThatThrownBy(() -> buildPriorityConverterImpl.convertToEntityAttribute(7))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("7");
+  }
+}
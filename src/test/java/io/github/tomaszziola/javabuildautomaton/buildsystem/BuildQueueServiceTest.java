@@ -1,19 +1,24 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
 import static ch.qos.logback.classic.Level.TRACE;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.OverflowPolicy.REJECT;
 import static java.lang.Thread.sleep;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
+import io.github.tomaszziola.javabuildautomaton.models.QueuedBuildModel;
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -43,70 +48,152 @@ class BuildQueueServiceTest extends BaseUnit {
   }
 
   @Test
-  @DisplayName("Given application ready event, when starting worker, then worker is scheduled")
-  void startsWorkerOnApplicationReady() {
+  @DisplayName("Given application ready event, when starting, then dispatcher is started")
+  void startsDispatcherOnApplicationReady() {
     // when
-    assertDoesNotThrow(buildQueueServiceImpl::startWorker);
+    assertDoesNotThrow(buildQueueServiceImpl::start);
 
     // then
     assertThat(
             logAppender.list.stream()
                 .map(ILoggingEvent::getFormattedMessage)
-                .anyMatch(m -> m.contains("Build worker scheduled")))
+                .anyMatch(m -> m.contains("Build dispatcher started")))
         .isTrue();
   }
 
   @Test
   @DisplayName(
-      "Given worker already started, when starting worker again, then skips duplicate start")
-  void skipsStartingWorkerWhenAlreadyStarted() {
+      "Given dispatcher already started, when starting again, then skips duplicate start")
+  void skipsStartingDispatcherWhenAlreadyStarted() {
     // given
-    buildQueueServiceImpl.startWorker();
+    buildQueueServiceImpl.start();
 
     // when
-    assertDoesNotThrow(buildQueueServiceImpl::startWorker);
+    assertDoesNotThrow(buildQueueServiceImpl::start);
 
     // then
     assertThat(
             logAppender.list.stream()
                 .map(ILoggingEvent::getFormattedMessage)
-                .anyMatch(m -> m.contains("Build worker already started")))
+                .anyMatch(m -> m.contains("Build dispatcher already started")))
         .isTrue();
   }
 
   @Test
-  @DisplayName("Given worker running, when shutting down, then worker stops gracefully")
-  void stopsWorkerOnShutdown() {
+  @DisplayName("Given dispatcher running, when shutting down, then dispatcher stops gracefully")
+  void stopsDispatcherOnShutdown() {
     // given
-    buildQueueServiceImpl.startWorker();
+    buildQueueServiceImpl.start();
 
     // when
-    assertDoesNotThrow(buildQueueServiceImpl::stopWorker);
+    assertDoesNotThrow(buildQueueServiceImpl::stop);
 
     // then
     assertThat(
             logAppender.list.stream()
                 .map(ILoggingEvent::getFormattedMessage)
-                .anyMatch(m -> m.contains("Build worker stopped")))
+                .anyMatch(m -> m.contains("Build dispatcher stopped")))
         .isTrue();
   }
 
+  @Test
+  @DisplayName("Given idle dispatcher, when enqueuing, then start the build without waiting")
+  void dispatchesImmediatelyOnEnqueue() {
+    // given
+    buildQueueServiceImpl.start();
+
+    // when
+    buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(buildId, projectId));
+
+    // then
+    verify(buildService, timeout(100)).execute(buildId);
+  }
+
+  @Test
+  @DisplayName("Given dispatched build, when it starts, then record dispatch latency")
+  void recordsDispatchLatency() {
+    // given
+    buildQueueServiceImpl.start();
+
+    // when
+    buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(buildId, projectId));
+
+    // then
+    verify(buildService, timeout(100)).execute(buildId);
+    final var timer = meterRegistry.get("build.dispatch.latency").tag("priority", "normal").timer();
+    assertThat(timer.count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName(
+      "Given build finishing while others wait, when it completes, then dispatch the next one")
+  void dispatchesNextBuildOnCompletion() throws Exception {
+    // given
+    final CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            _ -> {
+              release.await(1, SECONDS);
+              return null;
+            })
+        .when(buildService)
+        .execute(1L);
+    buildQueueServiceImpl.start();
+    buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(1L, projectId));
+    buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(2L, projectId));
+    verify(buildService, timeout(100)).execute(1L);
+    verify(buildService, never()).execute(2L);
+
+    // when
+    release.countDown();
+
+    // then
+    verify(buildService, timeout(100)).execute(2L);
+  }
+
+  @Test
+  @DisplayName("Given builds queued before start, when starting, then dispatch them")
+  void dispatchesQueuedBuildsOnStart() {
+    // given
+    buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(buildId, projectId));
+    verify(buildService, never()).execute(buildId);
+
+    // when
+    buildQueueServiceImpl.start();
+
+    // then
+    verify(buildService, timeout(100)).execute(buildId);
+  }
+
+  @Test
+  @DisplayName("Given build queued without an event, when sweeping, then dispatch it")
+  void dispatchesOnSweep() {
+    // given
+    buildQueueServiceImpl.start();
+    inMemoryBuildQueueImpl.offer(QueuedBuildModel.basic(buildId, projectId));
+
+    // when
+    buildQueueServiceImpl.sweep();
+
+    // then
+    verify(buildService, timeout(100)).execute(buildId);
+  }
+
   @Test
   @DisplayName(
       "Given build service throws exception, when executing build, then exception is handled")
   void handlesExecutionExceptions() throws Exception {
     // given
     doThrow(new RuntimeException("Build execution failed")).when(buildService).execute(buildId);
-    buildQueueServiceImpl.startWorker();
+    buildQueueServiceImpl.start();
 
     // when
-    buildQueueServiceImpl.enqueue(buildId);
+    buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(buildId, projectId));
 
     sleep(150);
 
     // then
     verify(buildService, times(1)).execute(buildId);
-    assertDoesNotThrow(buildQueueServiceImpl::stopWorker);
+    assertDoesNotThrow(buildQueueServiceImpl::stop);
   }
 
   @Test
@@ -132,54 +219,82 @@ class BuildQueueServiceTest extends BaseUnit {
         .when(buildService)
         .execute(anyLong());
 
-    buildQueueServiceImpl.startWorker();
+    buildQueueServiceImpl.start();
 
     // when
-    buildQueueServiceImpl.enqueue(1L);
-    buildQueueServiceImpl.enqueue(2L);
-    buildQueueServiceImpl.enqueue(3L);
+    buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(1L, 1L));
+    buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(2L, 2L));
+    buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(3L, 3L));
 
     // then
     assertThat(latch.await(2, SECONDS)).isTrue();
     assertThat(max.get()).isLessThanOrEqualTo(buildProperties.getMaxParallel());
   }
 
-  @Test
-  @DisplayName("Given worker not started, when shutting down, then handles gracefully")
-  void handlesShutdownWhenNotStarted() {
-    // when & then
-    assertDoesNotThrow(buildQueueServiceImpl::stopWorker);
-  }
-
   @Test
   @DisplayName(
-      "Given worker thread interrupted during queue polling, when processing, then worker loop exits gracefully")
-  void handlesInterruptedExceptionInWorkerLoop() throws Exception {
+      "Given builds of one busy project, when processing, then run them one at a time per project")
+  void respectsPerProjectLimit() throws Exception {
     // given
-    buildQueueServiceImpl.startWorker();
+    final AtomicInteger currentOfProject = new AtomicInteger();
+    final AtomicInteger maxOfProject = new AtomicInteger();
+    final CountDownLatch otherProjectStarted = new CountDownLatch(1);
+    final CountDownLatch latch = new CountDownLatch(3);
+    doAnswer(
+            invocation -> {
+              final long id = invocation.getArgument(0);
+              if (id == 3L) {
+                otherProjectStarted.countDown();
+                latch.countDown();
+                return null;
+              }
+              maxOfProject.accumulateAndGet(currentOfProject.incrementAndGet(), Math::max);
+              try {
+                sleep(100);
+              } finally {
+                currentOfProject.decrementAndGet();
+                latch.countDown();
+              }
+              return null;
+            })
+        .when(buildService)
+        .execute(anyLong());
 
-    sleep(50);
+    buildQueueServiceImpl.start();
 
     // when
-    buildQueueServiceImpl.stopWorker();
+    buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(1L, projectId));
+    buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(2L, projectId));
+    buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(3L, 99L));
 
     // then
-    assertThat(
-            logAppender.list.stream()
-                .map(ILoggingEvent::getFormattedMessage)
-                .anyMatch(m -> m.contains("Build worker stopped")))
-        .isTrue();
+    assertThat(otherProjectStarted.await(90, MILLISECONDS)).isTrue();
+    assertThat(latch.await(3, SECONDS)).isTrue();
+    assertThat(maxOfProject.get()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Given dispatcher not started, when shutting down, then handles gracefully")
+  void handlesShutdownWhenNotStarted() {
+    // when & then
+    assertDoesNotThrow(buildQueueServiceImpl::stop);
   }
 
   @Test
   @DisplayName(
-      "Given semaphore acquisition during high load, when processing multiple builds, then handles concurrent access correctly")
-  void handlesSemaphoreAcquisitionUnderLoad() throws Exception {
+      "Given single build slot, when processing multiple builds, then run them back to back")
+  void runsBuildsBackToBackWithSingleSlot() throws Exception {
     // given
     buildProperties.setMaxParallel(1);
     buildProperties.getQueue().setCapacity(5);
 
-    buildQueueServiceImpl = new BuildQueueService(buildService, buildProperties);
+    buildQueueServiceImpl =
+        new BuildQueueService(
+            buildService,
+            buildProperties,
+            new InMemoryBuildQueue(buildProperties, buildLifecycleService, buildRepository),
+            meterRegistry,
+            adaptiveConcurrencyImpl);
 
     final CountDownLatch latch = new CountDownLatch(3);
     doAnswer(
@@ -190,11 +305,11 @@ class BuildQueueServiceTest extends BaseUnit {
         .when(buildService)
         .execute(anyLong());
 
-    buildQueueServiceImpl.startWorker();
+    buildQueueServiceImpl.start();
 
     // when
     for (int i = 1; i <= 3; i++) {
-      buildQueueServiceImpl.enqueue((long) i);
+      buildQueueServiceImpl.enqueue(QueuedBuildModel.basic((long) i, (long) i));
     }
 
     // then
@@ -203,32 +318,41 @@ class BuildQueueServiceTest extends BaseUnit {
   }
 
   @Test
-  @DisplayName("Given worker stopped, when starting again, then restart succeeds")
-  void restartsWorkerAfterShutdown() throws Exception {
+  @DisplayName("Given dispatcher stopped, when starting again, then restart succeeds")
+  void restartsDispatcherAfterShutdown() throws Exception {
     // given
-    buildQueueServiceImpl.startWorker();
+    buildQueueServiceImpl.start();
 
     // when
-    buildQueueServiceImpl.stopWorker();
+    buildQueueServiceImpl.stop();
 
     // then
-    assertDoesNotThrow(buildQueueServiceImpl::startWorker);
+    assertDoesNotThrow(buildQueueServiceImpl::start);
     sleep(50);
-    assertDoesNotThrow(buildQueueServiceImpl::stopWorker);
+    assertDoesNotThrow(buildQueueServiceImpl::stop);
   }
 
   @Test
-  @DisplayName("Given full queue, when enqueuing, then drop and log warning")
-  void dropsWhenQueueFull() {
+  @DisplayName("Given full queue with reject policy, when enqueuing, then reject and log warning")
+  void rejectsWhenQueueFull() {
     // given
     buildProperties.getQueue().setCapacity(1);
-    buildQueueServiceImpl = new BuildQueueService(buildService, buildProperties);
+    buildProperties.getQueue().setOverflow(REJECT);
+    buildQueueServiceImpl =
+        new BuildQueueService(
+            buildService,
+            buildProperties,
+            new InMemoryBuildQueue(buildProperties, buildLifecycleService, buildRepository),
+            meterRegistry,
+            adaptiveConcurrencyImpl);
 
     // when
-    buildQueueServiceImpl.enqueue(1L);
-    buildQueueServiceImpl.enqueue(2L);
+    final var isFirstEnqueued = buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(1L, 1L));
+    final var isSecondEnqueued = buildQueueServiceImpl.enqueue(QueuedBuildModel.basic(2L, 2L));
 
     // then
+    assertThat(isFirstEnqueued).isTrue();
+    assertThat(isSecondEnqueued).isFalse();
     assertThat(
             logAppender.list.stream()
                 .map(ILoggingEvent::getFormattedMessage)
@@ -237,6 +361,6 @@ class BuildQueueServiceTest extends BaseUnit {
   }
 
   private void execute() {
-    buildQueueServiceImpl.stopWorker();
+    buildQueueServiceImpl.stop();
   }
 }
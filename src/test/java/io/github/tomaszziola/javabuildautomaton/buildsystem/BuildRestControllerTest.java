@@ -0,0 +1,27 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.FOUND;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import io.github.tomaszziola.javabuildautomaton.api.dto.ApiResponse;
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BuildRestControllerTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given build id, when cancelling, then delegate to BuildService")
+  void cancelBuildDelegatesToService() {
+    // given
+    final var response = new ApiResponse(FOUND, "Build #1 cancelled");
+    when(buildService.cancel(buildId)).thenReturn(response);
+
+    // when
+    final var result = buildRestControllerImpl.cancelBuild(buildId);
+
+    // then
+    assertThat(result).isEqualTo(response);
+  }
+}
@@ -0,0 +1,119 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.readString;
+import static java.nio.file.Files.writeString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+class BuildSandboxesTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given sandbox disabled, when opening, then build runs without a cgroup")
+  void returnsEmptyWhenDisabled() {
+    // when
+    final var cgroup = buildSandboxesImpl.open(build);
+
+    // then
+    assertThat(cgroup).isEmpty();
+  }
+
+  @Test
+  @DisplayName(
+      "Given parent cgroup without required controllers, when opening, then build runs unconfined")
+  void returnsEmptyWithoutControllers() throws IOException {
+    // given
+    buildProperties.getSandbox().setEnabled(true);
+    offerControllers("cpu io");
+
+    // when
+    final var cgroup = buildSandboxesImpl.open(build);
+
+    // then
+    assertThat(cgroup).isEmpty();
+  }
+
+  @Test
+  @DisplayName(
+      "Given sandbox enabled, when opening, then create build cgroup with the default limits")
+  void createsCgroupWithDefaultLimits() throws IOException {
+    // given
+    buildProperties.getSandbox().setEnabled(true);
+    offerControllers("cpuset cpu io memory pids");
+
+    // when
+    final var cgroup = buildSandboxesImpl.open(build);
+
+    // then
+    assertThat(cgroup).isPresent();
+    final Path dir = cgroup.get().dir();
+    assertThat(dir.getFileName()).hasToString("build-" + build.getId());
+    assertThat(readString(dir.getParent().resolve("cgroup.subtree_control")))
+        .isEqualTo("+cpu +memory +pids");
+    assertThat(readString(dir.resolve("cpu.max"))).isEqualTo("200000 100000");
+    assertThat(readString(dir.resolve("memory.max"))).isEqualTo("4294967296");
+    assertThat(readString(dir.resolve("pids.max"))).isEqualTo("4096");
+  }
+
+  @Test
+  @DisplayName(
+      "Given project limits and unlimited defaults, when opening, then project limits win")
+  void appliesProjectLimits() throws IOException {
+    // given
+    buildProperties.getSandbox().setEnabled(true);
+    buildProperties.getSandbox().setPidsMax(0);
+    buildProperties.getSandbox().setMemoryMax(DataSize.ofBytes(0));
+    project.setCpuLimitMillicores(500);
+    project.setMemoryLimitMb(1024);
+    build.setProject(project);
+    offerControllers("cpu memory pids");
+
+    // when
+    final var dir = buildSandboxesImpl.open(build).orElseThrow().dir();
+
+    // then
+    assertThat(readString(dir.resolve("cpu.max"))).isEqualTo("50000 100000");
+    assertThat(readString(dir.resolve("memory.max"))).isEqualTo("1073741824");
+    assertThat(readString(dir.resolve("pids.max"))).isEqualTo("max");
+  }
+
+  @Test
+  @DisplayName("Given finished build, when closing, then remove its empty cgroup")
+  void closeRemovesCgroup() throws IOException {
+    // given
+    final var dir = createDirectories(tempDir.resolve("cgroup").resolve("jba").resolve("build-1"));
+
+    // when
+    buildSandboxesImpl.close(new BuildCgroup(dir));
+
+    // then
+    assertThat(dir).doesNotExist();
+  }
+
+  @Test
+  @DisplayName(
+      "Given cgroup with leftover processes, when closing, then kill them and keep going")
+  void closeKillsLeftoverProcesses() throws IOException {
+    // given
+    final var dir = createDirectories(tempDir.resolve("build-1"));
+    writeString(dir.resolve("cgroup.procs"), "4242\n");
+    writeString(dir.resolve("cgroup.kill"), "");
+
+    // when
+    buildSandboxesImpl.close(new BuildCgroup(dir));
+
+    // then
+    assertThat(readString(dir.resolve("cgroup.kill"))).isEqualTo("1");
+  }
+
+  private void offerControllers(String controllers) throws IOException {
+    final var parent = createDirectories(tempDir.resolve("cgroup"));
+    writeString(parent.resolve("cgroup.controllers"), controllers + "\n");
+  }
+}
@@ -1,7 +1,11 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.FOUND;
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.SKIPPED;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.FAILED;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.SUCCESS;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.TIMED_OUT;
+import static java.nio.file.Files.writeString;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -14,10 +18,17 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLog;
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogSink;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildNotFoundException;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.InvalidBuildCommandException;
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
 import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import org.assertj.core.api.AssertionsForClassTypes;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -29,17 +40,16 @@ class BuildServiceTest extends BaseUnit {
       "Given invalid workspace, when starting build process, then stop early and no git/build calls")
   void stopsEarlyWhenWorkspaceInvalid() {
     // given\
-    when(buildWorkspaceGuard.prepareWorkspaceOrFail(
-            eq(project), eq(build), isA(StringBuilder.class)))
+    when(buildWorkspaceGuard.prepareWorkspaceOrFail(eq(project), eq(build), isA(BuildLog.class)))
         .thenReturn(new ValidationResult(false, null));
 
     // when
     buildServiceImpl.startBuildProcess(project);
 
     // then
-    verify(gitCommandRunner, never()).pull(any());
-    verify(gitCommandRunner, never()).clone(any(), any());
-    verify(buildExecutor, never()).build(any(), any(), anyInt());
+    verify(gitCommandRunner, never()).fetch(any(), any(), any());
+    verify(gitCommandRunner, never()).clone(any(), any(), any());
+    verify(buildExecutor, never()).build(any(), any(), any(), anyInt(), any());
   }
 
   @Test
@@ -47,93 +57,281 @@ class BuildServiceTest extends BaseUnit {
       "Given repo not initialized and clone succeeds, when building, then complete SUCCESS with aggregated logs")
   void cloneSuccessThenBuildSuccess() {
     // given
-    final var logsCaptor = forClass(CharSequence.class);
+    final var logsCaptor = forClass(String.class);
 
     // when
     buildServiceImpl.startBuildProcess(project);
 
     // then
-    verify(gitCommandRunner).clone(project.getRepositoryUrl(), workingDir);
-    verify(buildExecutor).build(project.getBuildTool(), workingDir, javaVersion);
-    verify(buildLifecycleService).complete(any(Build.class), eq(SUCCESS), logsCaptor.capture());
+    verify(gitCommandRunner).clone(project.getRepositoryUrl(), workingDir, buildLog);
+    verify(buildExecutor)
+        .build(project.getBuildTool(), buildArguments, workingDir, javaVersion, buildLog);
+    verify(buildLifecycleService).complete(any(Build.class), eq(SUCCESS), eq(buildLog));
+    verify(buildLogStore).append(eq(build.getId()), eq(0), logsCaptor.capture());
 
-    final String logs = logsCaptor.getValue().toString();
+    final String logs = logsCaptor.getValue();
     assertThat(logs).contains("clone's ok");
     assertThat(logs).contains("build's ok");
   }
 
+  @Test
+  @DisplayName(
+      "Given build of a commit and fresh workspace, when building, then clone and check out that commit")
+  void clonesThenChecksOutCommit() {
+    // given
+    build.setCommitSha(commitSha);
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(gitCommandRunner).clone(project.getRepositoryUrl(), workingDir, buildLog);
+    verify(gitCommandRunner).fetch(workingDir, commitSha, buildLog);
+    verify(gitCommandRunner).resetHard(workingDir, buildLog);
+    verify(buildLifecycleService).complete(any(Build.class), eq(SUCCESS), eq(buildLog));
+  }
+
+  @Test
+  @DisplayName("Given build without commit and fresh workspace, when building, then only clone")
+  void clonesWithoutCheckoutWhenNoCommit() {
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(gitCommandRunner, never()).fetch(any(), any(), any());
+    verify(gitCommandRunner, never()).resetHard(any(), any());
+  }
+
+  @Test
+  @DisplayName(
+      "Given repo not initialized and mirror available, when building, then clone shared from mirror")
+  void clonesSharedFromMirror() {
+    // given
+    final var mirrorDir = new File(workingDir.getParentFile(), "mirror.git");
+    when(gitMirrorCache.sync(eq(project.getRepositoryUrl()), any(LogSink.class)))
+        .thenReturn(Optional.of(mirrorDir));
+    when(gitCommandRunner.cloneShared(eq(mirrorDir), eq(workingDir), any(LogSink.class)))
+        .thenReturn(new ExecutionResult(true));
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(gitCommandRunner).cloneShared(mirrorDir, workingDir, buildLog);
+    verify(gitCommandRunner, never()).clone(any(), any(), any());
+    verify(buildLifecycleService).complete(any(Build.class), eq(SUCCESS), eq(buildLog));
+  }
+
   @Test
   @DisplayName(
       "Given repo not initialized and clone fails, when building, then complete FAILED and do not build")
   void cloneFailureStopsProcess() {
     // given
-    when(gitCommandRunner.clone(project.getRepositoryUrl(), workingDir))
-        .thenReturn(new ExecutionResult(false, "clone failed\n"));
+    when(gitCommandRunner.clone(
+            eq(project.getRepositoryUrl()), eq(workingDir), any(LogSink.class)))
+        .thenReturn(new ExecutionResult(false));
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(buildLifecycleService).complete(any(Build.class), eq(FAILED), any(BuildLog.class));
+    verify(buildExecutor, never()).build(any(), any(), any(), anyInt(), any());
+  }
+
+  @Test
+  @DisplayName(
+      "Given workspace referring to a missing mirror, when building, then clone it again")
+  void reclonesWorkspaceWithMissingMirror() {
+    // given
+    assertThat(new File(workingDir, ".git").mkdir()).isTrue();
+    when(gitMirrorCache.discardIfOrphaned(workingDir)).thenReturn(true);
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(gitCommandRunner).clone(project.getRepositoryUrl(), workingDir, buildLog);
+    verify(gitCommandRunner, never()).fetch(any(), any(), any());
+  }
+
+  @Test
+  @DisplayName(
+      "Given repo initialized and fetch fails, when building, then complete FAILED without reset or build")
+  void fetchFailureStopsProcess() {
+    // given
+    final var gitDir = new File(workingDir, ".git");
+    assertThat(gitDir.mkdir()).isTrue();
+
+    when(gitCommandRunner.fetch(eq(workingDir), any(), any(LogSink.class)))
+        .thenReturn(new ExecutionResult(false));
 
     // when
     buildServiceImpl.startBuildProcess(project);
 
     // then
-    verify(buildLifecycleService).complete(any(Build.class), eq(FAILED), any(CharSequence.class));
-    verify(buildExecutor, never()).build(any(), any(), anyInt());
+    verify(buildLifecycleService).complete(any(Build.class), eq(FAILED), any(BuildLog.class));
+    verify(gitCommandRunner, never()).resetHard(any(), any());
+    verify(buildExecutor, never()).build(any(), any(), any(), anyInt(), any());
   }
 
   @Test
   @DisplayName(
-      "Given repo initialized and pull fails, when building, then complete FAILED and do not build")
-  void pullFailureStopsProcess() {
+      "Given repo initialized and reset fails, when building, then complete FAILED and do not build")
+  void resetFailureStopsProcess() {
     // given
     final var gitDir = new File(workingDir, ".git");
     assertThat(gitDir.mkdir()).isTrue();
 
-    when(gitCommandRunner.pull(workingDir)).thenReturn(new ExecutionResult(false, "pull failed\n"));
+    when(gitCommandRunner.resetHard(eq(workingDir), any(LogSink.class)))
+        .thenReturn(new ExecutionResult(false));
 
     // when
     buildServiceImpl.startBuildProcess(project);
 
     // then
-    verify(buildLifecycleService).complete(any(Build.class), eq(FAILED), any(CharSequence.class));
-    verify(buildExecutor, never()).build(any(), any(), anyInt());
+    verify(buildLifecycleService).complete(any(Build.class), eq(FAILED), any(BuildLog.class));
+    verify(buildExecutor, never()).build(any(), any(), any(), anyInt(), any());
   }
 
   @Test
   @DisplayName(
-      "Given repo initialized and pull succeeds but build fails, when building, then complete FAILED")
-  void buildFailureAfterSuccessfulPull() {
+      "Given repo initialized and fetch succeeds but build fails, when building, then complete FAILED")
+  void buildFailureAfterSuccessfulFetch() {
     // given
-    when(buildExecutor.build(project.getBuildTool(), workingDir, javaVersion))
-        .thenReturn(new ExecutionResult(false, "build failed\n"));
+    when(buildExecutor.build(
+            eq(project.getBuildTool()),
+            eq(buildArguments),
+            eq(workingDir),
+            eq(javaVersion),
+            any(LogSink.class)))
+        .thenReturn(new ExecutionResult(false));
 
     // when
     buildServiceImpl.startBuildProcess(project);
 
     // then
-    verify(buildLifecycleService).complete(any(Build.class), eq(FAILED), any(CharSequence.class));
+    verify(buildLifecycleService).complete(any(Build.class), eq(FAILED), any(BuildLog.class));
   }
 
   @Test
   @DisplayName(
-      "Given repo initialized and pull/build succeed, when building, then complete SUCCESS with aggregated logs")
-  void pullSuccessThenBuildSuccess() {
+      "Given repo initialized and fetch/reset/build succeed, when building, then complete SUCCESS with aggregated logs")
+  void fetchSuccessThenBuildSuccess() {
     // given
     final File gitDir = new File(workingDir, ".git");
     assertThat(gitDir.mkdir()).isTrue();
 
-    final var logsCaptor = forClass(CharSequence.class);
+    final var logsCaptor = forClass(String.class);
 
     // when
     buildServiceImpl.startBuildProcess(project);
 
     // then
-    verify(gitCommandRunner).pull(workingDir);
-    verify(buildExecutor).build(project.getBuildTool(), workingDir, javaVersion);
-    verify(buildLifecycleService).complete(any(Build.class), eq(SUCCESS), logsCaptor.capture());
+    verify(gitCommandRunner).fetch(workingDir, null, buildLog);
+    verify(gitCommandRunner).resetHard(workingDir, buildLog);
+    verify(buildExecutor)
+        .build(project.getBuildTool(), buildArguments, workingDir, javaVersion, buildLog);
+    verify(buildLifecycleService).complete(any(Build.class), eq(SUCCESS), eq(buildLog));
+    verify(buildLogStore).append(eq(build.getId()), eq(0), logsCaptor.capture());
 
-    final String logs = logsCaptor.getValue().toString();
-    assertThat(logs).contains("pull's ok");
+    final String logs = logsCaptor.getValue();
+    assertThat(logs).contains("fetch's ok");
+    assertThat(logs).contains("reset's ok");
     assertThat(logs).contains("build's ok");
   }
 
+  @Test
+  @DisplayName(
+      "Given build command outside the allowlist, when building, then complete FAILED without build")
+  void rejectedBuildCommandStopsProcess() {
+    // given
+    final var logsCaptor = forClass(String.class);
+    when(buildCommands.resolve(eq(project), any()))
+        .thenThrow(new InvalidBuildCommandException("--init-script"));
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(buildLifecycleService).complete(any(Build.class), eq(FAILED), eq(buildLog));
+    verify(buildExecutor, never()).build(any(), any(), any(), anyInt(), any());
+    verify(buildLogStore).append(eq(build.getId()), eq(0), logsCaptor.capture());
+    assertThat(logsCaptor.getValue()).contains("not allowed: '--init-script'");
+  }
+
+  @Test
+  @DisplayName("Given successful build, when building, then record the resolved build command")
+  void recordsResolvedBuildCommand() {
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    assertThat(build.getBuildCommand()).isEqualTo("clean build");
+  }
+
+  @Test
+  @DisplayName("Given build stopped for timeout, when its step fails, then complete TIMED_OUT")
+  void stoppedBuildCompletesWithStopReason() {
+    // given
+    buildControl.stop(TIMED_OUT);
+    when(buildExecutor.build(
+            project.getBuildTool(), buildArguments, workingDir, javaVersion, buildLog))
+        .thenReturn(new ExecutionResult(false));
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(buildLifecycleService).complete(any(Build.class), eq(TIMED_OUT), eq(buildLog));
+    verify(runningBuilds).unregister(build);
+  }
+
+  @Test
+  @DisplayName("Given queued build, when cancelling, then cancel it without touching processes")
+  void cancelQueuedBuild() {
+    // given
+    when(buildLifecycleService.cancelQueued(build)).thenReturn(true);
+
+    // when
+    final var result = buildServiceImpl.cancel(buildId);
+
+    // then
+    assertThat(result.status()).isEqualTo(FOUND);
+    verify(runningBuilds, never()).cancel(buildId);
+  }
+
+  @Test
+  @DisplayName("Given running build, when cancelling, then stop it")
+  void cancelRunningBuild() {
+    // given
+    when(runningBuilds.cancel(buildId)).thenReturn(true);
+
+    // when
+    final var result = buildServiceImpl.cancel(buildId);
+
+    // then
+    assertThat(result.status()).isEqualTo(FOUND);
+    assertThat(result.message()).contains("being cancelled");
+  }
+
+  @Test
+  @DisplayName("Given finished build, when cancelling, then skip it")
+  void cancelFinishedBuildIsSkipped() {
+    // when
+    final var result = buildServiceImpl.cancel(buildId);
+
+    // then
+    assertThat(result.status()).isEqualTo(SKIPPED);
+  }
+
+  @Test
+  @DisplayName("Given missing build id, when cancelling, then throw BuildNotFoundException")
+  void cancelMissingBuildThrows() {
+    assertThatThrownBy(() -> buildServiceImpl.cancel(nonExistentBuildId))
+        .isInstanceOf(BuildNotFoundException.class);
+  }
+
   @Test
   @DisplayName(
       "Given build id exists, when executing build by id, then mark in progress and run flow")
@@ -145,6 +343,19 @@ class BuildServiceTest extends BaseUnit {
     verify(buildLifecycleService).markInProgress(build);
   }
 
+  @Test
+  @DisplayName("Given build no longer queued, when executing build by id, then skip it")
+  void executeByIdSkipsBuildNoLongerQueued() {
+    // given
+    when(buildLifecycleService.markInProgress(build)).thenReturn(false);
+
+    // when
+    buildServiceImpl.execute(buildId);
+
+    // then
+    verify(buildLogService, never()).open(build);
+  }
+
   @Test
   @DisplayName(
       "Given missing build id, when executing build by id, then throw BuildNotFoundException")
@@ -173,4 +384,178 @@ class BuildServiceTest extends BaseUnit {
         BuildNotFoundException.class,
         () -> buildServiceImpl.findBuildDetailsById(nonExistentBuildId));
   }
+
+  @Test
+  @DisplayName(
+      "Given tree already built with same tool and Java, when building, then reuse result without build")
+  void reusesCachedResultForBuiltTree() {
+    // given
+    final var cachedBuild = new Build();
+    cachedBuild.setId(7L);
+    when(gitCommandRunner.resolveTree(workingDir, null)).thenReturn(Optional.of(treeSha));
+    when(buildLifecycleService.findCachedResult(build)).thenReturn(Optional.of(cachedBuild));
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(buildExecutor, never()).build(any(), any(), any(), anyInt(), any());
+    verify(buildLifecycleService).complete(build, SUCCESS, buildLog);
+    assertThat(build.getCachedFrom()).isSameAs(cachedBuild);
+    assertThat(build.getTreeSha()).isEqualTo(treeSha);
+  }
+
+  @Test
+  @DisplayName("Given tree not built yet, when building, then record cache key and run build")
+  void recordsCacheKeyAndBuildsOnMiss() {
+    // given
+    when(gitCommandRunner.resolveTree(workingDir, null)).thenReturn(Optional.of(treeSha));
+    when(buildLifecycleService.findCachedResult(build)).thenReturn(Optional.empty());
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(buildExecutor)
+        .build(project.getBuildTool(), buildArguments, workingDir, javaVersion, buildLog);
+    assertThat(build.getTreeSha()).isEqualTo(treeSha);
+    assertThat(build.getBuildTool()).isEqualTo(project.getBuildTool());
+    assertThat(build.getJavaVersion()).isEqualTo(javaVersion);
+    assertThat(build.getCachedFrom()).isNull();
+  }
+
+  @Test
+  @DisplayName("Given result cache disabled, when building, then do not look up cached results")
+  void skipsLookupWhenResultCacheDisabled() {
+    // given
+    buildProperties.getResultCache().setEnabled(false);
+    when(gitCommandRunner.resolveTree(workingDir, null)).thenReturn(Optional.of(treeSha));
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(buildLifecycleService, never()).findCachedResult(any());
+    verify(buildExecutor)
+        .build(project.getBuildTool(), buildArguments, workingDir, javaVersion, buildLog);
+  }
+
+  @Test
+  @DisplayName(
+      "Given commit tree already built, when building, then reuse result from mirror without checkout")
+  void reusesCachedResultFromMirrorWithoutCheckout() {
+    // given
+    final var mirrorDir = new File(workingDir.getParentFile(), "mirror.git");
+    final var cachedBuild = new Build();
+    cachedBuild.setId(7L);
+    build.setCommitSha(commitSha);
+    when(ephemeralWorkspaces.isEnabled()).thenReturn(true);
+    when(gitMirrorCache.sync(eq(project.getRepositoryUrl()), any(LogSink.class)))
+        .thenReturn(Optional.of(mirrorDir));
+    when(gitCommandRunner.resolveTree(mirrorDir, commitSha)).thenReturn(Optional.of(treeSha));
+    when(buildLifecycleService.findCachedResult(build)).thenReturn(Optional.of(cachedBuild));
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(gitCommandRunner, never()).clone(any(), any(), any());
+    verify(gitCommandRunner, never()).cloneShared(any(), any(), any());
+    verify(gitCommandRunner, never()).fetch(any(), any(), any());
+    verify(gitCommandRunner, never()).resetHard(any(), any());
+    verify(ephemeralWorkspaces, never()).create(any(), any(), any(), any());
+    verify(buildExecutor, never()).build(any(), any(), any(), anyInt(), any());
+    verify(buildLifecycleService).complete(build, SUCCESS, buildLog);
+    assertThat(build.getCachedFrom()).isSameAs(cachedBuild);
+    assertThat(build.getTreeSha()).isEqualTo(treeSha);
+  }
+
+  @Test
+  @DisplayName(
+      "Given ephemeral workspaces, when building, then build in a throwaway workspace and release it")
+  void buildsInEphemeralWorkspace() {
+    // given
+    final var buildDir = new File(workingDir.getParentFile(), "build-42");
+    when(ephemeralWorkspaces.isEnabled()).thenReturn(true);
+    when(ephemeralWorkspaces.create(project, build, workingDir, buildLog))
+        .thenReturn(Optional.of(buildDir));
+    when(buildExecutor.build(
+            project.getBuildTool(), buildArguments, buildDir, javaVersion, buildLog))
+        .thenReturn(new ExecutionResult(true));
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(gitCommandRunner).clone(project.getRepositoryUrl(), workingDir, buildLog);
+    verify(buildExecutor)
+        .build(project.getBuildTool(), buildArguments, buildDir, javaVersion, buildLog);
+    verify(buildLifecycleService).complete(build, SUCCESS, buildLog);
+    verify(ephemeralWorkspaces).release(workingDir, buildDir, buildLog);
+  }
+
+  @Test
+  @DisplayName(
+      "Given shared workspace, when building, then hold the workspace lock until the build ends")
+  void holdsSharedWorkspaceLockDuringBuild() {
+    // given
+    final var lock = new ReentrantLock();
+    final var isLockedDuringBuild = new AtomicBoolean();
+    when(ephemeralWorkspaces.lockFor(workingDir)).thenReturn(lock);
+    when(buildExecutor.build(
+            project.getBuildTool(), buildArguments, workingDir, javaVersion, buildLog))
+        .thenAnswer(
+            _ -> {
+              isLockedDuringBuild.set(lock.isHeldByCurrentThread());
+              return new ExecutionResult(true);
+            });
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    assertThat(isLockedDuringBuild).isTrue();
+    assertThat(lock.isLocked()).isFalse();
+  }
+
+  @Test
+  @DisplayName(
+      "Given ephemeral workspace cannot be created, when building, then complete FAILED without build")
+  void failsWhenEphemeralWorkspaceUnavailable() {
+    // given
+    when(ephemeralWorkspaces.isEnabled()).thenReturn(true);
+    when(ephemeralWorkspaces.create(project, build, workingDir, buildLog))
+        .thenReturn(Optional.empty());
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    verify(buildExecutor, never()).build(any(), any(), any(), anyInt(), any());
+    verify(buildLifecycleService).complete(build, FAILED, buildLog);
+    verify(ephemeralWorkspaces, never()).release(any(), any(), any());
+  }
+
+  @Test
+  @DisplayName(
+      "Given sandbox cgroup for the build, when build completes, then record its usage and remove the cgroup")
+  void recordsSandboxUsageAndClosesCgroup() throws IOException {
+    // given
+    final var cgroup = new BuildCgroup(tempDir);
+    writeString(tempDir.resolve("cpu.stat"), "usage_usec 1500000\n");
+    writeString(tempDir.resolve("memory.peak"), "2048\n");
+    writeString(tempDir.resolve("pids.peak"), "7\n");
+    when(buildSandboxes.open(build)).thenReturn(Optional.of(cgroup));
+
+    // when
+    buildServiceImpl.startBuildProcess(project);
+
+    // then
+    assertThat(buildControl.cgroup()).contains(cgroup);
+    assertThat(build.getCpuTimeMs()).isEqualTo(1500L);
+    assertThat(build.getMemoryPeakBytes()).isEqualTo(2048L);
+    assertThat(build.getPidsPeak()).isEqualTo(7);
+    verify(buildLifecycleService).complete(build, SUCCESS, buildLog);
+    verify(buildSandboxes).close(cgroup);
+  }
 }
@@ -0,0 +1,83 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.GRADLE;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.MAVEN;
+import static java.nio.file.Files.write;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BuildToolCachesTest extends BaseUnit {
+
+  private final ProcessCommand command = ProcessCommand.of("mvn", "clean", "install");
+
+  @Test
+  @DisplayName("Given tool cache disabled, when preparing command, then leave it unchanged")
+  void leavesCommandWhenDisabled() {
+    // given
+    buildProperties.getToolCache().setEnabled(false);
+
+    // when
+    final var result = buildToolCachesImpl.withCache(MAVEN, javaVersion, command);
+
+    // then
+    assertThat(result).isSameAs(command);
+  }
+
+  @Test
+  @DisplayName("Given tools and JDKs, when resolving caches, then keep one per tool and JDK")
+  void resolvesCachePerToolAndJdk() {
+    // when
+    final var maven21 = buildToolCachesImpl.resolveCacheDir(MAVEN, 21);
+    final var maven25 = buildToolCachesImpl.resolveCacheDir(MAVEN, 25);
+    final var gradle21 = buildToolCachesImpl.resolveCacheDir(GRADLE, 21);
+
+    // then
+    assertThat(maven21).isNotEqualTo(maven25).isNotEqualTo(gradle21);
+    assertThat(maven21)
+        .isEqualTo(tempDir.resolve("tool-caches").resolve("maven").resolve("jdk-21"));
+  }
+
+  @Test
+  @DisplayName("Given empty then populated cache, when building, then count a miss and then a hit")
+  void countsMissForColdCacheAndHitForWarmCache() throws IOException {
+    // given
+    buildToolCachesImpl.withCache(MAVEN, javaVersion, command);
+    final var cacheDir = buildToolCachesImpl.resolveCacheDir(MAVEN, javaVersion);
+    write(cacheDir.resolve("artifact.jar"), new byte[10]);
+
+    // when
+    buildToolCachesImpl.withCache(MAVEN, javaVersion, command);
+
+    // then
+    assertThat(lookups("miss")).isEqualTo(1);
+    assertThat(lookups("hit")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Given used cache, when measuring, then expose its size")
+  void exposesCacheSize() throws IOException {
+    // given
+    buildToolCachesImpl.withCache(MAVEN, javaVersion, command);
+    write(buildToolCachesImpl.resolveCacheDir(MAVEN, javaVersion).resolve("a.jar"), new byte[42]);
+
+    // when
+    buildToolCachesImpl.measure();
+
+    // then
+    assertThat(meterRegistry.get("build.tool.cache.size").tag("tool", "maven").gauge().value())
+        .isEqualTo(42);
+  }
+
+  private double lookups(String result) {
+    return meterRegistry
+        .get("build.tool.cache.lookups")
+        .tag("tool", "maven")
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+}
@@ -7,6 +7,9 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLog;
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLogStore;
+import io.github.tomaszziola.javabuildautomaton.buildlog.LiveLog;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.WorkspaceException;
 import io.github.tomaszziola.javabuildautomaton.project.entity.Project;
@@ -18,7 +21,6 @@ import java.nio.file.Path;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
-import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 class BuildWorkspaceGuardTest {
@@ -43,7 +45,8 @@ class BuildWorkspaceGuardTest {
 
     when(workspaceManager.ensureWorkspaceFor(project)).thenReturn(workspaceDir.toPath());
 
-    final StringBuilder logs = new StringBuilder();
+    final BuildLog logs =
+        new BuildLog(1L, Mockito.mock(BuildLogStore.class), 1024, new LiveLog(1024, _ -> {}));
 
     // when
     final ValidationResult result = validator.prepareWorkspaceOrFail(project, build, logs);
@@ -51,7 +54,7 @@ class BuildWorkspaceGuardTest {
     // then
     assertThat(result.isValid()).isTrue();
     assertThat(result.workingDirectory()).isEqualTo(workspaceDir);
-    verify(lifecycle, never()).complete(any(Build.class), any(), any(CharSequence.class));
+    verify(lifecycle, never()).complete(any(Build.class), any(), any(BuildLog.class));
   }
 
   @Test
@@ -70,19 +73,21 @@ class BuildWorkspaceGuardTest {
     when(workspaceManager.resolveProjectWorkspacePath(project))
         .thenThrow(new WorkspaceException("boom2"));
 
-    final StringBuilder logs = new StringBuilder();
+    final BuildLogStore store = Mockito.mock(BuildLogStore.class);
+    final BuildLog logs = new BuildLog(1L, store, 1024, new LiveLog(1024, _ -> {}));
 
     // when
     final ValidationResult result = validator.prepareWorkspaceOrFail(project, build, logs);
+    logs.close();
 
     // then
     assertThat(result.isValid()).isFalse();
-
-    final ArgumentCaptor<CharSequence> logsCaptor = ArgumentCaptor.forClass(CharSequence.class);
-    verify(lifecycle).complete(any(Build.class), Mockito.eq(FAILED), logsCaptor.capture());
-
-    final String aggregated = logsCaptor.getValue().toString();
-    assertThat(aggregated).contains("BUILD FAILED");
+    verify(lifecycle).complete(any(Build.class), Mockito.eq(FAILED), Mockito.eq(logs));
+    verify(store)
+        .append(
+            Mockito.eq(1L),
+            Mockito.eq(0),
+            Mockito.argThat(chunk -> chunk.contains("BUILD FAILED")));
   }
 
   @Test
@@ -102,13 +107,14 @@ class BuildWorkspaceGuardTest {
     when(workspaceManager.ensureWorkspaceFor(project)).thenReturn(filePath);
     when(workspaceManager.resolveProjectWorkspacePath(project)).thenReturn(filePath);
 
-    final StringBuilder logs = new StringBuilder();
+    final BuildLog logs =
+        new BuildLog(1L, Mockito.mock(BuildLogStore.class), 1024, new LiveLog(1024, _ -> {}));
 
     // when
     final ValidationResult result = validator.prepareWorkspaceOrFail(project, build, logs);
 
     // then
     assertThat(result.isValid()).isFalse();
-    verify(lifecycle).complete(any(Build.class), Mockito.eq(FAILED), any(CharSequence.class));
+    verify(lifecycle).complete(any(Build.class), Mockito.eq(FAILED), any(BuildLog.class));
   }
 }
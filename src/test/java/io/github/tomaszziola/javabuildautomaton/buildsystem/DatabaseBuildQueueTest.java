@@ -0,0 +1,141 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.OverflowPolicy.REJECT;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.IN_PROGRESS;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.QUEUED;
+import static java.util.List.of;
+import static java.util.Optional.empty;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.tomaszziola.javabuildautomaton.models.QueuedBuildModel;
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DatabaseBuildQueueTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given unclaimed queued build, when polling, then claim and return it")
+  void claimsNextQueuedBuild() {
+    // given
+    when(buildRepository.lockNextUnclaimedId(anySet(), any(), any()))
+        .thenReturn(Optional.of(buildId));
+
+    // when
+    final var result = databaseBuildQueueImpl.poll(Set.of());
+
+    // then
+    assertThat(result).isEqualTo(QueuedBuild.of(build));
+    verify(buildRepository).claim(eq(buildId), anyString(), any(Instant.class));
+  }
+
+  @Test
+  @DisplayName("Given nothing queued, when polling, then return null")
+  void returnsNullWhenNothingQueued() {
+    // given
+    when(buildRepository.lockNextUnclaimedId(anySet(), any(), any())).thenReturn(empty());
+
+    // when
+    final var result = databaseBuildQueueImpl.poll(Set.of());
+
+    // then
+    assertThat(result).isNull();
+    verify(buildRepository, never()).claim(any(), anyString(), any(Instant.class));
+  }
+
+  @Test
+  @DisplayName("Given busy projects, when polling, then exclude them from the claim")
+  void excludesBusyProjectsFromClaim() {
+    // given
+    when(buildRepository.lockNextUnclaimedId(anySet(), any(), any())).thenReturn(empty());
+
+    // when
+    databaseBuildQueueImpl.poll(Set.of(projectId));
+
+    // then
+    verify(buildRepository).lockNextUnclaimedId(eq(Set.of(projectId)), any(), any());
+  }
+
+  @Test
+  @DisplayName("Given spill policy, when offering, then accept without counting the backlog")
+  void acceptsOfferWithSpillPolicy() {
+    // when
+    final var result = databaseBuildQueueImpl.offer(QueuedBuildModel.basic(buildId, projectId));
+
+    // then
+    assertThat(result).isTrue();
+    verify(buildRepository, never()).countByStatusAndClaimedByIsNull(QUEUED);
+  }
+
+  @Test
+  @DisplayName("Given reject policy and backlog over capacity, when offering, then reject")
+  void rejectsOfferOverCapacity() {
+    // given
+    buildProperties.getQueue().setOverflow(REJECT);
+    when(buildRepository.countByStatusAndClaimedByIsNull(QUEUED)).thenReturn(4L);
+
+    // when
+    final var result = databaseBuildQueueImpl.offer(QueuedBuildModel.basic(buildId, projectId));
+
+    // then
+    assertThat(result).isFalse();
+  }
+
+  @Test
+  @DisplayName("Given claimed builds, when heartbeating, then refresh own claims")
+  void refreshesOwnClaims() {
+    // when
+    databaseBuildQueueImpl.heartbeat();
+
+    // then
+    verify(buildRepository).heartbeat(anyString(), any(Instant.class), anyCollection());
+  }
+
+  @Test
+  @DisplayName("Given stale claim, when releasing, then requeue build and discard its logs")
+  void releasesStaleClaims() {
+    // given
+    when(buildRepository.findStaleClaimIds(any(Instant.class), anyCollection()))
+        .thenReturn(of(buildId, nonExistentBuildId));
+    when(buildRepository.releaseStaleClaim(
+            eq(buildId), any(Instant.class), anyCollection(), eq(QUEUED)))
+        .thenReturn(1);
+    when(buildRepository.releaseStaleClaim(
+            eq(nonExistentBuildId), any(Instant.class), anyCollection(), eq(QUEUED)))
+        .thenReturn(0);
+
+    // when
+    databaseBuildQueueImpl.releaseStaleClaims();
+
+    // then
+    verify(buildLogService).discard(buildId);
+    verify(buildLogService, never()).discard(nonExistentBuildId);
+  }
+
+  @Test
+  @DisplayName(
+      "Given unclaimed build left IN_PROGRESS, when application is ready, then requeue it")
+  void requeuesUnclaimedInProgressBuildsOnStartup() {
+    // given
+    when(buildRepository.findUnclaimedIdsByStatus(IN_PROGRESS)).thenReturn(of(buildId));
+    when(buildRepository.transition(buildId, IN_PROGRESS, QUEUED)).thenReturn(1);
+
+    // when
+    databaseBuildQueueImpl.recoverPendingBuilds();
+
+    // then
+    verify(buildLogService).discard(buildId);
+    verify(buildRepository).findStaleClaimIds(any(Instant.class), anyCollection());
+  }
+}
@@ -1,9 +1,14 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogSink;
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.File;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,14 +18,51 @@ import org.mockito.junit.jupiter.MockitoExtension;
 class GitCommandRunnerTest extends BaseUnit {
   @Test
   @DisplayName(
-      "Given working directory, when pulling, then delegate to process executor and propagate result")
-  void delegatesToProcessExecutorWhenPulling() {
+      "Given working directory, when fetching, then fetch remote HEAD shallowly and propagate result")
+  void delegatesToProcessExecutorWhenFetching() {
     // when
-    var result = gitCommandRunnerImpl.pull(workingDir);
+    var result = gitCommandRunnerImpl.fetch(workingDir, null, buildLog);
 
     // then
-    verify(processExecutor).execute(workingDir, "git", "pull");
-    assertThat(result).isSameAs(pullExecutionResult);
+    verify(processExecutor)
+        .execute(workingDir, buildLog, "git", "fetch", "--depth=1", "origin", "HEAD");
+    assertThat(result).isSameAs(fetchExecutionResult);
+  }
+
+  @Test
+  @DisplayName("Given commit sha, when fetching, then fetch exactly that commit")
+  void fetchesCommitSha() {
+    // when
+    gitCommandRunnerImpl.fetch(workingDir, commitSha, buildLog);
+
+    // then
+    verify(processExecutor)
+        .execute(workingDir, buildLog, "git", "fetch", "--depth=1", "origin", commitSha);
+  }
+
+  @Test
+  @DisplayName("Given full history configured, when fetching, then omit depth")
+  void fetchesFullHistoryWhenDepthIsZero() {
+    // given
+    buildProperties.getGit().setDepth(0);
+
+    // when
+    gitCommandRunnerImpl.fetch(workingDir, null, buildLog);
+
+    // then
+    verify(processExecutor).execute(workingDir, buildLog, "git", "fetch", "origin", "HEAD");
+  }
+
+  @Test
+  @DisplayName(
+      "Given fetched commit, when resetting, then hard reset to FETCH_HEAD and propagate result")
+  void delegatesToProcessExecutorWhenResetting() {
+    // when
+    var result = gitCommandRunnerImpl.resetHard(workingDir, buildLog);
+
+    // then
+    verify(processExecutor).execute(workingDir, buildLog, "git", "reset", "--hard", "FETCH_HEAD");
+    assertThat(result).isSameAs(resetExecutionResult);
   }
 
   @Test
@@ -28,10 +70,190 @@ class GitCommandRunnerTest extends BaseUnit {
       "Given repository and target dir, when cloning, then delegate to process executor and propagate result")
   void delegatesToProcessExecutorWhenCloning() {
     // when
-    var result = gitCommandRunnerImpl.clone(project.getRepositoryUrl(), workingDir);
+    var result = gitCommandRunnerImpl.clone(project.getRepositoryUrl(), workingDir, buildLog);
 
     // then
-    verify(processExecutor).execute(workingDir, "git", "clone", project.getRepositoryUrl(), ".");
+    verify(processExecutor)
+        .execute(
+            workingDir,
+            buildLog,
+            "git",
+            "clone",
+            "--depth=1",
+            "--single-branch",
+            project.getRepositoryUrl(),
+            ".");
     assertThat(result).isSameAs(cloneExecutionResult);
   }
+
+  @Test
+  @DisplayName(
+      "Given partial clone filter and all branches, when cloning, then pass filter and no-single-branch")
+  void clonesWithFilterAndAllBranches() {
+    // given
+    buildProperties.getGit().setDepth(0);
+    buildProperties.getGit().setFilter("blob:none");
+    buildProperties.getGit().setSingleBranch(false);
+
+    // when
+    gitCommandRunnerImpl.clone(project.getRepositoryUrl(), workingDir, buildLog);
+
+    // then
+    verify(processExecutor)
+        .execute(
+            workingDir,
+            buildLog,
+            "git",
+            "clone",
+            "--filter=blob:none",
+            "--no-single-branch",
+            project.getRepositoryUrl(),
+            ".");
+  }
+
+  @Test
+  @DisplayName("Given repository url, when creating mirror, then clone bare mirror keeping objects")
+  void clonesMirror() {
+    // given
+    final var mirrorDir = new File(workingDir, "mirror.git");
+
+    // when
+    gitCommandRunnerImpl.cloneMirror(project.getRepositoryUrl(), mirrorDir, buildLog);
+
+    // then
+    verify(processExecutor)
+        .execute(
+            workingDir,
+            buildLog,
+            "git",
+            "clone",
+            "--mirror",
+            "--config",
+            "gc.pruneExpire=never",
+            "--config",
+            "uploadpack.allowReachableSHA1InWant=true",
+            project.getRepositoryUrl(),
+            "mirror.git");
+  }
+
+  @Test
+  @DisplayName("Given existing mirror, when updating, then fetch with prune")
+  void updatesMirror() {
+    // when
+    gitCommandRunnerImpl.updateMirror(workingDir, buildLog);
+
+    // then
+    verify(processExecutor).execute(workingDir, buildLog, "git", "fetch", "--prune", "origin");
+  }
+
+  @Test
+  @DisplayName("Given mirror, when cloning workspace, then clone shared from the mirror")
+  void clonesSharedFromMirror() {
+    // given
+    final var mirrorDir = new File("mirror.git");
+
+    // when
+    gitCommandRunnerImpl.cloneShared(mirrorDir, workingDir, buildLog);
+
+    // then
+    verify(processExecutor)
+        .execute(
+            workingDir,
+            buildLog,
+            "git",
+            "clone",
+            "--shared",
+            "--single-branch",
+            mirrorDir.getAbsolutePath(),
+            ".");
+  }
+
+  @Test
+  @DisplayName("Given checked out workspace, when resolving tree, then return HEAD tree sha")
+  void resolvesHeadTree() {
+    // given
+    when(processExecutor.execute(
+            eq(workingDir), any(LogSink.class), eq("git"), eq("rev-parse"), eq("HEAD^{tree}")))
+        .thenAnswer(
+            inv -> {
+              inv.<LogSink>getArgument(1).append(treeSha + "\n");
+              return new ExecutionResult(true);
+            });
+
+    // when
+    var result = gitCommandRunnerImpl.resolveTree(workingDir, null);
+
+    // then
+    assertThat(result).contains(treeSha);
+  }
+
+  @Test
+  @DisplayName("Given a commit, when resolving tree, then rev-parse the tree of that commit")
+  void resolvesTreeOfCommit() {
+    // given
+    when(processExecutor.execute(
+            eq(workingDir),
+            any(LogSink.class),
+            eq("git"),
+            eq("rev-parse"),
+            eq(commitSha + "^{tree}")))
+        .thenAnswer(
+            inv -> {
+              inv.<LogSink>getArgument(1).append(treeSha + "\n");
+              return new ExecutionResult(true);
+            });
+
+    // when
+    var result = gitCommandRunnerImpl.resolveTree(workingDir, commitSha);
+
+    // then
+    assertThat(result).contains(treeSha);
+  }
+
+  @Test
+  @DisplayName("Given rev-parse fails, when resolving tree, then return empty")
+  void returnsEmptyTreeWhenRevParseFails() {
+    // given
+    when(processExecutor.execute(
+            eq(workingDir), any(LogSink.class), eq("git"), eq("rev-parse"), eq("HEAD^{tree}")))
+        .thenReturn(new ExecutionResult(false));
+
+    // when
+    var result = gitCommandRunnerImpl.resolveTree(workingDir, null);
+
+    // then
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Given base checkout, when adding worktree, then check out detached HEAD into it")
+  void addsDetachedWorktree() {
+    // given
+    final var worktreeDir = new File(workingDir.getParentFile(), "worktree");
+
+    // when
+    gitCommandRunnerImpl.addWorktree(workingDir, worktreeDir, buildLog);
+
+    // then
+    verify(processExecutor)
+        .execute(
+            workingDir,
+            buildLog,
+            "git",
+            "worktree",
+            "add",
+            "--detach",
+            worktreeDir.getAbsolutePath(),
+            "HEAD");
+  }
+
+  @Test
+  @DisplayName("Given base checkout, when pruning worktrees, then drop metadata of removed ones")
+  void prunesWorktrees() {
+    // when
+    gitCommandRunnerImpl.pruneWorktrees(workingDir, buildLog);
+
+    // then
+    verify(processExecutor).execute(workingDir, buildLog, "git", "worktree", "prune");
+  }
 }
@@ -0,0 +1,49 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.nio.file.Files.writeString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class HostMetricsTest extends BaseUnit {
+
+  @BeforeEach
+  void setUpProcDir() {
+    buildProperties.getAccounting().setProcDir(tempDir);
+  }
+
+  @Test
+  @DisplayName("Given meminfo, when reading host load, then report MemAvailable as available")
+  void readsMemAvailable() throws IOException {
+    // given
+    writeString(
+        tempDir.resolve("meminfo"),
+        """
+        MemTotal:       16318412 kB
+        MemFree:          204800 kB
+        MemAvailable:    8388608 kB
+        Cached:          7340032 kB
+        """);
+
+    // when
+    final var load = hostMetricsImpl.read();
+
+    // then
+    assertThat(load.availableMemoryBytes()).isEqualTo(8_388_608L * 1024);
+    assertThat(load.cpus()).isPositive();
+  }
+
+  @Test
+  @DisplayName("Given no meminfo, when reading available memory, then report nothing")
+  void reportsNothingWithoutMeminfo() {
+    // when
+    final var available = hostMetricsImpl.availableMemory();
+
+    // then
+    assertThat(available).isEmpty();
+  }
+}
@@ -0,0 +1,225 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.HIGH;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.LOW;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.NORMAL;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.OverflowPolicy.REJECT;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.QUEUED;
+import static java.time.Duration.ZERO;
+import static java.time.Instant.now;
+import static java.util.List.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
+import io.github.tomaszziola.javabuildautomaton.models.BuildModel;
+import io.github.tomaszziola.javabuildautomaton.models.QueuedBuildModel;
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.time.Instant;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+class InMemoryBuildQueueTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given offered builds of one project, when polling, then return them in order")
+  void pollsInOfferOrder() {
+    // when
+    inMemoryBuildQueueImpl.offer(QueuedBuildModel.basic(1L, projectId));
+    inMemoryBuildQueueImpl.offer(QueuedBuildModel.basic(2L, projectId));
+
+    // then
+    assertThat(poll()).isEqualTo(QueuedBuildModel.basic(1L, projectId));
+    assertThat(poll()).isEqualTo(QueuedBuildModel.basic(2L, projectId));
+    assertThat(poll()).isNull();
+  }
+
+  @Test
+  @DisplayName("Given builds of several projects, when polling, then rotate between projects")
+  void pollsRoundRobinAcrossProjects() {
+    // given
+    inMemoryBuildQueueImpl.offer(QueuedBuildModel.basic(1L, 10L));
+    inMemoryBuildQueueImpl.offer(QueuedBuildModel.basic(2L, 10L));
+    inMemoryBuildQueueImpl.offer(QueuedBuildModel.basic(3L, 20L));
+
+    // when
+    final var first = poll();
+    final var second = poll();
+    final var third = poll();
+
+    // then
+    assertThat(of(first.buildId(), second.buildId(), third.buildId())).containsExactly(1L, 3L, 2L);
+  }
+
+  @Test
+  @DisplayName(
+      "Given builds of different priority, when polling, then return higher priority first")
+  void pollsHigherPriorityFirst() {
+    // given
+    inMemoryBuildQueueImpl.offer(new QueuedBuild(1L, 10L, LOW, now()));
+    inMemoryBuildQueueImpl.offer(new QueuedBuild(2L, 20L, NORMAL, now()));
+    inMemoryBuildQueueImpl.offer(new QueuedBuild(3L, 10L, HIGH, now()));
+
+    // when
+    final var first = poll();
+    final var second = poll();
+    final var third = poll();
+
+    // then
+    assertThat(of(first.buildId(), second.buildId(), third.buildId())).containsExactly(3L, 2L, 1L);
+  }
+
+  @Test
+  @DisplayName("Given low priority build waiting long enough, when polling, then it is not starved")
+  void agesLowPriorityBuilds() {
+    // given
+    final var aging = buildProperties.getQueue().getAging();
+    inMemoryBuildQueueImpl.offer(new QueuedBuild(1L, 10L, LOW, now().minus(aging.multipliedBy(2))));
+    inMemoryBuildQueueImpl.offer(new QueuedBuild(2L, 20L, HIGH, now()));
+
+    // when
+    final var next = poll();
+
+    // then
+    assertThat(next.buildId()).isEqualTo(1L);
+  }
+
+  @Test
+  @DisplayName("Given busy project, when polling, then skip its builds")
+  void skipsBusyProjects() {
+    // given
+    inMemoryBuildQueueImpl.offer(QueuedBuildModel.basic(1L, 10L));
+    inMemoryBuildQueueImpl.offer(QueuedBuildModel.basic(2L, 20L));
+
+    // when
+    final var next = inMemoryBuildQueueImpl.poll(Set.of(10L));
+    final var blocked = inMemoryBuildQueueImpl.poll(Set.of(10L));
+
+    // then
+    assertThat(next).isEqualTo(QueuedBuildModel.basic(2L, 20L));
+    assertThat(blocked).isNull();
+    assertThat(poll()).isEqualTo(QueuedBuildModel.basic(1L, 10L));
+  }
+
+  @Test
+  @DisplayName("Given full queue with reject policy, when offering, then reject")
+  void rejectsWhenFull() {
+    // given
+    buildProperties.getQueue().setOverflow(REJECT);
+    final var queue =
+        new InMemoryBuildQueue(buildProperties, buildLifecycleService, buildRepository);
+    for (var id = 1L; id <= buildProperties.getQueue().getCapacity(); id++) {
+      queue.offer(QueuedBuildModel.basic(id, projectId));
+    }
+
+    // when
+    final var result = queue.offer(QueuedBuildModel.basic(99L, projectId));
+
+    // then
+    assertThat(result).isFalse();
+  }
+
+  @Test
+  @DisplayName(
+      "Given full queue with spill policy, when polling, then refill spilled builds in order")
+  void refillsSpilledBuildsFromDatabase() {
+    // given
+    for (var id = 1L; id <= 4L; id++) {
+      assertThat(inMemoryBuildQueueImpl.offer(QueuedBuildModel.basic(id, projectId))).isTrue();
+    }
+    when(buildRepository.findByStatusOrderByIdAsc(eq(QUEUED), any(Limit.class)))
+        .thenReturn(of(queued(2L), queued(3L), queued(4L)));
+
+    // when
+    final var first = poll();
+    final var second = poll();
+    final var third = poll();
+    final var fourth = poll();
+
+    // then
+    assertThat(of(first.buildId(), second.buildId(), third.buildId(), fourth.buildId()))
+        .containsExactly(1L, 2L, 3L, 4L);
+  }
+
+  @Test
+  @DisplayName("Given pending builds at startup, when recovering, then requeue and offer them")
+  void recoversQueuedAndInterruptedBuilds() {
+    // given
+    final var waiting = queued(7L);
+    final var interrupted = BuildModel.inProgress();
+    interrupted.setId(8L);
+    when(buildRepository.findByStatusInOrderByIdAsc(anyCollection()))
+        .thenReturn(of(waiting, interrupted));
+
+    // when
+    inMemoryBuildQueueImpl.recoverPendingBuilds();
+
+    // then
+    verify(buildLifecycleService, never()).requeue(waiting);
+    verify(buildLifecycleService).requeue(interrupted);
+    assertThat(poll().buildId()).isEqualTo(7L);
+    assertThat(poll().buildId()).isEqualTo(8L);
+  }
+
+  @Test
+  @DisplayName("Given offered build, when polling, then claim it so it can no longer be retargeted")
+  void claimsPolledBuild() {
+    // given
+    inMemoryBuildQueueImpl.offer(QueuedBuildModel.basic(1L, projectId));
+
+    // when
+    poll();
+
+    // then
+    verify(buildRepository).claim(eq(1L), anyString(), any(Instant.class));
+  }
+
+  @Test
+  @DisplayName(
+      "Given build claimed but not started at shutdown, when recovering, then release its claim")
+  void releasesClaimOfPolledBuildOnRecovery() {
+    // given
+    final var polled = queued(9L);
+    polled.setClaimedBy("previous-instance");
+    when(buildRepository.findByStatusInOrderByIdAsc(anyCollection())).thenReturn(of(polled));
+
+    // when
+    inMemoryBuildQueueImpl.recoverPendingBuilds();
+
+    // then
+    verify(buildLifecycleService).requeue(polled);
+    assertThat(poll().buildId()).isEqualTo(9L);
+  }
+
+  @Test
+  @DisplayName("Given zero aging, when validating queue properties, then reject it")
+  void rejectsZeroAging() {
+    // given
+    buildProperties.getQueue().setAging(ZERO);
+
+    // when
+    final var isValid = buildProperties.getQueue().isAgingPositive();
+
+    // then
+    assertThat(isValid).isFalse();
+  }
+
+  private QueuedBuild poll() {
+    return inMemoryBuildQueueImpl.poll(Set.of());
+  }
+
+  private Build queued(Long id) {
+    final var queued = BuildModel.basic();
+    queued.setId(id);
+    queued.setStatus(QUEUED);
+    return queued;
+  }
+}
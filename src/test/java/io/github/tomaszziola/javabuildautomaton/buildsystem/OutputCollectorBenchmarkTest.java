@@ -0,0 +1,111 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.lang.System.lineSeparator;
+import static java.lang.System.nanoTime;
+import static java.lang.management.ManagementFactory.getThreadMXBean;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.management.ThreadMXBean;
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogSink;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@EnabledIfEnvironmentVariable(named = "OUTPUT_COLLECTOR_BENCHMARK", matches = "true")
+class OutputCollectorBenchmarkTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OutputCollectorBenchmarkTest.class);
+  private static final long LOG_SIZE = 500L * 1024 * 1024;
+  private static final double MEGABYTE = 1024.0 * 1024.0;
+  private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+  private static final byte[] LOG_LINES =
+      ("[INFO] Compiling 42 source files to /workspace/target/classes\n"
+              + "[INFO] Tests run: 128, Failures: 0, Errors: 0, Skipped: 0, Time elapsed: 1.3 s\n"
+              + "> Task :compileJava UP-TO-DATE\n"
+              + "\n"
+              + "[WARNING] Ścieżka zawiera znaki spoza ASCII: 構築ログ\r\n")
+          .getBytes(UTF_8);
+
+  @Test
+  @DisplayName(
+      "Given 500 MB synthetic build log, when collecting, then pooled collector allocates less than line reader")
+  void comparesThroughputAndAllocation() throws IOException {
+    // given
+    final OutputCollector outputCollector = new OutputCollector();
+    measure("warm-up line reader", OutputCollectorBenchmarkTest::collectLines);
+    measure("warm-up pooled collector", outputCollector::collect);
+
+    // when
+    final long lineReaderAllocation =
+        measure("line reader", OutputCollectorBenchmarkTest::collectLines);
+    final long pooledAllocation = measure("pooled collector", outputCollector::collect);
+
+    // then
+    assertThat(pooledAllocation).isLessThan(lineReaderAllocation);
+  }
+
+  private static long measure(String name, Collector collector) throws IOException {
+    final ThreadMXBean threads = (ThreadMXBean) getThreadMXBean();
+    final AtomicLong chars = new AtomicLong();
+    final long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+    final long startedAt = nanoTime();
+    collector.collect(new SyntheticLogStream(), text -> chars.addAndGet(text.length()));
+    final double seconds = (nanoTime() - startedAt) / NANOS_PER_SECOND;
+    final long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+    LOG.info(
+        "{}: {} MB/s, {} MB allocated, {} chars",
+        name,
+        String.format("%.1f", LOG_SIZE / MEGABYTE / seconds),
+        String.format("%.1f", allocated / MEGABYTE),
+        chars.get());
+    return allocated;
+  }
+
+  private static void collectLines(InputStream inputStream, LogSink target) throws IOException {
+    try (var reader = new BufferedReader(new InputStreamReader(inputStream, UTF_8))) {
+      String line = reader.readLine();
+      while (line != null) {
+        target.append(line);
+        target.append(lineSeparator());
+        line = reader.readLine();
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface Collector {
+    void collect(InputStream inputStream, LogSink target) throws IOException;
+  }
+
+  private static final class SyntheticLogStream extends InputStream {
+
+    private long remaining = LOG_SIZE;
+    private int offset;
+
+    @Override
+    public int read() {
+      final byte[] single = new byte[1];
+      return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) {
+      if (remaining <= 0) {
+        return -1;
+      }
+      final int count = (int) Math.min(Math.min(len, remaining), LOG_LINES.length - offset);
+      System.arraycopy(LOG_LINES, offset, buffer, off, count);
+      offset = (offset + count) % LOG_LINES.length;
+      remaining -= count;
+      return count;
+    }
+  }
+}
@@ -34,7 +34,7 @@ class OutputCollectorTest {
     final StringBuilder target = new StringBuilder();
 
     // when
-    outputCollector.collect(inputStream, target);
+    outputCollector.collect(inputStream, target::append);
 
     // then
     final String expected =
@@ -52,7 +52,7 @@ class OutputCollectorTest {
     final StringBuilder target = new StringBuilder();
 
     // when
-    outputCollector.collect(inputStream, target);
+    outputCollector.collect(inputStream, target::append);
 
     // then
     final String expected = "single line" + lineSeparator();
@@ -67,7 +67,7 @@ class OutputCollectorTest {
     final StringBuilder target = new StringBuilder();
 
     // when
-    outputCollector.collect(inputStream, target);
+    outputCollector.collect(inputStream, target::append);
 
     // then
     assertThat(target.toString()).isEmpty();
@@ -83,7 +83,7 @@ class OutputCollectorTest {
     final StringBuilder target = new StringBuilder();
 
     // when
-    outputCollector.collect(inputStream, target);
+    outputCollector.collect(inputStream, target::append);
 
     // then
     final String expected = lineSeparator() + lineSeparator() + lineSeparator();
@@ -100,7 +100,7 @@ class OutputCollectorTest {
     final StringBuilder target = new StringBuilder();
 
     // when
-    outputCollector.collect(inputStream, target);
+    outputCollector.collect(inputStream, target::append);
 
     // then
     final String expected =
@@ -130,7 +130,7 @@ class OutputCollectorTest {
 
     // when & then
     try (failingInputStream) {
-      assertThatThrownBy(() -> outputCollector.collect(failingInputStream, target))
+      assertThatThrownBy(() -> outputCollector.collect(failingInputStream, target::append))
           .isInstanceOf(IOException.class)
           .hasMessage("Stream read error");
     }
@@ -146,7 +146,7 @@ class OutputCollectorTest {
     final StringBuilder target = new StringBuilder();
 
     // when
-    outputCollector.collect(inputStream, target);
+    outputCollector.collect(inputStream, target::append);
 
     // then
     final String expected =
@@ -167,7 +167,7 @@ class OutputCollectorTest {
     final StringBuilder target = new StringBuilder();
 
     // when
-    outputCollector.collect(inputStream, target);
+    outputCollector.collect(inputStream, target::append);
 
     // then
     assertThat(target.toString()).hasLineCount(1000);
@@ -184,10 +184,98 @@ class OutputCollectorTest {
     final StringBuilder target = new StringBuilder("existing content");
 
     // when
-    outputCollector.collect(inputStream, target);
+    outputCollector.collect(inputStream, target::append);
 
     // then
     final String expected = "existing content" + "new content" + lineSeparator();
     assertThat(target.toString()).isEqualTo(expected);
   }
+
+  @Test
+  @DisplayName(
+      "Given CRLF and lone CR terminators, when collecting, then each line gets one separator")
+  void normalisesCarriageReturns() throws IOException {
+    // given
+    final String input = "first\r\nsecond\rthird\r\n";
+    final InputStream inputStream = new ByteArrayInputStream(input.getBytes(UTF_8));
+    final StringBuilder target = new StringBuilder();
+
+    // when
+    outputCollector.collect(inputStream, target::append);
+
+    // then
+    final String expected =
+        "first" + lineSeparator() + "second" + lineSeparator() + "third" + lineSeparator();
+    assertThat(target.toString()).isEqualTo(expected);
+  }
+
+  @Test
+  @DisplayName(
+      "Given stream delivering one byte per read, when collecting, then CRLF and multibyte characters survive chunk boundaries")
+  void handlesChunkBoundaries() throws IOException {
+    // given
+    final byte[] bytes = "a\r\n世界\r\n".getBytes(UTF_8);
+    final InputStream inputStream =
+        new ByteArrayInputStream(bytes) {
+          @Override
+          public synchronized int read(byte[] buffer, int offset, int length) {
+            return super.read(buffer, offset, Math.min(length, 1));
+          }
+        };
+    final StringBuilder target = new StringBuilder();
+
+    // when
+    outputCollector.collect(inputStream, target::append);
+
+    // then
+    assertThat(target.toString()).isEqualTo("a" + lineSeparator() + "世界" + lineSeparator());
+  }
+
+  @Test
+  @DisplayName(
+      "Given multibyte character spanning the read buffer boundary, when collecting, then character is preserved")
+  void handlesMultibyteCharacterAcrossBuffers() throws IOException {
+    // given
+    final String input = "x".repeat(16 * 1024 - 1) + "€" + "\n";
+    final InputStream inputStream = new ByteArrayInputStream(input.getBytes(UTF_8));
+    final StringBuilder target = new StringBuilder();
+
+    // when
+    outputCollector.collect(inputStream, target::append);
+
+    // then
+    assertThat(target.toString()).isEqualTo(input.strip() + lineSeparator());
+  }
+
+  @Test
+  @DisplayName("Given malformed UTF-8 bytes, when collecting, then they are replaced")
+  void replacesMalformedInput() throws IOException {
+    // given
+    final byte[] bytes = {'o', 'k', (byte) 0xFF, '\n'};
+    final InputStream inputStream = new ByteArrayInputStream(bytes);
+    final StringBuilder target = new StringBuilder();
+
+    // when
+    outputCollector.collect(inputStream, target::append);
+
+    // then
+    assertThat(target.toString()).isEqualTo("ok\uFFFD" + lineSeparator());
+  }
+
+  @Test
+  @DisplayName(
+      "Given collector reused after a stream ending in CR, when collecting again, then pooled state is reset")
+  void resetsPooledBuffersBetweenCollections() throws IOException {
+    // given
+    final StringBuilder first = new StringBuilder();
+    final StringBuilder second = new StringBuilder();
+    outputCollector.collect(new ByteArrayInputStream("partial\r".getBytes(UTF_8)), first::append);
+
+    // when
+    outputCollector.collect(new ByteArrayInputStream("\nnext".getBytes(UTF_8)), second::append);
+
+    // then
+    assertThat(first.toString()).isEqualTo("partial" + lineSeparator());
+    assertThat(second.toString()).isEqualTo(lineSeparator() + "next" + lineSeparator());
+  }
 }
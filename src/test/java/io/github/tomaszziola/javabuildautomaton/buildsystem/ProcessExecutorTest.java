@@ -1,7 +1,10 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.CANCELLED;
+import static java.lang.ScopedValue.where;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
@@ -20,12 +23,14 @@ class ProcessExecutorTest extends BaseUnit {
         .thenReturn(new ByteArrayInputStream("hello\nworld\n".getBytes(UTF_8)));
     when(process.waitFor()).thenReturn(0);
 
+    final var output = new StringBuilder();
+
     // when
-    var result = processExecutorImpl.execute(workingDir, cmd);
+    var result = processExecutorImpl.execute(workingDir, output::append, cmd);
 
     // then
     assertThat(result.isSuccess()).isTrue();
-    assertThat(result.logs()).isEqualTo("hello\nworld\n");
+    assertThat(output.toString()).isEqualTo("hello\nworld\n");
   }
 
   @Test
@@ -34,34 +39,58 @@ class ProcessExecutorTest extends BaseUnit {
     // given
     when(process.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
     when(process.waitFor()).thenReturn(2);
+    final var output = new StringBuilder();
+
+    // when
+    var result = processExecutorImpl.execute(workingDir, output::append, cmd);
+
+    // then
+    assertThat(result.isSuccess()).isFalse();
+    assertThat(output.toString()).isEqualTo("[[ERROR]] Command failed: git pull");
+  }
+
+  @Test
+  @DisplayName("Given stopped build, when its command exits, then return failure with stop reason")
+  void returnsFailureWhenBuildStopped() throws Exception {
+    // given
+    when(process.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+    when(process.waitFor()).thenReturn(0);
+    buildControl.stop(CANCELLED);
+    final var output = new StringBuilder();
 
     // when
-    var result = processExecutorImpl.execute(workingDir, cmd);
+    var result =
+        where(BuildControl.CURRENT, buildControl)
+            .call(() -> processExecutorImpl.execute(workingDir, output::append, cmd));
 
     // then
     assertThat(result.isSuccess()).isFalse();
-    assertThat(result.logs()).isEqualTo("[[ERROR]] Command failed: git pull");
+    assertThat(output.toString()).isEqualTo("[[ERROR]] Command stopped (CANCELLED): git pull");
+    verify(process).destroy();
   }
 
   @Test
   @DisplayName("Given non-existing command, when executing, then return failure with message")
   void returnsFailureWithMessageWhenCommandNotFound() throws IOException {
     // given
-    when(processRunner.start(workingDir, "__definitely_not_a_command__"))
+    when(processRunner.start(workingDir, ProcessCommand.of("__definitely_not_a_command__")))
         .thenThrow(
             new IOException(
                 "Cannot run program \"__definitely_not_a_command__\" (in directory \""
                     + workingDir
                     + "\"): Exec failed, error: 2 (No such file or directory)"));
+    final var output = new StringBuilder();
 
     // when
-    var result = processExecutorImpl.execute(workingDir, "__definitely_not_a_command__");
+    var result =
+        processExecutorImpl.execute(workingDir, output::append, "__definitely_not_a_command__");
 
     // then
     assertThat(result.isSuccess()).isFalse();
-    assertThat(result.logs())
+    assertThat(output.toString())
         .startsWith("[[ERROR]] IO failure: Cannot run program \"__definitely_not_a_command__\"");
-    assertThat(result.logs()).contains(": Exec failed, error: 2 (No such file or directory)");
+    assertThat(output.toString())
+        .contains(": Exec failed, error: 2 (No such file or directory)");
   }
 
   @Test
@@ -71,15 +100,32 @@ class ProcessExecutorTest extends BaseUnit {
     when(process.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
     when(process.waitFor()).thenThrow(new InterruptedException("stop"));
 
-    when(processRunner.start(workingDir, "noop")).thenReturn(process);
+    when(processRunner.start(workingDir, ProcessCommand.of("noop"))).thenReturn(process);
+    final var output = new StringBuilder();
 
     // when
-    var result = processExecutorImpl.execute(workingDir, "noop");
+    var result = processExecutorImpl.execute(workingDir, output::append, "noop");
 
     // then
     assertThat(result.isSuccess()).isFalse();
-    assertThat(result.logs()).isEqualTo("[[ERROR]] Interrupted: stop\n");
+    assertThat(output.toString()).isEqualTo("[[ERROR]] Interrupted: stop\n");
 
     assertThat(Thread.interrupted()).isTrue();
   }
+
+  @Test
+  @DisplayName("Given build control, when command output ends, then sample the process tree")
+  void samplesProcessTreeOfBuild() throws Exception {
+    // given
+    when(process.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+    when(process.waitFor()).thenReturn(0);
+    final var output = new StringBuilder();
+
+    // when
+    where(BuildControl.CURRENT, buildControl)
+        .call(() -> processExecutorImpl.execute(workingDir, output::append, cmd));
+
+    // then
+    verify(processTreeSampler).sample(buildControl);
+  }
 }
@@ -1,5 +1,7 @@
 package io.github.tomaszziola.javabuildautomaton.buildsystem;
 
+import static java.lang.ScopedValue.where;
+import static java.nio.file.Files.readString;
 import static java.util.Locale.ROOT;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -36,4 +38,41 @@ class ProcessRunnerTest extends BaseUnit {
         IOException.class,
         () -> processRunnerImpl.start(workingDir, "definitely-not-existing-XYZ-12345"));
   }
+
+  @Test
+  @DisplayName("Given command with environment, when starting process, then pass the variables")
+  void passesEnvironmentToProcess() throws Exception {
+    // given
+    final var command =
+        ProcessCommand.of("sh", "-c", "printf %s \"$JBA_TEST_VALUE\"")
+            .withEnvironment("JBA_TEST_VALUE", "cached");
+
+    // when
+    final var process = processRunnerImpl.start(workingDir, command);
+
+    // then
+    assertThat(process.waitFor(10, TimeUnit.SECONDS)).isTrue();
+    final var output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    assertThat(output).isEqualTo("cached");
+  }
+
+  @Test
+  @DisplayName(
+      "Given build confined to a cgroup, when starting process, then join the cgroup before the command runs")
+  void joinsBuildCgroupBeforeRunningCommand() throws Exception {
+    // given
+    buildControl.confine(new BuildCgroup(tempDir));
+    final var command = ProcessCommand.of("echo", "confined");
+
+    // when
+    final var process =
+        where(BuildControl.CURRENT, buildControl)
+            .call(() -> processRunnerImpl.start(workingDir, command));
+
+    // then
+    assertThat(process.waitFor(10, TimeUnit.SECONDS)).isTrue();
+    final var output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    assertThat(output).isEqualTo("confined\n");
+    assertThat(readString(tempDir.resolve("cgroup.procs"))).isEqualTo("0\n");
+  }
 }
@@ -0,0 +1,141 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.writeString;
+import static java.time.Duration.ofMillis;
+import static java.time.Instant.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+class ProcessTreeSamplerTest extends BaseUnit {
+
+  @Mock private ProcessHandle rootHandle;
+  @Mock private ProcessHandle.Info rootInfo;
+  @Mock private ProcessHandle childHandle;
+  @Mock private ProcessHandle.Info childInfo;
+
+  @BeforeEach
+  void setUpProcessTree() throws IOException {
+    buildProperties.getAccounting().setProcDir(tempDir);
+    when(process.toHandle()).thenReturn(rootHandle);
+    when(process.descendants()).thenAnswer(_ -> Stream.of(childHandle));
+    when(rootHandle.pid()).thenReturn(100L);
+    when(rootHandle.info()).thenReturn(rootInfo);
+    when(rootInfo.totalCpuDuration()).thenReturn(Optional.of(ofMillis(1500)));
+    when(childHandle.pid()).thenReturn(101L);
+    when(childHandle.info()).thenReturn(childInfo);
+    when(childInfo.totalCpuDuration()).thenReturn(Optional.of(ofMillis(500)));
+    writeProc(100, "Name:\tjava\nVmRSS:\t    2048 kB\n", "read_bytes: 4096\nwrite_bytes: 8192\n");
+    writeProc(101, "Name:\tjavac\nVmRSS:\t    1024 kB\n", null);
+    buildControl.attach(process);
+  }
+
+  @Test
+  @DisplayName(
+      "Given running process tree, when sampling, then record CPU, resident memory and I/O of all processes")
+  void recordsUsageOfProcessTree() {
+    // when
+    processTreeSamplerImpl.sample(buildControl);
+    buildControl.recordUsage(build, now());
+
+    // then
+    assertThat(build.getCpuTimeMs()).isEqualTo(2000L);
+    assertThat(build.getMemoryPeakBytes()).isEqualTo(3072L * 1024);
+    assertThat(build.getReadBytes()).isEqualTo(4096L);
+    assertThat(build.getWriteBytes()).isEqualTo(8192L);
+    assertThat(build.getDurationMs()).isNotNull().isNotNegative();
+  }
+
+  @Test
+  @DisplayName(
+      "Given child exiting between samples, when sampling again, then keep its last counters and the peak")
+  void keepsCountersOfExitedProcesses() throws IOException {
+    // given
+    processTreeSamplerImpl.sample(buildControl);
+    when(process.descendants()).thenAnswer(_ -> Stream.empty());
+    when(rootInfo.totalCpuDuration()).thenReturn(Optional.of(ofMillis(2500)));
+    writeProc(100, "VmRSS:\t    512 kB\n", "read_bytes: 4096\nwrite_bytes: 16384\n");
+
+    // when
+    processTreeSamplerImpl.sample(buildControl);
+    buildControl.recordUsage(build, now());
+
+    // then
+    assertThat(build.getCpuTimeMs()).isEqualTo(3000L);
+    assertThat(build.getMemoryPeakBytes()).isEqualTo(3072L * 1024);
+    assertThat(build.getWriteBytes()).isEqualTo(16_384L);
+  }
+
+  @Test
+  @DisplayName("Given accounting disabled, when sampling, then record nothing")
+  void skipsWhenDisabled() {
+    // given
+    buildProperties.getAccounting().setEnabled(false);
+
+    // when
+    processTreeSamplerImpl.sample(buildControl);
+    buildControl.recordUsage(build, now());
+
+    // then
+    assertThat(build.getCpuTimeMs()).isNull();
+    assertThat(build.getMemoryPeakBytes()).isNull();
+  }
+
+  @Test
+  @DisplayName("Given process already gone, when reading, then skip it")
+  void skipsExitedProcess() {
+    // given
+    when(childInfo.totalCpuDuration()).thenReturn(Optional.empty());
+
+    // when
+    final var sample = processTreeSamplerImpl.read(childHandle);
+
+    // then
+    assertThat(sample).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Given host without procfs, when reading, then keep CPU time and report zero")
+  void readsCpuTimeWithoutProcfs() {
+    // given
+    buildProperties.getAccounting().setProcDir(tempDir.resolve("missing"));
+
+    // when
+    final var sample = processTreeSamplerImpl.read(rootHandle);
+
+    // then
+    assertThat(sample).contains(new ProcessSample(100L, 1500L, 0L, 0L, 0L));
+  }
+
+  @Test
+  @DisplayName("Given running builds, when sampling on schedule, then sample each of them")
+  void samplesAllRunningBuilds() {
+    // given
+    when(runningBuilds.running()).thenReturn(List.of(buildControl));
+
+    // when
+    processTreeSamplerImpl.sampleRunning();
+    buildControl.recordUsage(build, now());
+
+    // then
+    assertThat(build.getCpuTimeMs()).isEqualTo(2000L);
+  }
+
+  private void writeProc(long pid, String status, String io) throws IOException {
+    final var dir = createDirectories(tempDir.resolve(String.valueOf(pid)));
+    writeString(dir.resolve("status"), status);
+    if (io != null) {
+      writeString(dir.resolve("io"), io);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package io.github.tomaszziola.javabuildautomaton.buildsystem;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.CANCELLED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.TIMED_OUT;
+import static java.time.Duration.ZERO;
+import static java.time.Instant.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RunningBuildsTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given project without timeout, when registering, then use the global timeout")
+  void usesGlobalTimeoutByDefault() {
+    // when
+    final var control = runningBuildsImpl.register(build);
+
+    // then
+    assertThat(control.isExpired(now().plusSeconds(59 * 60))).isFalse();
+    assertThat(control.isExpired(now().plusSeconds(61 * 60))).isTrue();
+  }
+
+  @Test
+  @DisplayName("Given project timeout, when registering, then it overrides the global timeout")
+  void usesProjectTimeoutWhenSet() {
+    // given
+    build.getProject().setBuildTimeoutMinutes(5);
+
+    // when
+    final var control = runningBuildsImpl.register(build);
+
+    // then
+    assertThat(control.isExpired(now().plusSeconds(6 * 60))).isTrue();
+  }
+
+  @Test
+  @DisplayName("Given running build, when cancelling, then stop its process tree")
+  void cancelStopsRunningBuild() {
+    // given
+    buildControl.attach(process);
+
+    // when
+    final var result = runningBuildsImpl.cancel(build.getId());
+
+    // then
+    assertThat(result).isTrue();
+    assertThat(buildControl.outcome()).contains(CANCELLED);
+    verify(process).destroy();
+  }
+
+  @Test
+  @DisplayName("Given unknown or finished build, when cancelling, then report nothing to cancel")
+  void cancelIgnoresUnknownBuild() {
+    // given
+    runningBuildsImpl.unregister(build);
+
+    // when
+    final var result = runningBuildsImpl.cancel(build.getId());
+
+    // then
+    assertThat(result).isFalse();
+  }
+
+  @Test
+  @DisplayName("Given build past its deadline, when enforcing timeouts, then stop it as timed out")
+  void enforceTimeoutsStopsExpiredBuild() {
+    // given
+    buildProperties.getTimeout().setMaxDuration(ZERO);
+    final var control = runningBuildsImpl.register(build);
+    control.attach(process);
+
+    // when
+    runningBuildsImpl.enforceTimeouts();
+
+    // then
+    assertThat(control.outcome()).contains(TIMED_OUT);
+    verify(process).destroy();
+  }
+
+  @Test
+  @DisplayName("Given build within its deadline, when enforcing timeouts, then keep it running")
+  void enforceTimeoutsKeepsBuildWithinDeadline() {
+    // given
+    buildControl.attach(process);
+
+    // when
+    runningBuildsImpl.enforceTimeouts();
+
+    // then
+    assertThat(buildControl.outcome()).isEmpty();
+    verify(process, never()).destroy();
+  }
+
+  @Test
+  @DisplayName("Given stopped build, when a new process starts, then destroy it right away")
+  void attachDestroysProcessOfStoppedBuild() {
+    // given
+    runningBuildsImpl.cancel(build.getId());
+
+    // when
+    buildControl.attach(process);
+
+    // then
+    verify(process).destroy();
+  }
+
+  @Test
+  @DisplayName("Given registered build, when listing running builds, then include its control")
+  void listsRunningBuilds() {
+    // when
+    final var running = runningBuildsImpl.running();
+
+    // then
+    assertThat(running).containsExactly(buildControl);
+  }
+}
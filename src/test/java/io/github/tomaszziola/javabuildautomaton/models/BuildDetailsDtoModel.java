@@ -15,6 +15,15 @@ public final class BuildDetailsDtoModel {
         SUCCESS,
         parse("2025-08-22T11:10:10Z"),
         parse("2025-08-22T11:20:10Z"),
-        "Everything worked good!");
+        "Everything worked good!",
+        23L,
+        false,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null);
   }
 }
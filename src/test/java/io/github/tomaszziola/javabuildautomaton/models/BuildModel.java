@@ -1,7 +1,9 @@
 package io.github.tomaszziola.javabuildautomaton.models;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.HIGH;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.IN_PROGRESS;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.SUCCESS;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PUSH;
 import static java.time.Instant.parse;
 
 import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
@@ -14,9 +16,10 @@ public final class BuildModel {
     var build = new Build();
     build.setId(42L);
     build.setStatus(SUCCESS);
+    build.setTrigger(PUSH);
+    build.setPriority(HIGH);
     build.setStartTime(parse("2025-08-22T11:10:10Z"));
     build.setEndTime(parse("2025-08-22T11:20:10Z"));
-    build.setLogs("Everything worked good!");
     build.setProject(ProjectModel.basic());
     return build;
   }
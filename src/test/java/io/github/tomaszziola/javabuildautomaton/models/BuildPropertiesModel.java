@@ -1,13 +1,90 @@
 package io.github.tomaszziola.javabuildautomaton.models;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.HIGH;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.LOW;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.NORMAL;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.LogCompression.DEFLATE;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.LogStorage.DATABASE;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.OverflowPolicy.SPILL;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties.QueueMode.MEMORY;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.MANUAL;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PULL_REQUEST;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PUSH;
+import static java.nio.file.Path.of;
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofSeconds;
+import static org.springframework.util.unit.DataSize.ofGigabytes;
+
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties;
+import java.util.List;
 
 public class BuildPropertiesModel {
 
   public static BuildProperties basic() {
     final BuildProperties buildProperties = new BuildProperties();
     buildProperties.setMaxParallel(2);
+    buildProperties.setMaxParallelPerProject(1);
+    buildProperties.getQueue().setMode(MEMORY);
     buildProperties.getQueue().setCapacity(3);
+    buildProperties.getQueue().setOverflow(SPILL);
+    buildProperties.getQueue().setCoalesce(true);
+    buildProperties.getQueue().getPriorities().put(PUSH, HIGH);
+    buildProperties.getQueue().getPriorities().put(MANUAL, NORMAL);
+    buildProperties.getQueue().getPriorities().put(PULL_REQUEST, LOW);
+    buildProperties.getQueue().setAging(ofMinutes(5));
+    buildProperties.getQueue().setRetryAfter(ofSeconds(30));
+    buildProperties.getQueue().setSweepInterval(ofSeconds(1));
+    buildProperties.getQueue().setHeartbeatInterval(ofSeconds(10));
+    buildProperties.getQueue().setStaleAfter(ofMinutes(1));
+    buildProperties.getLogs().setStorage(DATABASE);
+    buildProperties.getLogs().setCompression(DEFLATE);
+    buildProperties.getLogs().setDir(of(System.getProperty("java.io.tmpdir")));
+    buildProperties.getLogs().setChunkSize(1024);
+    buildProperties.getLogs().setLiveBufferSize(1024);
+    buildProperties.getLogs().setPreviewSize(1024);
+    buildProperties.getGit().setDepth(1);
+    buildProperties.getGit().setFilter("");
+    buildProperties.getGit().setSingleBranch(true);
+    buildProperties.getResultCache().setEnabled(true);
+    buildProperties.getToolCache().setEnabled(true);
+    buildProperties.getToolCache().setDir(of(System.getProperty("java.io.tmpdir")));
+    buildProperties.getToolCache().setMeasureInterval(ofMinutes(10));
+    buildProperties.getDaemon().setEnabled(false);
+    buildProperties.getDaemon().setPoolSize(1);
+    buildProperties.getDaemon().setMaxDaemons(4);
+    buildProperties.getDaemon().setIdleTimeout(ofMinutes(15));
+    buildProperties.getDaemon().setMaxHeap(ofGigabytes(1));
+    buildProperties.getDaemon().setMvnd(false);
+    buildProperties.getTimeout().setMaxDuration(ofMinutes(60));
+    buildProperties.getTimeout().setCheckInterval(ofSeconds(5));
+    buildProperties.getTimeout().setKillGrace(ofSeconds(10));
+    buildProperties.getSandbox().setEnabled(false);
+    buildProperties.getSandbox().setCgroupRoot(of("/sys/fs/cgroup/java-build-automaton"));
+    buildProperties.getSandbox().setCpuMillicores(2000);
+    buildProperties.getSandbox().setMemoryMax(ofGigabytes(4));
+    buildProperties.getSandbox().setPidsMax(4096);
+    buildProperties.getSandbox().setKillTimeout(ofMillis(50));
+    buildProperties.getAccounting().setEnabled(true);
+    buildProperties.getAccounting().setSampleInterval(ofSeconds(2));
+    buildProperties.getAccounting().setProcDir(of("/proc"));
+    buildProperties.getConcurrency().setAdaptive(false);
+    buildProperties.getConcurrency().setMinParallel(1);
+    buildProperties.getConcurrency().setMaxParallel(16);
+    buildProperties.getConcurrency().setAdjustInterval(ofSeconds(10));
+    buildProperties.getConcurrency().setLowLoadPerCpu(0.7);
+    buildProperties.getConcurrency().setHighLoadPerCpu(1.2);
+    buildProperties.getConcurrency().setDecreaseFactor(0.75);
+    buildProperties.getConcurrency().setMemoryReserve(ofGigabytes(1));
+    buildProperties
+        .getCommand()
+        .setAllowedArguments(
+            List.of(
+                "[A-Za-z][A-Za-z0-9:._-]*",
+                "-T([0-9]+(\\.[0-9]+)?C?)?",
+                "[0-9]+(\\.[0-9]+)?C?",
+                "--parallel|--build-cache",
+                "-D(skipTests|skipITs)(=(true|false))?"));
     return buildProperties;
   }
 }
@@ -6,7 +6,11 @@ public final class ExecutionResultModel {
 
   private ExecutionResultModel() {}
 
-  public static ExecutionResult basic(String log) {
-    return new ExecutionResult(true, log + "'s ok\n");
+  public static ExecutionResult basic() {
+    return new ExecutionResult(true);
+  }
+
+  public static ExecutionResult failed() {
+    return new ExecutionResult(false);
   }
 }
@@ -1,5 +1,6 @@
 package io.github.tomaszziola.javabuildautomaton.models;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode.FULL_CLEAN;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.GRADLE;
 import static io.github.tomaszziola.javabuildautomaton.project.ProjectJavaVersion.JAVA_21;
 
@@ -12,6 +13,7 @@ public final class PostProjectDtoModel {
   public static PostProjectDto basic() {
     var postProjectDto = new PostProjectDto();
     postProjectDto.setBuildTool(GRADLE);
+    postProjectDto.setBuildMode(FULL_CLEAN);
     postProjectDto.setJavaVersion(JAVA_21);
     postProjectDto.setRepositoryUrl("https://github.com/TomaszZiola/java-build-automaton.git");
     postProjectDto.setWebhookSecret("secret");
@@ -1,5 +1,6 @@
 package io.github.tomaszziola.javabuildautomaton.models;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode.FULL_CLEAN;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.GRADLE;
 import static io.github.tomaszziola.javabuildautomaton.project.ProjectJavaVersion.JAVA_21;
 import static java.time.Instant.parse;
@@ -20,6 +21,13 @@ public final class ProjectDetailsDtoModel {
         "TomaszZiola/java-build-automaton",
         "https://github.com/TomaszZiola/java-build-automaton.git",
         GRADLE,
+        FULL_CLEAN,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
         JAVA_21);
   }
 }
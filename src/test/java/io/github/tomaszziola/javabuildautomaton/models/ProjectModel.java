@@ -1,5 +1,6 @@
 package io.github.tomaszziola.javabuildautomaton.models;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode.FULL_CLEAN;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.GRADLE;
 import static io.github.tomaszziola.javabuildautomaton.project.ProjectJavaVersion.JAVA_21;
 import static java.time.Instant.parse;
@@ -18,6 +19,7 @@ public final class ProjectModel {
     project.setRepositoryFullName("TomaszZiola/java-build-automaton");
     project.setRepositoryUrl("https://github.com/TomaszZiola/java-build-automaton.git");
     project.setBuildTool(GRADLE);
+    project.setBuildMode(FULL_CLEAN);
     project.setJavaVersion(JAVA_21);
     project.setCreatedAt(parse("2025-08-24T10:15:10Z"));
     project.setUpdatedAt(parse("2025-09-21T20:10:50Z"));
@@ -32,6 +34,7 @@ public final class ProjectModel {
     project.setRepositoryFullName("TomaszZiola/java-build-automaton");
     project.setRepositoryUrl("https://github.com/TomaszZiola/java-build-automaton.git");
     project.setBuildTool(GRADLE);
+    project.setBuildMode(FULL_CLEAN);
     project.setJavaVersion(JAVA_21);
     project.setWebhookSecret("secret");
     return project;
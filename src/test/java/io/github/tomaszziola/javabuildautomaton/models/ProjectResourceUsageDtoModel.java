@@ -0,0 +1,13 @@
+package io.github.tomaszziola.javabuildautomaton.models;
+
+import io.github.tomaszziola.javabuildautomaton.api.dto.ProjectResourceUsageDto;
+
+public final class ProjectResourceUsageDtoModel {
+
+  private ProjectResourceUsageDtoModel() {}
+
+  public static ProjectResourceUsageDto basic() {
+    return new ProjectResourceUsageDto(
+        1L, "test", 3L, 180_000L, 420_000L, 1_073_741_824L, 52_428_800L, 104_857_600L);
+  }
+}
@@ -0,0 +1,15 @@
+package io.github.tomaszziola.javabuildautomaton.models;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.NORMAL;
+import static java.time.Instant.now;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.QueuedBuild;
+
+public final class QueuedBuildModel {
+
+  private QueuedBuildModel() {}
+
+  public static QueuedBuild basic(Long buildId, Long projectId) {
+    return new QueuedBuild(buildId, projectId, NORMAL, now());
+  }
+}
@@ -1,32 +1,43 @@
 package io.github.tomaszziola.javabuildautomaton.models;
 
 import io.github.tomaszziola.javabuildautomaton.webhook.dto.WebhookPayload;
+import io.github.tomaszziola.javabuildautomaton.webhook.dto.WebhookPayload.HeadCommit;
 import io.github.tomaszziola.javabuildautomaton.webhook.dto.WebhookPayload.PullRequest;
 import io.github.tomaszziola.javabuildautomaton.webhook.dto.WebhookPayload.PullRequest.Base;
+import io.github.tomaszziola.javabuildautomaton.webhook.dto.WebhookPayload.PullRequest.Head;
 import io.github.tomaszziola.javabuildautomaton.webhook.dto.WebhookPayload.RepositoryInfo;
 
 public final class WebhookPayloadModel {
 
+  private static final String AFTER = "9fceb02d0ae598e95dc970b74767f19372d61af8";
+  private static final String PULL_REQUEST_HEAD = "6dcb09b5b57875f334f61aebed695e2e4193db5e";
+
   private WebhookPayloadModel() {}
 
   public static WebhookPayload basic() {
     return new WebhookPayload(
         "refs/heads/main",
         new RepositoryInfo("TomaszZiola/test"),
-        new PullRequest(new Base("main")));
+        new PullRequest(new Base("main"), new Head(PULL_REQUEST_HEAD)),
+        AFTER,
+        new HeadCommit(AFTER));
   }
 
   public static TestBuilder builder() {
     return new TestBuilder()
         .ref("refs/heads/main")
         .repository(new RepositoryInfo("TomaszZiola/test"))
-        .pullRequest(new PullRequest(new Base("main")));
+        .pullRequest(new PullRequest(new Base("main"), new Head(PULL_REQUEST_HEAD)))
+        .after(AFTER)
+        .headCommit(new HeadCommit(AFTER));
   }
 
   public static final class TestBuilder {
     private String ref;
     private RepositoryInfo repository;
     private PullRequest pullRequest;
+    private String after;
+    private HeadCommit headCommit;
 
     public TestBuilder ref(String ref) {
       this.ref = ref;
@@ -43,8 +54,18 @@ public final class WebhookPayloadModel {
       return this;
     }
 
+    public TestBuilder after(String after) {
+      this.after = after;
+      return this;
+    }
+
+    public TestBuilder headCommit(HeadCommit headCommit) {
+      this.headCommit = headCommit;
+      return this;
+    }
+
     public WebhookPayload build() {
-      return new WebhookPayload(ref, repository, pullRequest);
+      return new WebhookPayload(ref, repository, pullRequest, after, headCommit);
     }
   }
 }
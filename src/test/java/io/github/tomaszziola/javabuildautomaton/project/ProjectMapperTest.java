@@ -1,5 +1,6 @@
 package io.github.tomaszziola.javabuildautomaton.project;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode.FULL_CLEAN;
 import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.GRADLE;
 import static io.github.tomaszziola.javabuildautomaton.project.ProjectJavaVersion.JAVA_21;
 import static java.time.Instant.parse;
@@ -30,6 +31,7 @@ class ProjectMapperTest extends BaseUnit {
     assertThat(result.repositoryUrl())
         .isEqualTo("https://github.com/TomaszZiola/java-build-automaton.git");
     assertThat(result.buildTool()).isEqualTo(GRADLE);
+    assertThat(result.buildMode()).isEqualTo(FULL_CLEAN);
   }
 
   @Test
@@ -46,7 +48,24 @@ class ProjectMapperTest extends BaseUnit {
     assertThat(result.getRepositoryUrl())
         .isEqualTo("https://github.com/TomaszZiola/java-build-automaton.git");
     assertThat(result.getBuildTool()).isEqualTo(GRADLE);
+    assertThat(result.getBuildMode()).isEqualTo(FULL_CLEAN);
     assertThat(result.getWebhookSecret()).isEqualTo(webhookSecret);
     assertThat(result.getJavaVersion()).isEqualTo(JAVA_21);
   }
+
+  @Test
+  @DisplayName(
+      "Given PostProjectDto with build commands, when mapping to Project, then store them trimmed")
+  void givenBuildCommands_whenMappingToProject_thenStoredTrimmedOrNull() {
+    // given
+    postProjectDto.setBuildCommand("  -T 1C install ");
+    postProjectDto.setPullRequestBuildCommand("   ");
+
+    // when
+    var result = projectMapperImpl.toEntity(postProjectDto);
+
+    // then
+    assertThat(result.getBuildCommand()).isEqualTo("-T 1C install");
+    assertThat(result.getPullRequestBuildCommand()).isNull();
+  }
 }
@@ -1,8 +1,11 @@
 package io.github.tomaszziola.javabuildautomaton.project;
 
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.FOUND;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
 
+import io.github.tomaszziola.javabuildautomaton.api.dto.ApiResponse;
 import io.github.tomaszziola.javabuildautomaton.project.exception.ProjectNotFoundException;
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
 import org.junit.jupiter.api.DisplayName;
@@ -54,4 +57,28 @@ class ProjectRestControllerTest extends BaseUnit {
     // then
     assertThat(result).isEqualTo(projectDto);
   }
+
+  @Test
+  @DisplayName("Given project id, when triggering build, then delegate to service")
+  void givenProjectId_whenTriggerBuild_thenReturnApiResponse() {
+    // given
+    final var response = new ApiResponse(FOUND, "Build queued for project: java-build-automaton");
+    when(projectService.triggerBuild(projectId)).thenReturn(response);
+
+    // when
+    final var result = projectRestControllerImpl.triggerBuild(projectId);
+
+    // then
+    assertThat(result).isEqualTo(response);
+  }
+
+  @Test
+  @DisplayName("Given finished builds, when getting resource usage, then return per-project totals")
+  void returnsResourceUsage() {
+    // when
+    final var result = projectRestControllerImpl.getResourceUsage();
+
+    // then
+    assertThat(result).containsExactly(projectResourceUsageDto);
+  }
 }
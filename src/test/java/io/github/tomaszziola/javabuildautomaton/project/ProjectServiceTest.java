@@ -1,8 +1,14 @@
 package io.github.tomaszziola.javabuildautomaton.project;
 
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.COALESCED;
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.FOUND;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.MANUAL;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import io.github.tomaszziola.javabuildautomaton.buildsystem.EnqueueOutcome;
 import io.github.tomaszziola.javabuildautomaton.project.exception.ProjectNotFoundException;
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
 import org.junit.jupiter.api.DisplayName;
@@ -60,4 +66,49 @@ class ProjectServiceTest extends BaseUnit {
         ProjectNotFoundException.class,
         () -> projectServiceImpl.findProjectBuilds(nonExistentProjectId));
   }
+
+  @Test
+  @DisplayName("Given existing project id, when triggering build, then enqueue MANUAL build")
+  void enqueuesManualBuildWhenTriggerBuild() {
+    // when
+    var result = projectServiceImpl.triggerBuild(projectId);
+
+    // then
+    assertThat(result.status()).isEqualTo(FOUND);
+    verify(buildOrchestrator).enqueue(project, MANUAL);
+  }
+
+  @Test
+  @DisplayName("Given build already queued, when triggering build, then return COALESCED")
+  void returnsCoalescedWhenBuildAlreadyQueued() {
+    // given
+    when(buildOrchestrator.enqueue(project, MANUAL)).thenReturn(EnqueueOutcome.COALESCED);
+
+    // when
+    var result = projectServiceImpl.triggerBuild(projectId);
+
+    // then
+    assertThat(result.status()).isEqualTo(COALESCED);
+    assertThat(result.message()).contains("merged into a build already queued");
+  }
+
+  @Test
+  @DisplayName(
+      "Given non-existing project id, when triggering build, then throw ProjectNotFoundException")
+  void throwsWhenProjectMissingOnTriggerBuild() {
+    // when / then
+    assertThrows(
+        ProjectNotFoundException.class,
+        () -> projectServiceImpl.triggerBuild(nonExistentProjectId));
+  }
+
+  @Test
+  @DisplayName("Given finished builds, when finding resource usage, then return per-project totals")
+  void returnsResourceUsagePerProject() {
+    // when
+    var result = projectServiceImpl.findResourceUsage();
+
+    // then
+    assertThat(result).containsExactly(projectResourceUsageDto);
+  }
 }
@@ -1,14 +1,27 @@
 package io.github.tomaszziola.javabuildautomaton.utils;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.HIGH;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriority.NORMAL;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.IN_PROGRESS;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.QUEUED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.MANUAL;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PUSH;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.EnqueueOutcome.STARTED;
+import static io.github.tomaszziola.javabuildautomaton.workspace.WorkspaceProperties.WorkspaceMode.SHARED;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.createTempDirectory;
+import static java.time.Duration.ofDays;
+import static java.time.Duration.ofMinutes;
 import static java.util.List.of;
 import static java.util.Optional.empty;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.mockito.quality.Strictness.LENIENT;
+import static org.springframework.util.unit.DataSize.ofMegabytes;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.tomaszziola.javabuildautomaton.api.dto.ApiResponse;
@@ -16,19 +29,46 @@ import io.github.tomaszziola.javabuildautomaton.api.dto.BuildDetailsDto;
 import io.github.tomaszziola.javabuildautomaton.api.dto.BuildSummaryDto;
 import io.github.tomaszziola.javabuildautomaton.api.dto.PostProjectDto;
 import io.github.tomaszziola.javabuildautomaton.api.dto.ProjectDto;
+import io.github.tomaszziola.javabuildautomaton.api.dto.ProjectResourceUsageDto;
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLog;
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLogChunkRepository;
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLogRestController;
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLogService;
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLogStore;
+import io.github.tomaszziola.javabuildautomaton.buildlog.BuildLogStreamService;
+import io.github.tomaszziola.javabuildautomaton.buildlog.LiveLog;
+import io.github.tomaszziola.javabuildautomaton.buildlog.LiveLogRegistry;
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogSink;
+import io.github.tomaszziola.javabuildautomaton.buildlog.LogTail;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.AdaptiveConcurrency;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.AllowedBuildCommandValidator;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildCommands;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildControl;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildDaemonPool;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildExecutor;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildLifecycleService;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMapper;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildOrchestrator;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildPriorityConverter;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildProperties;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildQueueService;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildRepository;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildRestController;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildSandboxes;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildService;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildToolCaches;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.DatabaseBuildQueue;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.ExecutionResult;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.GitCommandRunner;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.HostMetrics;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.InMemoryBuildQueue;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.OutputCollector;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.ProcessCommand;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.ProcessExecutor;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.ProcessRunner;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.ProcessTreeSampler;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.QueuedBuild;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.RunningBuilds;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.ValidationResult;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.entity.Build;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildNotFoundException;
@@ -42,6 +82,7 @@ import io.github.tomaszziola.javabuildautomaton.models.ExecutionResultModel;
 import io.github.tomaszziola.javabuildautomaton.models.PostProjectDtoModel;
 import io.github.tomaszziola.javabuildautomaton.models.ProjectDetailsDtoModel;
 import io.github.tomaszziola.javabuildautomaton.models.ProjectModel;
+import io.github.tomaszziola.javabuildautomaton.models.ProjectResourceUsageDtoModel;
 import io.github.tomaszziola.javabuildautomaton.models.WebhookPayloadModel;
 import io.github.tomaszziola.javabuildautomaton.models.WebhookPayloadWithHeadersModel;
 import io.github.tomaszziola.javabuildautomaton.project.*;
@@ -59,14 +100,21 @@ import io.github.tomaszziola.javabuildautomaton.webhook.dto.WebhookPayload;
 import io.github.tomaszziola.javabuildautomaton.webhook.dto.WebhookPayloadWithHeaders;
 import io.github.tomaszziola.javabuildautomaton.webui.WebUiController;
 import io.github.tomaszziola.javabuildautomaton.workspace.BuildWorkspaceGuard;
+import io.github.tomaszziola.javabuildautomaton.workspace.EphemeralWorkspaces;
+import io.github.tomaszziola.javabuildautomaton.workspace.GitMirrorCache;
+import io.github.tomaszziola.javabuildautomaton.workspace.WorkspaceGarbageCollector;
 import io.github.tomaszziola.javabuildautomaton.workspace.WorkspaceManager;
 import io.github.tomaszziola.javabuildautomaton.workspace.WorkspaceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
@@ -76,9 +124,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.ui.ExtendedModelMap;
 import org.springframework.ui.Model;
 import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = LENIENT)
@@ -87,71 +139,112 @@ public class BaseUnit {
   @TempDir protected Path tempDir;
 
   @Mock protected BranchPolicy branchPolicy;
+  @Mock protected BuildCommands buildCommands;
   @Mock protected BuildExecutor buildExecutor;
   @Mock protected BuildLifecycleService buildLifecycleService;
+  @Mock protected AdaptiveConcurrency adaptiveConcurrency;
+  @Mock protected BuildLogChunkRepository buildLogChunkRepository;
+  @Mock protected BuildLogService buildLogService;
+  @Mock protected BuildLogStore buildLogStore;
+  @Mock protected BuildLogStreamService buildLogStreamService;
   @Mock protected BuildMapper buildMapper;
   @Mock protected BuildOrchestrator buildOrchestrator;
   @Mock protected BuildQueueService buildQueueService;
   @Mock protected BuildRepository buildRepository;
+  @Mock protected BuildSandboxes buildSandboxes;
   @Mock protected BuildService buildService;
   @Mock protected BuildWorkspaceGuard buildWorkspaceGuard;
+  @Mock protected EphemeralWorkspaces ephemeralWorkspaces;
   @Mock protected FilterChain filterChain;
   @Mock protected GitCommandRunner gitCommandRunner;
+  @Mock protected GitMirrorCache gitMirrorCache;
+  @Mock protected HostMetrics hostMetrics;
   @Mock protected HttpServletRequest httpServletRequest;
   @Mock protected IdempotencyService idempotencyService;
   @Mock protected IngestionGuard ingestionGuard;
   @Mock protected Process process;
   @Mock protected ProcessExecutor processExecutor;
   @Mock protected ProcessRunner processRunner;
+  @Mock protected ProcessTreeSampler processTreeSampler;
   @Mock protected ProjectMapper projectMapper;
   @Mock protected ProjectRepository projectRepository;
   @Mock protected ProjectService projectService;
+  @Mock protected RunningBuilds runningBuilds;
+  @Mock protected SseEmitter sseEmitter;
+  @Mock protected TransactionTemplate transactionTemplate;
   @Mock protected WebhookDeliveryRepository webhookDeliveryRepository;
   @Mock protected WebhookService webhookService;
   @Mock protected WebhookSecurityService webhookSecurityService;
 
   protected ArgumentCaptor<Build> buildCaptor;
+  protected AdaptiveConcurrency adaptiveConcurrencyImpl;
+  protected AllowedBuildCommandValidator allowedBuildCommandValidatorImpl;
   protected BranchPolicy branchPolicyImpl;
+  protected BuildCommands buildCommandsImpl;
+  protected BuildDaemonPool buildDaemonPoolImpl;
   protected BuildExecutor buildExecutorImpl;
+  protected BuildToolCaches buildToolCachesImpl;
   protected BuildLifecycleService buildLifecycleServiceImpl;
+  protected BuildLogRestController buildLogRestControllerImpl;
+  protected BuildLogService buildLogServiceImpl;
+  protected BuildLogStreamService buildLogStreamServiceImpl;
   protected BuildMapper buildMapperImpl;
   protected BuildOrchestrator buildOrchestratorImpl;
+  protected BuildPriorityConverter buildPriorityConverterImpl;
   protected BuildQueueService buildQueueServiceImpl;
+  protected BuildRestController buildRestControllerImpl;
+  protected BuildSandboxes buildSandboxesImpl;
   protected BuildService buildServiceImpl;
   protected CorrelationIdFilter correlationIdFilterImpl;
+  protected DatabaseBuildQueue databaseBuildQueueImpl;
   protected GitCommandRunner gitCommandRunnerImpl;
+  protected GitMirrorCache gitMirrorCacheImpl;
+  protected HostMetrics hostMetricsImpl;
   protected IdempotencyService idempotencyServiceImpl;
+  protected InMemoryBuildQueue inMemoryBuildQueueImpl;
   protected IngestionGuard ingestionGuardImpl;
+  protected LiveLogRegistry liveLogRegistryImpl;
   protected Model modelImpl;
   protected MockHttpServletRequest httpServletRequestImpl;
   protected MockHttpServletResponse httpServletResponseImpl;
   protected ProcessExecutor processExecutorImpl;
   protected ProjectJavaVersionConverter projectJavaVersionConverterImpl;
   protected ProcessRunner processRunnerImpl;
+  protected ProcessTreeSampler processTreeSamplerImpl;
   protected ProjectRestController projectRestControllerImpl;
   protected ProjectMapper projectMapperImpl;
   protected ProjectService projectServiceImpl;
+  protected RunningBuilds runningBuildsImpl;
   protected WebhookRestController webhookRestControllerImpl;
   protected WebUiController webUiControllerImpl;
   protected WebhookService webhookServiceImpl;
   protected WebhookSignatureFilter webhookSignatureFilterImpl;
   protected WebhookSecurityService webhookSecurityServiceImpl;
+  protected EphemeralWorkspaces ephemeralWorkspacesImpl;
+  protected WorkspaceGarbageCollector workspaceGarbageCollectorImpl;
   protected WorkspaceManager workspaceManagerImpl;
   protected WorkspaceProperties workspacePropertiesImpl;
 
   protected ApiResponse apiResponse;
   protected Build build;
+  protected BuildLog buildLog;
   protected BuildDetailsDto buildDetailsDto;
+  protected BuildControl buildControl;
   protected BuildProperties buildProperties;
   protected BuildSummaryDto buildSummaryDto;
+  protected LiveLog liveLog;
+  protected LogTail logTail;
+  protected SimpleMeterRegistry meterRegistry;
   protected ExecutionResult buildExecutionResult;
   protected ExecutionResult cloneExecutionResult;
-  protected ExecutionResult pullExecutionResult;
+  protected ExecutionResult fetchExecutionResult;
+  protected ExecutionResult resetExecutionResult;
   protected WebhookPayload payload;
   protected WebhookPayloadWithHeaders payloadWithHeaders;
   protected PostProjectDto postProjectDto;
   protected Project project;
   protected ProjectDto projectDto;
+  protected ProjectResourceUsageDto projectResourceUsageDto;
   protected File workingDir;
 
   protected String apiPath = "/api/projects";
@@ -166,7 +259,10 @@ public class BaseUnit {
 
   protected byte[] bodyBytes = bodyJson.getBytes(UTF_8);
   protected Long buildId = 1L;
+  protected List<String> buildArguments = List.of("clean", "build");
   protected String[] cmd = {"git", "pull"};
+  protected String commitSha = "9fceb02d0ae598e95dc970b74767f19372d61af8";
+  protected String treeSha = "4b825dc642cb6eb9a060e54bf8d69288fbee4904";
   protected String expectedHex = "d78215365b21d18f0d44b2058e973d1f563bc6e5a0be1e115b19f79e4a8064c0";
   protected String invalidSha256HeaderValue = "sha256=xD";
   protected String incomingId = "123e4567-e89b-12d3-a456-426614174000";
@@ -188,84 +284,210 @@ public class BaseUnit {
     apiResponse = ApiResponseModel.basic();
     build = BuildModel.basic();
     buildDetailsDto = BuildDetailsDtoModel.basic();
-    buildExecutionResult = ExecutionResultModel.basic("build");
+    buildExecutionResult = ExecutionResultModel.basic();
     buildProperties = BuildPropertiesModel.basic();
     buildSummaryDto = BuildSummaryDtoModel.basic();
-    cloneExecutionResult = ExecutionResultModel.basic("clone");
+    cloneExecutionResult = ExecutionResultModel.basic();
     payload = WebhookPayloadModel.basic();
     payloadWithHeaders = WebhookPayloadWithHeadersModel.basic();
     postProjectDto = PostProjectDtoModel.basic();
     project = ProjectModel.basic();
     projectDto = ProjectDetailsDtoModel.basic();
-    pullExecutionResult = ExecutionResultModel.basic("pull");
+    projectResourceUsageDto = ProjectResourceUsageDtoModel.basic();
+    fetchExecutionResult = ExecutionResultModel.basic();
+    resetExecutionResult = ExecutionResultModel.basic();
     workingDir = createTempDirectory(tempPrefix).toFile();
 
     buildCaptor = ArgumentCaptor.forClass(Build.class);
     branchPolicyImpl = new BranchPolicy();
-    buildExecutorImpl = new BuildExecutor(processExecutor);
-    buildLifecycleServiceImpl = new BuildLifecycleService(buildRepository);
+    meterRegistry = new SimpleMeterRegistry();
+    buildProperties.getToolCache().setDir(tempDir.resolve("tool-caches"));
+    buildToolCachesImpl = new BuildToolCaches(buildProperties, meterRegistry);
+    buildDaemonPoolImpl = new BuildDaemonPool(buildProperties);
+    buildCommandsImpl = new BuildCommands(buildProperties);
+    allowedBuildCommandValidatorImpl = new AllowedBuildCommandValidator(buildCommandsImpl);
+    buildExecutorImpl =
+        new BuildExecutor(
+            buildDaemonPoolImpl, buildProperties, buildToolCachesImpl, processExecutor);
+    buildLifecycleServiceImpl =
+        new BuildLifecycleService(buildLogService, buildProperties, buildRepository);
+    liveLog = new LiveLog(1024, _ -> {});
+    logTail = new LogTail(1024);
+    logTail.write(buildDetailsDto.logs());
+    liveLogRegistryImpl = new LiveLogRegistry();
+    buildLog = new BuildLog(build.getId(), buildLogStore, 1024, liveLog);
+    buildLogRestControllerImpl =
+        new BuildLogRestController(buildLogService, buildLogStreamService);
+    buildLogServiceImpl =
+        new BuildLogService(buildLogStore, buildProperties, buildRepository, liveLogRegistryImpl);
+    buildLogStreamServiceImpl =
+        new BuildLogStreamService(buildLogStore, buildRepository, liveLogRegistryImpl);
     buildMapperImpl = new BuildMapper();
-    buildOrchestratorImpl = new BuildOrchestrator(buildQueueService, buildLifecycleService);
-    buildQueueServiceImpl = new BuildQueueService(buildService, buildProperties);
+    buildOrchestratorImpl =
+        new BuildOrchestrator(buildQueueService, buildLifecycleService, buildProperties);
+    inMemoryBuildQueueImpl =
+        new InMemoryBuildQueue(buildProperties, buildLifecycleService, buildRepository);
+    databaseBuildQueueImpl =
+        new DatabaseBuildQueue(
+            buildLogService, buildProperties, buildRepository, transactionTemplate);
+    hostMetricsImpl = new HostMetrics(buildProperties);
+    adaptiveConcurrencyImpl =
+        new AdaptiveConcurrency(
+            buildProperties, buildRepository, hostMetrics, runningBuilds, meterRegistry);
+    buildQueueServiceImpl =
+        new BuildQueueService(
+            buildService,
+            buildProperties,
+            inMemoryBuildQueueImpl,
+            meterRegistry,
+            adaptiveConcurrencyImpl);
     buildServiceImpl =
         new BuildService(
+            buildCommands,
             buildExecutor,
             buildLifecycleService,
+            buildLogService,
             buildMapper,
+            buildProperties,
             buildRepository,
+            buildSandboxes,
             gitCommandRunner,
-            buildWorkspaceGuard);
+            gitMirrorCache,
+            buildWorkspaceGuard,
+            ephemeralWorkspaces,
+            runningBuilds);
+    buildRestControllerImpl = new BuildRestController(buildService);
+    buildProperties.getSandbox().setCgroupRoot(tempDir.resolve("cgroup").resolve("jba"));
+    buildSandboxesImpl = new BuildSandboxes(buildProperties);
+    runningBuildsImpl = new RunningBuilds(buildProperties);
+    buildControl = runningBuildsImpl.register(build);
     correlationIdFilterImpl = new CorrelationIdFilter();
-    gitCommandRunnerImpl = new GitCommandRunner(processExecutor);
+    gitCommandRunnerImpl = new GitCommandRunner(buildProperties, processExecutor);
     httpServletRequestImpl = new MockHttpServletRequest();
     httpServletResponseImpl = new MockHttpServletResponse();
     idempotencyServiceImpl = new IdempotencyService(webhookDeliveryRepository);
     ingestionGuardImpl = new IngestionGuard(branchPolicy, idempotencyService);
     modelImpl = new ExtendedModelMap();
-    processExecutorImpl = new ProcessExecutor(processRunner, new OutputCollector());
+    processExecutorImpl =
+        new ProcessExecutor(processRunner, new OutputCollector(), processTreeSampler);
+    processTreeSamplerImpl = new ProcessTreeSampler(buildProperties, runningBuilds);
     projectJavaVersionConverterImpl = new ProjectJavaVersionConverter();
+    buildPriorityConverterImpl = new BuildPriorityConverter();
     processRunnerImpl = new ProcessRunner();
     projectRestControllerImpl = new ProjectRestController(projectService);
     projectMapperImpl = new ProjectMapper();
     projectServiceImpl =
-        new ProjectService(buildMapper, buildRepository, projectMapper, projectRepository);
+        new ProjectService(
+            buildMapper, buildOrchestrator, buildRepository, projectMapper, projectRepository);
     webhookRestControllerImpl = new WebhookRestController(webhookService);
-    webhookServiceImpl = new WebhookService(buildOrchestrator, ingestionGuard, projectRepository);
+    webhookServiceImpl =
+        new WebhookService(
+            branchPolicy, buildOrchestrator, idempotencyService, ingestionGuard, projectRepository);
     webhookSecurityServiceImpl = new WebhookSecurityService();
     webhookSignatureFilterImpl =
         new WebhookSignatureFilter(webhookSecurityService, projectRepository, new ObjectMapper());
     webUiControllerImpl = new WebUiController(buildService, projectService);
     workspacePropertiesImpl = new WorkspaceProperties();
     workspacePropertiesImpl.setBaseDir(tempDir);
+    workspacePropertiesImpl.setMode(SHARED);
+    workspacePropertiesImpl.setMirrorsEnabled(true);
+    workspacePropertiesImpl.setMirrorDir(tempDir.resolve("mirrors"));
+    workspacePropertiesImpl.getGc().setEnabled(true);
+    workspacePropertiesImpl.getGc().setInterval(ofMinutes(10));
+    workspacePropertiesImpl.getGc().setMaxTotalSize(ofMegabytes(20));
+    workspacePropertiesImpl.getGc().setMaxProjectSize(ofMegabytes(5));
+    workspacePropertiesImpl.getGc().setMirrorIdleTimeout(ofDays(30));
+    gitMirrorCacheImpl = new GitMirrorCache(gitCommandRunner, workspacePropertiesImpl);
     workspaceManagerImpl = new WorkspaceManager(workspacePropertiesImpl);
+    ephemeralWorkspacesImpl =
+        new EphemeralWorkspaces(gitCommandRunner, workspaceManagerImpl, workspacePropertiesImpl);
+    workspaceGarbageCollectorImpl =
+        new WorkspaceGarbageCollector(
+            buildRepository,
+            buildToolCachesImpl,
+            ephemeralWorkspacesImpl,
+            gitMirrorCacheImpl,
+            workspacePropertiesImpl,
+            meterRegistry);
 
     when(branchPolicy.isTriggerRef(payloadWithHeaders)).thenReturn(true);
-    when(buildExecutor.build(project.getBuildTool(), workingDir, javaVersion))
-        .thenReturn(buildExecutionResult)
-        .thenReturn(buildExecutionResult);
+    when(buildCommands.resolve(eq(project), any())).thenReturn(buildArguments);
+    when(branchPolicy.triggerOf(payloadWithHeaders)).thenReturn(PUSH);
+    when(branchPolicy.commitShaOf(payloadWithHeaders)).thenReturn(commitSha);
+    when(buildOrchestrator.enqueue(project, PUSH, commitSha)).thenReturn(STARTED);
+    when(buildOrchestrator.enqueue(project, MANUAL)).thenReturn(STARTED);
+    when(buildExecutor.build(
+            eq(project.getBuildTool()),
+            eq(buildArguments),
+            eq(workingDir),
+            eq(javaVersion),
+            any(LogSink.class)))
+        .thenAnswer(
+            inv -> appendAndReturn(inv.getArgument(4), "build's ok\n", buildExecutionResult));
     when(buildLifecycleService.makeInProgress(project)).thenReturn(build);
-    when(buildLifecycleService.createQueued(project)).thenReturn(build);
+    when(buildLifecycleService.markInProgress(build)).thenReturn(true);
+    when(buildQueueService.enqueue(any(QueuedBuild.class))).thenReturn(true);
+    when(buildLifecycleService.createQueued(project, PUSH, HIGH, null)).thenReturn(build);
+    when(buildLifecycleService.createQueued(project, PUSH, HIGH, commitSha)).thenReturn(build);
+    when(buildLifecycleService.createQueued(project, MANUAL, NORMAL, null)).thenReturn(build);
     when(buildMapper.toSummaryDto(build)).thenReturn(buildSummaryDto);
-    when(buildMapper.toDetailsDto(build)).thenReturn(buildDetailsDto);
+    when(buildMapper.toDetailsDto(build, logTail)).thenReturn(buildDetailsDto);
+    when(buildLogService.open(build)).thenReturn(buildLog);
+    when(ephemeralWorkspaces.lockFor(any(File.class))).thenAnswer(_ -> new ReentrantLock());
+    when(buildLogService.tail(build)).thenReturn(logTail);
+    when(buildLogStreamService.stream(eq(buildId), anyLong())).thenReturn(sseEmitter);
+    when(buildRepository.existsById(buildId)).thenReturn(true);
     when(buildRepository.findById(buildId)).thenReturn(Optional.of(build));
     when(buildRepository.findById(nonExistentBuildId)).thenReturn(empty());
+    when(buildRepository.findWithProjectById(buildId)).thenReturn(Optional.of(build));
+    when(runningBuilds.register(any(Build.class))).thenReturn(buildControl);
+    when(buildRepository.transition(buildId, QUEUED, IN_PROGRESS)).thenReturn(1);
+    when(buildRepository.findWithProjectById(nonExistentBuildId)).thenReturn(empty());
     when(buildRepository.findByProject(project)).thenReturn(of(build));
+    when(buildRepository.findResourceUsageByProject()).thenReturn(of(projectResourceUsageDto));
     when(buildRepository.save(any(Build.class))).thenAnswer(inv -> inv.getArgument(0));
-    when(gitCommandRunner.clone(project.getRepositoryUrl(), workingDir))
-        .thenReturn(cloneExecutionResult);
-    when(gitCommandRunner.pull(workingDir)).thenReturn(pullExecutionResult);
-    when(gitCommandRunner.clone(project.getRepositoryUrl(), workingDir))
-        .thenReturn(cloneExecutionResult);
+    when(gitCommandRunner.clone(
+            eq(project.getRepositoryUrl()), eq(workingDir), any(LogSink.class)))
+        .thenAnswer(
+            inv -> appendAndReturn(inv.getArgument(2), "clone's ok\n", cloneExecutionResult));
+    when(gitCommandRunner.fetch(eq(workingDir), any(), any(LogSink.class)))
+        .thenAnswer(
+            inv -> appendAndReturn(inv.getArgument(2), "fetch's ok\n", fetchExecutionResult));
+    when(gitCommandRunner.resetHard(eq(workingDir), any(LogSink.class)))
+        .thenAnswer(
+            inv -> appendAndReturn(inv.getArgument(1), "reset's ok\n", resetExecutionResult));
     when(httpServletRequest.getRequestURI()).thenReturn("/api/projects/123");
     when(idempotencyService.isDuplicate("id")).thenReturn(false);
-    when(processExecutor.execute(workingDir, "mvn", "clean", "install"))
-        .thenReturn(pullExecutionResult);
-    when(processExecutor.execute(workingDir, "gradle", "clean", "build"))
-        .thenReturn(pullExecutionResult);
-    when(processExecutor.execute(workingDir, "git", "pull")).thenReturn(pullExecutionResult);
-    when(processExecutor.execute(workingDir, "git", "clone", project.getRepositoryUrl(), "."))
+    when(processExecutor.execute(eq(workingDir), any(LogSink.class), any(ProcessCommand.class)))
+        .thenReturn(fetchExecutionResult);
+    when(processExecutor.execute(
+            eq(workingDir),
+            any(LogSink.class),
+            eq("git"),
+            eq("fetch"),
+            eq("--depth=1"),
+            eq("origin"),
+            eq("HEAD")))
+        .thenReturn(fetchExecutionResult);
+    when(processExecutor.execute(
+            eq(workingDir),
+            any(LogSink.class),
+            eq("git"),
+            eq("reset"),
+            eq("--hard"),
+            eq("FETCH_HEAD")))
+        .thenReturn(resetExecutionResult);
+    when(processExecutor.execute(
+            eq(workingDir),
+            any(LogSink.class),
+            eq("git"),
+            eq("clone"),
+            eq("--depth=1"),
+            eq("--single-branch"),
+            eq(project.getRepositoryUrl()),
+            eq(".")))
         .thenReturn(cloneExecutionResult);
-    when(processRunner.start(workingDir, cmd)).thenReturn(process);
+    when(processRunner.start(workingDir, ProcessCommand.of(cmd))).thenReturn(process);
     when(projectMapper.toDetailsDto(project)).thenReturn(projectDto);
     when(projectRepository.findAll()).thenReturn(of(project));
     when(projectRepository.findById(projectId)).thenReturn(Optional.of(project));
@@ -274,6 +496,7 @@ public class BaseUnit {
         .thenReturn(Optional.of(project));
     when(projectService.saveProject(postProjectDto)).thenReturn(projectDto);
     when(projectService.findAll()).thenReturn(of(projectDto));
+    when(projectService.findResourceUsage()).thenReturn(of(projectResourceUsageDto));
     when(buildService.findBuildDetailsById(buildId)).thenReturn(buildDetailsDto);
     when(buildService.findBuildDetailsById(nonExistentBuildId))
         .thenThrow(new BuildNotFoundException(nonExistentBuildId));
@@ -286,10 +509,25 @@ public class BaseUnit {
     when(webhookSecurityService.isSignatureValid(validSha256HeaderValue, bodyBytes, webhookSecret))
         .thenReturn(true);
     when(webhookService.handle(payloadWithHeaders)).thenReturn(apiResponse);
-    when(buildWorkspaceGuard.prepareWorkspaceOrFail(
-            eq(project), eq(build), isA(StringBuilder.class)))
+    when(buildWorkspaceGuard.prepareWorkspaceOrFail(eq(project), eq(build), isA(BuildLog.class)))
         .thenReturn(new ValidationResult(true, workingDir));
 
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    doAnswer(
+            inv -> {
+              inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+              return null;
+            })
+        .when(transactionTemplate)
+        .executeWithoutResult(any());
+
     RequestContextHolder.resetRequestAttributes();
   }
+
+  private static ExecutionResult appendAndReturn(
+      LogSink logSink, String output, ExecutionResult result) {
+    logSink.append(output);
+    return result;
+  }
 }
@@ -1,10 +1,13 @@
 package io.github.tomaszziola.javabuildautomaton.webhook;
 
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PULL_REQUEST;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PUSH;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import io.github.tomaszziola.javabuildautomaton.models.WebhookPayloadModel;
 import io.github.tomaszziola.javabuildautomaton.models.WebhookPayloadWithHeadersModel;
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import io.github.tomaszziola.javabuildautomaton.webhook.dto.WebhookPayload.HeadCommit;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -38,4 +41,80 @@ class BranchPolicyTest extends BaseUnit {
     // when & then
     assertThat(branchPolicyImpl.isTriggerRef(payloadWithHeaders)).isFalse();
   }
+
+  @Test
+  @DisplayName("Given push event, when resolving trigger, then return PUSH")
+  void shouldResolvePush_whenPushEvent() {
+    // when & then
+    assertThat(branchPolicyImpl.triggerOf(payloadWithHeaders)).isEqualTo(PUSH);
+  }
+
+  @Test
+  @DisplayName("Given pull request event, when resolving trigger, then return PULL_REQUEST")
+  void shouldResolvePullRequest_whenPullRequestEvent() {
+    // given
+    payloadWithHeaders =
+        WebhookPayloadWithHeadersModel.builder().payload(payload).event("pull_request").build();
+
+    // when & then
+    assertThat(branchPolicyImpl.triggerOf(payloadWithHeaders)).isEqualTo(PULL_REQUEST);
+  }
+
+  @Test
+  @DisplayName("Given push event, when resolving commit, then return the after sha")
+  void shouldResolveAfterSha_whenPushEvent() {
+    // when & then
+    assertThat(branchPolicyImpl.commitShaOf(payloadWithHeaders)).isEqualTo(commitSha);
+  }
+
+  @Test
+  @DisplayName("Given push without after sha, when resolving commit, then return head commit id")
+  void shouldResolveHeadCommit_whenAfterMissing() {
+    // given
+    payload =
+        WebhookPayloadModel.builder()
+            .after(null)
+            .headCommit(new HeadCommit("1111111111111111111111111111111111111111"))
+            .build();
+    payloadWithHeaders = WebhookPayloadWithHeadersModel.builder().payload(payload).build();
+
+    // when & then
+    assertThat(branchPolicyImpl.commitShaOf(payloadWithHeaders))
+        .isEqualTo("1111111111111111111111111111111111111111");
+  }
+
+  @Test
+  @DisplayName("Given pull request event, when resolving commit, then return the head sha")
+  void shouldResolvePullRequestHead_whenPullRequestEvent() {
+    // given
+    payloadWithHeaders =
+        WebhookPayloadWithHeadersModel.builder().payload(payload).event("pull_request").build();
+
+    // when & then
+    assertThat(branchPolicyImpl.commitShaOf(payloadWithHeaders))
+        .isEqualTo(payload.pullRequest().head().sha());
+  }
+
+  @Test
+  @DisplayName("Given deleted branch or malformed sha, when resolving commit, then return null")
+  void shouldIgnoreNullAndMalformedSha() {
+    // given
+    final var deleted =
+        WebhookPayloadModel.builder()
+            .after("0000000000000000000000000000000000000000")
+            .headCommit(null)
+            .build();
+    final var malformed =
+        WebhookPayloadModel.builder().after("--upload-pack=touch").headCommit(null).build();
+
+    // when & then
+    assertThat(
+            branchPolicyImpl.commitShaOf(
+                WebhookPayloadWithHeadersModel.builder().payload(deleted).build()))
+        .isNull();
+    assertThat(
+            branchPolicyImpl.commitShaOf(
+                WebhookPayloadWithHeadersModel.builder().payload(malformed).build()))
+        .isNull();
+  }
 }
@@ -3,6 +3,7 @@ package io.github.tomaszziola.javabuildautomaton.webhook;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
@@ -48,4 +49,24 @@ class IdempotencyServiceTest extends BaseUnit {
     // when & then
     assertThat(result).isTrue();
   }
+
+  @Test
+  @DisplayName("Given seen delivery id, when forgetting, then delete it so redelivery is accepted")
+  void shouldDeleteDelivery_whenForgetting() {
+    // when
+    idempotencyServiceImpl.forget("abc");
+
+    // then
+    verify(webhookDeliveryRepository).deleteByDeliveryId("abc");
+  }
+
+  @Test
+  @DisplayName("Given blank delivery id, when forgetting, then do nothing")
+  void shouldSkipDelete_whenBlank() {
+    // when
+    idempotencyServiceImpl.forget(" ");
+
+    // then
+    verify(webhookDeliveryRepository, never()).deleteByDeliveryId(any());
+  }
 }
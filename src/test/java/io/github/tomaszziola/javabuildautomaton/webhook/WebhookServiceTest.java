@@ -1,16 +1,23 @@
 package io.github.tomaszziola.javabuildautomaton.webhook;
 
+import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.COALESCED;
 import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.FOUND;
 import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.NOT_FOUND;
 import static io.github.tomaszziola.javabuildautomaton.api.dto.ApiStatus.SKIPPED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTrigger.PUSH;
 import static io.github.tomaszziola.javabuildautomaton.webhook.IngestionGuardResult.ALLOW;
 import static io.github.tomaszziola.javabuildautomaton.webhook.IngestionGuardResult.DUPLICATE;
 import static io.github.tomaszziola.javabuildautomaton.webhook.IngestionGuardResult.NON_TRIGGER_REF;
+import static java.time.Duration.ofSeconds;
 import static java.util.Optional.empty;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.github.tomaszziola.javabuildautomaton.buildsystem.EnqueueOutcome;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildQueueFullException;
 import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -59,7 +66,53 @@ class WebhookServiceTest extends BaseUnit {
 
     // then
     assertThat(result.status()).isEqualTo(FOUND);
-    verify(buildOrchestrator).enqueue(project);
+    verify(buildOrchestrator).enqueue(project, PUSH, commitSha);
+  }
+
+  @Test
+  @DisplayName("Given built commit, when handling webhook, then return SKIPPED")
+  void shouldReturnSkipped_whenCommitAlreadyBuilt() {
+    // given
+    when(ingestionGuard.evaluate(payloadWithHeaders)).thenReturn(ALLOW);
+    when(buildOrchestrator.enqueue(project, PUSH, commitSha)).thenReturn(EnqueueOutcome.SKIPPED);
+
+    // when
+    final var result = webhookServiceImpl.handle(payloadWithHeaders);
+
+    // then
+    assertThat(result.status()).isEqualTo(SKIPPED);
+    assertThat(result.message()).contains("Commit " + commitSha + " already built successfully");
+  }
+
+  @Test
+  @DisplayName("Given queued build, when handling webhook, then return COALESCED")
+  void shouldReturnCoalesced_whenMergedIntoQueuedBuild() {
+    // given
+    when(ingestionGuard.evaluate(payloadWithHeaders)).thenReturn(ALLOW);
+    when(buildOrchestrator.enqueue(project, PUSH, commitSha))
+        .thenReturn(EnqueueOutcome.COALESCED);
+
+    // when
+    final var result = webhookServiceImpl.handle(payloadWithHeaders);
+
+    // then
+    assertThat(result.status()).isEqualTo(COALESCED);
+    assertThat(result.message()).endsWith("Merged into a build already queued.");
+  }
+
+  @Test
+  @DisplayName("Given full queue, when handling webhook, then forget delivery and rethrow")
+  void shouldForgetDelivery_whenQueueFull() {
+    // given
+    when(ingestionGuard.evaluate(payloadWithHeaders)).thenReturn(ALLOW);
+    doThrow(new BuildQueueFullException(project.getId(), ofSeconds(30)))
+        .when(buildOrchestrator)
+        .enqueue(project, PUSH, commitSha);
+
+    // when & then
+    assertThatThrownBy(() -> webhookServiceImpl.handle(payloadWithHeaders))
+        .isInstanceOf(BuildQueueFullException.class);
+    verify(idempotencyService).forget(payloadWithHeaders.deliveryId());
   }
 
   @Test
@@ -7,6 +7,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import io.github.tomaszziola.javabuildautomaton.api.dto.PostProjectDto;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildMode;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool;
 import io.github.tomaszziola.javabuildautomaton.buildsystem.exception.BuildNotFoundException;
 import io.github.tomaszziola.javabuildautomaton.project.exception.ProjectNotFoundException;
@@ -95,7 +96,8 @@ class WebUiControllerTest extends BaseUnit {
     assertThat(view).isEqualTo("projects-create");
     assertThat(modelImpl.asMap())
         .containsEntry("request", new PostProjectDto())
-        .containsEntry("buildTools", BuildTool.values());
+        .containsEntry("buildTools", BuildTool.values())
+        .containsEntry("buildModes", BuildMode.values());
   }
 
   @Test
@@ -111,7 +113,9 @@ class WebUiControllerTest extends BaseUnit {
 
     // then
     assertThat(view).isEqualTo("projects-create");
-    assertThat(modelImpl.asMap()).containsEntry("buildTools", BuildTool.values());
+    assertThat(modelImpl.asMap())
+        .containsEntry("buildTools", BuildTool.values())
+        .containsEntry("buildModes", BuildMode.values());
     verify(projectService, never()).saveProject(postProjectDto);
   }
 
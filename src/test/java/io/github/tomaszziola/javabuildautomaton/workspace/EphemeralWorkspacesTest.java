@@ -0,0 +1,86 @@
+package io.github.tomaszziola.javabuildautomaton.workspace;
+
+import static io.github.tomaszziola.javabuildautomaton.workspace.WorkspaceProperties.WorkspaceMode.EPHEMERAL;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.writeString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.ExecutionResult;
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EphemeralWorkspacesTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given workspace mode, when checking, then enable only in ephemeral mode")
+  void enabledOnlyInEphemeralMode() {
+    // when & then
+    assertThat(ephemeralWorkspacesImpl.isEnabled()).isFalse();
+    workspacePropertiesImpl.setMode(EPHEMERAL);
+    assertThat(ephemeralWorkspacesImpl.isEnabled()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Given base checkout, when creating workspace, then add a worktree for the build")
+  void createsWorktreeForBuild() throws IOException {
+    // given
+    when(gitCommandRunner.addWorktree(any(), any(), any())).thenReturn(new ExecutionResult(true));
+
+    // when
+    final var result = ephemeralWorkspacesImpl.create(project, build, workingDir, buildLog);
+
+    // then
+    assertThat(result).isPresent();
+    assertThat(result.get().toPath()).startsWith(tempDir.toRealPath().resolve(".builds"));
+    verify(gitCommandRunner).addWorktree(workingDir, result.get(), buildLog);
+  }
+
+  @Test
+  @DisplayName("Given worktree fails, when creating workspace, then copy the base checkout")
+  void copiesBaseCheckoutWhenWorktreeFails() throws IOException {
+    // given
+    createDirectories(workingDir.toPath().resolve("src"));
+    writeString(workingDir.toPath().resolve("src").resolve("Main.java"), "class Main {}");
+    when(gitCommandRunner.addWorktree(any(), any(), any())).thenReturn(new ExecutionResult(false));
+
+    // when
+    final var result = ephemeralWorkspacesImpl.create(project, build, workingDir, buildLog);
+
+    // then
+    assertThat(result).isPresent();
+    assertThat(result.get().toPath().resolve("src").resolve("Main.java"))
+        .hasContent("class Main {}");
+  }
+
+  @Test
+  @DisplayName("Given build workspace, when releasing, then delete it and prune worktrees")
+  void deletesWorkspaceAndPrunesWorktrees() throws IOException {
+    // given
+    final var buildDir = createDirectories(tempDir.resolve(".builds").resolve("build-42"));
+    writeString(buildDir.resolve("output.log"), "x");
+
+    // when
+    ephemeralWorkspacesImpl.release(workingDir, buildDir.toFile(), buildLog);
+
+    // then
+    assertThat(buildDir).doesNotExist();
+    verify(gitCommandRunner).pruneWorktrees(workingDir, buildLog);
+  }
+
+  @Test
+  @DisplayName("Given shared workspace, when releasing, then keep it")
+  void keepsSharedWorkspace() {
+    // when
+    ephemeralWorkspacesImpl.release(workingDir, workingDir, buildLog);
+
+    // then
+    assertThat(workingDir).isDirectory();
+    verify(gitCommandRunner, never()).pruneWorktrees(any(), any());
+  }
+}
@@ -0,0 +1,146 @@
+package io.github.tomaszziola.javabuildautomaton.workspace;
+
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.writeString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.ExecutionResult;
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class GitMirrorCacheTest extends BaseUnit {
+
+  @Test
+  @DisplayName("Given mirrors disabled, when syncing, then return empty without running git")
+  void skipsWhenMirrorsDisabled() {
+    // given
+    workspacePropertiesImpl.setMirrorsEnabled(false);
+
+    // when
+    final var result = gitMirrorCacheImpl.sync(project.getRepositoryUrl(), buildLog);
+
+    // then
+    assertThat(result).isEmpty();
+    verifyNoInteractions(gitCommandRunner);
+  }
+
+  @Test
+  @DisplayName("Given no mirror yet, when syncing, then create the mirror and return it")
+  void createsMissingMirror() {
+    // given
+    final var mirrorDir = gitMirrorCacheImpl.resolveMirrorPath(project.getRepositoryUrl());
+    when(gitCommandRunner.cloneMirror(project.getRepositoryUrl(), mirrorDir.toFile(), buildLog))
+        .thenReturn(new ExecutionResult(true));
+
+    // when
+    final var result = gitMirrorCacheImpl.sync(project.getRepositoryUrl(), buildLog);
+
+    // then
+    assertThat(result).contains(mirrorDir.toFile());
+    assertThat(mirrorDir.getParent()).isDirectory();
+    verify(gitCommandRunner, never()).updateMirror(any(), any());
+  }
+
+  @Test
+  @DisplayName("Given existing mirror, when syncing, then fetch into it and return it")
+  void updatesExistingMirror() throws IOException {
+    // given
+    final var mirrorDir = gitMirrorCacheImpl.resolveMirrorPath(project.getRepositoryUrl());
+    createDirectories(mirrorDir);
+    when(gitCommandRunner.updateMirror(mirrorDir.toFile(), buildLog))
+        .thenReturn(new ExecutionResult(true));
+
+    // when
+    final var result = gitMirrorCacheImpl.sync(project.getRepositoryUrl(), buildLog);
+
+    // then
+    assertThat(result).contains(mirrorDir.toFile());
+    verify(gitCommandRunner, never()).cloneMirror(any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("Given failing mirror clone, when syncing, then return empty to clone directly")
+  void fallsBackWhenMirrorFails() {
+    // given
+    when(gitCommandRunner.cloneMirror(any(), any(), any())).thenReturn(new ExecutionResult(false));
+
+    // when
+    final var result = gitMirrorCacheImpl.sync(project.getRepositoryUrl(), buildLog);
+
+    // then
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Given repository urls, when resolving mirror paths, then share one per url")
+  void resolvesOneMirrorPerRepositoryUrl() {
+    // when
+    final var first = gitMirrorCacheImpl.resolveMirrorPath(project.getRepositoryUrl());
+    final var again = gitMirrorCacheImpl.resolveMirrorPath(project.getRepositoryUrl());
+    final var other = gitMirrorCacheImpl.resolveMirrorPath("https://github.com/other/repo.git");
+
+    // then
+    assertThat(first).isEqualTo(again).isNotEqualTo(other);
+    assertThat(first.getParent()).isEqualTo(workspacePropertiesImpl.getMirrorDir());
+    assertThat(first.getFileName().toString()).endsWith(".git");
+  }
+
+  @Test
+  @DisplayName(
+      "Given workspace whose alternates point to a missing mirror, when checking, then discard it")
+  void discardsWorkspaceWithMissingMirror() throws IOException {
+    // given
+    final var workspace = tempDir.resolve("orphaned");
+    writeAlternates(workspace, tempDir.resolve("mirrors/gone.git/objects").toString());
+
+    // when
+    final var isDiscarded = gitMirrorCacheImpl.discardIfOrphaned(workspace.toFile());
+
+    // then
+    assertThat(isDiscarded).isTrue();
+    assertThat(workspace).isEmptyDirectory();
+  }
+
+  @Test
+  @DisplayName("Given workspace whose alternates resolve, when checking, then keep it")
+  void keepsWorkspaceWithExistingMirror() throws IOException {
+    // given
+    final var workspace = tempDir.resolve("healthy");
+    final var objects = createDirectories(tempDir.resolve("mirrors/present.git/objects"));
+    writeAlternates(workspace, "# shared\n" + objects);
+
+    // when
+    final var isDiscarded = gitMirrorCacheImpl.discardIfOrphaned(workspace.toFile());
+
+    // then
+    assertThat(isDiscarded).isFalse();
+    assertThat(workspace.resolve(".git/objects/info/alternates")).exists();
+  }
+
+  @Test
+  @DisplayName("Given workspace without alternates, when checking, then keep it")
+  void keepsWorkspaceWithoutAlternates() throws IOException {
+    // given
+    final var workspace = createDirectories(tempDir.resolve("plain/.git")).getParent();
+
+    // when
+    final var isDiscarded = gitMirrorCacheImpl.discardIfOrphaned(workspace.toFile());
+
+    // then
+    assertThat(isDiscarded).isFalse();
+    assertThat(workspace.resolve(".git")).isDirectory();
+  }
+
+  private void writeAlternates(Path workspace, String content) throws IOException {
+    final var info = createDirectories(workspace.resolve(".git/objects/info"));
+    writeString(info.resolve("alternates"), content + "\n");
+  }
+}
@@ -0,0 +1,304 @@
+package io.github.tomaszziola.javabuildautomaton.workspace;
+
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.IN_PROGRESS;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildStatus.QUEUED;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.GRADLE;
+import static io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool.MAVEN;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.write;
+import static java.time.Instant.parse;
+import static java.util.Locale.ROOT;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.util.unit.DataSize.ofBytes;
+
+import io.github.tomaszziola.javabuildautomaton.buildsystem.BuildTool;
+import io.github.tomaszziola.javabuildautomaton.buildsystem.ProjectActivity;
+import io.github.tomaszziola.javabuildautomaton.utils.BaseUnit;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class WorkspaceGarbageCollectorTest extends BaseUnit {
+
+  private static final Instant OLDER_BUILD = parse("2025-08-22T11:10:10Z");
+  private static final Instant NEWER_BUILD = parse("2025-08-23T11:10:10Z");
+
+  @Test
+  @DisplayName(
+      "Given workspaces above total budget, when collecting, then evict least recently built first")
+  void evictsLeastRecentlyBuiltWorkspaceOverBudget() throws IOException {
+    // given
+    final var older = workspace("older", 600);
+    final var newer = workspace("newer", 600);
+    workspacePropertiesImpl.getGc().setMaxTotalSize(ofBytes(1000));
+    when(buildRepository.findProjectActivity())
+        .thenReturn(
+            List.of(
+                new ProjectActivity("older", null, OLDER_BUILD),
+                new ProjectActivity("newer", null, NEWER_BUILD)));
+
+    // when
+    workspaceGarbageCollectorImpl.collect();
+
+    // then
+    assertThat(older).doesNotExist();
+    assertThat(newer).isDirectory();
+    assertThat(gauge("workspace.disk.used")).isEqualTo(600);
+    assertThat(meterRegistry.get("workspace.gc.evictions").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Given workspace above project quota, when collecting, then evict it")
+  void evictsWorkspaceOverProjectQuota() throws IOException {
+    // given
+    final var large = workspace("large", 600);
+    final var small = workspace("small", 100);
+    workspacePropertiesImpl.getGc().setMaxProjectSize(ofBytes(500));
+
+    // when
+    workspaceGarbageCollectorImpl.collect();
+
+    // then
+    assertThat(large).doesNotExist();
+    assertThat(small).isDirectory();
+    assertThat(gauge("workspace.disk.used")).isEqualTo(100);
+  }
+
+  @Test
+  @DisplayName("Given project with build in progress, when collecting, then keep its workspace")
+  void keepsWorkspaceWithRunningBuild() throws IOException {
+    // given
+    final var busy = workspace("busy", 600);
+    workspacePropertiesImpl.getGc().setMaxProjectSize(ofBytes(500));
+    when(buildRepository.findRepositoryNamesByStatus(IN_PROGRESS)).thenReturn(Set.of("busy"));
+
+    // when
+    workspaceGarbageCollectorImpl.collect();
+
+    // then
+    assertThat(busy).isDirectory();
+    assertThat(gauge("workspace.disk.used")).isEqualTo(600);
+  }
+
+  @Test
+  @DisplayName(
+      "Given build started while measuring, when evicting, then re-check under lock and keep it")
+  void keepsWorkspaceOfBuildStartedDuringCollection() throws IOException {
+    // given
+    final var started = workspace("started", 600);
+    workspacePropertiesImpl.getGc().setMaxProjectSize(ofBytes(500));
+    when(buildRepository.findRepositoryNamesByStatus(IN_PROGRESS))
+        .thenReturn(Set.of(), Set.of("started"));
+
+    // when
+    workspaceGarbageCollectorImpl.collect();
+
+    // then
+    assertThat(started).isDirectory();
+  }
+
+  @Test
+  @DisplayName("Given workspace locked by a checkout, when collecting, then keep it")
+  void keepsLockedWorkspace() throws Exception {
+    // given
+    final var locked = workspace("locked", 600);
+    workspacePropertiesImpl.getGc().setMaxProjectSize(ofBytes(500));
+    final var lock = ephemeralWorkspacesImpl.lockFor(locked.toRealPath().toFile());
+    final var isLocked = new CountDownLatch(1);
+    final var release = new CountDownLatch(1);
+    final var holder =
+        Thread.ofVirtual()
+            .start(
+                () -> {
+                  lock.lock();
+                  isLocked.countDown();
+                  try {
+                    release.await();
+                  } catch (InterruptedException _) {
+                    Thread.currentThread().interrupt();
+                  } finally {
+                    lock.unlock();
+                  }
+                });
+    assertThat(isLocked.await(1, SECONDS)).isTrue();
+
+    // when
+    workspaceGarbageCollectorImpl.collect();
+    release.countDown();
+    holder.join();
+
+    // then
+    assertThat(locked).isDirectory();
+  }
+
+  @Test
+  @DisplayName(
+      "Given build workspaces left by finished builds, when collecting, then remove only those")
+  void removesBuildWorkspacesOfFinishedBuilds() throws IOException {
+    // given
+    final var finished = createDirectories(tempDir.resolve(".builds/repo-7"));
+    final var running = createDirectories(tempDir.resolve(".builds/repo-8"));
+    when(buildRepository.findIdsByStatusIn(Set.of(7L, 8L), Set.of(QUEUED, IN_PROGRESS)))
+        .thenReturn(Set.of(8L));
+
+    // when
+    workspaceGarbageCollectorImpl.collect();
+
+    // then
+    assertThat(finished).doesNotExist();
+    assertThat(running).isDirectory();
+  }
+
+  @Test
+  @DisplayName(
+      "Given no build since last measurement, when collecting again, then reuse the cached size")
+  void reusesSizeUntilNextBuild() throws IOException {
+    // given
+    final var projectDir = workspace("project", 100);
+    when(buildRepository.findProjectActivity())
+        .thenReturn(List.of(new ProjectActivity("project", null, OLDER_BUILD)));
+    workspaceGarbageCollectorImpl.collect();
+    write(projectDir.resolve("more.bin"), new byte[50]);
+
+    // when
+    workspaceGarbageCollectorImpl.collect();
+
+    // then
+    assertThat(gauge("workspace.disk.used")).isEqualTo(100);
+
+    // when
+    when(buildRepository.findProjectActivity())
+        .thenReturn(List.of(new ProjectActivity("project", null, Instant.now())));
+    workspaceGarbageCollectorImpl.collect();
+
+    // then
+    assertThat(gauge("workspace.disk.used")).isEqualTo(150);
+  }
+
+  @Test
+  @DisplayName(
+      "Given tool caches above total budget, when collecting, then trim least recently used first")
+  void trimsLeastRecentlyUsedToolCacheOverBudget() throws IOException {
+    // given
+    final var older = toolCache(MAVEN, 17, 600);
+    final var newer = toolCache(GRADLE, 21, 600);
+    buildToolCachesImpl.use(GRADLE, 21).close();
+    workspacePropertiesImpl.getGc().setMaxTotalSize(ofBytes(1000));
+
+    // when
+    workspaceGarbageCollectorImpl.collect();
+
+    // then
+    assertThat(older).doesNotExist();
+    assertThat(newer).isDirectory();
+    assertThat(gauge("workspace.disk.used")).isEqualTo(600);
+  }
+
+  @Test
+  @DisplayName("Given tool cache used by a running build, when collecting, then keep it")
+  void keepsToolCacheInUse() throws IOException {
+    // given
+    final var busy = toolCache(MAVEN, 17, 600);
+    workspacePropertiesImpl.getGc().setMaxTotalSize(ofBytes(500));
+
+    // when
+    try (var _ = buildToolCachesImpl.use(MAVEN, 17)) {
+      workspaceGarbageCollectorImpl.collect();
+    }
+
+    // then
+    assertThat(busy).isDirectory();
+    assertThat(gauge("workspace.disk.used")).isEqualTo(600);
+  }
+
+  @Test
+  @DisplayName(
+      "Given mirrors of recent and removed projects, when collecting, then drop only the orphan")
+  void removesMirrorOfRemovedProject() throws IOException {
+    // given
+    final var recent = mirror(project.getRepositoryUrl(), 300);
+    final var orphan = mirror("https://github.com/example/removed.git", 400);
+    when(buildRepository.findProjectActivity())
+        .thenReturn(
+            List.of(
+                new ProjectActivity(
+                    project.getRepositoryName(), project.getRepositoryUrl(), Instant.now())));
+
+    // when
+    workspaceGarbageCollectorImpl.collect();
+
+    // then
+    assertThat(recent).isDirectory();
+    assertThat(orphan).doesNotExist();
+    assertThat(gauge("workspace.disk.used")).isEqualTo(300);
+  }
+
+  @Test
+  @DisplayName("Given mirror growth above total budget, when collecting, then report it as used")
+  void countsMirrorsInUsedBytes() throws IOException {
+    // given
+    final var projectDir = workspace("project", 100);
+    mirror(project.getRepositoryUrl(), 1000);
+    workspacePropertiesImpl.getGc().setMaxTotalSize(ofBytes(1000));
+    when(buildRepository.findProjectActivity())
+        .thenReturn(
+            List.of(
+                new ProjectActivity("project", project.getRepositoryUrl(), Instant.now())));
+
+    // when
+    workspaceGarbageCollectorImpl.collect();
+
+    // then
+    assertThat(projectDir).doesNotExist();
+    assertThat(gauge("workspace.disk.used")).isEqualTo(1000);
+  }
+
+  @Test
+  @DisplayName("Given collection disabled, when collecting, then keep all workspaces")
+  void keepsWorkspacesWhenDisabled() throws IOException {
+    // given
+    final var large = workspace("large", 600);
+    workspacePropertiesImpl.getGc().setEnabled(false);
+    workspacePropertiesImpl.getGc().setMaxProjectSize(ofBytes(500));
+
+    // when
+    workspaceGarbageCollectorImpl.collect();
+
+    // then
+    assertThat(large).isDirectory();
+  }
+
+  private Path workspace(String name, int bytes) throws IOException {
+    final var dir = createDirectories(tempDir.resolve(name).resolve("target"));
+    write(dir.resolve("output.bin"), new byte[bytes]);
+    return dir.getParent();
+  }
+
+  private Path toolCache(BuildTool buildTool, int javaVersion, int bytes) throws IOException {
+    final var dir =
+        createDirectories(
+            buildToolCachesImpl
+                .rootDir()
+                .resolve(buildTool.name().toLowerCase(ROOT))
+                .resolve("jdk-" + javaVersion));
+    write(dir.resolve("artifact.jar"), new byte[bytes]);
+    return dir;
+  }
+
+  private Path mirror(String repositoryUrl, int bytes) throws IOException {
+    final var dir = createDirectories(gitMirrorCacheImpl.resolveMirrorPath(repositoryUrl));
+    write(dir.resolve("pack.bin"), new byte[bytes]);
+    return dir;
+  }
+
+  private double gauge(String name) {
+    return meterRegistry.get(name).gauge().value();
+  }
+}
@@ -94,4 +94,29 @@ class WorkspaceManagerTest extends BaseUnit {
         .isInstanceOf(WorkspaceException.class)
         .hasMessageStartingWith("Failed to create project workspace directory: ");
   }
+
+  @Test
+  @DisplayName(
+      "Given project and build, when creating build workspace, then resolve fresh path under base")
+  void createBuildWorkspaceResolvesFreshPathUnderBase() throws IOException {
+    var leftover = tempDir.toRealPath().resolve(".builds").resolve("java-build-automaton-42");
+    Files.createDirectories(leftover.resolve("target"));
+
+    var result = workspaceManagerImpl.createBuildWorkspaceFor(project, 42L);
+
+    assertThat(result).isEqualTo(leftover);
+    assertThat(result).doesNotExist();
+    assertThat(result.getParent()).isDirectory();
+  }
+
+  @Test
+  @DisplayName(
+      "Given repo resolves outside builds dir, when creating build workspace, then throw WorkspaceException")
+  void createBuildWorkspaceThrowsWhenOutsideBuildsDir() {
+    setField(project, Project::setRepositoryName, ".." + getDefault().getSeparator() + "outside");
+
+    assertThatThrownBy(() -> workspaceManagerImpl.createBuildWorkspaceFor(project, 42L))
+        .isInstanceOf(WorkspaceException.class)
+        .hasMessageContaining("Workspace path resolved outside of base directory.");
+  }
 }